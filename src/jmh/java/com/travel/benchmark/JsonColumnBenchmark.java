@@ -0,0 +1,118 @@
+package com.travel.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.travel.mapper.typehandler.JsonColumnCodec;
+import com.travel.mapper.typehandler.JsonListTypeHandler;
+import com.travel.mapper.typehandler.JsonObjectTypeHandler;
+import org.apache.ibatis.type.TypeHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON字段行映射基准：1000行查询结果，每行一个列表字段（images）和一个对象字段（specifications）
+ *
+ * mode：
+ * - legacy：优化前的 TypeHandler（每个处理器私有 ObjectMapper，每行解析 TypeReference）
+ * - eager：JsonColumnCodec 共享读取器，立即解析
+ * - lazy：JsonColumnCodec 延迟解析
+ *
+ * touch=false 模拟列表页不使用JSON字段，touch=true 模拟每行都读取JSON字段（延迟解析的最坏情况）。
+ *
+ * 运行：mvn -P benchmarks test-compile exec:exec
+ *
+ * @author travel-platform
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonColumnBenchmark {
+
+    private static final int ROWS = 1000;
+
+    @Param({"legacy", "eager", "lazy"})
+    private String mode;
+
+    @Param({"false", "true"})
+    private boolean touch;
+
+    private String[] images;
+    private String[] specifications;
+    private int cursor;
+    private ResultSet resultSet;
+    private TypeHandler<List<String>> listHandler;
+    private TypeHandler<Map<String, Object>> mapHandler;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        images = new String[ROWS];
+        specifications = new String[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            StringBuilder list = new StringBuilder("[");
+            for (int j = 0; j < 6; j++) {
+                if (j > 0) {
+                    list.append(',');
+                }
+                list.append("\"https://travel-bucket.oss-cn-hangzhou.aliyuncs.com/attraction/image/20260101/")
+                    .append(Integer.toHexString(i * 31 + j)).append("_r240-480.webp\"");
+            }
+            images[i] = list.append(']').toString();
+            specifications[i] = "{\"duration\":\"" + (i % 8 + 1) + "小时\",\"level\":\"5A\",\"openTime\":\"08:00-18:00\","
+                + "\"capacity\":" + (1000 + i) + ",\"indoor\":false,\"tags\":[\"亲子\",\"自然\",\"摄影\"]}";
+        }
+        resultSet = (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+            new Class<?>[]{ResultSet.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getString":
+                        return "images".equals(args[0]) ? images[cursor] : specifications[cursor];
+                    case "wasNull":
+                        return false;
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            });
+
+        if ("legacy".equals(mode)) {
+            listHandler = new LegacyJsonListTypeHandler();
+            mapHandler = new LegacyJsonObjectTypeHandler();
+        } else {
+            JsonColumnCodec.configure(new ObjectMapper(), "lazy".equals(mode));
+            listHandler = new JsonListTypeHandler();
+            mapHandler = new JsonObjectTypeHandler();
+        }
+    }
+
+    @Benchmark
+    public void mapRows(Blackhole blackhole) throws Exception {
+        for (cursor = 0; cursor < ROWS; cursor++) {
+            List<String> list = listHandler.getResult(resultSet, "images");
+            Map<String, Object> map = mapHandler.getResult(resultSet, "specifications");
+            if (touch) {
+                blackhole.consume(list.size());
+                blackhole.consume(map.get("level"));
+            } else {
+                blackhole.consume(list);
+                blackhole.consume(map);
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.travel.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 优化前的 JSON List TypeHandler（基准对照，与 JsonColumnCodec 之前的实现相同）
+ * 用于处理 List<String> 和 JSON 字段之间的转换
+ * 
+ * @author travel-platform
+ */
+public class LegacyJsonListTypeHandler extends BaseTypeHandler<List<String>> {
+    
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    
+    @Override
+    public void setNonNullParameter(PreparedStatement ps, int i, List<String> parameter, JdbcType jdbcType) throws SQLException {
+        try {
+            String json = objectMapper.writeValueAsString(parameter);
+            ps.setString(i, json);
+        } catch (Exception e) {
+            throw new SQLException("Error converting List to JSON", e);
+        }
+    }
+    
+    @Override
+    public List<String> getNullableResult(ResultSet rs, String columnName) throws SQLException {
+        String json = rs.getString(columnName);
+        return parseJson(json);
+    }
+    
+    @Override
+    public List<String> getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+        String json = rs.getString(columnIndex);
+        return parseJson(json);
+    }
+    
+    @Override
+    public List<String> getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+        String json = cs.getString(columnIndex);
+        return parseJson(json);
+    }
+    
+    private List<String> parseJson(String json) {
+        if (json == null || json.trim().isEmpty()) {
+            return new ArrayList<>();
+        }
+        try {
+            return objectMapper.readValue(json, new TypeReference<List<String>>() {});
+        } catch (Exception e) {
+            // 如果解析失败，返回空列表
+            return new ArrayList<>();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.travel.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 标记OSS URL字段，在JSON序列化时改写为公开URL
+ * 
+ * 支持 String 和 List&lt;String&gt; 类型的字段，由 {@link com.travel.util.OssUrlModule} 在输出响应时处理，
+ * 对象本身不会被修改，因此缓存中的实体可以直接返回。
+ * 
+ * @author travel-platform
+ */
+@Documented
+@Target({ElementType.FIELD, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface OssUrl {
+    
+    /**
+     * 目标显示宽度（像素），大于0时选择对应的多宽度副本（见 {@link com.travel.util.ImageVariantUtil}）
+     * 默认0表示使用原图
+     */
+    int width() default 0;
+}
@@ -22,9 +22,9 @@ public class CacheConstants {
     public static final String SMS_CODE_CACHE = "smsCodeCache";
     
     /**
-     * 小程序配置缓存Bean名称
+     * 小程序配置快照Bean名称（见 MiniProgramConfigRegistry）
      */
-    public static final String MINIPROGRAM_CONFIG_CACHE = "miniprogramConfigCache";
+    public static final String MINIPROGRAM_CONFIG_CACHE = "miniProgramConfigRegistry";
     
     /**
      * 首页数据缓存Bean名称
@@ -47,9 +47,9 @@ public class CacheConstants {
     public static final String ARTICLE_DETAIL_CACHE = "articleDetailCache";
     
     /**
-     * 文章阅读量防刷缓存Bean名称
+     * 文章阅读量防刷过滤器Bean名称
      */
-    public static final String ARTICLE_VIEW_CACHE = "articleViewCache";
+    public static final String ARTICLE_VIEW_CACHE = "articleViewFilter";
     
     /**
      * 小程序Session缓存Bean名称
@@ -155,9 +155,9 @@ public class CacheConstants {
         ARTICLE("article", "文章详情缓存", ARTICLE_DETAIL_CACHE),
         
         /**
-         * 文章阅读量缓存
+         * 文章阅读量防刷过滤器
          */
-        ARTICLE_VIEW("articleView", "文章阅读量缓存", ARTICLE_VIEW_CACHE),
+        ARTICLE_VIEW("articleView", "文章阅读量防刷过滤器", ARTICLE_VIEW_CACHE),
         
         /**
          * 小程序Session缓存
@@ -0,0 +1,53 @@
+package com.travel.config;
+
+import com.travel.service.AccessLogService;
+import com.travel.util.SecurityUtils;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * 小程序访问日志拦截器
+ * 记录小程序接口的成功GET请求（作为页面访问），只写入内存缓冲区，不访问数据库
+ * 
+ * @author travel-platform
+ */
+@Component
+public class AccessLogInterceptor implements HandlerInterceptor {
+    
+    @Autowired
+    private AccessLogService accessLogService;
+    
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (!"GET".equals(request.getMethod()) || response.getStatus() >= 400 || ex != null) {
+            return;
+        }
+        // 使用接口路径模板作为页面（如 /api/v1/miniprogram/detail/attraction/{id}），避免路径参数导致页面数无限增长
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String page = pattern != null ? pattern.toString() : request.getRequestURI();
+        accessLogService.record(page, getVisitorKey(request));
+    }
+    
+    /**
+     * 访客标识：登录用户使用用户ID，匿名访客使用客户端IP和User-Agent
+     */
+    private String getVisitorKey(HttpServletRequest request) {
+        Long userId = SecurityUtils.getCurrentMiniprogramUserId();
+        if (userId != null) {
+            return "user:" + userId;
+        }
+        String ip = request.getHeader("X-Forwarded-For");
+        if (ip != null && !ip.isEmpty() && !"unknown".equalsIgnoreCase(ip)) {
+            // 多级代理时取第一个IP
+            int index = ip.indexOf(',');
+            ip = index > 0 ? ip.substring(0, index).trim() : ip.trim();
+        } else {
+            ip = request.getRemoteAddr();
+        }
+        return "anonymous:" + ip + "|" + request.getHeader("User-Agent");
+    }
+}
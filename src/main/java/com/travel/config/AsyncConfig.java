@@ -3,6 +3,7 @@ package com.travel.config;
 import com.travel.common.CacheConstants;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.lang.NonNull;
@@ -70,6 +71,65 @@ public class AsyncConfig implements AsyncConfigurer {
         return executor;
     }
 
+    /**
+     * 创建OSS分片上传执行器
+     * 多个大文件上传共享同一个有界线程池，分片直接从临时文件流式读取，不在堆内缓存整个文件；
+     * 批量删除的多个 DeleteObjects 请求也在此并行执行
+     * 
+     * @param ossProperties OSS配置属性
+     * @return 线程池任务执行器
+     */
+    @Bean(name = "ossUploadExecutor")
+    public ThreadPoolTaskExecutor ossUploadExecutor(OssProperties ossProperties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        int threads = ossProperties.getUploadThreads() != null && ossProperties.getUploadThreads() > 0
+                ? ossProperties.getUploadThreads() : 4;
+        
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(threads * 50);
+        executor.setKeepAliveSeconds(60);
+        executor.setThreadNamePrefix("oss-upload-");
+        
+        // 队列满时由调用线程上传分片，形成自然的背压
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+        
+        log.info("OSS分片上传执行器已初始化 - 线程数: {}", threads);
+        
+        return executor;
+    }
+
+    /**
+     * 创建外部数据同步执行器
+     * 定时同步的各个同步配置在此并行执行（见 SyncJobService）；队列满时拒绝，任务记为失败，不阻塞调度线程
+     * 
+     * @param threads 线程数
+     * @return 线程池任务执行器
+     */
+    @Bean(name = "syncExecutor")
+    public ThreadPoolTaskExecutor syncExecutor(@Value("${travel.sync.executor-threads:4}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        int size = threads > 0 ? threads : 4;
+        
+        executor.setCorePoolSize(size);
+        executor.setMaxPoolSize(size);
+        executor.setQueueCapacity(100);
+        executor.setKeepAliveSeconds(60);
+        executor.setThreadNamePrefix("sync-job-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        
+        // 关闭时不等待同步完成：已写入的批次保留，租约到期后其他节点可继续同步
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        
+        log.info("外部数据同步执行器已初始化 - 线程数: {}", size);
+        
+        return executor;
+    }
+
     /**
      * 配置默认的异步任务执行器
      * 
@@ -2,7 +2,8 @@ package com.travel.config;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
-import com.travel.entity.MiniProgramConfig;
+import com.travel.util.RotatingBloomFilter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -38,17 +39,6 @@ public class CacheConfig {
                 .build();
     }
     
-    /**
-     * 小程序配置缓存
-     */
-    @Bean("miniprogramConfigCache")
-    public Cache<String, MiniProgramConfig> miniprogramConfigCache() {
-        return Caffeine.newBuilder()
-                .maximumSize(1000)
-                .expireAfterWrite(10, TimeUnit.MINUTES)
-                .build();
-    }
-    
     /**
      * 首页数据缓存
      */
@@ -94,14 +84,17 @@ public class CacheConfig {
     }
     
     /**
-     * 文章阅读量防刷缓存（记录用户访问时间）
+     * 文章阅读量防刷过滤器（同一用户在时间窗口内多次访问同一文章只统计一次）
+     * 内存固定，窗口内的访问量超过预计值时误判率上升（部分首次访问不计阅读量）
      */
-    @Bean("articleViewCache")
-    public Cache<String, Long> articleViewCache() {
-        return Caffeine.newBuilder()
-                .maximumSize(100000)
-                .expireAfterWrite(5, TimeUnit.MINUTES)
-                .build();
+    @Bean("articleViewFilter")
+    public RotatingBloomFilter articleViewFilter(
+            @Value("${travel.article.view-dedup.window-seconds:300}") long windowSeconds,
+            @Value("${travel.article.view-dedup.expected-views:500000}") long expectedViews,
+            @Value("${travel.article.view-dedup.false-positive-probability:0.001}") double falsePositiveProbability,
+            @Value("${travel.article.view-dedup.generations:4}") int generations) {
+        return new RotatingBloomFilter(expectedViews, falsePositiveProbability,
+                TimeUnit.SECONDS.toMillis(windowSeconds), generations);
     }
     
     /**
@@ -0,0 +1,32 @@
+package com.travel.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.travel.mapper.typehandler.JsonColumnCodec;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * JSON字段TypeHandler配置
+ * 使用应用的 ObjectMapper（见 WebMvcConfig）创建 JsonListTypeHandler、JsonObjectTypeHandler 共用的读写器
+ * 
+ * @author travel-platform
+ */
+@Slf4j
+@Configuration
+public class JsonTypeHandlerConfig {
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${travel.mybatis.lazy-json:true}")
+    private boolean lazyJson;
+    
+    @PostConstruct
+    public void init() {
+        JsonColumnCodec.configure(objectMapper, lazyJson);
+        log.info("JSON字段TypeHandler已配置，延迟解析: {}", lazyJson);
+    }
+}
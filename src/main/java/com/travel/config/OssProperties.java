@@ -40,6 +40,26 @@ public class OssProperties {
      */
     private String bucketName;
     
+    /**
+     * 分片上传阈值（字节，超过此大小的文件使用分片上传，默认：10MB）
+     */
+    private Long multipartThreshold = 10L * 1024 * 1024;
+    
+    /**
+     * 分片大小（字节，OSS要求最小100KB，默认：5MB）
+     */
+    private Long partSize = 5L * 1024 * 1024;
+    
+    /**
+     * 分片上传并发线程数（默认：4）
+     */
+    private Integer uploadThreads = 4;
+    
+    /**
+     * 单个分片失败后的最大重试次数（默认：3）
+     */
+    private Integer partMaxRetries = 3;
+    
     /**
      * 检查配置是否完整
      * @return true-配置完整，false-配置不完整
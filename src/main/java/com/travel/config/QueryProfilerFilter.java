@@ -0,0 +1,54 @@
+package com.travel.config;
+
+import com.travel.util.QueryProfiler;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * 请求级SQL语句统计过滤器（N+1查询检测，仅开发和测试环境启用）
+ * 统计每个请求执行的Mapper语句，超过阈值时输出报告；严格模式下超过阈值的请求直接失败，用于测试和压测中发现问题
+ * 
+ * @author travel-platform
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "travel.query-profiler.enabled", havingValue = "true")
+public class QueryProfilerFilter extends OncePerRequestFilter {
+    
+    @Value("${travel.query-profiler.repeat-threshold:5}")
+    private int repeatThreshold;
+    
+    @Value("${travel.query-profiler.max-statements:30}")
+    private int maxStatements;
+    
+    @Value("${travel.query-profiler.strict:false}")
+    private boolean strict;
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        QueryProfiler.start(repeatThreshold, maxStatements, strict);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            QueryProfiler.Profile profile = QueryProfiler.stop();
+            if (profile != null && profile.getTotal() > 0) {
+                if (profile.hasViolations()) {
+                    log.warn("请求执行的SQL语句过多: {} {} 共{}条, 问题: {}, 明细: {}", request.getMethod(),
+                            request.getRequestURI(), profile.getTotal(), profile.getViolations(), profile.getStatementCounts());
+                } else {
+                    log.debug("请求执行SQL语句: {} {} 共{}条", request.getMethod(), request.getRequestURI(), profile.getTotal());
+                }
+            }
+        }
+    }
+}
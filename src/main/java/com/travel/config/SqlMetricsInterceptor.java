@@ -0,0 +1,140 @@
+package com.travel.config;
+
+import com.travel.service.SqlMetricsService;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.type.TypeHandlerRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * MyBatis SQL执行统计拦截器
+ * 记录每条Mapper语句的耗时、行数和是否失败（见 {@link SqlMetricsService}），SQL和绑定参数只在需要记录慢查询或采样日志时才格式化
+ *
+ * @author travel-platform
+ */
+@Component
+@ConditionalOnProperty(name = "travel.sql-metrics.enabled", havingValue = "true", matchIfMissing = true)
+@Intercepts({
+    @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}),
+    @Signature(type = Executor.class, method = "query",
+               args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+    @Signature(type = Executor.class, method = "query",
+               args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class})
+})
+public class SqlMetricsInterceptor implements Interceptor {
+
+    /**
+     * 单个参数值的最大输出长度
+     */
+    private static final int MAX_PARAMETER_LENGTH = 200;
+
+    @Autowired
+    private SqlMetricsService sqlMetricsService;
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Object[] args = invocation.getArgs();
+        MappedStatement mappedStatement = (MappedStatement) args[0];
+        Object parameter = args[1];
+        long start = System.nanoTime();
+        Object result = null;
+        boolean failed = false;
+        try {
+            result = invocation.proceed();
+            return result;
+        } catch (Throwable e) {
+            failed = true;
+            throw e;
+        } finally {
+            long elapsedNanos = System.nanoTime() - start;
+            BoundSql boundSql = args.length == 6 ? (BoundSql) args[5] : null;
+            sqlMetricsService.record(mappedStatement.getId(), elapsedNanos, countRows(result), failed,
+                    () -> formatSql(getBoundSql(mappedStatement, parameter, boundSql)),
+                    () -> formatParameters(mappedStatement.getConfiguration(), getBoundSql(mappedStatement, parameter, boundSql)));
+        }
+    }
+
+    private static BoundSql getBoundSql(MappedStatement mappedStatement, Object parameter, BoundSql boundSql) {
+        return boundSql != null ? boundSql : mappedStatement.getBoundSql(parameter);
+    }
+
+    /**
+     * 返回行数（查询）或影响行数（更新），未知时返回-1
+     */
+    private static long countRows(Object result) {
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Number) {
+            return ((Number) result).longValue();
+        }
+        return -1;
+    }
+
+    private static String formatSql(BoundSql boundSql) {
+        return boundSql.getSql().replaceAll("\\s+", " ").trim();
+    }
+
+    /**
+     * 按占位符顺序格式化绑定参数（取值方式与 DefaultParameterHandler 一致）
+     */
+    private static String formatParameters(Configuration configuration, BoundSql boundSql) {
+        List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
+        if (parameterMappings == null || parameterMappings.isEmpty()) {
+            return "[]";
+        }
+        Object parameterObject = boundSql.getParameterObject();
+        TypeHandlerRegistry typeHandlerRegistry = configuration.getTypeHandlerRegistry();
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        for (ParameterMapping parameterMapping : parameterMappings) {
+            if (parameterMapping.getMode() == ParameterMode.OUT) {
+                continue;
+            }
+            String property = parameterMapping.getProperty();
+            Object value;
+            try {
+                if (boundSql.hasAdditionalParameter(property)) {
+                    value = boundSql.getAdditionalParameter(property);
+                } else if (parameterObject == null) {
+                    value = null;
+                } else if (typeHandlerRegistry.hasTypeHandler(parameterObject.getClass())) {
+                    value = parameterObject;
+                } else {
+                    value = configuration.newMetaObject(parameterObject).getValue(property);
+                }
+            } catch (Exception e) {
+                value = "?";
+            }
+            joiner.add(formatValue(value));
+        }
+        return joiner.toString();
+    }
+
+    private static String formatValue(Object value) {
+        if (value == null) {
+            return "null";
+        }
+        if (value instanceof byte[]) {
+            return "<" + ((byte[]) value).length + " bytes>";
+        }
+        String text = value.toString();
+        return text.length() > MAX_PARAMETER_LENGTH ? text.substring(0, MAX_PARAMETER_LENGTH) + "..." : text;
+    }
+}
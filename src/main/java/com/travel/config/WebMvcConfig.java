@@ -6,10 +6,16 @@ import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateDeserializer;
 import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
 import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateSerializer;
 import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
+import com.travel.util.OssUrlModule;
+import com.travel.util.OssUrlUtil;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -21,15 +27,26 @@ import java.time.format.DateTimeFormatter;
  * @author travel-platform
  */
 @Configuration
-public class WebMvcConfig {
+public class WebMvcConfig implements WebMvcConfigurer {
     // 静态资源访问配置已移至 FileUploadConfig
     
+    @Autowired
+    private AccessLogInterceptor accessLogInterceptor;
+    
+    /**
+     * 注册小程序访问日志拦截器（PV/UV统计）
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(accessLogInterceptor).addPathPatterns("/api/v1/miniprogram/**");
+    }
+    
     /**
-     * 配置Jackson ObjectMapper，支持日期和日期时间格式
+     * 配置Jackson ObjectMapper，支持日期和日期时间格式，并在序列化时改写 @OssUrl 字段
      */
     @Bean
     @Primary
-    public ObjectMapper objectMapper(Jackson2ObjectMapperBuilder builder) {
+    public ObjectMapper objectMapper(Jackson2ObjectMapperBuilder builder, ObjectProvider<OssUrlUtil> ossUrlUtilProvider) {
         // 定义日期格式：支持 "yyyy-MM-dd" 格式
         DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
         // 定义日期时间格式：支持 "yyyy-MM-dd HH:mm:ss" 格式
@@ -46,7 +63,7 @@ public class WebMvcConfig {
         
         // 构建ObjectMapper，启用JSR310模块支持
         return builder
-                .modules(module)
+                .modules(module, new OssUrlModule(ossUrlUtilProvider))
                 .build();
     }
 }
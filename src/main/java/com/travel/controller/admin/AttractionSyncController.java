@@ -6,6 +6,8 @@ import com.travel.entity.SyncConfig;
 import com.travel.entity.SyncLog;
 import com.travel.service.AttractionSyncService;
 import com.travel.service.SyncConfigService;
+import com.travel.service.SyncJob;
+import com.travel.service.SyncJobService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
@@ -29,6 +31,9 @@ public class AttractionSyncController {
     @Autowired
     private SyncConfigService syncConfigService;
     
+    @Autowired
+    private SyncJobService syncJobService;
+    
     @Autowired
     private AttractionSyncService attractionSyncService;
     
@@ -93,6 +98,33 @@ public class AttractionSyncController {
         return Result.success(syncLog);
     }
     
+    /**
+     * 查询景点同步任务（等待、执行中和最近结束的任务，含实时进度）
+     */
+    @GetMapping("/jobs")
+    @Operation(summary = "查询同步任务")
+    public Result<List<SyncJob>> listJobs() {
+        return Result.success(syncJobService.listJobs("ATTRACTION"));
+    }
+    
+    /**
+     * 查询同步任务进度
+     */
+    @GetMapping("/jobs/{jobId}")
+    @Operation(summary = "查询同步任务进度")
+    public Result<SyncJob> getJob(@PathVariable String jobId) {
+        return Result.success(syncJobService.getJob(jobId));
+    }
+    
+    /**
+     * 取消同步任务（执行中的任务在下一批记录写入前停止）
+     */
+    @PostMapping("/jobs/{jobId}/cancel")
+    @Operation(summary = "取消同步任务")
+    public Result<Boolean> cancelJob(@PathVariable String jobId) {
+        return Result.success(syncJobService.cancel(jobId));
+    }
+    
     /**
      * 分页查询同步日志
      */
@@ -6,12 +6,15 @@ import com.travel.dto.OrderTrendResponse;
 import com.travel.dto.SalesStatsResponse;
 import com.travel.service.CacheService;
 import com.travel.service.DashboardService;
+import com.travel.service.StatisticsRollupService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.Map;
 
 /**
@@ -31,6 +34,9 @@ public class DashboardController {
     @Autowired
     private CacheService cacheService;
     
+    @Autowired
+    private StatisticsRollupService statisticsRollupService;
+    
     /**
      * 获取仪表盘统计数据
      */
@@ -63,6 +69,21 @@ public class DashboardController {
         return Result.success(response);
     }
     
+    /**
+     * 重建统计汇总（历史数据回填或手工修正订单数据后使用，当天数据实时统计无需重建）
+     */
+    @PostMapping("/statistics/rebuild")
+    @Operation(summary = "重建统计汇总")
+    public Result<Integer> rebuildStatistics(
+            @RequestParam("startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam("endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            return Result.error("开始日期不能晚于结束日期");
+        }
+        int days = statisticsRollupService.rebuild(startDate, endDate);
+        return Result.success("统计汇总重建完成，共 " + days + " 天", days);
+    }
+    
     /**
      * 清除所有缓存
      */
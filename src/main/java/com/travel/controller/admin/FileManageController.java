@@ -7,6 +7,7 @@ import com.travel.dto.FileStatisticsResponse;
 import com.travel.entity.FileRecord;
 import com.travel.service.FileRecordService;
 import com.travel.service.FileService;
+import com.travel.service.FileStatisticsService;
 import com.travel.service.OssService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
@@ -39,6 +40,9 @@ public class FileManageController {
     @Autowired
     private FileService fileService;
     
+    @Autowired
+    private FileStatisticsService fileStatisticsService;
+    
     /**
      * 查询文件列表（分页）
      * 
@@ -177,7 +181,7 @@ public class FileManageController {
             if ("OSS".equals(record.getStorageType())) {
                 // 删除OSS文件
                 try {
-                    deleteSuccess = ossService.deleteFile(record.getFilePath());
+                    deleteSuccess = fileService.deleteOssObject(record);
                 } catch (Exception e) {
                     log.error("删除OSS文件失败：{}", record.getFilePath(), e);
                     return Result.error("删除OSS文件失败：" + e.getMessage());
@@ -222,6 +226,7 @@ public class FileManageController {
      * @return 统计信息
      */
     @GetMapping("/statistics")
+    @SuppressWarnings("unchecked")
     public Result<FileStatisticsResponse> getFileStatistics() {
         try {
             Map<String, Object> stats = fileRecordService.getFileStatistics();
@@ -233,6 +238,8 @@ public class FileManageController {
             response.setOssSize((Long) stats.get("ossSize"));
             response.setLocalCount((Integer) stats.get("localCount"));
             response.setLocalSize((Long) stats.get("localSize"));
+            response.setCountByFileType((Map<String, Long>) stats.get("countByFileType"));
+            response.setSizeByFileType((Map<String, Long>) stats.get("sizeByFileType"));
             
             // 格式化文件大小
             response.setTotalSizeFormatted(formatFileSize(response.getTotalSize()));
@@ -246,6 +253,21 @@ public class FileManageController {
         }
     }
     
+    /**
+     * 核对文件统计（与文件记录表比较并校正汇总数据，平时由定时任务执行）
+     * 
+     * @return 校正的汇总行数
+     */
+    @PostMapping("/statistics/reconcile")
+    public Result<Integer> reconcileFileStatistics() {
+        try {
+            return Result.success(fileStatisticsService.reconcile());
+        } catch (Exception e) {
+            log.error("核对文件统计失败", e);
+            return Result.error("核对文件统计失败：" + e.getMessage());
+        }
+    }
+    
     /**
      * 获取文件的公开URL（已废弃：OSS bucket已改为"私有写公有读"模式，不再需要签名URL）
      * 保留此接口用于向后兼容，直接返回公开URL
@@ -294,35 +316,35 @@ public class FileManageController {
             Map<Long, String> urlMap = new HashMap<>();
             
             // 解析ID列表
-            String[] idArray = ids.split(",");
-            for (String idStr : idArray) {
+            List<Long> idList = new ArrayList<>();
+            for (String idStr : ids.split(",")) {
                 try {
-                    Long id = Long.parseLong(idStr.trim());
-                    
-                    // 查询文件记录
-                    FileRecord record = fileRecordService.getFileRecordById(id);
-                    if (record == null) {
-                        continue;
-                    }
-                    
-                    // OSS bucket已改为"私有写公有读"模式，直接返回公开URL
-                    // 如果是签名URL，提取基础URL部分（兼容历史数据）
-                    String fileUrl = record.getFileUrl();
-                    int queryIndex = fileUrl.indexOf('?');
-                    if (queryIndex > 0) {
-                        String queryString = fileUrl.substring(queryIndex + 1);
-                        if (queryString.contains("Expires=") || queryString.contains("Signature=")) {
-                            // 从签名URL提取公开URL
-                            fileUrl = fileUrl.substring(0, queryIndex);
-                        }
-                    }
-                    
-                    urlMap.put(id, fileUrl);
+                    idList.add(Long.parseLong(idStr.trim()));
                 } catch (NumberFormatException e) {
                     log.warn("无效的文件ID：{}", idStr);
                 }
             }
             
+            // 一次查询所有文件记录
+            for (FileRecord record : fileRecordService.getFileRecordsByIds(idList)) {
+                // OSS bucket已改为"私有写公有读"模式，直接返回公开URL
+                // 如果是签名URL，提取基础URL部分（兼容历史数据）
+                String fileUrl = record.getFileUrl();
+                if (fileUrl == null) {
+                    continue;
+                }
+                int queryIndex = fileUrl.indexOf('?');
+                if (queryIndex > 0) {
+                    String queryString = fileUrl.substring(queryIndex + 1);
+                    if (queryString.contains("Expires=") || queryString.contains("Signature=")) {
+                        // 从签名URL提取公开URL
+                        fileUrl = fileUrl.substring(0, queryIndex);
+                    }
+                }
+                
+                urlMap.put(record.getId(), fileUrl);
+            }
+            
             return Result.success(urlMap);
         } catch (Exception e) {
             log.error("批量获取文件URL失败", e);
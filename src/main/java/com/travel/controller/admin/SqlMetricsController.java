@@ -0,0 +1,66 @@
+package com.travel.controller.admin;
+
+import com.travel.common.Result;
+import com.travel.service.SqlMetricsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SQL执行统计控制器
+ *
+ * @author travel-platform
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/admin/sql-metrics")
+@Tag(name = "SQL执行统计", description = "Mapper语句耗时统计和慢查询（管理员）")
+public class SqlMetricsController {
+
+    @Autowired
+    private SqlMetricsService sqlMetricsService;
+
+    /**
+     * 查询各语句的执行统计
+     */
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "语句执行统计", description = "按总耗时降序返回各Mapper语句的执行次数、耗时分位和平均行数")
+    public Result<Map<String, Object>> getStatementStats(
+            @Parameter(description = "返回数量", example = "50")
+            @RequestParam(defaultValue = "50") Integer limit) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("slowThresholdMs", sqlMetricsService.getSlowThresholdMs());
+        data.put("statements", sqlMetricsService.getStatementStats(Math.max(1, limit)));
+        return Result.success(data);
+    }
+
+    /**
+     * 查询最近的慢查询
+     */
+    @GetMapping("/slow")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "最近的慢查询", description = "返回最近的慢查询样本（包含SQL和绑定参数），最新的在前")
+    public Result<List<SqlMetricsService.SlowQuerySample>> getSlowSamples() {
+        return Result.success(sqlMetricsService.getSlowSamples());
+    }
+
+    /**
+     * 清空统计数据
+     */
+    @DeleteMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "清空统计", description = "清空语句执行统计和慢查询样本")
+    public Result<Void> reset() {
+        sqlMetricsService.reset();
+        return Result.success();
+    }
+}
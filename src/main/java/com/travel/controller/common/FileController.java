@@ -1,7 +1,10 @@
 package com.travel.controller.common;
 
 import com.travel.common.Result;
+import com.travel.dto.ImageProcessingJobResponse;
+import com.travel.exception.BusinessException;
 import com.travel.service.FileService;
+import com.travel.service.ImageProcessingService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
@@ -20,6 +23,9 @@ public class FileController {
     @Autowired
     private FileService fileService;
     
+    @Autowired
+    private ImageProcessingService imageProcessingService;
+    
     /**
      * 上传图片
      * 
@@ -45,6 +51,46 @@ public class FileController {
         }
     }
     
+    /**
+     * 异步上传图片
+     * 原图上传完成后立即返回任务信息，WebP压缩在后台完成，通过任务ID轮询结果
+     * 
+     * @param file 图片文件
+     * @param module 模块名称（可选，默认为common）
+     * @param directoryId 目录ID（可选，如果提供则使用目录路径作为module）
+     * @return 图片处理任务信息
+     */
+    @PostMapping("/upload/image/async")
+    public Result<ImageProcessingJobResponse> uploadImageAsync(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "module", required = false, defaultValue = "common") String module,
+            @RequestParam(value = "directoryId", required = false) Long directoryId) {
+        try {
+            ImageProcessingJobResponse job = fileService.uploadImageAsync(file, module, directoryId);
+            return Result.success(job);
+        } catch (IllegalArgumentException e) {
+            log.warn("图片上传失败: {}", e.getMessage());
+            return Result.error(e.getMessage());
+        } catch (BusinessException e) {
+            log.warn("图片上传被拒绝: {}", e.getMessage());
+            return Result.error(e.getCode(), e.getMessage());
+        } catch (Exception e) {
+            log.error("图片上传异常", e);
+            return Result.error("图片上传失败：" + e.getMessage());
+        }
+    }
+    
+    /**
+     * 查询图片处理任务状态
+     * 
+     * @param jobId 任务ID
+     * @return 图片处理任务信息
+     */
+    @GetMapping("/upload/image/jobs/{jobId}")
+    public Result<ImageProcessingJobResponse> getImageJob(@PathVariable String jobId) {
+        return Result.success(imageProcessingService.getJob(jobId));
+    }
+    
     /**
      * 上传视频
      * 
@@ -1,7 +1,10 @@
 package com.travel.controller.miniprogram;
 
 import com.travel.common.Result;
+import com.travel.dto.GeoPointResponse;
+import com.travel.dto.GeoViewportResponse;
 import com.travel.entity.MapLocation;
+import com.travel.service.GeoLocationIndex;
 import com.travel.service.MapService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -9,6 +12,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
@@ -27,6 +31,9 @@ public class MapController {
     @Autowired
     private MapService mapService;
     
+    @Autowired
+    private GeoLocationIndex geoLocationIndex;
+    
     /**
      * 查询启用的地图列表
      */
@@ -37,4 +44,46 @@ public class MapController {
         List<MapLocation> result = mapService.list(1);
         return Result.success(result);
     }
+    
+    /**
+     * 附近的景点、酒店、地图位置（按距离由近到远）
+     * 
+     * @param lat 纬度
+     * @param lng 经度
+     * @param radius 半径（米）
+     * @param type 类型：ATTRACTION-景点，HOTEL-酒店，MAP-地图位置，为空时查询全部
+     * @param limit 最大返回数量
+     */
+    @GetMapping("/nearby")
+    @Operation(summary = "查询附近位置")
+    public Result<List<GeoPointResponse>> nearby(
+            @RequestParam Double lat,
+            @RequestParam Double lng,
+            @RequestParam(defaultValue = "5000") Double radius,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) Integer limit) {
+        return Result.success(geoLocationIndex.nearby(lat, lng, radius, type, limit));
+    }
+    
+    /**
+     * 地图视野内的位置（低缩放级别时返回聚合点）
+     * 
+     * @param south 南边界纬度
+     * @param west 西边界经度
+     * @param north 北边界纬度
+     * @param east 东边界经度
+     * @param zoom 地图缩放级别
+     * @param type 类型：ATTRACTION-景点，HOTEL-酒店，MAP-地图位置，为空时查询全部
+     */
+    @GetMapping("/viewport")
+    @Operation(summary = "查询地图视野内的位置")
+    public Result<GeoViewportResponse> viewport(
+            @RequestParam Double south,
+            @RequestParam Double west,
+            @RequestParam Double north,
+            @RequestParam Double east,
+            @RequestParam(required = false) Integer zoom,
+            @RequestParam(required = false) String type) {
+        return Result.success(geoLocationIndex.viewport(south, west, north, east, zoom, type));
+    }
 }
@@ -1,10 +1,8 @@
 package com.travel.controller.miniprogram;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.travel.common.Result;
-import com.travel.entity.MiniProgramConfig;
-import com.travel.service.MiniProgramConfigService;
+import com.travel.service.MiniProgramConfigRegistry;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
@@ -26,9 +24,7 @@ import java.util.Map;
 public class MiniprogramController {
     
     @Autowired
-    private MiniProgramConfigService miniProgramConfigService;
-    
-    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private MiniProgramConfigRegistry miniProgramConfigRegistry;
     
     /**
      * 获取小程序 Logo 配置
@@ -38,20 +34,10 @@ public class MiniprogramController {
     @Operation(summary = "获取小程序 Logo 配置")
     public Result<Map<String, String>> getLogoConfig() {
         try {
-            MiniProgramConfig config = miniProgramConfigService.getByConfigKey("MINIPROGRAM_LOGO");
-            String logoUrl = null;
-            
-            if (config != null && config.getStatus() == 1 && config.getConfigValue() != null) {
-                try {
-                    Map<String, Object> configValue = objectMapper.readValue(
-                        config.getConfigValue(), 
-                        new TypeReference<Map<String, Object>>() {}
-                    );
-                    logoUrl = (String) configValue.get("logoUrl");
-                } catch (Exception e) {
-                    log.warn("解析 Logo 配置失败，配置键: MINIPROGRAM_LOGO", e);
-                }
-            }
+            // 从配置快照中读取（未启用或配置值无效时为null）
+            JsonNode config = miniProgramConfigRegistry.getJson("MINIPROGRAM_LOGO");
+            String logoUrl = config != null && config.path("logoUrl").isTextual()
+                    ? config.get("logoUrl").asText() : null;
             
             Map<String, String> result = new HashMap<>();
             result.put("logoUrl", logoUrl);
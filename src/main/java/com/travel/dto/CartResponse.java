@@ -1,5 +1,6 @@
 package com.travel.dto;
 
+import com.travel.annotation.OssUrl;
 import com.travel.entity.Attraction;
 import com.travel.entity.Cart;
 import com.travel.entity.HotelRoom;
@@ -74,6 +75,7 @@ public class CartResponse implements Serializable {
      * 商品图片（第一张）
      * 注意：OSS文件返回的是签名URL，可直接使用
      */
+    @OssUrl
     private String itemImage;
     
     /**
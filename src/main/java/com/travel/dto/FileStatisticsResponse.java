@@ -2,6 +2,8 @@ package com.travel.dto;
 
 import lombok.Data;
 
+import java.util.Map;
+
 /**
  * 文件统计响应DTO
  * 
@@ -40,6 +42,16 @@ public class FileStatisticsResponse {
      */
     private Long localSize;
     
+    /**
+     * 按文件类型的文件数（image/video）
+     */
+    private Map<String, Long> countByFileType;
+    
+    /**
+     * 按文件类型的文件大小（字节）
+     */
+    private Map<String, Long> sizeByFileType;
+    
     /**
      * 总文件大小（格式化后）
      */
@@ -0,0 +1,48 @@
+package com.travel.dto;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * 地图聚合点响应DTO（低缩放级别时多个位置合并显示）
+ * 
+ * @author travel-platform
+ */
+@Data
+public class GeoClusterResponse implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * 聚合中心纬度（所含位置的平均值）
+     */
+    private Double latitude;
+    
+    /**
+     * 聚合中心经度（所含位置的平均值）
+     */
+    private Double longitude;
+    
+    /**
+     * 位置数量
+     */
+    private Integer count;
+    
+    /**
+     * 按类型的位置数量
+     */
+    private Map<String, Integer> countByType;
+    
+    /**
+     * 所含位置的范围（点击聚合点时缩放到此范围）
+     */
+    private Double south;
+    
+    private Double west;
+    
+    private Double north;
+    
+    private Double east;
+}
@@ -0,0 +1,56 @@
+package com.travel.dto;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 地图位置点响应DTO（附近查询、视野查询）
+ * 
+ * @author travel-platform
+ */
+@Data
+public class GeoPointResponse implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * 类型：ATTRACTION-景点，HOTEL-酒店，MAP-地图位置
+     */
+    private String type;
+    
+    /**
+     * ID（景点ID/酒店ID/地图位置ID）
+     */
+    private Long id;
+    
+    /**
+     * 名称
+     */
+    private String name;
+    
+    /**
+     * 城市
+     */
+    private String city;
+    
+    /**
+     * 地址
+     */
+    private String address;
+    
+    /**
+     * 纬度
+     */
+    private Double latitude;
+    
+    /**
+     * 经度
+     */
+    private Double longitude;
+    
+    /**
+     * 与查询位置的距离（米）
+     */
+    private Long distance;
+}
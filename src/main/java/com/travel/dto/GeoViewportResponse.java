@@ -0,0 +1,37 @@
+package com.travel.dto;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 地图视野查询响应DTO
+ * 
+ * @author travel-platform
+ */
+@Data
+public class GeoViewportResponse implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * 视野内的位置总数
+     */
+    private Integer total;
+    
+    /**
+     * 是否已聚合（低缩放级别或位置过多时为true）
+     */
+    private Boolean clustered;
+    
+    /**
+     * 位置点（按与视野中心的距离排序；聚合时为单独成组的位置）
+     */
+    private List<GeoPointResponse> points;
+    
+    /**
+     * 聚合点（按位置数量降序，未聚合时为空）
+     */
+    private List<GeoClusterResponse> clusters;
+}
@@ -1,11 +1,13 @@
 package com.travel.dto;
 
+import com.travel.annotation.OssUrl;
+import com.travel.util.ImageVariantUtil;
 import lombok.Data;
 import java.util.List;
 
 /**
  * 首页数据响应DTO
- * 注意：所有URL字段（image、video、icon等）都是签名URL（OSS文件），可直接使用
+ * 注意：所有URL字段（image、video、icon等）标注了 @OssUrl，在序列化时转换为公开URL，可直接使用
  * 
  * @author travel-platform
  */
@@ -61,11 +63,13 @@ public class HomeResponse {
          * 图片URL（类型为image时使用）
          * 注意：OSS文件返回的是签名URL，可直接使用
          */
+        @OssUrl
         private String image;
         /**
          * 视频URL（类型为video时使用）
          * 注意：OSS文件返回的是签名URL，可直接使用
          */
+        @OssUrl
         private String video;
         /**
          * 链接地址（旧版本，兼容使用）
@@ -99,8 +103,9 @@ public class HomeResponse {
         private Long id;
         private String name;
         /**
-         * 图片URL（OSS文件返回签名URL）
+         * 图片URL（OSS文件返回签名URL，列表卡片使用小宽度副本）
          */
+        @OssUrl(width = ImageVariantUtil.CARD_WIDTH)
         private String image;
         private String city;
         private java.math.BigDecimal price;
@@ -115,8 +120,9 @@ public class HomeResponse {
         private Long id;
         private String name;
         /**
-         * 图片URL（OSS文件返回签名URL）
+         * 图片URL（OSS文件返回签名URL，列表卡片使用小宽度副本）
          */
+        @OssUrl(width = ImageVariantUtil.CARD_WIDTH)
         private String image;
         private String city;
         private java.math.BigDecimal price;
@@ -132,8 +138,9 @@ public class HomeResponse {
         private Long id;
         private String name;
         /**
-         * 图片URL（OSS文件返回签名URL）
+         * 图片URL（OSS文件返回签名URL，列表卡片使用小宽度副本）
          */
+        @OssUrl(width = ImageVariantUtil.CARD_WIDTH)
         private String image;
         private java.math.BigDecimal price;
         private java.math.BigDecimal originalPrice;
@@ -151,6 +158,7 @@ public class HomeResponse {
         /**
          * 图标URL（OSS文件返回签名URL）
          */
+        @OssUrl(width = ImageVariantUtil.THUMBNAIL_WIDTH)
         private String icon;
         private Integer level;
         private Long parentId;
@@ -181,6 +189,7 @@ public class HomeResponse {
         /**
          * 图标图片URL（OSS文件返回签名URL）
          */
+        @OssUrl(width = ImageVariantUtil.THUMBNAIL_WIDTH)
         private String icon;
         /**
          * 外部链接地址（仅h5_link类型使用）
@@ -208,6 +217,7 @@ public class HomeResponse {
         /**
          * 分类图标URL（OSS文件返回签名URL）
          */
+        @OssUrl(width = ImageVariantUtil.THUMBNAIL_WIDTH)
         private String categoryIcon;
         /**
          * 该分类下的商品列表
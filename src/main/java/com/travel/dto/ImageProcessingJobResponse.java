@@ -0,0 +1,82 @@
+package com.travel.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 图片处理任务响应DTO
+ * 用于异步图片上传后轮询WebP压缩结果
+ *
+ * @author travel-platform
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "图片处理任务响应")
+public class ImageProcessingJobResponse {
+
+    /**
+     * 任务ID
+     */
+    @Schema(description = "任务ID", example = "image-job-3f2a9c1e")
+    private String jobId;
+
+    /**
+     * 文件记录ID（上传时创建的占位记录）
+     */
+    @Schema(description = "文件记录ID", example = "1024")
+    private Long fileRecordId;
+
+    /**
+     * 任务状态
+     * PENDING: 等待中
+     * RUNNING: 处理中
+     * COMPLETED: 已完成
+     * FAILED: 失败
+     */
+    @Schema(description = "任务状态", example = "PENDING",
+            allowableValues = {"PENDING", "RUNNING", "COMPLETED", "FAILED"})
+    private String status;
+
+    /**
+     * 原图URL（上传后立即可用）
+     */
+    @Schema(description = "原图URL")
+    private String originalUrl;
+
+    /**
+     * 处理后的图片URL（任务完成后返回）
+     */
+    @Schema(description = "处理后的图片URL")
+    private String fileUrl;
+
+    /**
+     * 当前等待处理的任务总数
+     */
+    @Schema(description = "当前等待处理的任务总数", example = "3")
+    private Integer queueSize;
+
+    /**
+     * 错误信息
+     */
+    @Schema(description = "错误信息")
+    private String errorMessage;
+
+    /**
+     * 提交时间
+     */
+    @Schema(description = "提交时间", example = "2026-01-24T12:00:00")
+    private LocalDateTime submitTime;
+
+    /**
+     * 完成时间
+     */
+    @Schema(description = "完成时间", example = "2026-01-24T12:00:03")
+    private LocalDateTime endTime;
+}
@@ -39,4 +39,9 @@ public class SyncConfigUpdateRequest {
      * 状态：0-禁用，1-启用
      */
     private Integer status;
+    
+    /**
+     * 增量同步参数名（如 updatedSince），为空时不按更新时间拉取
+     */
+    private String deltaParam;
 }
@@ -16,7 +16,7 @@ public class SyncLogListRequest {
     private String syncType;
     
     /**
-     * 状态：SUCCESS-成功，FAILED-失败
+     * 状态：RUNNING-执行中，SUCCESS-成功，FAILED-失败，CANCELLED-已取消
      */
     private String status;
     
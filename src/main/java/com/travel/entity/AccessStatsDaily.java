@@ -0,0 +1,43 @@
+package com.travel.entity;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 每日访问统计实体类
+ * 
+ * @author travel-platform
+ */
+@Data
+public class AccessStatsDaily implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * 统计日期
+     */
+    private LocalDate statDate;
+    
+    /**
+     * 访问次数
+     */
+    private Long pv;
+    
+    /**
+     * 访客数（估算）
+     */
+    private Long uv;
+    
+    /**
+     * UV估算器数据（HyperLogLog寄存器）
+     */
+    private byte[] uvSketch;
+    
+    /**
+     * 更新时间
+     */
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,37 @@
+package com.travel.entity;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 每分钟访问统计实体类
+ * 
+ * @author travel-platform
+ */
+@Data
+public class AccessStatsMinute implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * 统计分钟
+     */
+    private LocalDateTime statMinute;
+    
+    /**
+     * 页面（接口路径模板）
+     */
+    private String page;
+    
+    /**
+     * 访问次数
+     */
+    private Long pv;
+    
+    /**
+     * 访客数（估算）
+     */
+    private Long uv;
+}
@@ -113,6 +113,12 @@ public class Article implements Serializable {
     @JsonInclude(JsonInclude.Include.NON_NULL)
     private List<Long> tagIds;
     
+    /**
+     * 标签列表（非数据库字段，用于前端展示）
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<ArticleTag> tags;
+    
     /**
      * 文章图片URL列表（非数据库字段，用于前端展示）
      */
@@ -0,0 +1,36 @@
+package com.travel.entity;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 文章计数增量（阅读量、点赞量、收藏量批量写入）
+ * 
+ * @author travel-platform
+ */
+@Data
+public class ArticleCounterDelta implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * 文章ID
+     */
+    private Long articleId;
+    
+    /**
+     * 阅读量增量
+     */
+    private long viewDelta;
+    
+    /**
+     * 点赞量增量（可为负数）
+     */
+    private long likeDelta;
+    
+    /**
+     * 收藏量增量（可为负数）
+     */
+    private long favoriteDelta;
+}
@@ -1,5 +1,6 @@
 package com.travel.entity;
 
+import com.travel.annotation.OssUrl;
 import lombok.Data;
 import java.io.Serializable;
 import java.math.BigDecimal;
@@ -59,6 +60,7 @@ public class Attraction implements Serializable {
     /**
      * 图片列表（JSON数组）
      */
+    @OssUrl
     private List<String> images;
     
     /**
@@ -141,6 +143,11 @@ public class Attraction implements Serializable {
      */
     private LocalDateTime syncTime;
     
+    /**
+     * 同步指纹（上次同步的外部记录内容摘要，内容未变化的记录不再处理）
+     */
+    private String syncFingerprint;
+    
     /**
      * 创建时间
      */
@@ -45,6 +45,16 @@ public class Directory implements Serializable {
      */
     private Integer sort;
     
+    /**
+     * 直属文件数量（不含子目录）
+     */
+    private Integer fileCount;
+    
+    /**
+     * 直属文件总大小（字节，不含子目录）
+     */
+    private Long fileSize;
+    
     /**
      * 创建时间
      */
@@ -59,4 +69,14 @@ public class Directory implements Serializable {
      * 子目录列表（用于树形结构）
      */
     private List<Directory> children;
+    
+    /**
+     * 文件数量合计（含所有子目录，用于树形结构）
+     */
+    private Long totalFileCount;
+    
+    /**
+     * 文件总大小合计（字节，含所有子目录，用于树形结构）
+     */
+    private Long totalFileSize;
 }
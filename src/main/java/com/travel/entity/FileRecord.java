@@ -54,6 +54,16 @@ public class FileRecord implements Serializable {
      */
     private String fileExtension;
     
+    /**
+     * 原始文件内容SHA-256（十六进制，用于去重）
+     */
+    private String contentHash;
+    
+    /**
+     * 多宽度副本宽度列表（逗号分隔，如 "240,480"，无副本时为空）
+     */
+    private String variantWidths;
+    
     /**
      * 模块名称（common/article/banner等）
      */
@@ -0,0 +1,42 @@
+package com.travel.entity;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 文件统计汇总实体类（按存储类型和文件类型）
+ * 
+ * @author travel-platform
+ */
+@Data
+public class FileStats implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * 存储类型（OSS/LOCAL）
+     */
+    private String storageType;
+    
+    /**
+     * 文件类型（image/video）
+     */
+    private String fileType;
+    
+    /**
+     * 文件数量
+     */
+    private Long fileCount;
+    
+    /**
+     * 文件总大小（字节）
+     */
+    private Long fileSize;
+    
+    /**
+     * 更新时间
+     */
+    private LocalDateTime updatedAt;
+}
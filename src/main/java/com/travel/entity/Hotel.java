@@ -96,6 +96,11 @@ public class Hotel implements Serializable {
      */
     private LocalDateTime syncTime;
     
+    /**
+     * 同步指纹（上次同步的外部记录内容摘要，内容未变化的记录不再处理）
+     */
+    private String syncFingerprint;
+    
     /**
      * 创建时间
      */
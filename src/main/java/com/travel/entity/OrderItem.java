@@ -1,5 +1,6 @@
 package com.travel.entity;
 
+import com.travel.annotation.OssUrl;
 import lombok.Data;
 import java.io.Serializable;
 import java.math.BigDecimal;
@@ -44,6 +45,7 @@ public class OrderItem implements Serializable {
     /**
      * 商品图片URL（订单创建时的快照）
      */
+    @OssUrl
     private String itemImage;
     
     /**
@@ -0,0 +1,59 @@
+package com.travel.entity;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 每日统计汇总实体类
+ * 
+ * @author travel-platform
+ */
+@Data
+public class StatsDaily implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * 统计日期
+     */
+    private LocalDate statDate;
+    
+    /**
+     * 订单数
+     */
+    private Long orderCount;
+    
+    /**
+     * 已支付订单数（PAID/USED/COMPLETED）
+     */
+    private Long paidOrderCount;
+    
+    /**
+     * 订单总金额
+     */
+    private BigDecimal orderAmount;
+    
+    /**
+     * 已支付订单实付金额
+     */
+    private BigDecimal paidAmount;
+    
+    /**
+     * 当天下单用户数
+     */
+    private Long activeUsers;
+    
+    /**
+     * 当天新增用户数
+     */
+    private Long newUsers;
+    
+    /**
+     * 汇总时间
+     */
+    private LocalDateTime updatedAt;
+}
@@ -59,6 +59,26 @@ public class SyncConfig implements Serializable {
      */
     private LocalDateTime lastSyncTime;
     
+    /**
+     * 增量同步参数名（如 updatedSince），为空时不按更新时间拉取
+     */
+    private String deltaParam;
+    
+    /**
+     * 增量同步起点（上次成功同步的开始时间）
+     */
+    private String syncCursor;
+    
+    /**
+     * 上次成功同步的响应ETag
+     */
+    private String etag;
+    
+    /**
+     * 上次成功同步的响应Last-Modified
+     */
+    private String lastModified;
+    
     /**
      * 创建时间
      */
@@ -30,7 +30,7 @@ public class SyncLog implements Serializable {
     private Long syncConfigId;
     
     /**
-     * 状态：SUCCESS-成功，FAILED-失败
+     * 状态：RUNNING-执行中，SUCCESS-成功，FAILED-失败，CANCELLED-已取消
      */
     private String status;
     
@@ -0,0 +1,55 @@
+package com.travel.mapper;
+
+import com.travel.entity.AccessStatsDaily;
+import com.travel.entity.AccessStatsMinute;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 访问统计Mapper接口
+ * 
+ * @author travel-platform
+ */
+public interface AccessStatisticsMapper {
+    
+    /**
+     * 批量累加每分钟访问统计（访问次数累加，访客数取较大值）
+     */
+    int batchUpsertMinute(@Param("list") List<AccessStatsMinute> list);
+    
+    /**
+     * 每日统计行不存在时插入空行
+     */
+    int insertDailyIfAbsent(@Param("statDate") LocalDate statDate);
+    
+    /**
+     * 加锁查询指定日期的访问统计（需在事务中调用）
+     */
+    AccessStatsDaily selectDailyForUpdate(@Param("statDate") LocalDate statDate);
+    
+    /**
+     * 累加每日访问次数并写入UV估算器
+     * 
+     * @param statDate 统计日期
+     * @param pvDelta 新增访问次数
+     * @param uv 访客数（估算）
+     * @param uvSketch UV估算器数据（已与保存的估算器合并）
+     */
+    int updateDaily(@Param("statDate") LocalDate statDate,
+                    @Param("pvDelta") long pvDelta,
+                    @Param("uv") long uv,
+                    @Param("uvSketch") byte[] uvSketch);
+    
+    /**
+     * 查询指定日期的访问统计
+     */
+    AccessStatsDaily selectDaily(@Param("statDate") LocalDate statDate);
+    
+    /**
+     * 查询日期范围内的每日访问统计（包含UV估算器数据），按日期升序
+     */
+    List<AccessStatsDaily> selectDailyRange(@Param("startDate") LocalDate startDate,
+                                            @Param("endDate") LocalDate endDate);
+}
@@ -1,6 +1,7 @@
 package com.travel.mapper;
 
 import com.travel.entity.Article;
+import com.travel.entity.ArticleCounterDelta;
 import org.apache.ibatis.annotations.Param;
 
 import java.util.List;
@@ -60,29 +61,9 @@ public interface ArticleMapper {
     int deleteByIds(@Param("ids") List<Long> ids);
     
     /**
-     * 增加阅读量
+     * 批量累加阅读量、点赞量、收藏量
      */
-    int incrementViewCount(@Param("id") Long id);
-    
-    /**
-     * 增加点赞量
-     */
-    int incrementLikeCount(@Param("id") Long id);
-    
-    /**
-     * 减少点赞量
-     */
-    int decrementLikeCount(@Param("id") Long id);
-    
-    /**
-     * 增加收藏量
-     */
-    int incrementFavoriteCount(@Param("id") Long id);
-    
-    /**
-     * 减少收藏量
-     */
-    int decrementFavoriteCount(@Param("id") Long id);
+    int batchAddCounts(@Param("list") List<ArticleCounterDelta> list);
     
     /**
      * 小程序：分页查询文章列表（支持分类、标签筛选，排序）
@@ -17,6 +17,11 @@ public interface ArticleTagRelationMapper {
      */
     List<ArticleTagRelation> selectByArticleId(@Param("articleId") Long articleId);
     
+    /**
+     * 根据文章ID列表批量查询标签关联列表
+     */
+    List<ArticleTagRelation> selectByArticleIds(@Param("articleIds") List<Long> articleIds);
+    
     /**
      * 根据标签ID查询文章关联列表
      */
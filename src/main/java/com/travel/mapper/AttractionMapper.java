@@ -52,4 +52,26 @@ public interface AttractionMapper {
      * 检查景点是否有关联订单
      */
     long countOrdersByAttractionId(@Param("attractionId") Long attractionId);
+    
+    /**
+     * 查询所有景点（同步时建立自然键索引）
+     */
+    List<Attraction> selectAll();
+    
+    /**
+     * 批量插入景点（回填ID）
+     */
+    int batchInsert(List<Attraction> attractions);
+    
+    /**
+     * 按ID批量更新景点的同步字段（只更新已存在的行）
+     * @return 匹配的行数，小于列表大小时说明有景点已被删除
+     */
+    int batchUpdate(List<Attraction> attractions);
+    
+    /**
+     * 查询上架且有坐标的景点（只包含ID、名称、地址、坐标，地理位置索引用）
+     * @param ids ID列表，为空时查询全部
+     */
+    List<Attraction> selectGeoList(@Param("ids") List<Long> ids);
 }
@@ -55,6 +55,56 @@ public interface DirectoryMapper {
      */
     int delete(@Param("id") Long id);
     
+    /**
+     * 查询目录及其所有子目录（按物化路径前缀匹配）
+     * @param path 目录路径
+     * @return 目录列表（包含该目录本身）
+     */
+    List<Directory> selectSubtree(@Param("path") String path);
+    
+    /**
+     * 批量删除目录
+     * @param ids 目录ID列表
+     * @return 影响行数
+     */
+    int deleteByIds(@Param("ids") List<Long> ids);
+    
+    /**
+     * 累加目录直属文件统计
+     * @param path 目录路径（文件记录的 module）
+     * @param countDelta 文件数量增量
+     * @param sizeDelta 文件大小增量（字节）
+     * @return 影响行数（路径不是目录时为0）
+     */
+    int incrementFileStats(@Param("path") String path, @Param("countDelta") long countDelta,
+                           @Param("sizeDelta") long sizeDelta);
+    
+    /**
+     * 按文件记录重新计算目录直属文件统计
+     * @param id 目录ID
+     * @return 影响行数
+     */
+    int refreshFileStats(@Param("id") Long id);
+    
+    /**
+     * 从文件记录表实时汇总每个目录的直属文件（核对用）
+     * @return 目录列表（只包含 id、path、fileCount、fileSize）
+     */
+    List<Directory> selectActualFileStats();
+    
+    /**
+     * 目录统计仍为核对前读取的值时更新为实际值（核对期间有文件变更时不更新）
+     * @param id 目录ID
+     * @param expectedCount 核对前读取的文件数量
+     * @param expectedSize 核对前读取的文件大小
+     * @param fileCount 实际文件数量
+     * @param fileSize 实际文件大小
+     * @return 影响行数
+     */
+    int compareAndSetFileStats(@Param("id") Long id,
+                               @Param("expectedCount") int expectedCount, @Param("expectedSize") long expectedSize,
+                               @Param("fileCount") int fileCount, @Param("fileSize") long fileSize);
+    
     /**
      * 检查目录名称是否在同一父目录下已存在
      * @param name 目录名称
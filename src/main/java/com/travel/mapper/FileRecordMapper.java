@@ -22,6 +22,13 @@ public interface FileRecordMapper {
      */
     int insert(FileRecord record);
     
+    /**
+     * 更新文件存储信息（文件名、路径、URL、大小、扩展名）
+     * @param record 文件记录对象
+     * @return 影响行数
+     */
+    int update(FileRecord record);
+    
     /**
      * 根据ID查询文件记录
      * @param id 文件ID
@@ -29,6 +36,13 @@ public interface FileRecordMapper {
      */
     FileRecord selectById(@Param("id") Long id);
     
+    /**
+     * 根据ID查询文件记录并加行锁（需在事务中调用，用于按删除/更新前的数据修正统计）
+     * @param id 文件ID
+     * @return 文件记录对象
+     */
+    FileRecord selectByIdForUpdate(@Param("id") Long id);
+    
     /**
      * 条件查询文件记录列表
      * @param params 查询参数（fileType, module, storageType, keyword, startDate, endDate, offset, limit）
@@ -65,29 +79,41 @@ public interface FileRecordMapper {
     List<FileRecord> selectByIds(@Param("ids") List<Long> ids);
     
     /**
-     * 查询所有文件的总大小
-     * @return 总大小（字节）
+     * 根据ID列表查询文件记录并加行锁（需在事务中调用）
+     * @param ids 文件ID列表
+     * @return 文件记录列表（已被其他事务删除的记录不会返回）
      */
-    Long selectTotalSize();
+    List<FileRecord> selectByIdsForUpdate(@Param("ids") List<Long> ids);
     
     /**
-     * 按存储类型查询文件总大小
-     * @param storageType 存储类型（OSS/LOCAL）
-     * @return 总大小（字节）
+     * 根据内容哈希查询已上传的OSS文件
+     * @param contentHash 文件内容SHA-256
+     * @param fileType 文件类型（image/video）
+     * @return 最早的一条文件记录，不存在时返回null
      */
-    Long selectSizeByStorageType(@Param("storageType") String storageType);
+    FileRecord selectByContentHash(@Param("contentHash") String contentHash, @Param("fileType") String fileType);
     
     /**
-     * 按存储类型统计文件数量
-     * @param storageType 存储类型（OSS/LOCAL）
-     * @return 文件数量
+     * 统计引用同一OSS对象的文件记录数量
+     * @param contentHash 文件内容SHA-256
+     * @param filePath 文件路径（相对路径）
+     * @return 引用数量
+     */
+    int countReferences(@Param("contentHash") String contentHash, @Param("filePath") String filePath);
+    
+    /**
+     * 查询指定ID以外、与给定文件路径共享OSS对象的文件记录
+     * @param filePaths 文件路径列表（相对路径）
+     * @param excludeIds 排除的文件ID列表（本次要删除的记录）
+     * @return 文件记录列表
      */
-    int selectCountByStorageType(@Param("storageType") String storageType);
+    List<FileRecord> selectOtherReferences(@Param("filePaths") List<String> filePaths,
+                                           @Param("excludeIds") List<Long> excludeIds);
     
     /**
-     * 统计指定目录路径下的文件数量（支持路径前缀匹配）
+     * 检查指定目录路径下是否存在文件（支持路径前缀匹配）
      * @param modulePath 目录路径（如 "common" 或 "common/subfolder"）
-     * @return 文件数量
+     * @return 是否存在
      */
-    int countByModulePath(@Param("modulePath") String modulePath);
+    boolean existsByModulePath(@Param("modulePath") String modulePath);
 }
@@ -0,0 +1,54 @@
+package com.travel.mapper;
+
+import com.travel.entity.FileStats;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 文件统计汇总Mapper接口
+ * 
+ * @author travel-platform
+ */
+@Mapper
+public interface FileStatsMapper {
+    
+    /**
+     * 累加文件统计（汇总行不存在时创建）
+     * @param storageType 存储类型
+     * @param fileType 文件类型
+     * @param countDelta 文件数量增量
+     * @param sizeDelta 文件大小增量（字节）
+     * @return 影响行数
+     */
+    int increment(@Param("storageType") String storageType, @Param("fileType") String fileType,
+                  @Param("countDelta") long countDelta, @Param("sizeDelta") long sizeDelta);
+    
+    /**
+     * 查询所有汇总行
+     * @return 汇总列表
+     */
+    List<FileStats> selectAll();
+    
+    /**
+     * 从文件记录表实时汇总（核对用）
+     * @return 汇总列表
+     */
+    List<FileStats> selectActual();
+    
+    /**
+     * 新增汇总行（已存在时忽略，核对校正用）
+     * @param stats 汇总
+     * @return 影响行数
+     */
+    int insertIfAbsent(FileStats stats);
+    
+    /**
+     * 汇总值仍为核对前读取的值时更新为实际值（核对期间有文件变更时不更新，留给下次核对）
+     * @param expected 核对前读取的汇总
+     * @param actual 实际汇总
+     * @return 影响行数
+     */
+    int compareAndSet(@Param("expected") FileStats expected, @Param("actual") FileStats actual);
+}
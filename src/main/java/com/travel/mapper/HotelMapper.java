@@ -54,4 +54,26 @@ public interface HotelMapper {
      * 检查酒店是否有关联订单
      */
     long countOrdersByHotelId(@Param("hotelId") Long hotelId);
+    
+    /**
+     * 查询所有酒店（同步时建立自然键索引）
+     */
+    List<Hotel> selectAll();
+    
+    /**
+     * 批量插入酒店（回填ID）
+     */
+    int batchInsert(List<Hotel> hotels);
+    
+    /**
+     * 按ID批量更新酒店的同步字段（只更新已存在的行）
+     * @return 匹配的行数，小于列表大小时说明有酒店已被删除
+     */
+    int batchUpdate(List<Hotel> hotels);
+    
+    /**
+     * 查询上架且有坐标的酒店（只包含ID、名称、地址、坐标，地理位置索引用）
+     * @param ids ID列表，为空时查询全部
+     */
+    List<Hotel> selectGeoList(@Param("ids") List<Long> ids);
 }
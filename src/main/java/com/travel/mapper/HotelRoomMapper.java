@@ -46,4 +46,20 @@ public interface HotelRoomMapper {
      * 检查房型是否有关联订单
      */
     long countOrdersByRoomId(@Param("roomId") Long roomId);
+    
+    /**
+     * 根据多个酒店ID查询房型列表
+     */
+    List<HotelRoom> selectByHotelIds(@Param("hotelIds") List<Long> hotelIds);
+    
+    /**
+     * 批量插入房型（回填ID）
+     */
+    int batchInsert(List<HotelRoom> rooms);
+    
+    /**
+     * 按ID批量更新房型的同步字段（只更新已存在的行）
+     * @return 匹配的行数，小于列表大小时说明有房型已被删除
+     */
+    int batchUpdate(List<HotelRoom> rooms);
 }
@@ -36,4 +36,10 @@ public interface MapMapper {
      * 删除地图（物理删除）
      */
     int deleteById(@Param("id") Long id);
+    
+    /**
+     * 查询上架且有坐标的地图位置（只包含ID、名称、地址、坐标，地理位置索引用）
+     * @param ids ID列表，为空时查询全部
+     */
+    List<MapLocation> selectGeoList(@Param("ids") List<Long> ids);
 }
@@ -0,0 +1,62 @@
+package com.travel.mapper;
+
+import com.travel.entity.StatsDaily;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 统计汇总Mapper接口
+ * 
+ * @author travel-platform
+ */
+public interface StatisticsRollupMapper {
+    
+    /**
+     * 从订单表和用户表重新汇总指定日期（覆盖已有汇总）
+     */
+    int upsertDaily(@Param("statDate") LocalDate statDate,
+                    @Param("startTime") String startTime,
+                    @Param("endTime") String endTime);
+    
+    /**
+     * 删除指定日期的下单用户
+     */
+    int deleteUserActivity(@Param("statDate") LocalDate statDate);
+    
+    /**
+     * 从订单表汇总指定日期的下单用户
+     */
+    int insertUserActivity(@Param("statDate") LocalDate statDate,
+                           @Param("startTime") String startTime,
+                           @Param("endTime") String endTime);
+    
+    /**
+     * 实时统计指定时间范围（用于当天未汇总的数据）
+     */
+    StatsDaily selectLive(@Param("startTime") String startTime, @Param("endTime") String endTime);
+    
+    /**
+     * 查询日期范围内的每日汇总
+     */
+    List<StatsDaily> selectDailyRange(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+    
+    /**
+     * 汇总日期范围内的统计数据（active_users 不可累加，由 countActiveUsers 单独计算）
+     */
+    StatsDaily sumDailyRange(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+    
+    /**
+     * 查询日期范围内已汇总的日期
+     */
+    List<LocalDate> selectRolledUpDates(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+    
+    /**
+     * 统计去重后的下单用户数：已汇总日期读取下单用户表，liveStartTime 不为空时合并当天实时数据
+     */
+    Long countActiveUsers(@Param("startDate") LocalDate startDate,
+                          @Param("endDate") LocalDate endDate,
+                          @Param("liveStartTime") String liveStartTime,
+                          @Param("liveEndTime") String liveEndTime);
+}
@@ -51,4 +51,34 @@ public interface SyncConfigMapper {
      * 更新最后同步时间
      */
     int updateLastSyncTime(@Param("id") Long id, @Param("lastSyncTime") java.time.LocalDateTime lastSyncTime);
+    
+    /**
+     * 更新增量同步状态（成功同步后）
+     */
+    int updateDeltaState(@Param("id") Long id, @Param("syncCursor") String syncCursor,
+                         @Param("etag") String etag, @Param("lastModified") String lastModified);
+    
+    /**
+     * 清除增量同步状态（下次同步为全量同步）
+     */
+    int resetDeltaState(@Param("id") Long id);
+    
+    /**
+     * 获取同步租约（无持有者或租约已过期时）
+     * 
+     * @return 更新行数，1表示获取成功
+     */
+    int tryAcquireLease(@Param("id") Long id, @Param("owner") String owner, @Param("leaseSeconds") int leaseSeconds);
+    
+    /**
+     * 续约同步租约
+     * 
+     * @return 更新行数，0表示租约已不属于该持有者
+     */
+    int renewLease(@Param("id") Long id, @Param("owner") String owner, @Param("leaseSeconds") int leaseSeconds);
+    
+    /**
+     * 释放同步租约
+     */
+    int releaseLease(@Param("id") Long id, @Param("owner") String owner);
 }
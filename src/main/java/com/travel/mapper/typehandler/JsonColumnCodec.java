@@ -0,0 +1,111 @@
+package com.travel.mapper.typehandler;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JSON字段编解码（JsonListTypeHandler、JsonObjectTypeHandler 共用）
+ *
+ * TypeHandler 由 MyBatis 实例化，不是Spring Bean，因此读写器保存在静态字段中：
+ * 启动时由 {@link com.travel.config.JsonTypeHandlerConfig} 使用应用的 ObjectMapper 预先创建，
+ * 在此之前（或未启用Spring时）使用默认 ObjectMapper 创建的读写器。ObjectReader/ObjectWriter 不可变且线程安全。
+ *
+ * 启用延迟解析时，查询结果中的JSON字段先以 {@link LazyJsonList}/{@link LazyJsonMap} 保存原始字符串，首次访问时才解析；
+ * 列表查询中未使用这些字段的行（如管理端列表页）不再产生解析开销。
+ *
+ * @author travel-platform
+ */
+@Slf4j
+public final class JsonColumnCodec {
+
+    private static volatile Codec codec = new Codec(new ObjectMapper(), true);
+
+    private JsonColumnCodec() {
+    }
+
+    /**
+     * 使用应用的 ObjectMapper 重新创建读写器
+     *
+     * @param objectMapper 应用的 ObjectMapper
+     * @param lazy 是否延迟解析查询结果
+     */
+    public static void configure(ObjectMapper objectMapper, boolean lazy) {
+        codec = new Codec(objectMapper, lazy);
+    }
+
+    static boolean isLazy() {
+        return codec.lazy;
+    }
+
+    /**
+     * 解析为字符串列表，为空或解析失败时返回空列表
+     */
+    static List<String> readList(String json) {
+        if (isBlank(json)) {
+            return new ArrayList<>();
+        }
+        try {
+            List<String> list = codec.listReader.readValue(json);
+            return list != null ? list : new ArrayList<>();
+        } catch (Exception e) {
+            log.debug("解析JSON列表字段失败，返回空列表: {}", json);
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * 解析为Map，为空或解析失败时返回空Map
+     */
+    static Map<String, Object> readMap(String json) {
+        if (isBlank(json)) {
+            return new LinkedHashMap<>();
+        }
+        try {
+            Map<String, Object> map = codec.mapReader.readValue(json);
+            return map != null ? map : new LinkedHashMap<>();
+        } catch (Exception e) {
+            log.debug("解析JSON对象字段失败，返回空Map: {}", json);
+            return new LinkedHashMap<>();
+        }
+    }
+
+    /**
+     * 序列化为JSON，未解析过的延迟列表/Map直接返回原始字符串
+     */
+    static String write(Object value) throws JsonProcessingException {
+        if (value instanceof LazyJsonList && !((LazyJsonList) value).isDecoded()) {
+            return ((LazyJsonList) value).getJson();
+        }
+        if (value instanceof LazyJsonMap && !((LazyJsonMap) value).isDecoded()) {
+            return ((LazyJsonMap) value).getJson();
+        }
+        return codec.writer.writeValueAsString(value);
+    }
+
+    static boolean isBlank(String json) {
+        return json == null || json.trim().isEmpty();
+    }
+
+    private static final class Codec {
+        private final ObjectReader listReader;
+        private final ObjectReader mapReader;
+        private final ObjectWriter writer;
+        private final boolean lazy;
+
+        private Codec(ObjectMapper objectMapper, boolean lazy) {
+            this.listReader = objectMapper.readerFor(new TypeReference<List<String>>() {});
+            this.mapReader = objectMapper.readerFor(new TypeReference<Map<String, Object>>() {});
+            this.writer = objectMapper.writer();
+            this.lazy = lazy;
+        }
+    }
+}
@@ -1,7 +1,5 @@
 package com.travel.mapper.typehandler;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.ibatis.type.BaseTypeHandler;
 import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.MappedJdbcTypes;
@@ -11,12 +9,11 @@ import java.sql.CallableStatement;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.HashMap;
 import java.util.Map;
 
 /**
  * JSON Object TypeHandler
- * 用于处理 Map<String, Object> 和 JSON 字段之间的转换
+ * 用于处理 Map<String, Object> 和 JSON 字段之间的转换，解析和序列化见 {@link JsonColumnCodec}
  * 
  * @author travel-platform
  */
@@ -24,12 +21,10 @@ import java.util.Map;
 @MappedJdbcTypes(JdbcType.VARCHAR)
 public class JsonObjectTypeHandler extends BaseTypeHandler<Map<String, Object>> {
     
-    private static final ObjectMapper objectMapper = new ObjectMapper();
-    
     @Override
     public void setNonNullParameter(PreparedStatement ps, int i, Map<String, Object> parameter, JdbcType jdbcType) throws SQLException {
         try {
-            String json = objectMapper.writeValueAsString(parameter);
+            String json = JsonColumnCodec.write(parameter);
             ps.setString(i, json);
         } catch (Exception e) {
             throw new SQLException("Error converting Map to JSON", e);
@@ -55,14 +50,10 @@ public class JsonObjectTypeHandler extends BaseTypeHandler<Map<String, Object>>
     }
     
     private Map<String, Object> parseJson(String json) {
-        if (json == null || json.trim().isEmpty()) {
-            return new HashMap<>();
-        }
-        try {
-            return objectMapper.readValue(json, new TypeReference<Map<String, Object>>() {});
-        } catch (Exception e) {
-            // 如果解析失败，返回空Map
-            return new HashMap<>();
+        // 延迟解析：首次访问时才解析（见 JsonColumnCodec）
+        if (JsonColumnCodec.isLazy() && !JsonColumnCodec.isBlank(json)) {
+            return new LazyJsonMap(json);
         }
+        return JsonColumnCodec.readMap(json);
     }
 }
@@ -0,0 +1,105 @@
+package com.travel.mapper.typehandler;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.RandomAccess;
+
+/**
+ * 延迟解析的JSON字符串列表
+ *
+ * 保存数据库中的原始JSON，首次访问元素或大小时解析为 ArrayList，之后所有操作（包括修改）都作用于解析结果。
+ * 解析失败时为空列表，与立即解析时的行为一致。未访问过时写回数据库直接使用原始JSON（见 {@link JsonColumnCodec#write}）。
+ *
+ * @author travel-platform
+ */
+public class LazyJsonList extends AbstractList<String> implements RandomAccess, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String json;
+
+    private transient volatile List<String> decoded;
+
+    public LazyJsonList(String json) {
+        this.json = json;
+    }
+
+    /**
+     * 是否已解析
+     */
+    public boolean isDecoded() {
+        return decoded != null;
+    }
+
+    String getJson() {
+        return json;
+    }
+
+    private List<String> list() {
+        List<String> list = decoded;
+        if (list == null) {
+            synchronized (this) {
+                list = decoded;
+                if (list == null) {
+                    list = new ArrayList<>(JsonColumnCodec.readList(json));
+                    decoded = list;
+                }
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public String get(int index) {
+        return list().get(index);
+    }
+
+    @Override
+    public int size() {
+        return list().size();
+    }
+
+    @Override
+    public String set(int index, String element) {
+        return list().set(index, element);
+    }
+
+    @Override
+    public void add(int index, String element) {
+        list().add(index, element);
+        modCount++;
+    }
+
+    @Override
+    public String remove(int index) {
+        modCount++;
+        return list().remove(index);
+    }
+
+    @Override
+    public void clear() {
+        list().clear();
+        modCount++;
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return list().iterator();
+    }
+
+    @Override
+    public ListIterator<String> listIterator(int index) {
+        return list().listIterator(index);
+    }
+
+    /**
+     * 序列化为普通 ArrayList
+     */
+    private Object writeReplace() {
+        return new ArrayList<>(list());
+    }
+}
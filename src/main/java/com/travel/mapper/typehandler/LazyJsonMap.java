@@ -0,0 +1,95 @@
+package com.travel.mapper.typehandler;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 延迟解析的JSON对象
+ *
+ * 保存数据库中的原始JSON，首次访问时解析为 LinkedHashMap，之后所有操作（包括修改）都作用于解析结果。
+ * 解析失败时为空Map，与立即解析时的行为一致。未访问过时写回数据库直接使用原始JSON（见 {@link JsonColumnCodec#write}）。
+ *
+ * @author travel-platform
+ */
+public class LazyJsonMap extends AbstractMap<String, Object> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String json;
+
+    private transient volatile Map<String, Object> decoded;
+
+    public LazyJsonMap(String json) {
+        this.json = json;
+    }
+
+    /**
+     * 是否已解析
+     */
+    public boolean isDecoded() {
+        return decoded != null;
+    }
+
+    String getJson() {
+        return json;
+    }
+
+    private Map<String, Object> map() {
+        Map<String, Object> map = decoded;
+        if (map == null) {
+            synchronized (this) {
+                map = decoded;
+                if (map == null) {
+                    map = new LinkedHashMap<>(JsonColumnCodec.readMap(json));
+                    decoded = map;
+                }
+            }
+        }
+        return map;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return map().entrySet();
+    }
+
+    @Override
+    public int size() {
+        return map().size();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return map().containsKey(key);
+    }
+
+    @Override
+    public Object get(Object key) {
+        return map().get(key);
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        return map().put(key, value);
+    }
+
+    @Override
+    public Object remove(Object key) {
+        return map().remove(key);
+    }
+
+    @Override
+    public void clear() {
+        map().clear();
+    }
+
+    /**
+     * 序列化为普通 LinkedHashMap
+     */
+    private Object writeReplace() {
+        return new LinkedHashMap<>(map());
+    }
+}
@@ -0,0 +1,307 @@
+package com.travel.service;
+
+import com.travel.entity.AccessStatsDaily;
+import com.travel.entity.AccessStatsMinute;
+import com.travel.mapper.AccessStatisticsMapper;
+import com.travel.util.HyperLogLog;
+import com.travel.util.RingBuffer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 访问日志服务（小程序PV/UV统计）
+ *
+ * 请求线程只把访问事件写入无锁环形缓冲区（缓冲区满时丢弃事件，不阻塞请求、不访问数据库），后台任务负责：
+ * - 定时取出事件，在内存中按分钟、页面聚合访问次数，UV 使用 HyperLogLog 估算
+ * - 定时把已结束的分钟和每日数据批量写入 stats_access_minute、stats_access_daily
+ *
+ * 每日UV估算器随每日统计一起保存，查询日期范围的UV时合并各天的估算器（同一访客跨天只计一次）。
+ *
+ * @author travel-platform
+ */
+@Slf4j
+@Service
+public class AccessLogService {
+
+    /**
+     * 每日UV估算器精度（4096个寄存器，误差约1.6%）
+     */
+    private static final int DAILY_PRECISION = 12;
+
+    /**
+     * 每分钟UV估算器精度（1024个寄存器，误差约3.3%）
+     */
+    private static final int MINUTE_PRECISION = 10;
+
+    private static final int PAGE_MAX_LENGTH = 128;
+
+    @Autowired
+    private AccessStatisticsMapper accessStatisticsMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${travel.statistics.access.enabled:true}")
+    private boolean enabled;
+
+    @Value("${travel.statistics.access.buffer-size:65536}")
+    private int bufferSize;
+
+    @Value("${travel.statistics.access.batch-size:500}")
+    private int batchSize;
+
+    private RingBuffer<AccessEvent> buffer;
+
+    /**
+     * 缓冲区已满被丢弃的事件数（下次写入时输出日志后清零）
+     */
+    private final LongAdder droppedEvents = new LongAdder();
+
+    /**
+     * 每分钟聚合数据（分钟 -> 页面 -> 聚合），只由后台任务访问
+     */
+    private final TreeMap<LocalDateTime, Map<String, MinuteAggregate>> minuteAggregates = new TreeMap<>();
+
+    /**
+     * 每日聚合数据，只由后台任务访问
+     */
+    private final Map<LocalDate, DailyAggregate> dailyAggregates = new HashMap<>();
+
+    /**
+     * 写入失败待重试的每分钟统计
+     */
+    private final List<AccessStatsMinute> pendingMinuteRows = new ArrayList<>();
+
+    @PostConstruct
+    public void init() {
+        buffer = new RingBuffer<>(bufferSize);
+        log.info("访问日志服务已初始化 - 启用: {}, 缓冲区容量: {}", enabled, buffer.capacity());
+    }
+
+    /**
+     * 记录一次访问（请求线程调用，不阻塞）
+     *
+     * @param page 页面（接口路径模板）
+     * @param visitorKey 访客标识（用户ID或匿名访客的IP+UA）
+     */
+    public void record(String page, String visitorKey) {
+        if (!enabled) {
+            return;
+        }
+        AccessEvent event = new AccessEvent(System.currentTimeMillis(), page, HyperLogLog.hash(visitorKey));
+        if (!buffer.offer(event)) {
+            droppedEvents.increment();
+        }
+    }
+
+    /**
+     * 定时取出缓冲区中的访问事件并聚合
+     */
+    @Scheduled(fixedDelayString = "${travel.statistics.access.drain-interval-ms:1000}")
+    public synchronized void drain() {
+        buffer.drain(this::aggregate);
+        long dropped = droppedEvents.sumThenReset();
+        if (dropped > 0) {
+            log.warn("访问日志缓冲区已满，丢弃事件数: {}", dropped);
+        }
+    }
+
+    /**
+     * 定时把已结束的分钟和每日数据写入数据库
+     */
+    @Scheduled(fixedDelayString = "${travel.statistics.access.flush-interval-ms:60000}")
+    public synchronized void flush() {
+        try {
+            drain();
+            flushMinutes(LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES));
+            flushDays();
+        } catch (Exception e) {
+            log.error("写入访问统计失败", e);
+            // 不抛出异常，避免影响定时任务调度
+        }
+    }
+
+    /**
+     * 停止前写入所有聚合数据（包括当前分钟）
+     */
+    @PreDestroy
+    public synchronized void shutdown() {
+        try {
+            drain();
+            flushMinutes(LocalDateTime.MAX);
+            flushDays();
+        } catch (Exception e) {
+            log.error("停止前写入访问统计失败", e);
+        }
+    }
+
+    /**
+     * 查询日期范围内的每日访问统计，按日期升序（只包含有访问的日期，最近一分钟内的访问可能尚未写入）
+     *
+     * @param startDate 开始日期
+     * @param endDate 结束日期
+     * @return 每日访问统计（包含UV估算器数据）
+     */
+    public List<AccessStatsDaily> getDailyStats(LocalDate startDate, LocalDate endDate) {
+        return accessStatisticsMapper.selectDailyRange(startDate, endDate);
+    }
+
+    /**
+     * 合并各天的UV估算器，估算日期范围内的访客数（同一访客跨天只计一次）
+     *
+     * @param dailyStats {@link #getDailyStats} 的结果
+     * @return 访客数（估算）
+     */
+    public long countUniqueVisitors(List<AccessStatsDaily> dailyStats) {
+        HyperLogLog merged = new HyperLogLog(DAILY_PRECISION);
+        for (AccessStatsDaily daily : dailyStats) {
+            merged.merge(HyperLogLog.fromBytes(daily.getUvSketch()));
+        }
+        return merged.estimate();
+    }
+
+    private void aggregate(AccessEvent event) {
+        LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(event.timestamp), ZoneId.systemDefault());
+        LocalDateTime minute = time.truncatedTo(ChronoUnit.MINUTES);
+        String page = event.page.length() > PAGE_MAX_LENGTH ? event.page.substring(0, PAGE_MAX_LENGTH) : event.page;
+
+        MinuteAggregate minuteAggregate = minuteAggregates
+                .computeIfAbsent(minute, key -> new HashMap<>())
+                .computeIfAbsent(page, key -> new MinuteAggregate());
+        minuteAggregate.pv++;
+        minuteAggregate.visitors.add(event.visitorHash);
+
+        DailyAggregate dailyAggregate = dailyAggregates.computeIfAbsent(time.toLocalDate(), key -> new DailyAggregate());
+        dailyAggregate.pvDelta++;
+        dailyAggregate.visitors.add(event.visitorHash);
+    }
+
+    /**
+     * 批量写入指定分钟之前的每分钟统计
+     */
+    private void flushMinutes(LocalDateTime before) {
+        List<AccessStatsMinute> rows = new ArrayList<>(pendingMinuteRows);
+        pendingMinuteRows.clear();
+        Iterator<Map.Entry<LocalDateTime, Map<String, MinuteAggregate>>> iterator =
+                minuteAggregates.headMap(before).entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<LocalDateTime, Map<String, MinuteAggregate>> entry = iterator.next();
+            for (Map.Entry<String, MinuteAggregate> pageEntry : entry.getValue().entrySet()) {
+                AccessStatsMinute row = new AccessStatsMinute();
+                row.setStatMinute(entry.getKey());
+                row.setPage(pageEntry.getKey());
+                row.setPv(pageEntry.getValue().pv);
+                row.setUv(pageEntry.getValue().visitors.estimate());
+                rows.add(row);
+            }
+            iterator.remove();
+        }
+
+        for (int i = 0; i < rows.size(); i += batchSize) {
+            List<AccessStatsMinute> batch = rows.subList(i, Math.min(i + batchSize, rows.size()));
+            try {
+                accessStatisticsMapper.batchUpsertMinute(batch);
+            } catch (Exception e) {
+                log.error("写入每分钟访问统计失败，稍后重试，记录数: {}", batch.size(), e);
+                pendingMinuteRows.addAll(batch);
+            }
+        }
+    }
+
+    /**
+     * 写入每日统计（累加访问次数，合并UV估算器），并清理昨天之前的内存数据
+     */
+    private void flushDays() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        Iterator<Map.Entry<LocalDate, DailyAggregate>> iterator = dailyAggregates.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<LocalDate, DailyAggregate> entry = iterator.next();
+            LocalDate statDate = entry.getKey();
+            DailyAggregate aggregate = entry.getValue();
+            try {
+                if (aggregate.pvDelta > 0) {
+                    writeDaily(statDate, aggregate);
+                    aggregate.pvDelta = 0;
+                }
+            } catch (Exception e) {
+                log.error("写入每日访问统计失败，稍后重试，日期: {}", statDate, e);
+                continue;
+            }
+            if (statDate.isBefore(yesterday)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * 在一个事务中加锁读取当天已保存的估算器，与本地估算器合并后写回
+     * 多个节点或服务重启后写入同一天时，已保存的访客不会被覆盖
+     */
+    private void writeDaily(LocalDate statDate, DailyAggregate aggregate) {
+        transactionTemplate.executeWithoutResult(status -> {
+            accessStatisticsMapper.insertDailyIfAbsent(statDate);
+            AccessStatsDaily saved = accessStatisticsMapper.selectDailyForUpdate(statDate);
+            if (saved != null) {
+                aggregate.visitors.merge(HyperLogLog.fromBytes(saved.getUvSketch()));
+            }
+            accessStatisticsMapper.updateDaily(statDate, aggregate.pvDelta,
+                    aggregate.visitors.estimate(), aggregate.visitors.toBytes());
+        });
+    }
+
+    /**
+     * 访问事件
+     */
+    private static final class AccessEvent {
+        private final long timestamp;
+        private final String page;
+        private final long visitorHash;
+
+        private AccessEvent(long timestamp, String page, long visitorHash) {
+            this.timestamp = timestamp;
+            this.page = page;
+            this.visitorHash = visitorHash;
+        }
+    }
+
+    /**
+     * 每分钟单个页面的聚合数据
+     */
+    private static final class MinuteAggregate {
+        private long pv;
+        private final HyperLogLog visitors = new HyperLogLog(MINUTE_PRECISION);
+    }
+
+    /**
+     * 每日聚合数据
+     */
+    private static final class DailyAggregate {
+        /**
+         * 上次写入后新增的访问次数
+         */
+        private long pvDelta;
+        /**
+         * 当天所有访客（累计）
+         */
+        private final HyperLogLog visitors = new HyperLogLog(DAILY_PRECISION);
+    }
+}
@@ -0,0 +1,182 @@
+package com.travel.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.travel.entity.Article;
+import com.travel.entity.ArticleCounterDelta;
+import com.travel.mapper.ArticleMapper;
+import com.travel.util.TransactionUtils;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 文章计数服务（阅读量、点赞量、收藏量）
+ *
+ * 计数变更先累加到内存（每篇文章一组 LongAdder，并发累加无锁竞争），定时用一条 UPDATE ... CASE 语句批量写入 article 表：
+ * - 热门文章的计数不再每次访问都更新同一行，避免行锁竞争
+ * - 查询时合并尚未写入的增量，返回的计数是最新的
+ * - 写入后同步修正文章详情缓存中的计数，点赞、收藏不再清除详情缓存
+ *
+ * 服务停止前写入所有增量；进程异常退出时最多丢失一个写入周期的计数。
+ *
+ * @author travel-platform
+ */
+@Slf4j
+@Service
+public class ArticleCounterService {
+
+    @Autowired
+    private ArticleMapper articleMapper;
+
+    @Autowired
+    @Qualifier("articleDetailCache")
+    private Cache<Long, Article> articleDetailCache;
+
+    @Value("${travel.article.counter.batch-size:200}")
+    private int batchSize;
+
+    /**
+     * 尚未写入的计数增量（文章ID -> 增量）
+     * 增量对象常驻内存（每篇文章几十字节），避免移除时与并发累加竞争导致计数丢失
+     */
+    private final Map<Long, PendingCounts> pendingCounts = new ConcurrentHashMap<>();
+
+    /**
+     * 增加阅读量
+     */
+    public void incrementViewCount(Long articleId) {
+        counts(articleId).views.increment();
+    }
+
+    /**
+     * 调整点赞量（在事务中调用时，事务提交后才生效）
+     *
+     * @param delta 1为点赞，-1为取消点赞
+     */
+    public void addLikeCount(Long articleId, int delta) {
+        TransactionUtils.afterCommit(() -> counts(articleId).likes.add(delta));
+    }
+
+    /**
+     * 调整收藏量（在事务中调用时，事务提交后才生效）
+     *
+     * @param delta 1为收藏，-1为取消收藏
+     */
+    public void addFavoriteCount(Long articleId, int delta) {
+        TransactionUtils.afterCommit(() -> counts(articleId).favorites.add(delta));
+    }
+
+    /**
+     * 合并尚未写入的增量（直接修改传入的文章对象，不要传入缓存中的对象）
+     */
+    public void applyPendingCounts(Article article) {
+        if (article == null || article.getId() == null) {
+            return;
+        }
+        PendingCounts counts = pendingCounts.get(article.getId());
+        if (counts == null) {
+            return;
+        }
+        article.setViewCount(add(article.getViewCount(), counts.views.sum()));
+        article.setLikeCount(add(article.getLikeCount(), counts.likes.sum()));
+        article.setFavoriteCount(add(article.getFavoriteCount(), counts.favorites.sum()));
+    }
+
+    /**
+     * 合并尚未写入的增量（列表查询结果）
+     */
+    public void applyPendingCounts(List<Article> articles) {
+        if (articles == null || pendingCounts.isEmpty()) {
+            return;
+        }
+        for (Article article : articles) {
+            applyPendingCounts(article);
+        }
+    }
+
+    /**
+     * 定时批量写入计数增量
+     */
+    @Scheduled(fixedDelayString = "${travel.article.counter.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        List<ArticleCounterDelta> deltas = new ArrayList<>();
+        for (Map.Entry<Long, PendingCounts> entry : pendingCounts.entrySet()) {
+            PendingCounts counts = entry.getValue();
+            ArticleCounterDelta delta = new ArticleCounterDelta();
+            delta.setArticleId(entry.getKey());
+            delta.setViewDelta(counts.views.sumThenReset());
+            delta.setLikeDelta(counts.likes.sumThenReset());
+            delta.setFavoriteDelta(counts.favorites.sumThenReset());
+            if (delta.getViewDelta() != 0 || delta.getLikeDelta() != 0 || delta.getFavoriteDelta() != 0) {
+                deltas.add(delta);
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        for (int i = 0; i < deltas.size(); i += batchSize) {
+            List<ArticleCounterDelta> batch = deltas.subList(i, Math.min(i + batchSize, deltas.size()));
+            try {
+                articleMapper.batchAddCounts(batch);
+                batch.forEach(this::applyToCachedArticle);
+            } catch (Exception e) {
+                log.error("批量写入文章计数失败，稍后重试，文章数: {}", batch.size(), e);
+                // 增量放回内存，下次重试
+                for (ArticleCounterDelta delta : batch) {
+                    PendingCounts counts = counts(delta.getArticleId());
+                    counts.views.add(delta.getViewDelta());
+                    counts.likes.add(delta.getLikeDelta());
+                    counts.favorites.add(delta.getFavoriteDelta());
+                }
+            }
+        }
+        log.debug("批量写入文章计数完成，文章数: {}", deltas.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private PendingCounts counts(Long articleId) {
+        return pendingCounts.computeIfAbsent(articleId, key -> new PendingCounts());
+    }
+
+    /**
+     * 已写入的增量同步到详情缓存（缓存中的计数与数据库保持一致）
+     */
+    private void applyToCachedArticle(ArticleCounterDelta delta) {
+        Article cached = articleDetailCache.getIfPresent(delta.getArticleId());
+        if (cached == null) {
+            return;
+        }
+        cached.setViewCount(add(cached.getViewCount(), delta.getViewDelta()));
+        cached.setLikeCount(add(cached.getLikeCount(), delta.getLikeDelta()));
+        cached.setFavoriteCount(add(cached.getFavoriteCount(), delta.getFavoriteDelta()));
+    }
+
+    private static Integer add(Integer count, long delta) {
+        long value = (count != null ? count : 0) + delta;
+        return (int) Math.max(0, Math.min(value, Integer.MAX_VALUE));
+    }
+
+    /**
+     * 单篇文章尚未写入的计数增量
+     */
+    private static final class PendingCounts {
+        private final LongAdder views = new LongAdder();
+        private final LongAdder likes = new LongAdder();
+        private final LongAdder favorites = new LongAdder();
+    }
+}
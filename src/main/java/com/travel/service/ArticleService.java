@@ -8,6 +8,7 @@ import com.travel.dto.ArticleUpdateRequest;
 import com.travel.dto.PageResult;
 import com.travel.entity.Article;
 import com.travel.entity.ArticleImage;
+import com.travel.entity.ArticleTag;
 import com.travel.entity.ArticleTagRelation;
 import com.travel.entity.UserArticleFavorite;
 import com.travel.entity.UserArticleLike;
@@ -18,16 +19,20 @@ import com.travel.mapper.ArticleTagRelationMapper;
 import com.travel.mapper.UserArticleFavoriteMapper;
 import com.travel.mapper.UserArticleLikeMapper;
 import com.travel.util.OssUrlUtil;
+import com.travel.util.RotatingBloomFilter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 /**
@@ -62,12 +67,18 @@ public class ArticleService {
     private Cache<Long, Article> articleDetailCache;
     
     @Autowired
-    @Qualifier("articleViewCache")
-    private Cache<String, Long> articleViewCache;
+    @Qualifier("articleViewFilter")
+    private RotatingBloomFilter articleViewFilter;
     
     @Autowired
     private OssUrlUtil ossUrlUtil;
     
+    @Autowired
+    private ArticleCounterService articleCounterService;
+    
+    @Autowired
+    private ArticleTagService articleTagService;
+    
     /**
      * 分页查询文章列表
      */
@@ -105,6 +116,9 @@ public class ArticleService {
             request.getPublishTimeEnd()
         );
         
+        // 合并尚未写入的阅读量、点赞量、收藏量
+        articleCounterService.applyPendingCounts(list);
+        
         return new PageResult<>(list, total, request.getPage(), request.getPageSize());
     }
     
@@ -121,14 +135,8 @@ public class ArticleService {
             throw new BusinessException(ResultCode.DATA_NOT_FOUND);
         }
         
-        // 加载标签ID列表
-        List<ArticleTagRelation> relations = articleTagRelationMapper.selectByArticleId(id);
-        if (relations != null && !relations.isEmpty()) {
-            List<Long> tagIds = relations.stream()
-                .map(ArticleTagRelation::getTagId)
-                .collect(Collectors.toList());
-            article.setTagIds(tagIds);
-        }
+        // 加载标签
+        loadTags(List.of(article));
         
         // 加载文章图片列表
         List<ArticleImage> images = articleImageMapper.selectByArticleId(id);
@@ -156,6 +164,9 @@ public class ArticleService {
             }
         }
         
+        // 合并尚未写入的阅读量、点赞量、收藏量
+        articleCounterService.applyPendingCounts(article);
+        
         // 处理OSS URL签名（用于管理后台预览）
         processOssUrlsInArticle(article);
         
@@ -355,7 +366,7 @@ public class ArticleService {
      * 增加阅读量
      */
     public void incrementViewCount(Long id) {
-        articleMapper.incrementViewCount(id);
+        articleCounterService.incrementViewCount(id);
     }
     
     // ==================== 小程序端方法 ====================
@@ -384,16 +395,11 @@ public class ArticleService {
             categoryId, tagId, keyword, sortType, offset, pageSize
         );
         
-        // 加载标签ID列表
-        for (Article article : list) {
-            List<ArticleTagRelation> relations = articleTagRelationMapper.selectByArticleId(article.getId());
-            if (relations != null && !relations.isEmpty()) {
-                List<Long> tagIds = relations.stream()
-                    .map(ArticleTagRelation::getTagId)
-                    .collect(Collectors.toList());
-                article.setTagIds(tagIds);
-            }
-        }
+        // 批量加载标签
+        loadTags(list);
+        
+        // 合并尚未写入的阅读量、点赞量、收藏量
+        articleCounterService.applyPendingCounts(list);
         
         // 处理OSS URL签名（返回的URL都是签名URL）
         processOssUrlsInArticles(list);
@@ -419,14 +425,8 @@ public class ArticleService {
             if (a == null || a.getStatus() != 1) {
                 return null;
             }
-            // 加载标签ID列表
-            List<ArticleTagRelation> relations = articleTagRelationMapper.selectByArticleId(key);
-            if (relations != null && !relations.isEmpty()) {
-                List<Long> tagIds = relations.stream()
-                    .map(ArticleTagRelation::getTagId)
-                    .collect(Collectors.toList());
-                a.setTagIds(tagIds);
-            }
+            // 加载标签
+            loadTags(List.of(a));
             // 加载文章图片列表
             List<ArticleImage> images = articleImageMapper.selectByArticleId(key);
             if (images != null && !images.isEmpty()) {
@@ -455,28 +455,29 @@ public class ArticleService {
             }
         }
         
-        // 防刷机制：同一用户短时间内多次访问只统计一次
-        String viewKey = userId != null ? userId + ":" + id : "anonymous:" + id;
-        Long lastViewTime = articleViewCache.getIfPresent(viewKey);
-        long currentTime = System.currentTimeMillis();
-        
-        // 如果5分钟内没有访问过，才增加阅读量
-        if (lastViewTime == null || (currentTime - lastViewTime) > 5 * 60 * 1000) {
-            articleMapper.incrementViewCount(id);
-            articleViewCache.put(viewKey, currentTime);
-            // 更新缓存中的文章阅读量
-            article.setViewCount(article.getViewCount() + 1);
-            articleDetailCache.put(id, article);
+        // 防刷机制：同一用户短时间内（默认5分钟）多次访问只统计一次，匿名访问共用用户ID 0
+        // 增加阅读量时内存累加，定时批量写入
+        if (articleViewFilter.add(RotatingBloomFilter.key(userId != null ? userId : 0L, id))) {
+            articleCounterService.incrementViewCount(id);
         }
         
         // 如果用户已登录，检查是否点赞和收藏
         // 注意：这里可以扩展Article实体类添加isLiked和isFavorited字段
         // 或者通过DTO返回这些信息，当前暂不实现
         
+        // 返回副本：合并尚未写入的计数、签名URL都不修改缓存中的文章
+        Article result = new Article();
+        BeanUtils.copyProperties(article, result);
+        // 标签名称从当前标签字典获取，标签改名后不需要清除缓存的文章详情
+        if (article.getTagIds() != null) {
+            result.setTags(toTags(article.getTagIds(), articleTagService.getTagDictionary()));
+        }
+        articleCounterService.applyPendingCounts(result);
+        
         // 处理OSS URL签名（返回的URL都是签名URL）
-        processOssUrlsInArticle(article);
+        processOssUrlsInArticle(result);
         
-        return article;
+        return result;
     }
     
     /**
@@ -498,17 +499,10 @@ public class ArticleService {
         }
         
         List<Article> list = articleMapper.selectRecommendList(limit);
+        articleCounterService.applyPendingCounts(list);
         
-        // 加载标签ID列表
-        for (Article article : list) {
-            List<ArticleTagRelation> relations = articleTagRelationMapper.selectByArticleId(article.getId());
-            if (relations != null && !relations.isEmpty()) {
-                List<Long> tagIds = relations.stream()
-                    .map(ArticleTagRelation::getTagId)
-                    .collect(Collectors.toList());
-                article.setTagIds(tagIds);
-            }
-        }
+        // 批量加载标签
+        loadTags(list);
         
         // 处理OSS URL签名（返回的URL都是签名URL）
         processOssUrlsInArticles(list);
@@ -540,17 +534,10 @@ public class ArticleService {
         List<Article> list = articleMapper.selectRelatedList(
             currentArticle.getCategoryId(), articleId, limit
         );
+        articleCounterService.applyPendingCounts(list);
         
-        // 加载标签ID列表
-        for (Article article : list) {
-            List<ArticleTagRelation> relations = articleTagRelationMapper.selectByArticleId(article.getId());
-            if (relations != null && !relations.isEmpty()) {
-                List<Long> tagIds = relations.stream()
-                    .map(ArticleTagRelation::getTagId)
-                    .collect(Collectors.toList());
-                article.setTagIds(tagIds);
-            }
-        }
+        // 批量加载标签
+        loadTags(list);
         
         return list;
     }
@@ -565,28 +552,20 @@ public class ArticleService {
         }
         
         // 检查文章是否存在
-        Article article = articleMapper.selectById(articleId);
-        if (article == null || article.getStatus() != 1) {
-            throw new BusinessException(ResultCode.DATA_NOT_FOUND);
-        }
+        checkPublished(articleId);
         
-        // 检查是否已点赞
-        int count = userArticleLikeMapper.countByUserIdAndArticleId(userId, articleId);
-        if (count > 0) {
-            throw new BusinessException("您已经点赞过这篇文章");
-        }
-        
-        // 添加点赞记录
+        // 添加点赞记录（唯一索引保证不重复点赞）
         UserArticleLike like = new UserArticleLike();
         like.setUserId(userId);
         like.setArticleId(articleId);
-        userArticleLikeMapper.insert(like);
-        
-        // 增加点赞量
-        articleMapper.incrementLikeCount(articleId);
+        try {
+            userArticleLikeMapper.insert(like);
+        } catch (DuplicateKeyException e) {
+            throw new BusinessException("您已经点赞过这篇文章");
+        }
         
-        // 清除缓存
-        articleDetailCache.invalidate(articleId);
+        // 增加点赞量（事务提交后累加，定时批量写入）
+        articleCounterService.addLikeCount(articleId, 1);
         
         log.info("用户点赞文章成功: userId={}, articleId={}", userId, articleId);
     }
@@ -600,20 +579,13 @@ public class ArticleService {
             throw new BusinessException(ResultCode.PARAM_ERROR);
         }
         
-        // 检查是否已点赞
-        int count = userArticleLikeMapper.countByUserIdAndArticleId(userId, articleId);
-        if (count == 0) {
+        // 删除点赞记录
+        if (userArticleLikeMapper.delete(userId, articleId) == 0) {
             throw new BusinessException("您还没有点赞过这篇文章");
         }
         
-        // 删除点赞记录
-        userArticleLikeMapper.delete(userId, articleId);
-        
-        // 减少点赞量
-        articleMapper.decrementLikeCount(articleId);
-        
-        // 清除缓存
-        articleDetailCache.invalidate(articleId);
+        // 减少点赞量（事务提交后累加，定时批量写入）
+        articleCounterService.addLikeCount(articleId, -1);
         
         log.info("用户取消点赞成功: userId={}, articleId={}", userId, articleId);
     }
@@ -628,28 +600,20 @@ public class ArticleService {
         }
         
         // 检查文章是否存在
-        Article article = articleMapper.selectById(articleId);
-        if (article == null || article.getStatus() != 1) {
-            throw new BusinessException(ResultCode.DATA_NOT_FOUND);
-        }
-        
-        // 检查是否已收藏
-        int count = userArticleFavoriteMapper.countByUserIdAndArticleId(userId, articleId);
-        if (count > 0) {
-            throw new BusinessException("您已经收藏过这篇文章");
-        }
+        checkPublished(articleId);
         
-        // 添加收藏记录
+        // 添加收藏记录（唯一索引保证不重复收藏）
         UserArticleFavorite favorite = new UserArticleFavorite();
         favorite.setUserId(userId);
         favorite.setArticleId(articleId);
-        userArticleFavoriteMapper.insert(favorite);
-        
-        // 增加收藏量
-        articleMapper.incrementFavoriteCount(articleId);
+        try {
+            userArticleFavoriteMapper.insert(favorite);
+        } catch (DuplicateKeyException e) {
+            throw new BusinessException("您已经收藏过这篇文章");
+        }
         
-        // 清除缓存
-        articleDetailCache.invalidate(articleId);
+        // 增加收藏量（事务提交后累加，定时批量写入）
+        articleCounterService.addFavoriteCount(articleId, 1);
         
         log.info("用户收藏文章成功: userId={}, articleId={}", userId, articleId);
     }
@@ -663,24 +627,67 @@ public class ArticleService {
             throw new BusinessException(ResultCode.PARAM_ERROR);
         }
         
-        // 检查是否已收藏
-        int count = userArticleFavoriteMapper.countByUserIdAndArticleId(userId, articleId);
-        if (count == 0) {
+        // 删除收藏记录
+        if (userArticleFavoriteMapper.delete(userId, articleId) == 0) {
             throw new BusinessException("您还没有收藏过这篇文章");
         }
         
-        // 删除收藏记录
-        userArticleFavoriteMapper.delete(userId, articleId);
-        
-        // 减少收藏量
-        articleMapper.decrementFavoriteCount(articleId);
-        
-        // 清除缓存
-        articleDetailCache.invalidate(articleId);
+        // 减少收藏量（事务提交后累加，定时批量写入）
+        articleCounterService.addFavoriteCount(articleId, -1);
         
         log.info("用户取消收藏成功: userId={}, articleId={}", userId, articleId);
     }
     
+    /**
+     * 批量加载文章标签：一次查询所有文章的标签关联，标签信息从标签字典获取
+     */
+    private void loadTags(List<Article> articles) {
+        if (articles == null || articles.isEmpty()) {
+            return;
+        }
+        List<Long> articleIds = articles.stream()
+            .map(Article::getId)
+            .collect(Collectors.toList());
+        Map<Long, List<Long>> tagIdsByArticle = articleTagRelationMapper.selectByArticleIds(articleIds).stream()
+            .collect(Collectors.groupingBy(ArticleTagRelation::getArticleId,
+                Collectors.mapping(ArticleTagRelation::getTagId, Collectors.toList())));
+        if (tagIdsByArticle.isEmpty()) {
+            return;
+        }
+        Map<Long, ArticleTag> tagDictionary = articleTagService.getTagDictionary();
+        for (Article article : articles) {
+            List<Long> tagIds = tagIdsByArticle.get(article.getId());
+            if (tagIds == null) {
+                continue;
+            }
+            article.setTagIds(tagIds);
+            article.setTags(toTags(tagIds, tagDictionary));
+        }
+    }
+    
+    /**
+     * 根据标签ID从标签字典组装标签列表（已删除的标签跳过）
+     */
+    private List<ArticleTag> toTags(List<Long> tagIds, Map<Long, ArticleTag> tagDictionary) {
+        return tagIds.stream()
+            .map(tagDictionary::get)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+    }
+    
+    /**
+     * 检查文章存在且已发布（优先使用详情缓存）
+     */
+    private void checkPublished(Long articleId) {
+        Article article = articleDetailCache.getIfPresent(articleId);
+        if (article == null) {
+            article = articleMapper.selectById(articleId);
+        }
+        if (article == null || article.getStatus() != 1) {
+            throw new BusinessException(ResultCode.DATA_NOT_FOUND);
+        }
+    }
+    
     /**
      * 小程序：获取用户收藏的文章列表（分页）
      */
@@ -713,17 +720,10 @@ public class ArticleService {
         
         // 根据ID列表查询文章详情
         List<Article> articles = articleMapper.selectByIds(articleIds);
+        articleCounterService.applyPendingCounts(articles);
         
-        // 加载标签ID列表
-        for (Article article : articles) {
-            List<ArticleTagRelation> relations = articleTagRelationMapper.selectByArticleId(article.getId());
-            if (relations != null && !relations.isEmpty()) {
-                List<Long> tagIds = relations.stream()
-                    .map(ArticleTagRelation::getTagId)
-                    .collect(Collectors.toList());
-                article.setTagIds(tagIds);
-            }
-        }
+        // 批量加载标签
+        loadTags(articles);
         
         // 处理OSS URL签名（返回的URL都是签名URL）
         processOssUrlsInArticles(articles);
@@ -7,13 +7,19 @@ import com.travel.entity.ArticleTag;
 import com.travel.exception.BusinessException;
 import com.travel.mapper.ArticleTagMapper;
 import com.travel.mapper.ArticleTagRelationMapper;
+import com.travel.util.TransactionUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 文章标签服务类
@@ -30,6 +36,58 @@ public class ArticleTagService {
     @Autowired
     private ArticleTagRelationMapper articleTagRelationMapper;
     
+    @Value("${travel.article.tag-dictionary-ttl-seconds:600}")
+    private long tagDictionaryTtlSeconds;
+    
+    /**
+     * 标签字典（标签ID -> 标签），标签变更后清除；多实例部署时其他实例最多延迟一个有效期
+     */
+    private volatile TagDictionary tagDictionary;
+    
+    /**
+     * 标签字典版本，每次清除时加一；加载期间版本变化说明加载结果可能是旧数据，不写入缓存
+     */
+    private final AtomicLong tagDictionaryVersion = new AtomicLong();
+    
+    /**
+     * 标签字典加载锁，同一时间只有一个线程查询数据库，其他线程等待后直接使用加载结果
+     */
+    private final Object tagDictionaryLock = new Object();
+    
+    /**
+     * 获取标签字典（用于批量组装文章标签）
+     * 
+     * @return 标签ID -> 标签（只读）
+     */
+    public Map<Long, ArticleTag> getTagDictionary() {
+        TagDictionary dictionary = tagDictionary;
+        if (isUsable(dictionary)) {
+            return dictionary.tags;
+        }
+        synchronized (tagDictionaryLock) {
+            dictionary = tagDictionary;
+            if (isUsable(dictionary)) {
+                return dictionary.tags;
+            }
+            long version = tagDictionaryVersion.get();
+            Map<Long, ArticleTag> loaded = new LinkedHashMap<>();
+            for (ArticleTag tag : articleTagMapper.selectAll()) {
+                loaded.put(tag.getId(), tag);
+            }
+            dictionary = new TagDictionary(Collections.unmodifiableMap(loaded), version, System.currentTimeMillis());
+            if (tagDictionaryVersion.get() == version) {
+                tagDictionary = dictionary;
+            }
+            return dictionary.tags;
+        }
+    }
+    
+    private boolean isUsable(TagDictionary dictionary) {
+        return dictionary != null
+            && dictionary.version == tagDictionaryVersion.get()
+            && System.currentTimeMillis() - dictionary.loadTime <= tagDictionaryTtlSeconds * 1000;
+    }
+    
     /**
      * 查询所有标签列表
      */
@@ -80,6 +138,7 @@ public class ArticleTagService {
             throw new BusinessException(ResultCode.OPERATION_FAILED);
         }
         
+        invalidateTagDictionary();
         log.info("创建文章标签成功: id={}, name={}", tag.getId(), tag.getName());
         
         return tag;
@@ -116,6 +175,7 @@ public class ArticleTagService {
             throw new BusinessException(ResultCode.OPERATION_FAILED);
         }
         
+        invalidateTagDictionary();
         log.info("更新文章标签成功: id={}, name={}", tag.getId(), tag.getName());
         
         return tag;
@@ -143,6 +203,7 @@ public class ArticleTagService {
             throw new BusinessException(ResultCode.OPERATION_FAILED);
         }
         
+        invalidateTagDictionary();
         log.info("删除文章标签成功: id={}, name={}", id, tag.getName());
     }
     
@@ -168,6 +229,7 @@ public class ArticleTagService {
         
         // 增加标签使用次数
         articleTagMapper.incrementUseCount(tagId);
+        invalidateTagDictionary();
         
         log.info("为文章添加标签成功: articleId={}, tagId={}", articleId, tagId);
     }
@@ -182,7 +244,33 @@ public class ArticleTagService {
         if (result > 0) {
             // 减少标签使用次数
             articleTagMapper.decrementUseCount(tagId);
+            invalidateTagDictionary();
             log.info("移除文章标签成功: articleId={}, tagId={}", articleId, tagId);
         }
     }
+    
+    /**
+     * 清除标签字典（事务提交后清除，避免并发查询在提交前重新加载旧数据）
+     */
+    private void invalidateTagDictionary() {
+        TransactionUtils.afterCommit(() -> {
+            tagDictionaryVersion.incrementAndGet();
+            tagDictionary = null;
+        });
+    }
+    
+    /**
+     * 标签字典快照
+     */
+    private static class TagDictionary {
+        private final Map<Long, ArticleTag> tags;
+        private final long version;
+        private final long loadTime;
+        
+        TagDictionary(Map<Long, ArticleTag> tags, long version, long loadTime) {
+            this.tags = tags;
+            this.version = version;
+            this.loadTime = loadTime;
+        }
+    }
 }
@@ -31,6 +31,9 @@ public class AttractionService {
     @Autowired
     private CacheService cacheService;
     
+    @Autowired
+    private GeoLocationIndex geoLocationIndex;
+    
     /**
      * 分页查询景点列表
      */
@@ -102,6 +105,7 @@ public class AttractionService {
         }
         
         log.info("创建景点成功: id={}, name={}", attraction.getId(), attraction.getName());
+        geoLocationIndex.refreshAfterCommit(GeoLocationIndex.TYPE_ATTRACTION, attraction.getId());
         
         // 自动刷新缓存
         try {
@@ -198,6 +202,8 @@ public class AttractionService {
         }
         
         log.info("更新景点成功: id={}, name={}", attraction.getId(), attraction.getName());
+        // 坐标、名称或上下架状态可能变化（删除即下架，也经过这里）
+        geoLocationIndex.refreshAfterCommit(GeoLocationIndex.TYPE_ATTRACTION, id);
         
         // 自动刷新缓存
         try {
@@ -1,9 +1,6 @@
 package com.travel.service;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.travel.common.ResultCode;
-import com.travel.dto.AttractionCreateRequest;
 import com.travel.dto.ExternalAttraction;
 import com.travel.entity.Attraction;
 import com.travel.entity.SyncConfig;
@@ -11,23 +8,17 @@ import com.travel.entity.SyncLog;
 import com.travel.exception.BusinessException;
 import com.travel.mapper.AttractionMapper;
 import com.travel.mapper.SyncConfigMapper;
-import com.travel.mapper.SyncLogMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 
 /**
  * 景点同步服务类
@@ -42,25 +33,35 @@ public class AttractionSyncService {
     private SyncConfigMapper syncConfigMapper;
     
     @Autowired
-    private SyncLogMapper syncLogMapper;
+    private SyncJobService syncJobService;
     
     @Autowired
     private AttractionMapper attractionMapper;
     
     @Autowired
-    private AttractionService attractionService;
+    private SyncUpsertEngine syncUpsertEngine;
     
     @Autowired
-    private RestTemplate restTemplate;
+    private CacheService cacheService;
+    
+    @Autowired
+    private GeoLocationIndex geoLocationIndex;
+    
+    @Autowired
+    private SyncFeedReader syncFeedReader;
     
     private static final String SYNC_TYPE_ATTRACTION = "ATTRACTION";
-    private static final int MAX_RETRY_COUNT = 3;
-    private static final long RETRY_DELAY_MS = 1000; // 1秒
+    
+    /**
+     * 同步来源前缀（同步来源为 前缀 + 同步配置ID）
+     */
+    private static final String SYNC_SOURCE_PREFIX = "SYNC_CONFIG:";
     
     /**
      * 手动同步景点数据
+     * 不在事务中执行：外部API调用不占用数据库连接，数据按批写入（见 SyncUpsertEngine）；
+     * 在当前线程执行，与定时同步共用租约和供应商并发限制（见 SyncJobService）
      */
-    @Transactional(rollbackFor = Exception.class)
     public SyncLog manualSync(Long configId) {
         SyncConfig config = syncConfigMapper.selectById(configId);
         if (config == null) {
@@ -71,11 +72,12 @@ public class AttractionSyncService {
             throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "同步配置类型不是景点类型");
         }
         
-        return doSync(config);
+        return syncJobService.run(config, SyncJobService.TRIGGER_MANUAL, job -> doSync(config, false, job));
     }
     
     /**
      * 定时自动同步景点数据
+     * 各配置提交到同步线程池并行执行（见 SyncJobService），本方法不等待同步完成
      */
     @Scheduled(cron = "0 0 2 * * ?") // 每天凌晨2点执行
     public void autoSync() {
@@ -92,70 +94,71 @@ public class AttractionSyncService {
             if ("DAILY".equals(config.getSyncFrequency())) {
                 // 每日同步，检查是否到了同步时间
                 if (shouldSync(config)) {
-                    try {
-                        doSync(config);
-                    } catch (Exception e) {
-                        log.error("定时同步失败: configId={}, error={}", config.getId(), e.getMessage(), e);
-                    }
+                    submitSync(config);
                 }
             } else if ("WEEKLY".equals(config.getSyncFrequency())) {
                 // 每周同步，检查是否到了同步时间（每周一凌晨）
                 if (shouldSyncWeekly(config)) {
-                    try {
-                        doSync(config);
-                    } catch (Exception e) {
-                        log.error("定时同步失败: configId={}, error={}", config.getId(), e.getMessage(), e);
-                    }
+                    submitSync(config);
                 }
             }
         }
         
-        log.info("定时自动同步景点数据任务完成");
+        log.info("定时自动同步景点数据任务已提交");
+    }
+    
+    /**
+     * 提交定时同步任务
+     */
+    private void submitSync(SyncConfig config) {
+        try {
+            syncJobService.submit(config, SyncJobService.TRIGGER_SCHEDULED, job -> doSync(config, true, job));
+        } catch (Exception e) {
+            log.error("提交定时同步任务失败: configId={}, error={}", config.getId(), e.getMessage(), e);
+        }
     }
     
     /**
      * 执行同步操作
+     *
+     * @param incremental 是否增量同步（定时同步只拉取上次成功同步后变化的数据，手动同步为全量同步）
+     * @param job 同步任务（进度、取消和超时）
      */
-    private SyncLog doSync(SyncConfig config) {
-        SyncLog syncLog = new SyncLog();
-        syncLog.setSyncType(config.getSyncType());
-        syncLog.setSyncConfigId(config.getId());
-        syncLog.setStatus("FAILED");
-        syncLog.setTotalCount(0);
-        syncLog.setSuccessCount(0);
-        syncLog.setFailedCount(0);
-        syncLog.setStartTime(LocalDateTime.now());
+    private void doSync(SyncConfig config, boolean incremental, SyncJob job) {
+        // 同步日志由 SyncJobService 创建和保存
+        SyncLog syncLog = job.getSyncLog();
         
         try {
-            // 调用外部API获取数据
-            List<ExternalAttraction> externalAttractions = fetchExternalData(config);
-            
-            syncLog.setTotalCount(externalAttractions.size());
-            
-            // 同步数据
-            int successCount = 0;
-            int failedCount = 0;
-            List<String> errorMessages = new ArrayList<>();
-            
-            for (ExternalAttraction external : externalAttractions) {
-                try {
-                    syncAttraction(external, config);
-                    successCount++;
-                } catch (Exception e) {
-                    failedCount++;
-                    String errorMsg = String.format("同步景点失败: name=%s, error=%s", 
-                        external.getName(), e.getMessage());
-                    errorMessages.add(errorMsg);
-                    log.error(errorMsg, e);
+            // 边读取外部数据边按批同步：按名称+地址匹配已有景点，批量写入新增和变更的景点
+            SyncUpsertEngine.Session<ExternalAttraction, Attraction> session = syncUpsertEngine.open(new AttractionSyncTarget(config));
+            SyncFeedReader.FeedResult feed;
+            try {
+                feed = syncFeedReader.read(config, incremental, ExternalAttraction.class, batch -> {
+                    job.checkActive();
+                    session.apply(batch);
+                    syncJobService.reportProgress(job, session.snapshot());
+                });
+            } finally {
+                // 读取中断时已写入的批次仍然有效，同样统计结果并清除缓存
+                SyncUpsertEngine.SyncUpsertResult result = session.finish();
+                syncLog.setTotalCount(result.getTotalCount());
+                syncLog.setSuccessCount(result.getSuccessCount());
+                syncLog.setFailedCount(result.getFailedCount());
+                if (!result.getErrors().isEmpty()) {
+                    syncLog.setErrorMessage(String.join("; ", result.getErrors()));
                 }
             }
+            // 增量同步没有变化的数据时也是成功；全量同步没有任何成功记录时为失败
+            boolean success = syncLog.getSuccessCount() > 0
+                || (feed.isIncremental() && syncLog.getFailedCount() == 0);
+            syncLog.setStatus(success ? "SUCCESS" : "FAILED");
             
-            syncLog.setSuccessCount(successCount);
-            syncLog.setFailedCount(failedCount);
-            syncLog.setStatus(successCount > 0 ? "SUCCESS" : "FAILED");
-            
-            if (!errorMessages.isEmpty()) {
-                syncLog.setErrorMessage(String.join("; ", errorMessages));
+            // 全部成功时保存增量同步状态，有失败记录时保留原状态，下次同步重新拉取
+            if (syncLog.getFailedCount() == 0 && !feed.isNotModified()) {
+                syncConfigMapper.updateDeltaState(config.getId(), feed.getCursor(), feed.getEtag(), feed.getLastModified());
+            }
+            if (feed.isNotModified()) {
+                log.info("外部数据未变化，跳过同步: configId={}", config.getId());
             }
             
             // 更新最后同步时间
@@ -165,129 +168,135 @@ public class AttractionSyncService {
             log.error("同步失败: configId={}, error={}", config.getId(), e.getMessage(), e);
             syncLog.setErrorMessage(e.getMessage());
             syncLog.setStatus("FAILED");
-        } finally {
-            syncLog.setEndTime(LocalDateTime.now());
-            syncLogMapper.insert(syncLog);
         }
-        
-        return syncLog;
     }
     
     /**
-     * 调用外部API获取数据（带重试机制）
+     * 景点同步目标：按 名称+地址 匹配已有景点（外部数据未提供地址时按 名称+城市 匹配）
      */
-    private List<ExternalAttraction> fetchExternalData(SyncConfig config) {
-        Exception lastException = null;
+    private class AttractionSyncTarget implements SyncUpsertEngine.Target<ExternalAttraction, Attraction> {
         
-        for (int i = 0; i < MAX_RETRY_COUNT; i++) {
-            try {
-                // 构建请求头
-                HttpHeaders headers = new HttpHeaders();
-                headers.set("Content-Type", "application/json");
-                
-                if (config.getApiKey() != null && !config.getApiKey().isEmpty()) {
-                    headers.set("Authorization", "Bearer " + config.getApiKey());
-                }
-                
-                HttpEntity<String> entity = new HttpEntity<>(headers);
-                
-                // 调用外部API
-                ResponseEntity<String> response = restTemplate.exchange(
-                    config.getApiUrl(),
-                    HttpMethod.GET,
-                    entity,
-                    String.class
-                );
-                
-                if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                    // 解析JSON响应
-                    ObjectMapper objectMapper = new ObjectMapper();
-                    String body = response.getBody();
-                    
-                    // 尝试解析为数组
-                    try {
-                        List<ExternalAttraction> attractions = objectMapper.readValue(
-                            body,
-                            new TypeReference<List<ExternalAttraction>>() {}
-                        );
-                        return attractions;
-                    } catch (Exception e) {
-                        // 如果不是数组，尝试解析为对象包装的数组
-                        @SuppressWarnings("unchecked")
-                    Map<String, Object> map = (Map<String, Object>) objectMapper.readValue(body, Map.class);
-                        if (map.containsKey("data")) {
-                            Object data = map.get("data");
-                            return objectMapper.convertValue(data, new TypeReference<List<ExternalAttraction>>() {});
-                        }
-                        throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "外部API返回数据格式不正确");
-                    }
-                } else {
-                    throw new BusinessException(ResultCode.OPERATION_FAILED.getCode(), 
-                        "外部API调用失败: " + response.getStatusCode());
-                }
-                
-            } catch (Exception e) {
-                lastException = e;
-                log.warn("调用外部API失败，重试 {}/{}: error={}", i + 1, MAX_RETRY_COUNT, e.getMessage());
-                
-                if (i < MAX_RETRY_COUNT - 1) {
-                    try {
-                        Thread.sleep(RETRY_DELAY_MS * (i + 1)); // 递增延迟
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        throw new BusinessException(ResultCode.OPERATION_FAILED.getCode(), "同步被中断");
-                    }
-                }
-            }
+        private final String syncSource;
+        private final LocalDateTime syncTime = LocalDateTime.now();
+        
+        private AttractionSyncTarget(SyncConfig config) {
+            this.syncSource = SYNC_SOURCE_PREFIX + config.getId();
         }
         
-        throw new BusinessException(ResultCode.OPERATION_FAILED.getCode(), 
-            "调用外部API失败，已重试" + MAX_RETRY_COUNT + "次: " + 
-            (lastException != null ? lastException.getMessage() : "未知错误"));
-    }
-    
-    /**
-     * 同步单个景点（增量同步，根据名称+地址判断是否已存在）
-     */
-    private void syncAttraction(ExternalAttraction external, SyncConfig config) {
-        // 验证数据
-        if (external.getName() == null || external.getName().trim().isEmpty()) {
-            throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "景点名称不能为空");
+        @Override
+        public String name() {
+            return "景点";
+        }
+        
+        @Override
+        public List<Attraction> loadExisting() {
+            return attractionMapper.selectAll();
+        }
+        
+        @Override
+        public List<String> entityKeys(Attraction attraction) {
+            return Arrays.asList(
+                naturalKey(attraction.getName(), attraction.getAddress()),
+                nameKey(attraction.getName(), attraction.getCity()),
+                nameKey(attraction.getName(), null)
+            );
         }
         
-        // 根据名称+地址查询是否已存在
-        List<Attraction> existing = attractionMapper.selectList(
-            external.getName(),
-            external.getCity(),
-            null,
-            0,
-            100
-        );
+        @Override
+        public String label(ExternalAttraction external) {
+            return external.getName();
+        }
         
-        Attraction attraction = null;
-        for (Attraction att : existing) {
-            // 判断名称和地址是否匹配
-            if (external.getName().equals(att.getName()) && 
-                (external.getAddress() == null || external.getAddress().equals(att.getAddress()))) {
-                attraction = att;
-                break;
+        @Override
+        public String recordKey(ExternalAttraction external) {
+            if (external.getName() == null || external.getName().trim().isEmpty()) {
+                throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "景点名称不能为空");
             }
+            return external.getAddress() != null
+                ? naturalKey(external.getName(), external.getAddress())
+                : nameKey(external.getName(), external.getCity());
+        }
+        
+        @Override
+        public Attraction create(ExternalAttraction external) {
+            Attraction attraction = new Attraction();
+            BeanUtils.copyProperties(external, attraction);
+            attraction.setStatus(1); // 默认上架
+            attraction.setSyncSource(syncSource);
+            attraction.setSyncTime(syncTime);
+            return attraction;
+        }
+        
+        @Override
+        public boolean merge(Attraction attraction, ExternalAttraction external) {
+            boolean changed = SyncUpsertEngine.updateField(attraction.getName(), external.getName(), attraction::setName);
+            changed |= SyncUpsertEngine.updateField(attraction.getLocation(), external.getLocation(), attraction::setLocation);
+            changed |= SyncUpsertEngine.updateField(attraction.getProvince(), external.getProvince(), attraction::setProvince);
+            changed |= SyncUpsertEngine.updateField(attraction.getCity(), external.getCity(), attraction::setCity);
+            changed |= SyncUpsertEngine.updateField(attraction.getDistrict(), external.getDistrict(), attraction::setDistrict);
+            changed |= SyncUpsertEngine.updateField(attraction.getAddress(), external.getAddress(), attraction::setAddress);
+            changed |= SyncUpsertEngine.updateField(attraction.getDescription(), external.getDescription(), attraction::setDescription);
+            changed |= SyncUpsertEngine.updateField(attraction.getImages(), external.getImages(), attraction::setImages);
+            changed |= SyncUpsertEngine.updateField(attraction.getVideoUrl(), external.getVideoUrl(), attraction::setVideoUrl);
+            changed |= SyncUpsertEngine.updateField(attraction.getOpenTime(), external.getOpenTime(), attraction::setOpenTime);
+            changed |= SyncUpsertEngine.updateField(attraction.getContactPhone(), external.getContactPhone(), attraction::setContactPhone);
+            changed |= SyncUpsertEngine.updateField(attraction.getLongitude(), external.getLongitude(), attraction::setLongitude);
+            changed |= SyncUpsertEngine.updateField(attraction.getLatitude(), external.getLatitude(), attraction::setLatitude);
+            changed |= SyncUpsertEngine.updateField(attraction.getTicketPrice(), external.getTicketPrice(), attraction::setTicketPrice);
+            changed |= SyncUpsertEngine.updateField(attraction.getTicketStock(), external.getTicketStock(), attraction::setTicketStock);
+            changed |= SyncUpsertEngine.updateField(attraction.getValidPeriod(), external.getValidPeriod(), attraction::setValidPeriod);
+            if (changed) {
+                attraction.setSyncSource(syncSource);
+                attraction.setSyncTime(syncTime);
+            }
+            return changed;
+        }
+        
+        @Override
+        public Long getId(Attraction attraction) {
+            return attraction.getId();
+        }
+        
+        @Override
+        public String getFingerprint(Attraction attraction) {
+            return attraction.getSyncFingerprint();
         }
         
-        if (attraction == null) {
-            // 创建新景点
-            AttractionCreateRequest createRequest = new AttractionCreateRequest();
-            BeanUtils.copyProperties(external, createRequest);
-            createRequest.setStatus(1); // 默认上架
-            attractionService.create(createRequest);
-            log.info("同步创建景点: name={}", external.getName());
-        } else {
-            // 更新已有景点
-            com.travel.dto.AttractionUpdateRequest updateRequest = new com.travel.dto.AttractionUpdateRequest();
-            BeanUtils.copyProperties(external, updateRequest);
-            attractionService.update(attraction.getId(), updateRequest);
-            log.info("同步更新景点: id={}, name={}", attraction.getId(), external.getName());
+        @Override
+        public void setFingerprint(Attraction attraction, String fingerprint) {
+            attraction.setSyncFingerprint(fingerprint);
         }
+        
+        @Override
+        public void insertBatch(List<Attraction> attractions) {
+            attractionMapper.batchInsert(attractions);
+        }
+        
+        @Override
+        public int updateBatch(List<Attraction> attractions) {
+            return attractionMapper.batchUpdate(attractions);
+        }
+        
+        @Override
+        public void invalidate(Set<Long> changedIds) {
+            cacheService.evictAttractionDetails(new ArrayList<>(changedIds));
+            cacheService.evictHome();
+            geoLocationIndex.refresh(GeoLocationIndex.TYPE_ATTRACTION, changedIds);
+        }
+    }
+    
+    /**
+     * 自然键：名称+地址
+     */
+    private static String naturalKey(String name, String address) {
+        return name + '\u0001' + address;
+    }
+    
+    /**
+     * 外部数据未提供地址时的匹配键：名称+城市（城市为空时只按名称）
+     */
+    private static String nameKey(String name, String city) {
+        return name + '\u0002' + (city != null ? city : "");
     }
     
     /**
@@ -5,10 +5,9 @@ import com.travel.common.CacheConstants;
 import com.travel.dto.HomeResponse;
 import com.travel.entity.Article;
 import com.travel.entity.Attraction;
-import com.travel.entity.MiniProgramConfig;
 import com.travel.entity.PaymentConfig;
 import com.travel.entity.Product;
-import com.travel.mapper.MiniProgramConfigMapper;
+import com.travel.util.RotatingBloomFilter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -40,8 +39,7 @@ public class CacheService {
     private Cache<String, String> smsCodeCache;
     
     @Autowired
-    @Qualifier("miniprogramConfigCache")
-    private Cache<String, MiniProgramConfig> miniprogramConfigCache;
+    private MiniProgramConfigRegistry miniProgramConfigRegistry;
     
     @Autowired
     @Qualifier("homeCache")
@@ -60,16 +58,13 @@ public class CacheService {
     private Cache<Long, Article> articleDetailCache;
     
     @Autowired
-    @Qualifier("articleViewCache")
-    private Cache<String, Long> articleViewCache;
+    @Qualifier("articleViewFilter")
+    private RotatingBloomFilter articleViewFilter;
     
     @Autowired
     @Lazy
     private HomeService homeService;
     
-    @Autowired
-    private MiniProgramConfigMapper miniProgramConfigMapper;
-    
     @Autowired
     @Lazy
     private PaymentConfigService paymentConfigService;
@@ -92,12 +87,12 @@ public class CacheService {
     public void clearAll() {
         tokenBlacklistCache.invalidateAll();
         smsCodeCache.invalidateAll();
-        miniprogramConfigCache.invalidateAll();
+        miniProgramConfigRegistry.invalidate();
         homeCache.invalidateAll();
         attractionDetailCache.invalidateAll();
         productDetailCache.invalidateAll();
         articleDetailCache.invalidateAll();
-        articleViewCache.invalidateAll();
+        articleViewFilter.clear();
         log.info("已清除所有缓存");
     }
     
@@ -117,7 +112,7 @@ public class CacheService {
                 log.info("已清除短信验证码缓存");
                 break;
             case "miniprogram":
-                miniprogramConfigCache.invalidateAll();
+                miniProgramConfigRegistry.invalidate();
                 log.info("已清除小程序配置缓存");
                 break;
             case "home":
@@ -137,8 +132,8 @@ public class CacheService {
                 log.info("已清除文章详情缓存");
                 break;
             case "articleView":
-                articleViewCache.invalidateAll();
-                log.info("已清除文章阅读量缓存");
+                articleViewFilter.clear();
+                log.info("已清除文章阅读量防刷记录");
                 break;
             default:
                 throw new IllegalArgumentException("未知的缓存类型: " + cacheType);
@@ -167,12 +162,10 @@ public class CacheService {
             "evictionCount", smsStats.evictionCount()
         ));
         
-        var miniprogramStats = miniprogramConfigCache.stats();
         stats.put("miniprogramConfig", Map.of(
-            "estimatedSize", miniprogramConfigCache.estimatedSize(),
-            "hitCount", miniprogramStats.hitCount(),
-            "missCount", miniprogramStats.missCount(),
-            "evictionCount", miniprogramStats.evictionCount()
+            "estimatedSize", miniProgramConfigRegistry.size(),
+            "failedCount", miniProgramConfigRegistry.getFailedCount(),
+            "loadTime", miniProgramConfigRegistry.getLoadTime().toString()
         ));
         
         var homeStats = homeCache.stats();
@@ -207,12 +200,12 @@ public class CacheService {
             "evictionCount", articleStats.evictionCount()
         ));
         
-        var articleViewStats = articleViewCache.stats();
         stats.put("articleView", Map.of(
-            "estimatedSize", articleViewCache.estimatedSize(),
-            "hitCount", articleViewStats.hitCount(),
-            "missCount", articleViewStats.missCount(),
-            "evictionCount", articleViewStats.evictionCount()
+            "memoryBytes", articleViewFilter.getMemoryBytes(),
+            "checkCount", articleViewFilter.getCheckCount(),
+            "duplicateCount", articleViewFilter.getDuplicateCount(),
+            "rotateCount", articleViewFilter.getRotateCount(),
+            "falsePositiveProbability", articleViewFilter.getFalsePositiveProbability()
         ));
         
         return stats;
@@ -238,7 +231,7 @@ public class CacheService {
      */
     public void evictMiniprogramConfig() {
         try {
-            miniprogramConfigCache.invalidateAll();
+            miniProgramConfigRegistry.invalidate();
             log.info("已清除小程序配置缓存");
         } catch (Exception e) {
             log.error("清除小程序配置缓存失败", e);
@@ -482,42 +475,18 @@ public class CacheService {
         try {
             log.info("开始刷新小程序配置缓存");
             
-            // 查询所有启用的配置
-            List<MiniProgramConfig> configs = miniProgramConfigMapper.selectAll(null, 1);
-            
-            if (configs == null || configs.isEmpty()) {
-                log.warn("未查询到启用的小程序配置");
-                return CacheRefreshResult.builder()
-                        .totalCount(0)
-                        .successCount(0)
-                        .failedCount(0)
-                        .duration(System.currentTimeMillis() - startTime)
-                        .build();
-            }
-            
-            // 将配置写入缓存（按configKey作为键）
-            int successCount = 0;
-            int failedCount = 0;
-            
-            for (MiniProgramConfig config : configs) {
-                try {
-                    if (config.getConfigKey() != null) {
-                        miniprogramConfigCache.put(config.getConfigKey(), config);
-                        successCount++;
-                    }
-                } catch (Exception e) {
-                    log.error("写入小程序配置缓存失败，configKey: {}", config.getConfigKey(), e);
-                    failedCount++;
-                }
-            }
+            // 重新加载所有启用的配置并替换配置快照
+            miniProgramConfigRegistry.reload();
+            int totalCount = miniProgramConfigRegistry.size();
+            int failedCount = miniProgramConfigRegistry.getFailedCount();
             
             long duration = System.currentTimeMillis() - startTime;
-            log.info("小程序配置缓存刷新完成，成功: {}, 失败: {}, 耗时: {}ms", 
-                    successCount, failedCount, duration);
+            log.info("小程序配置缓存刷新完成，配置数: {}, 解析失败: {}, 耗时: {}ms", 
+                    totalCount, failedCount, duration);
             
             return CacheRefreshResult.builder()
-                    .totalCount(configs.size())
-                    .successCount(successCount)
+                    .totalCount(totalCount)
+                    .successCount(totalCount - failedCount)
                     .failedCount(failedCount)
                     .duration(duration)
                     .build();
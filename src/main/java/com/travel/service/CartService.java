@@ -14,7 +14,6 @@ import com.travel.mapper.AttractionMapper;
 import com.travel.mapper.CartMapper;
 import com.travel.mapper.HotelRoomMapper;
 import com.travel.mapper.ProductMapper;
-import com.travel.util.OssUrlUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -47,9 +46,6 @@ public class CartService {
     @Autowired
     private com.travel.mapper.AttractionTicketMapper attractionTicketMapper;
     
-    @Autowired
-    private OssUrlUtil ossUrlUtil;
-    
     /**
      * 获取购物车列表（包含商品详情）
      */
@@ -65,10 +61,8 @@ public class CartService {
         List<CartResponse> responseList = new ArrayList<>();
         for (Cart cart : cartList) {
             Object itemDetail = getItemDetail(cart.getItemType(), cart.getItemId());
-            CartResponse response = CartResponse.fromCart(cart, itemDetail);
-            // 处理OSS URL签名（返回的URL都是签名URL）
-            processOssUrlsInCartResponse(response);
-            responseList.add(response);
+            // 商品图片URL在序列化时处理（CartResponse.itemImage 标注了 @OssUrl）
+            responseList.add(CartResponse.fromCart(cart, itemDetail));
         }
         
         return responseList;
@@ -251,18 +245,4 @@ public class CartService {
             }
         }
     }
-    
-    /**
-     * 处理购物车响应中的OSS URL，生成签名URL
-     * 使用OssUrlUtil统一处理，返回的URL都是签名URL
-     */
-    private void processOssUrlsInCartResponse(CartResponse response) {
-        if (response == null) {
-            return;
-        }
-        // 处理商品图片
-        if (response.getItemImage() != null && !response.getItemImage().isEmpty()) {
-            response.setItemImage(ossUrlUtil.processUrl(response.getItemImage()));
-        }
-    }
 }
@@ -10,6 +10,7 @@ import com.travel.mapper.AttractionMapper;
 import com.travel.mapper.HotelMapper;
 import com.travel.mapper.HotelRoomMapper;
 import com.travel.mapper.ProductMapper;
+import com.travel.util.ImageVariantUtil;
 import com.travel.util.OssUrlUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -67,7 +68,7 @@ public class CategoryService {
             // 处理OSS URL签名（返回的URL都是签名URL）
             String iconUrl = category.getIcon();
             if (iconUrl != null && !iconUrl.isEmpty()) {
-                categoryMap.put("icon", ossUrlUtil.processUrl(iconUrl));
+                categoryMap.put("icon", ossUrlUtil.processImageUrl(iconUrl, ImageVariantUtil.THUMBNAIL_WIDTH));
             } else {
                 categoryMap.put("icon", iconUrl);
             }
@@ -188,8 +189,9 @@ public class CategoryService {
         if (hotel.getImages() != null && !hotel.getImages().isEmpty()) {
             String firstImage = hotel.getImages().get(0);
             // 处理OSS URL签名（返回的URL都是签名URL）
-            map.put("image", ossUrlUtil.processUrl(firstImage));
-            map.put("coverImage", ossUrlUtil.processUrl(firstImage));
+            // 列表卡片使用小宽度副本，images 保留原图供详情展示
+            map.put("image", ossUrlUtil.processImageUrl(firstImage, ImageVariantUtil.CARD_WIDTH));
+            map.put("coverImage", ossUrlUtil.processImageUrl(firstImage, ImageVariantUtil.CARD_WIDTH));
         } else {
             map.put("image", "");
             map.put("coverImage", "");
@@ -408,8 +410,9 @@ public class CategoryService {
         if (product.getImages() != null && !product.getImages().isEmpty()) {
             String firstImage = product.getImages().get(0);
             // 处理OSS URL签名（返回的URL都是签名URL）
-            map.put("image", ossUrlUtil.processUrl(firstImage));
-            map.put("coverImage", ossUrlUtil.processUrl(firstImage));
+            // 列表卡片使用小宽度副本，images 保留原图供详情展示
+            map.put("image", ossUrlUtil.processImageUrl(firstImage, ImageVariantUtil.CARD_WIDTH));
+            map.put("coverImage", ossUrlUtil.processImageUrl(firstImage, ImageVariantUtil.CARD_WIDTH));
         } else {
             map.put("image", "");
             map.put("coverImage", "");
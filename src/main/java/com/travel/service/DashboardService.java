@@ -3,6 +3,7 @@ package com.travel.service;
 import com.travel.dto.DashboardStatsResponse;
 import com.travel.dto.OrderTrendResponse;
 import com.travel.dto.SalesStatsResponse;
+import com.travel.entity.StatsDaily;
 import com.travel.mapper.StatisticsMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,6 +16,7 @@ import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 仪表盘服务类
@@ -28,6 +30,12 @@ public class DashboardService {
     @Autowired
     private StatisticsMapper statisticsMapper;
     
+    @Autowired
+    private StatisticsRollupService statisticsRollupService;
+    
+    @Autowired
+    private StatisticsQueryExecutor statisticsQueryExecutor;
+    
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
     private static final DateTimeFormatter DISPLAY_FORMATTER = DateTimeFormatter.ofPattern("M/d");
     
@@ -37,21 +45,26 @@ public class DashboardService {
     public DashboardStatsResponse getStats() {
         DashboardStatsResponse response = new DashboardStatsResponse();
         
-        // 获取今天的开始和结束时间
+        // 各项查询并发执行：今日数据实时统计，昨日数据读取汇总表
         LocalDate today = LocalDate.now();
         LocalDate yesterday = today.minusDays(1);
-        String todayStart = today.format(DATE_FORMATTER) + " 00:00:00";
-        String todayEnd = today.format(DATE_FORMATTER) + " 23:59:59";
-        String yesterdayStart = yesterday.format(DATE_FORMATTER) + " 00:00:00";
-        String yesterdayEnd = yesterday.format(DATE_FORMATTER) + " 23:59:59";
+        CompletableFuture<StatisticsSummary> todayFuture = statisticsQueryExecutor.submit(
+                "summary:" + today + ":" + today, () -> statisticsRollupService.getSummary(today, today));
+        CompletableFuture<StatisticsSummary> yesterdayFuture = statisticsQueryExecutor.submit(
+                "summary:" + yesterday + ":" + yesterday, () -> statisticsRollupService.getSummary(yesterday, yesterday));
+        CompletableFuture<Long> pendingOrdersFuture = statisticsQueryExecutor.submit(
+                "pendingOrders", () -> statisticsMapper.countPendingOrders());
+        CompletableFuture<Long> totalUsersFuture = statisticsQueryExecutor.submit(
+                "totalUsers", () -> statisticsMapper.countUsers(null, null));
+        StatisticsSummary todayStats = statisticsQueryExecutor.join(todayFuture);
+        StatisticsSummary yesterdayStats = statisticsQueryExecutor.join(yesterdayFuture);
         
         // 今日订单数
-        Long todayOrders = statisticsMapper.countOrders(todayStart, todayEnd);
-        response.setTodayOrders(todayOrders != null ? todayOrders : 0L);
+        Long todayOrders = todayStats.getOrderCount();
+        response.setTodayOrders(todayOrders);
         
         // 昨日订单数（用于计算变化率）
-        Long yesterdayOrders = statisticsMapper.countOrders(yesterdayStart, yesterdayEnd);
-        yesterdayOrders = yesterdayOrders != null ? yesterdayOrders : 0L;
+        Long yesterdayOrders = yesterdayStats.getOrderCount();
         
         // 计算今日订单变化率
         if (yesterdayOrders > 0) {
@@ -64,12 +77,11 @@ public class DashboardService {
         }
         
         // 今日销售额（已支付订单金额）
-        BigDecimal todaySales = statisticsMapper.sumPaidOrderAmount(todayStart, todayEnd);
-        response.setTodaySales(todaySales != null ? todaySales : BigDecimal.ZERO);
+        BigDecimal todaySales = todayStats.getPaidAmount();
+        response.setTodaySales(todaySales);
         
         // 昨日销售额（用于计算变化率）
-        BigDecimal yesterdaySales = statisticsMapper.sumPaidOrderAmount(yesterdayStart, yesterdayEnd);
-        yesterdaySales = yesterdaySales != null ? yesterdaySales : BigDecimal.ZERO;
+        BigDecimal yesterdaySales = yesterdayStats.getPaidAmount();
         
         // 计算今日销售额变化率
         if (yesterdaySales.compareTo(BigDecimal.ZERO) > 0) {
@@ -84,11 +96,11 @@ public class DashboardService {
         }
         
         // 待处理订单数
-        Long pendingOrders = statisticsMapper.countPendingOrders();
+        Long pendingOrders = statisticsQueryExecutor.join(pendingOrdersFuture);
         response.setPendingOrders(pendingOrders != null ? pendingOrders : 0L);
         
         // 总用户数（不限制时间）
-        Long totalUsers = statisticsMapper.countUsers(null, null);
+        Long totalUsers = statisticsQueryExecutor.join(totalUsersFuture);
         response.setTotalUsers(totalUsers != null ? totalUsers : 0L);
         
         return response;
@@ -107,27 +119,11 @@ public class DashboardService {
         // 计算时间范围
         LocalDate endDate = LocalDate.now();
         LocalDate startDate = endDate.minusDays(days - 1);
-        String startTime = startDate.format(DATE_FORMATTER) + " 00:00:00";
-        String endTime = endDate.format(DATE_FORMATTER) + " 23:59:59";
-        
-        // 查询订单趋势数据
-        List<Map<String, Object>> orderTrend = statisticsMapper.getOrderTrend(startTime, endTime);
         
-        // 构建日期和值的映射
+        // 查询每日统计（历史日期读取汇总表，当天实时统计）
         Map<String, Long> trendMap = new java.util.HashMap<>();
-        for (Map<String, Object> item : orderTrend) {
-            // 处理 date 字段，可能是 java.sql.Date 或 String
-            Object dateObj = item.get("date");
-            String date;
-            if (dateObj instanceof java.sql.Date) {
-                date = ((java.sql.Date) dateObj).toLocalDate().format(DATE_FORMATTER);
-            } else if (dateObj instanceof java.util.Date) {
-                date = new java.text.SimpleDateFormat("yyyy-MM-dd").format((java.util.Date) dateObj);
-            } else {
-                date = dateObj.toString();
-            }
-            Long count = ((Number) item.get("count")).longValue();
-            trendMap.put(date, count);
+        for (StatsDaily daily : getDailyStats(startDate, endDate)) {
+            trendMap.put(daily.getStatDate().format(DATE_FORMATTER), daily.getOrderCount());
         }
         
         // 填充所有日期（包括没有订单的日期）
@@ -162,30 +158,12 @@ public class DashboardService {
         // 计算时间范围
         LocalDate endDate = LocalDate.now();
         LocalDate startDate = endDate.minusDays(days - 1);
-        String startTime = startDate.format(DATE_FORMATTER) + " 00:00:00";
-        String endTime = endDate.format(DATE_FORMATTER) + " 23:59:59";
         
-        // 查询销售趋势数据（使用已支付订单金额）
-        List<Map<String, Object>> amountTrend = statisticsMapper.getPaidAmountTrend(startTime, endTime);
-        
-        // 构建日期和金额的映射
+        // 查询销售趋势数据（使用已支付订单金额，历史日期读取汇总表，当天实时统计）
         Map<String, BigDecimal> trendMap = new java.util.HashMap<>();
-        for (Map<String, Object> item : amountTrend) {
-            // 处理 date 字段，可能是 java.sql.Date 或 String
-            Object dateObj = item.get("date");
-            String date;
-            if (dateObj instanceof java.sql.Date) {
-                date = ((java.sql.Date) dateObj).toLocalDate().format(DATE_FORMATTER);
-            } else if (dateObj instanceof java.util.Date) {
-                date = new java.text.SimpleDateFormat("yyyy-MM-dd").format((java.util.Date) dateObj);
-            } else {
-                date = dateObj.toString();
-            }
-            BigDecimal amount = (BigDecimal) item.get("amount");
-            if (amount == null) {
-                amount = BigDecimal.ZERO;
-            }
-            trendMap.put(date, amount);
+        for (StatsDaily daily : getDailyStats(startDate, endDate)) {
+            BigDecimal amount = daily.getPaidAmount();
+            trendMap.put(daily.getStatDate().format(DATE_FORMATTER), amount != null ? amount : BigDecimal.ZERO);
         }
         
         // 填充所有日期（包括没有订单的日期）
@@ -206,4 +184,12 @@ public class DashboardService {
         
         return response;
     }
+    
+    /**
+     * 查询每日统计（订单趋势和销售统计同时加载时共用同一次查询）
+     */
+    private List<StatsDaily> getDailyStats(LocalDate startDate, LocalDate endDate) {
+        return statisticsQueryExecutor.get("daily:" + startDate + ":" + endDate,
+                () -> statisticsRollupService.getDailyStats(startDate, endDate));
+    }
 }
@@ -63,7 +63,7 @@ public class DetailService {
     
     /**
      * 获取景点详情
-     * 注意：返回的图片URL（images字段）都是签名URL（OSS文件），可直接使用
+     * 注意：返回的图片URL（images字段）标注了 @OssUrl，在序列化时转换为公开URL，缓存中的对象不会被修改
      */
     public Attraction getAttractionDetail(Long id) {
         if (id == null) {
@@ -74,8 +74,6 @@ public class DetailService {
         Attraction cached = attractionDetailCache.getIfPresent(id);
         if (cached != null) {
             log.info("从缓存获取景点详情，ID: {}", id);
-            // 处理OSS URL签名（缓存中的数据也需要处理，因为签名URL有过期时间）
-            processOssUrlsInAttraction(cached);
             return cached;
         }
         
@@ -90,9 +88,6 @@ public class DetailService {
             throw new com.travel.exception.BusinessException(com.travel.common.ResultCode.NOT_FOUND);
         }
         
-        // 处理OSS URL签名
-        processOssUrlsInAttraction(attraction);
-
         // 加载票种分类和票种列表，用于小程序景点详情页
         try {
             List<AttractionTicketCategory> categories = attractionTicketCategoryMapper.selectList(id);
@@ -247,28 +242,6 @@ public class DetailService {
         return result;
     }
     
-    /**
-     * 处理景点中的OSS URL，生成签名URL
-     * 使用OssUrlUtil统一处理，返回的URL都是签名URL
-     */
-    private void processOssUrlsInAttraction(Attraction attraction) {
-        if (attraction == null) {
-            return;
-        }
-        // 处理图片列表（images字段是List<String>，需要特殊处理）
-        if (attraction.getImages() != null && !attraction.getImages().isEmpty()) {
-            java.util.List<String> signedImages = new java.util.ArrayList<>();
-            for (String imageUrl : attraction.getImages()) {
-                if (imageUrl != null && !imageUrl.isEmpty()) {
-                    signedImages.add(ossUrlUtil.processUrl(imageUrl));
-                } else {
-                    signedImages.add(imageUrl);
-                }
-            }
-            attraction.setImages(signedImages);
-        }
-    }
-    
     /**
      * 处理酒店Map中的OSS URL，生成签名URL
      * 使用OssUrlUtil统一处理，返回的URL都是签名URL
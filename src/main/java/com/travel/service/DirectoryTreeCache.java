@@ -0,0 +1,328 @@
+package com.travel.service;
+
+import com.travel.entity.Directory;
+import com.travel.mapper.DirectoryMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 目录树缓存
+ *
+ * 一次查询加载所有目录，按父子关系建立索引（每层子目录已排好序），保存为不可变快照：
+ * - 读取目录树不再访问数据库，也不再重建和递归排序，只按快照复制节点并计算子目录合计
+ * - 创建、删除目录（见 DirectoryServiceImpl）在事务提交后以写时复制方式替换快照，读取方不会看到部分更新的树
+ * - 直属文件统计（数量、大小）保存在节点的原子计数中，文件记录变更在事务提交后直接累加（见 FileRecordServiceImpl），
+ *   不替换快照；重新加载期间的增量在替换快照后补到新快照上，不会丢失
+ * - 定时重新加载，使多实例部署时其他实例的变更也能生效，并校正统计
+ *
+ * @author travel-platform
+ */
+@Slf4j
+@Service
+public class DirectoryTreeCache {
+
+    /**
+     * 同层目录按 sort、id 排序
+     */
+    private static final Comparator<Node> NODE_ORDER = Comparator
+            .comparingInt((Node node) -> node.sort)
+            .thenComparingLong(node -> node.id);
+
+    @Autowired
+    private DirectoryMapper directoryMapper;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    /**
+     * 重新加载期间累加的文件统计（非重新加载期间为null），替换快照后补到新快照上
+     * 新快照的统计来自加载时查询的数据库，查询之后提交的文件记录变更只累加到了旧快照；
+     * 提交恰好与查询开始重叠的变更可能重复累加，由下次重新加载校正
+     */
+    private List<FileStatsDelta> reloadDeltas;
+
+    private final Object deltaLock = new Object();
+
+    /**
+     * 获取目录树（每次返回新的对象，调用方可以修改）
+     *
+     * @return 根目录列表，children 为子目录，totalFileCount/totalFileSize 为含子目录的文件合计
+     */
+    public List<Directory> getTree() {
+        Snapshot current = snapshot();
+        List<Directory> roots = new ArrayList<>(current.rootIds.size());
+        for (Long rootId : current.rootIds) {
+            roots.add(copyTree(current, current.byId.get(rootId)));
+        }
+        return roots;
+    }
+
+    /**
+     * 根据ID获取目录（不含子目录）
+     *
+     * @param id 目录ID
+     * @return 目录副本，不存在时返回null
+     */
+    public Directory get(Long id) {
+        Node node = snapshot().byId.get(id);
+        return node != null ? node.toDirectory() : null;
+    }
+
+    /**
+     * 新增目录（事务提交后调用）
+     *
+     * @param directory 已保存的目录
+     */
+    public synchronized void added(Directory directory) {
+        Snapshot current = snapshot.get();
+        if (current == null || directory.getId() == null) {
+            return;
+        }
+        Map<Long, Node> byId = new HashMap<>(current.byId);
+        byId.put(directory.getId(), new Node(directory));
+        snapshot.set(new Snapshot(byId));
+    }
+
+    /**
+     * 移除目录（事务提交后调用）
+     *
+     * @param ids 已删除的目录ID
+     */
+    public synchronized void removed(Collection<Long> ids) {
+        Snapshot current = snapshot.get();
+        if (current == null || ids == null || ids.isEmpty()) {
+            return;
+        }
+        Map<Long, Node> byId = new HashMap<>(current.byId);
+        byId.keySet().removeAll(ids);
+        snapshot.set(new Snapshot(byId));
+    }
+
+    /**
+     * 累加目录直属文件统计（事务提交后调用）
+     *
+     * @param path 目录路径（文件记录的 module），不是目录时忽略
+     * @param countDelta 文件数量增量
+     * @param sizeDelta 文件大小增量（字节）
+     */
+    public void applyFileStats(String path, long countDelta, long sizeDelta) {
+        if (path == null) {
+            return;
+        }
+        synchronized (deltaLock) {
+            Snapshot current = snapshot.get();
+            if (current != null) {
+                applyFileStats(current, path, countDelta, sizeDelta);
+            }
+            if (reloadDeltas != null) {
+                reloadDeltas.add(new FileStatsDelta(path, countDelta, sizeDelta));
+            }
+        }
+    }
+
+    private static void applyFileStats(Snapshot current, String path, long countDelta, long sizeDelta) {
+        Node node = current.byPath.get(path);
+        if (node != null) {
+            node.fileCount.updateAndGet(value -> Math.max(0, value + countDelta));
+            node.fileSize.updateAndGet(value -> Math.max(0, value + sizeDelta));
+        }
+    }
+
+    /**
+     * 从数据库重新加载所有目录并替换快照
+     */
+    public synchronized void reload() {
+        long startTime = System.currentTimeMillis();
+        synchronized (deltaLock) {
+            reloadDeltas = new ArrayList<>();
+        }
+        Snapshot reloaded = null;
+        try {
+            List<Directory> directories = directoryMapper.selectAll();
+            Map<Long, Node> byId = new HashMap<>();
+            if (directories != null) {
+                for (Directory directory : directories) {
+                    byId.put(directory.getId(), new Node(directory));
+                }
+            }
+            reloaded = new Snapshot(byId);
+        } finally {
+            synchronized (deltaLock) {
+                if (reloaded != null) {
+                    snapshot.set(reloaded);
+                    for (FileStatsDelta delta : reloadDeltas) {
+                        applyFileStats(reloaded, delta.path, delta.countDelta, delta.sizeDelta);
+                    }
+                }
+                reloadDeltas = null;
+            }
+        }
+        log.info("目录树已加载，目录数: {}, 耗时: {}ms", reloaded.byId.size(), System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * 丢弃当前快照，下次读取时重新加载
+     */
+    public void invalidate() {
+        snapshot.set(null);
+    }
+
+    /**
+     * 定时重新加载（多实例部署时同步其他实例的变更）
+     */
+    @Scheduled(fixedDelayString = "${travel.directory.refresh-interval-ms:300000}",
+               initialDelayString = "${travel.directory.refresh-interval-ms:300000}")
+    public void scheduledReload() {
+        try {
+            reload();
+        } catch (Exception e) {
+            log.error("定时加载目录树失败，继续使用当前快照", e);
+        }
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot.get();
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot.get();
+                if (current == null) {
+                    reload();
+                    current = snapshot.get();
+                }
+            }
+        }
+        return current;
+    }
+
+    private static Directory copyTree(Snapshot current, Node node) {
+        Directory directory = node.toDirectory();
+        List<Long> childIds = current.childIds.getOrDefault(node.id, Collections.emptyList());
+        List<Directory> children = new ArrayList<>(childIds.size());
+        long totalCount = directory.getFileCount();
+        long totalSize = directory.getFileSize();
+        for (Long childId : childIds) {
+            Directory child = copyTree(current, current.byId.get(childId));
+            totalCount += child.getTotalFileCount();
+            totalSize += child.getTotalFileSize();
+            children.add(child);
+        }
+        directory.setChildren(children);
+        directory.setTotalFileCount(totalCount);
+        directory.setTotalFileSize(totalSize);
+        return directory;
+    }
+
+    /**
+     * 目录节点：目录属性不可变，直属文件统计为原子计数（快照替换时沿用同一节点，统计不会丢失）
+     */
+    private static final class Node {
+        private final Long id;
+        private final String name;
+        private final String path;
+        private final Long parentId;
+        private final Integer level;
+        private final int sort;
+        private final LocalDateTime createdAt;
+        private final Long createdBy;
+        private final AtomicLong fileCount;
+        private final AtomicLong fileSize;
+
+        private Node(Directory directory) {
+            this.id = directory.getId();
+            this.name = directory.getName();
+            this.path = directory.getPath();
+            this.parentId = directory.getParentId();
+            this.level = directory.getLevel();
+            this.sort = directory.getSort() != null ? directory.getSort() : 0;
+            this.createdAt = directory.getCreatedAt();
+            this.createdBy = directory.getCreatedBy();
+            this.fileCount = new AtomicLong(directory.getFileCount() != null ? directory.getFileCount() : 0);
+            this.fileSize = new AtomicLong(directory.getFileSize() != null ? directory.getFileSize() : 0L);
+        }
+
+        private Directory toDirectory() {
+            Directory directory = new Directory();
+            directory.setId(id);
+            directory.setName(name);
+            directory.setPath(path);
+            directory.setParentId(parentId);
+            directory.setLevel(level);
+            directory.setSort(sort);
+            directory.setCreatedAt(createdAt);
+            directory.setCreatedBy(createdBy);
+            directory.setFileCount((int) Math.min(fileCount.get(), Integer.MAX_VALUE));
+            directory.setFileSize(fileSize.get());
+            return directory;
+        }
+    }
+
+    /**
+     * 重新加载期间的文件统计增量
+     */
+    private static final class FileStatsDelta {
+        private final String path;
+        private final long countDelta;
+        private final long sizeDelta;
+
+        private FileStatsDelta(String path, long countDelta, long sizeDelta) {
+            this.path = path;
+            this.countDelta = countDelta;
+            this.sizeDelta = sizeDelta;
+        }
+    }
+
+    /**
+     * 不可变的目录树快照
+     */
+    private static final class Snapshot {
+        private final Map<Long, Node> byId;
+        private final Map<String, Node> byPath;
+        private final Map<Long, List<Long>> childIds;
+        private final List<Long> rootIds;
+
+        private Snapshot(Map<Long, Node> byId) {
+            Map<String, Node> pathIndex = new HashMap<>(byId.size() * 2);
+            Map<Long, List<Node>> children = new HashMap<>();
+            List<Node> roots = new ArrayList<>();
+            for (Node node : byId.values()) {
+                pathIndex.put(node.path, node);
+                if (node.parentId == null) {
+                    roots.add(node);
+                } else if (byId.containsKey(node.parentId)) {
+                    children.computeIfAbsent(node.parentId, key -> new ArrayList<>()).add(node);
+                }
+                // 父目录不存在的目录不出现在目录树中
+            }
+
+            Map<Long, List<Long>> childIndex = new HashMap<>(children.size() * 2);
+            for (Map.Entry<Long, List<Node>> entry : children.entrySet()) {
+                childIndex.put(entry.getKey(), sortedIds(entry.getValue()));
+            }
+            this.byId = Collections.unmodifiableMap(byId);
+            this.byPath = Collections.unmodifiableMap(pathIndex);
+            this.childIds = Collections.unmodifiableMap(childIndex);
+            this.rootIds = sortedIds(roots);
+        }
+
+        private static List<Long> sortedIds(List<Node> nodes) {
+            nodes.sort(NODE_ORDER);
+            List<Long> ids = new ArrayList<>(nodes.size());
+            for (Node node : nodes) {
+                ids.add(node.id);
+            }
+            return Collections.unmodifiableList(ids);
+        }
+    }
+}
@@ -5,6 +5,7 @@ import com.travel.entity.FileRecord;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * 文件记录服务接口
@@ -20,6 +21,13 @@ public interface FileRecordService {
      */
     FileRecord saveFileRecord(FileRecord record);
     
+    /**
+     * 更新文件记录的存储信息（文件名、路径、URL、大小、扩展名）
+     * @param record 文件记录对象（必须包含ID）
+     * @return true-更新成功，false-更新失败
+     */
+    boolean updateFileRecord(FileRecord record);
+    
     /**
      * 根据ID查询文件记录
      * @param id 文件ID
@@ -72,8 +80,30 @@ public interface FileRecordService {
     List<FileRecord> getFileRecordsByIds(List<Long> ids);
     
     /**
-     * 获取文件统计信息
-     * @return 统计信息（总文件数、总大小、OSS文件数、OSS大小、本地文件数、本地大小）
+     * 根据内容哈希查询已上传的OSS文件（用于去重）
+     * @param contentHash 文件内容SHA-256
+     * @param fileType 文件类型（image/video）
+     * @return 文件记录，不存在时返回null
+     */
+    FileRecord getFileRecordByContentHash(String contentHash, String fileType);
+    
+    /**
+     * 统计引用同一OSS对象的文件记录数量（引用计数）
+     * @param record 文件记录
+     * @return 引用数量（没有内容哈希的历史记录始终为1）
+     */
+    int countReferences(FileRecord record);
+    
+    /**
+     * 批量判断OSS对象是否仍被其他文件记录引用（批量删除用，一次查询）
+     * @param records 要删除的文件记录
+     * @return 除这些记录外仍被引用的文件路径
+     */
+    Set<String> getSharedFilePaths(List<FileRecord> records);
+    
+    /**
+     * 获取文件统计信息（读取维护的汇总数据，见 FileStatisticsService）
+     * @return 统计信息（总文件数、总大小、OSS文件数、OSS大小、本地文件数、本地大小、按文件类型的合计）
      */
     Map<String, Object> getFileStatistics();
 }
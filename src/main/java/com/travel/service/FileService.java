@@ -1,17 +1,29 @@
 package com.travel.service;
 
+import com.travel.dto.ImageProcessingJobResponse;
 import com.travel.entity.FileRecord;
+import com.travel.util.ImageVariantUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -38,6 +50,9 @@ public class FileService {
     @Autowired
     private com.travel.service.DirectoryService directoryService;
     
+    @Autowired
+    private ImageProcessingService imageProcessingService;
+    
     /**
      * 上传图片（仅支持OSS存储）
      * 
@@ -49,13 +64,113 @@ public class FileService {
      * @throws IllegalStateException OSS未配置时抛出
      */
     public String uploadImage(MultipartFile file, String module, Long directoryId) throws IOException {
-        // 如果提供了目录ID，使用目录路径作为module
+        module = resolveModule(module, directoryId);
+        validateImage(file);
+        return uploadFile(file, module, "image");
+    }
+    
+    /**
+     * 异步上传图片（仅支持OSS存储）
+     * 
+     * 只上传原图并创建文件记录后立即返回，WebP压缩由 {@link ImageProcessingService} 在后台完成，
+     * 调用方通过返回的任务ID轮询处理结果。
+     * 
+     * @param file 图片文件
+     * @param module 模块名称
+     * @param directoryId 目录ID（可选，如果提供则使用目录路径作为module）
+     * @return 图片处理任务信息
+     * @throws IOException IO异常
+     * @throws IllegalStateException OSS未配置时抛出
+     */
+    public ImageProcessingJobResponse uploadImageAsync(MultipartFile file, String module, Long directoryId) throws IOException {
+        module = resolveModule(module, directoryId);
+        validateImage(file);
+        
+        if (!ossService.isOssEnabled()) {
+            log.warn("OSS未配置，文件上传失败: {}", file.getOriginalFilename());
+            throw new IllegalStateException("OSS未配置，请先在系统配置中配置OSS信息");
+        }
+        
+        // 内容相同的图片已处理过时直接复用处理结果
+        String contentHash = computeContentHash(file);
+        FileRecord existing = fileRecordService.getFileRecordByContentHash(contentHash, "image");
+        if (existing != null) {
+            FileRecord record = reuseFileRecord(existing, file.getOriginalFilename(), module);
+            return imageProcessingService.submitCompleted(record);
+        }
+        
+        // 队列已满时在上传前拒绝
+        String tenant = getCurrentUploader();
+        imageProcessingService.ensureCapacity(tenant);
+        
+        // 原图落盘，供后台压缩使用（请求结束后上传的临时文件会被容器删除）
+        String originalFilename = file.getOriginalFilename();
+        Path sourceFile = Files.createTempFile("image-process-", "." + getExtension(originalFilename));
+        try {
+            file.transferTo(sourceFile.toFile());
+            
+            String fileUrl;
+            try {
+                fileUrl = ossService.uploadLargeFile(sourceFile, originalFilename, module);
+                log.info("原图上传到OSS成功: {}", fileUrl);
+            } catch (Exception e) {
+                log.error("OSS上传失败，文件: {}, 模块: {}, 错误: {}", originalFilename, module, e.getMessage(), e);
+                throw new IOException(buildErrorMessage(e), e);
+            }
+            
+            // 保存占位文件记录（指向原图，压缩完成后更新为WebP并写入内容哈希）
+            FileRecord record = new FileRecord();
+            record.setFileName(fileUrl.substring(fileUrl.lastIndexOf('/') + 1));
+            record.setOriginalName(originalFilename);
+            record.setFilePath(extractPathFromUrl(fileUrl));
+            record.setFileUrl(fileUrl);
+            record.setFileSize(Files.size(sourceFile));
+            record.setFileType("image");
+            record.setFileExtension(getExtension(originalFilename));
+            record.setModule(module);
+            record.setStorageType("OSS");
+            record.setCreatedAt(LocalDateTime.now());
+            fileRecordService.saveFileRecord(record);
+            
+            ImageProcessingJobResponse job = imageProcessingService.submit(
+                tenant, sourceFile, originalFilename, file.getContentType(), module, record, contentHash);
+            sourceFile = null; // 临时文件由处理任务负责删除
+            return job;
+        } finally {
+            if (sourceFile != null) {
+                Files.deleteIfExists(sourceFile);
+            }
+        }
+    }
+    
+    /**
+     * 解析模块名称：如果提供了目录ID，使用目录路径作为module
+     */
+    private String resolveModule(String module, Long directoryId) {
         if (directoryId != null) {
             com.travel.entity.Directory directory = directoryService.getDirectoryById(directoryId);
             if (directory != null) {
-                module = directory.getPath();
+                return directory.getPath();
             }
         }
+        return module;
+    }
+    
+    /**
+     * 获取当前上传人标识（用于图片处理队列按人公平调度）
+     */
+    private String getCurrentUploader() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getName() != null) {
+            return authentication.getName();
+        }
+        return "anonymous";
+    }
+    
+    /**
+     * 验证图片文件（类型、大小、扩展名）
+     */
+    private void validateImage(MultipartFile file) {
         // 验证文件类型
         String contentType = file.getContentType();
         if (contentType == null || !contentType.startsWith("image/")) {
@@ -78,8 +193,6 @@ public class FileService {
         if (!isValidImageExtension(extension)) {
             throw new IllegalArgumentException("只支持JPG、JPEG、PNG、WebP格式的图片");
         }
-        
-        return uploadFile(file, module, "image");
     }
     
     /**
@@ -100,13 +213,7 @@ public class FileService {
      * @throws IllegalStateException OSS未配置时抛出
      */
     public String uploadVideo(MultipartFile file, String module, Long directoryId) throws IOException {
-        // 如果提供了目录ID，使用目录路径作为module
-        if (directoryId != null) {
-            com.travel.entity.Directory directory = directoryService.getDirectoryById(directoryId);
-            if (directory != null) {
-                module = directory.getPath();
-            }
-        }
+        module = resolveModule(module, directoryId);
         // 验证文件类型
         String contentType = file.getContentType();
         if (contentType == null || !contentType.startsWith("video/")) {
@@ -159,12 +266,21 @@ public class FileService {
         }
         
         MultipartFile fileToUpload = file;
+        ImageCompressionResult compressionResult = null;
         String originalFilename = file.getOriginalFilename();
         
-        // 如果是图片，尝试压缩为 WebP 格式（大于指定分辨率才压缩）
+        // 内容相同的文件已上传过时复用已有的OSS对象，跳过压缩和上传
+        String contentHash = computeContentHash(file);
+        FileRecord existing = fileRecordService.getFileRecordByContentHash(contentHash, type);
+        if (existing != null) {
+            return reuseFileRecord(existing, originalFilename, module).getFileUrl();
+        }
+        
+        // 如果是图片，尝试压缩为 WebP 格式（大于指定分辨率才压缩），同时生成多宽度副本
         if ("image".equals(type)) {
             try {
-                fileToUpload = imageCompressionService.compressToWebP(file);
+                compressionResult = imageCompressionService.compressToWebPWithVariants(file);
+                fileToUpload = compressionResult.getFile();
                 // 如果返回的是原始文件（说明图片小于等于最大宽度），直接使用
                 // 如果返回的是压缩后的文件，使用压缩后的文件
                 log.debug("图片处理完成（可能已压缩或使用原始文件）");
@@ -187,8 +303,12 @@ public class FileService {
         String filePath;
         
         try {
-            // 上传到OSS（使用压缩后的文件）
-            fileUrl = ossService.uploadFile(fileToUpload, module);
+            // 上传到OSS（使用压缩后的文件，有副本时一并上传）
+            if (compressionResult != null && compressionResult.hasVariants()) {
+                fileUrl = imageProcessingService.uploadCompressed(compressionResult, module);
+            } else {
+                fileUrl = ossService.uploadFile(fileToUpload, module);
+            }
             // 从URL中提取相对路径
             filePath = extractPathFromUrl(fileUrl);
             log.info("文件上传到OSS成功: {}", fileUrl);
@@ -211,6 +331,10 @@ public class FileService {
             record.setFileSize(fileToUpload.getSize());
             record.setFileType(type);
             record.setFileExtension(extension);
+            if (compressionResult != null) {
+                record.setVariantWidths(ImageProcessingService.joinVariantWidths(compressionResult));
+            }
+            record.setContentHash(contentHash);
             record.setModule(module);
             record.setStorageType("OSS"); // 所有新上传的文件都使用OSS
             record.setCreatedAt(LocalDateTime.now());
@@ -228,6 +352,90 @@ public class FileService {
         return fileUrl;
     }
     
+    /**
+     * 计算文件内容的SHA-256（流式读取，不整体加载到内存）
+     * 
+     * @param file 上传文件
+     * @return 十六进制哈希值
+     * @throws IOException IO异常
+     */
+    private String computeContentHash(MultipartFile file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("不支持SHA-256算法", e);
+        }
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream inputStream = file.getInputStream()) {
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+    
+    /**
+     * 复用已上传的OSS对象创建新的文件记录
+     * 
+     * @param existing 内容相同的已有文件记录
+     * @param originalFilename 本次上传的原始文件名
+     * @param module 本次上传的模块
+     * @return 新的文件记录
+     */
+    private FileRecord reuseFileRecord(FileRecord existing, String originalFilename, String module) {
+        FileRecord record = new FileRecord();
+        record.setFileName(existing.getFileName());
+        record.setOriginalName(originalFilename);
+        record.setFilePath(existing.getFilePath());
+        record.setFileUrl(existing.getFileUrl());
+        record.setFileSize(existing.getFileSize());
+        record.setFileType(existing.getFileType());
+        record.setFileExtension(existing.getFileExtension());
+        record.setVariantWidths(existing.getVariantWidths());
+        record.setContentHash(existing.getContentHash());
+        record.setModule(module);
+        record.setStorageType("OSS");
+        record.setCreatedAt(LocalDateTime.now());
+        fileRecordService.saveFileRecord(record);
+        log.info("文件内容已存在，复用OSS对象: {}, 原始文件: {}", existing.getFileUrl(), originalFilename);
+        return record;
+    }
+    
+    /**
+     * 删除文件记录对应的OSS对象（含多宽度副本）
+     * 
+     * 内容去重后多条文件记录可能共享同一个OSS对象，仍有其他记录引用时只删除数据库记录，
+     * 最后一条引用被删除时才真正删除OSS对象。
+     * 
+     * @param record 文件记录（删除数据库记录之前调用）
+     * @return 是否删除成功（仍被其他记录引用时返回true）
+     * @throws Exception OSS删除异常
+     */
+    public boolean deleteOssObject(FileRecord record) throws Exception {
+        if (fileRecordService.countReferences(record) > 1) {
+            log.info("OSS对象仍被其他文件记录引用，跳过删除：{}", record.getFilePath());
+            return true;
+        }
+        boolean deleted = ossService.deleteFile(record.getFilePath());
+        List<Integer> widths = ImageVariantUtil.parseWidthList(record.getVariantWidths());
+        if (deleted && !widths.isEmpty()) {
+            // 多宽度副本一次请求删除
+            List<String> variantKeys = new ArrayList<>(widths.size());
+            for (Integer width : widths) {
+                variantKeys.add(ImageVariantUtil.buildVariantKey(record.getFilePath(), width));
+            }
+            try {
+                ossService.deleteFiles(variantKeys)
+                    .forEach((variantKey, reason) -> log.warn("删除多宽度副本失败：{}，原因：{}", variantKey, reason));
+            } catch (Exception e) {
+                log.warn("删除多宽度副本失败：{}", variantKeys, e);
+            }
+        }
+        return deleted;
+    }
+    
     /**
      * 构建用户友好的错误消息
      * 
@@ -303,13 +511,14 @@ public class FileService {
     /**
      * 批量删除文件（同时删除OSS上的文件和数据库记录）
      * 
+     * 一次查询文件记录和共享引用，OSS对象（含多宽度副本）按每1000个一次 DeleteObjects 请求并行删除，
+     * 存储文件删除成功的记录最后一条语句删除；每个文件的失败原因单独返回。
+     * 
      * @param ids 文件ID列表
-     * @return 删除结果（成功数量、失败数量、失败详情）
+     * @return 删除结果（成功数量、失败数量、失败详情、已删除的文件ID）
      */
     public Map<String, Object> deleteFilesBatch(List<Long> ids) {
         Map<String, Object> result = new HashMap<>();
-        int successCount = 0;
-        int failCount = 0;
         List<Map<String, Object>> failDetails = new ArrayList<>();
         
         if (ids == null || ids.isEmpty()) {
@@ -330,88 +539,128 @@ public class FileService {
             return result;
         }
         
-        // 逐个删除文件
+        List<FileRecord> ossRecords = new ArrayList<>();
+        List<FileRecord> deletable = new ArrayList<>();
         for (FileRecord record : records) {
-            try {
-                boolean deleteSuccess = false;
-                
-                // 根据存储类型删除文件
-                if ("OSS".equals(record.getStorageType())) {
-                    // 删除OSS文件
-                    try {
-                        deleteSuccess = ossService.deleteFile(record.getFilePath());
-                    } catch (Exception e) {
-                        log.error("删除OSS文件失败：{}", record.getFilePath(), e);
-                        Map<String, Object> failDetail = new HashMap<>();
-                        failDetail.put("id", record.getId());
-                        failDetail.put("fileName", record.getOriginalName());
-                        failDetail.put("reason", "删除OSS文件失败：" + e.getMessage());
-                        failDetails.add(failDetail);
-                        failCount++;
-                        continue;
-                    }
-                } else if ("LOCAL".equals(record.getStorageType())) {
-                    // 删除本地文件
-                    try {
-                        String projectRoot = System.getProperty("user.dir");
-                        java.io.File file = new java.io.File(projectRoot, "uploads/" + record.getFilePath());
-                        if (file.exists()) {
-                            deleteSuccess = file.delete();
-                        } else {
-                            log.warn("本地文件不存在：{}", file.getAbsolutePath());
-                            deleteSuccess = true; // 文件不存在也算删除成功
-                        }
-                    } catch (Exception e) {
-                        log.error("删除本地文件失败：{}", record.getFilePath(), e);
-                        Map<String, Object> failDetail = new HashMap<>();
-                        failDetail.put("id", record.getId());
-                        failDetail.put("fileName", record.getOriginalName());
-                        failDetail.put("reason", "删除本地文件失败：" + e.getMessage());
-                        failDetails.add(failDetail);
-                        failCount++;
-                        continue;
-                    }
-                }
-                
-                // 删除数据库记录
-                if (deleteSuccess) {
-                    boolean dbDeleteSuccess = fileRecordService.deleteFileRecord(record.getId());
-                    if (dbDeleteSuccess) {
-                        successCount++;
-                        log.info("删除文件成功，ID：{}，文件名：{}", record.getId(), record.getOriginalName());
+            if ("OSS".equals(record.getStorageType())) {
+                ossRecords.add(record);
+            } else if ("LOCAL".equals(record.getStorageType())) {
+                // 删除本地文件
+                try {
+                    String projectRoot = System.getProperty("user.dir");
+                    java.io.File file = new java.io.File(projectRoot, "uploads/" + record.getFilePath());
+                    if (!file.exists()) {
+                        log.warn("本地文件不存在：{}", file.getAbsolutePath());
+                        deletable.add(record); // 文件不存在也算删除成功
+                    } else if (file.delete()) {
+                        deletable.add(record);
                     } else {
-                        Map<String, Object> failDetail = new HashMap<>();
-                        failDetail.put("id", record.getId());
-                        failDetail.put("fileName", record.getOriginalName());
-                        failDetail.put("reason", "删除数据库记录失败");
-                        failDetails.add(failDetail);
-                        failCount++;
+                        failDetails.add(buildFailDetail(record, "删除文件失败"));
                     }
-                } else {
-                    Map<String, Object> failDetail = new java.util.HashMap<>();
-                    failDetail.put("id", record.getId());
-                    failDetail.put("fileName", record.getOriginalName());
-                    failDetail.put("reason", "删除文件失败");
-                    failDetails.add(failDetail);
-                    failCount++;
+                } catch (Exception e) {
+                    log.error("删除本地文件失败：{}", record.getFilePath(), e);
+                    failDetails.add(buildFailDetail(record, "删除本地文件失败：" + e.getMessage()));
                 }
+            } else {
+                failDetails.add(buildFailDetail(record, "删除文件失败"));
+            }
+        }
+        
+        if (!ossRecords.isEmpty()) {
+            deletable.addAll(deleteOssObjects(ossRecords, failDetails));
+        }
+        
+        // 删除数据库记录
+        List<Long> deletedIds = new ArrayList<>();
+        if (!deletable.isEmpty()) {
+            List<Long> deletableIds = new ArrayList<>(deletable.size());
+            for (FileRecord record : deletable) {
+                deletableIds.add(record.getId());
+            }
+            try {
+                int rows = fileRecordService.deleteFileRecordsBatch(deletableIds);
+                deletedIds.addAll(deletableIds);
+                log.info("批量删除文件成功，数量：{}/{}", rows, deletableIds.size());
             } catch (Exception e) {
-                log.error("删除文件异常，ID：{}", record.getId(), e);
-                Map<String, Object> failDetail = new java.util.HashMap<>();
-                failDetail.put("id", record.getId());
-                failDetail.put("fileName", record.getOriginalName());
-                failDetail.put("reason", "删除异常：" + e.getMessage());
-                failDetails.add(failDetail);
-                failCount++;
+                log.error("批量删除文件记录失败", e);
+                for (FileRecord record : deletable) {
+                    failDetails.add(buildFailDetail(record, "删除数据库记录失败：" + e.getMessage()));
+                }
             }
         }
         
+        int successCount = deletedIds.size();
+        int failCount = failDetails.size();
         result.put("successCount", successCount);
         result.put("failCount", failCount);
         result.put("failDetails", failDetails);
+        result.put("deletedIds", deletedIds);
         result.put("total", ids.size());
         result.put("message", String.format("删除完成：成功 %d 个，失败 %d 个", successCount, failCount));
         
         return result;
     }
+    
+    /**
+     * 批量删除文件记录对应的OSS对象（含多宽度副本）
+     * 仍被本次之外的文件记录引用的对象不删除；多宽度副本删除失败只记录日志，与单个删除一致
+     * 
+     * @param records OSS文件记录
+     * @param failDetails 失败详情（删除失败的记录追加到这里）
+     * @return OSS对象已删除（或仍被引用）的文件记录
+     */
+    private List<FileRecord> deleteOssObjects(List<FileRecord> records, List<Map<String, Object>> failDetails) {
+        Map<String, String> failures;
+        List<String> variantKeys = new ArrayList<>();
+        try {
+            Set<String> shared = fileRecordService.getSharedFilePaths(records);
+            Set<String> keys = new LinkedHashSet<>();
+            for (FileRecord record : records) {
+                if (shared.contains(record.getFilePath())) {
+                    continue;
+                }
+                keys.add(record.getFilePath());
+                for (Integer width : ImageVariantUtil.parseWidthList(record.getVariantWidths())) {
+                    String variantKey = ImageVariantUtil.buildVariantKey(record.getFilePath(), width);
+                    keys.add(variantKey);
+                    variantKeys.add(variantKey);
+                }
+            }
+            if (!shared.isEmpty()) {
+                log.info("{} 个OSS对象仍被其他文件记录引用，跳过删除", shared.size());
+            }
+            failures = ossService.deleteFiles(keys);
+        } catch (Exception e) {
+            log.error("批量删除OSS文件失败", e);
+            for (FileRecord record : records) {
+                failDetails.add(buildFailDetail(record, "删除OSS文件失败：" + e.getMessage()));
+            }
+            return new ArrayList<>();
+        }
+        
+        for (String variantKey : variantKeys) {
+            if (failures.containsKey(variantKey)) {
+                log.warn("删除多宽度副本失败：{}，原因：{}", variantKey, failures.get(variantKey));
+            }
+        }
+        
+        List<FileRecord> deleted = new ArrayList<>(records.size());
+        for (FileRecord record : records) {
+            String reason = failures.get(record.getFilePath());
+            if (reason == null) {
+                deleted.add(record);
+            } else {
+                failDetails.add(buildFailDetail(record, reason));
+            }
+        }
+        return deleted;
+    }
+    
+    private Map<String, Object> buildFailDetail(FileRecord record, String reason) {
+        Map<String, Object> failDetail = new HashMap<>();
+        failDetail.put("id", record.getId());
+        failDetail.put("fileName", record.getOriginalName());
+        failDetail.put("reason", reason);
+        return failDetail;
+    }
 }
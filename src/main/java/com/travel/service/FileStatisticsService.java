@@ -0,0 +1,217 @@
+package com.travel.service;
+
+import com.travel.entity.Directory;
+import com.travel.entity.FileStats;
+import com.travel.mapper.DirectoryMapper;
+import com.travel.mapper.FileStatsMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 文件统计服务
+ *
+ * 文件统计从汇总数据读取，不再扫描文件记录表：
+ * - 按存储类型和文件类型的汇总保存在 file_stats，按目录的汇总保存在 directory.file_count / file_size
+ * - 文件记录新增、删除、更新大小时在同一事务中累加（见 FileRecordServiceImpl），事务回滚时汇总一并回滚
+ * - 定时与文件记录表核对，以比较后更新的方式校正偏差：核对期间汇总被其他事务修改过的行不更新，留给下次核对，
+ *   不会覆盖并发的增量
+ *
+ * @author travel-platform
+ */
+@Slf4j
+@Service
+public class FileStatisticsService {
+
+    public static final String STORAGE_OSS = "OSS";
+    public static final String STORAGE_LOCAL = "LOCAL";
+
+    @Autowired
+    private FileStatsMapper fileStatsMapper;
+
+    @Autowired
+    private DirectoryMapper directoryMapper;
+
+    @Autowired
+    private DirectoryTreeCache directoryTreeCache;
+
+    /**
+     * 累加文件统计（在文件记录变更的事务中调用）
+     *
+     * @param storageType 存储类型
+     * @param fileType 文件类型
+     * @param countDelta 文件数量增量
+     * @param sizeDelta 文件大小增量（字节）
+     */
+    public void applyDelta(String storageType, String fileType, long countDelta, long sizeDelta) {
+        if (storageType == null || fileType == null || (countDelta == 0 && sizeDelta == 0)) {
+            return;
+        }
+        fileStatsMapper.increment(storageType, fileType, countDelta, sizeDelta);
+    }
+
+    /**
+     * 获取文件统计（读取汇总表，行数只与存储类型和文件类型的组合数有关）
+     *
+     * @return 统计信息（总文件数、总大小、OSS文件数、OSS大小、本地文件数、本地大小，
+     *         countByFileType / sizeByFileType 为按文件类型的合计）
+     */
+    public Map<String, Object> getStatistics() {
+        long totalCount = 0;
+        long totalSize = 0;
+        long ossCount = 0;
+        long ossSize = 0;
+        long localCount = 0;
+        long localSize = 0;
+        Map<String, Long> countByFileType = new LinkedHashMap<>();
+        Map<String, Long> sizeByFileType = new LinkedHashMap<>();
+
+        for (FileStats stats : fileStatsMapper.selectAll()) {
+            long count = stats.getFileCount() != null ? stats.getFileCount() : 0;
+            long size = stats.getFileSize() != null ? stats.getFileSize() : 0;
+            totalCount += count;
+            totalSize += size;
+            if (STORAGE_OSS.equals(stats.getStorageType())) {
+                ossCount += count;
+                ossSize += size;
+            } else if (STORAGE_LOCAL.equals(stats.getStorageType())) {
+                localCount += count;
+                localSize += size;
+            }
+            countByFileType.merge(stats.getFileType(), count, Long::sum);
+            sizeByFileType.merge(stats.getFileType(), size, Long::sum);
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("totalCount", toInt(totalCount));
+        result.put("totalSize", totalSize);
+        result.put("ossCount", toInt(ossCount));
+        result.put("ossSize", ossSize);
+        result.put("localCount", toInt(localCount));
+        result.put("localSize", localSize);
+        result.put("countByFileType", countByFileType);
+        result.put("sizeByFileType", sizeByFileType);
+        return result;
+    }
+
+    /**
+     * 定时核对汇总数据
+     */
+    @Scheduled(fixedDelayString = "${travel.file-statistics.reconcile-interval-ms:3600000}",
+               initialDelayString = "${travel.file-statistics.reconcile-initial-delay-ms:300000}")
+    public void scheduledReconcile() {
+        try {
+            reconcile();
+        } catch (Exception e) {
+            log.error("核对文件统计失败", e);
+        }
+    }
+
+    /**
+     * 与文件记录表核对并校正汇总数据
+     *
+     * @return 校正的汇总行数（文件统计 + 目录统计）
+     */
+    public int reconcile() {
+        long startTime = System.currentTimeMillis();
+        int fixedStats = reconcileFileStats();
+        int fixedDirectories = reconcileDirectoryStats();
+        if (fixedDirectories > 0) {
+            directoryTreeCache.reload();
+        }
+        if (fixedStats > 0 || fixedDirectories > 0) {
+            log.warn("文件统计与文件记录不一致，已校正 - 文件统计: {} 行, 目录统计: {} 个, 耗时: {}ms",
+                    fixedStats, fixedDirectories, System.currentTimeMillis() - startTime);
+        } else {
+            log.info("文件统计核对完成，无偏差，耗时: {}ms", System.currentTimeMillis() - startTime);
+        }
+        return fixedStats + fixedDirectories;
+    }
+
+    private int reconcileFileStats() {
+        // 先读取汇总，再实时汇总，比较后更新时以先读取的值为条件
+        Map<String, FileStats> stored = new HashMap<>();
+        for (FileStats stats : fileStatsMapper.selectAll()) {
+            stored.put(key(stats), stats);
+        }
+        Map<String, FileStats> actual = new HashMap<>();
+        for (FileStats stats : fileStatsMapper.selectActual()) {
+            actual.put(key(stats), stats);
+        }
+
+        int fixed = 0;
+        for (Map.Entry<String, FileStats> entry : actual.entrySet()) {
+            FileStats real = entry.getValue();
+            FileStats expected = stored.get(entry.getKey());
+            if (expected == null) {
+                fixed += fileStatsMapper.insertIfAbsent(real);
+            } else if (!sameValues(expected, real)) {
+                fixed += fileStatsMapper.compareAndSet(expected, real);
+            }
+        }
+        for (Map.Entry<String, FileStats> entry : stored.entrySet()) {
+            FileStats expected = entry.getValue();
+            if (!actual.containsKey(entry.getKey()) && !isZero(expected)) {
+                FileStats empty = new FileStats();
+                empty.setStorageType(expected.getStorageType());
+                empty.setFileType(expected.getFileType());
+                empty.setFileCount(0L);
+                empty.setFileSize(0L);
+                fixed += fileStatsMapper.compareAndSet(expected, empty);
+            }
+        }
+        return fixed;
+    }
+
+    private int reconcileDirectoryStats() {
+        Map<Long, Directory> stored = new HashMap<>();
+        for (Directory directory : directoryMapper.selectAll()) {
+            stored.put(directory.getId(), directory);
+        }
+        List<Directory> actual = directoryMapper.selectActualFileStats();
+
+        int fixed = 0;
+        for (Directory real : actual) {
+            Directory expected = stored.get(real.getId());
+            if (expected == null) {
+                continue;
+            }
+            int expectedCount = expected.getFileCount() != null ? expected.getFileCount() : 0;
+            long expectedSize = expected.getFileSize() != null ? expected.getFileSize() : 0L;
+            int realCount = real.getFileCount() != null ? real.getFileCount() : 0;
+            long realSize = real.getFileSize() != null ? real.getFileSize() : 0L;
+            if (expectedCount != realCount || expectedSize != realSize) {
+                fixed += directoryMapper.compareAndSetFileStats(real.getId(),
+                        expectedCount, expectedSize, realCount, realSize);
+            }
+        }
+        return fixed;
+    }
+
+    private static String key(FileStats stats) {
+        return stats.getStorageType() + "|" + stats.getFileType();
+    }
+
+    private static boolean sameValues(FileStats a, FileStats b) {
+        return valueOf(a.getFileCount()) == valueOf(b.getFileCount())
+                && valueOf(a.getFileSize()) == valueOf(b.getFileSize());
+    }
+
+    private static boolean isZero(FileStats stats) {
+        return valueOf(stats.getFileCount()) == 0 && valueOf(stats.getFileSize()) == 0;
+    }
+
+    private static long valueOf(Long value) {
+        return value != null ? value : 0L;
+    }
+
+    private static int toInt(long value) {
+        return (int) Math.min(value, Integer.MAX_VALUE);
+    }
+}
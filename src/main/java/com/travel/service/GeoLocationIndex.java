@@ -0,0 +1,588 @@
+package com.travel.service;
+
+import com.travel.common.ResultCode;
+import com.travel.dto.GeoClusterResponse;
+import com.travel.dto.GeoPointResponse;
+import com.travel.dto.GeoViewportResponse;
+import com.travel.entity.Attraction;
+import com.travel.entity.Hotel;
+import com.travel.entity.MapLocation;
+import com.travel.exception.BusinessException;
+import com.travel.mapper.AttractionMapper;
+import com.travel.mapper.HotelMapper;
+import com.travel.mapper.MapMapper;
+import com.travel.util.TransactionUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * 地理位置索引（景点、酒店、地图位置）
+ *
+ * 一次查询加载所有上架且有坐标的位置，按经纬度网格（默认 0.05°，约5公里）分桶保存在内存中：
+ * - 附近查询只扫描半径范围覆盖的网格，按球面距离过滤并排序，不访问数据库
+ * - 视野查询只扫描视野覆盖的网格；低缩放级别或位置过多时按屏幕像素网格聚合，地图只需绘制可见的点
+ * - 景点、酒店、地图位置变更（管理端编辑、外部数据同步）在事务提交后按ID重新读取并增量更新索引
+ * - 定时全量重新加载，使多实例部署时其他实例的变更也能生效
+ *
+ * @author travel-platform
+ */
+@Slf4j
+@Service
+public class GeoLocationIndex {
+
+    public static final String TYPE_ATTRACTION = "ATTRACTION";
+    public static final String TYPE_HOTEL = "HOTEL";
+    public static final String TYPE_MAP = "MAP";
+
+    private static final List<String> TYPES = List.of(TYPE_ATTRACTION, TYPE_HOTEL, TYPE_MAP);
+
+    /**
+     * 地球平均半径（米）
+     */
+    private static final double EARTH_RADIUS_METERS = 6371008.8;
+
+    /**
+     * 按ID重新读取时每次查询的最大ID数
+     */
+    private static final int REFRESH_BATCH_SIZE = 1000;
+
+    @Value("${travel.geo.cell-size-degrees:0.05}")
+    private double cellSizeDegrees;
+
+    @Value("${travel.geo.max-radius-meters:50000}")
+    private double maxRadiusMeters;
+
+    @Value("${travel.geo.max-results:200}")
+    private int maxResults;
+
+    @Value("${travel.geo.cluster-max-zoom:12}")
+    private int clusterMaxZoom;
+
+    @Value("${travel.geo.cluster-pixels:60}")
+    private int clusterPixels;
+
+    @Autowired
+    private AttractionMapper attractionMapper;
+
+    @Autowired
+    private HotelMapper hotelMapper;
+
+    @Autowired
+    private MapMapper mapMapper;
+
+    private final AtomicReference<Index> index = new AtomicReference<>();
+
+    /**
+     * 附近查询
+     *
+     * @param latitude 纬度
+     * @param longitude 经度
+     * @param radiusMeters 半径（米），不超过 travel.geo.max-radius-meters
+     * @param type 类型（ATTRACTION/HOTEL/MAP），为空时查询全部
+     * @param limit 最大返回数量，不超过 travel.geo.max-results
+     * @return 位置列表（按距离由近到远）
+     */
+    public List<GeoPointResponse> nearby(double latitude, double longitude, double radiusMeters,
+                                         String type, Integer limit) {
+        checkCoordinate(latitude, longitude);
+        if (!(radiusMeters > 0)) {
+            throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "查询半径必须大于0");
+        }
+        String filterType = normalizeType(type);
+        double radius = Math.min(radiusMeters, maxRadiusMeters);
+        int size = limit == null || limit <= 0 ? maxResults : Math.min(limit, maxResults);
+
+        // 半径对应的经纬度范围（高纬度地区经度范围变大）
+        double latDelta = Math.toDegrees(radius / EARTH_RADIUS_METERS);
+        double cosLat = Math.cos(Math.toRadians(latitude));
+        double lngDelta = cosLat < 1e-6 ? 180 : Math.min(180, latDelta / cosLat);
+
+        List<Candidate> candidates = new ArrayList<>();
+        Index current = index();
+        current.scan(latitude - latDelta, longitude - lngDelta, latitude + latDelta, longitude + lngDelta,
+            point -> {
+                if (filterType == null || filterType.equals(point.type)) {
+                    double distance = distance(latitude, longitude, point.latitude, point.longitude);
+                    if (distance <= radius) {
+                        candidates.add(new Candidate(point, distance));
+                    }
+                }
+            });
+
+        candidates.sort(Comparator.comparingDouble(candidate -> candidate.distance));
+        List<GeoPointResponse> result = new ArrayList<>(Math.min(size, candidates.size()));
+        for (int i = 0; i < candidates.size() && i < size; i++) {
+            result.add(candidates.get(i).point.toResponse(candidates.get(i).distance));
+        }
+        return result;
+    }
+
+    /**
+     * 视野（矩形范围）查询
+     *
+     * @param south 南边界纬度
+     * @param west 西边界经度（大于东边界时表示跨越180°经线）
+     * @param north 北边界纬度
+     * @param east 东边界经度
+     * @param zoom 地图缩放级别（3-20），为空时按视野宽度估算
+     * @param type 类型（ATTRACTION/HOTEL/MAP），为空时查询全部
+     * @return 视野内的位置（低缩放级别或位置过多时聚合）
+     */
+    public GeoViewportResponse viewport(double south, double west, double north, double east,
+                                        Integer zoom, String type) {
+        checkCoordinate(south, west);
+        checkCoordinate(north, east);
+        if (south > north) {
+            throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "南边界不能大于北边界");
+        }
+        String filterType = normalizeType(type);
+
+        List<Point> points = new ArrayList<>();
+        Index current = index();
+        current.scan(south, west, north, east, point -> {
+            if ((filterType == null || filterType.equals(point.type))
+                && point.latitude >= south && point.latitude <= north
+                && containsLongitude(west, east, point.longitude)) {
+                points.add(point);
+            }
+        });
+
+        double lngSpan = west <= east ? east - west : 360 - west + east;
+        double centerLat = (south + north) / 2;
+        double centerLng = normalizeLongitude(west + lngSpan / 2);
+        int effectiveZoom = zoom != null ? zoom : estimateZoom(lngSpan);
+
+        GeoViewportResponse response = new GeoViewportResponse();
+        response.setTotal(points.size());
+        if (points.size() > 1 && (effectiveZoom <= clusterMaxZoom || points.size() > maxResults)) {
+            cluster(points, effectiveZoom, centerLat, centerLng, response);
+        } else {
+            response.setClustered(false);
+            response.setPoints(sortByDistance(points, centerLat, centerLng));
+            response.setClusters(Collections.emptyList());
+        }
+        return response;
+    }
+
+    /**
+     * 事务提交后按ID重新读取位置并更新索引（在事务外调用时立即更新）
+     *
+     * @param type 类型
+     * @param id ID
+     */
+    public void refreshAfterCommit(String type, Long id) {
+        if (id == null) {
+            return;
+        }
+        TransactionUtils.afterCommit(() -> {
+            try {
+                refresh(type, Collections.singletonList(id));
+            } catch (Exception e) {
+                log.error("更新地理位置索引失败，等待定时重新加载 - 类型: {}, ID: {}", type, id, e);
+            }
+        });
+    }
+
+    /**
+     * 按ID重新读取位置并更新索引：已下架、已删除或没有坐标的位置从索引中移除
+     *
+     * @param type 类型
+     * @param ids ID列表
+     */
+    public synchronized void refresh(String type, Collection<Long> ids) {
+        Index current = index.get();
+        if (current == null || ids == null || ids.isEmpty()) {
+            // 尚未加载时无需更新，首次查询时全量加载
+            return;
+        }
+        List<Long> idList = new ArrayList<>(new HashSet<>(ids));
+        for (int from = 0; from < idList.size(); from += REFRESH_BATCH_SIZE) {
+            List<Long> batch = idList.subList(from, Math.min(from + REFRESH_BATCH_SIZE, idList.size()));
+            Map<Long, Point> loaded = new HashMap<>();
+            for (Point point : load(type, batch)) {
+                loaded.put(point.id, point);
+            }
+            for (Long id : batch) {
+                Point point = loaded.get(id);
+                if (point != null) {
+                    current.put(point);
+                } else {
+                    current.remove(type, id);
+                }
+            }
+        }
+        log.debug("地理位置索引已更新 - 类型: {}, 数量: {}", type, idList.size());
+    }
+
+    /**
+     * 从数据库重新加载所有位置并替换索引
+     */
+    public synchronized void reload() {
+        long startTime = System.currentTimeMillis();
+        Index loaded = new Index(cellSizeDegrees > 0 ? cellSizeDegrees : 0.05);
+        for (String type : TYPES) {
+            for (Point point : load(type, null)) {
+                loaded.put(point);
+            }
+        }
+        index.set(loaded);
+        log.info("地理位置索引已加载，位置数: {}, 网格数: {}, 耗时: {}ms",
+            loaded.byKey.size(), loaded.cells.size(), System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * 定时重新加载（多实例部署时同步其他实例的变更）
+     */
+    @Scheduled(fixedDelayString = "${travel.geo.refresh-interval-ms:600000}",
+               initialDelayString = "${travel.geo.refresh-interval-ms:600000}")
+    public void scheduledReload() {
+        try {
+            reload();
+        } catch (Exception e) {
+            log.error("定时加载地理位置索引失败，继续使用当前索引", e);
+        }
+    }
+
+    private Index index() {
+        Index current = index.get();
+        if (current == null) {
+            synchronized (this) {
+                current = index.get();
+                if (current == null) {
+                    reload();
+                    current = index.get();
+                }
+            }
+        }
+        return current;
+    }
+
+    private List<Point> load(String type, List<Long> ids) {
+        List<Point> points = new ArrayList<>();
+        if (TYPE_ATTRACTION.equals(type)) {
+            for (Attraction attraction : attractionMapper.selectGeoList(ids)) {
+                addPoint(points, type, attraction.getId(), attraction.getName(), attraction.getCity(),
+                    attraction.getAddress(), attraction.getLatitude(), attraction.getLongitude());
+            }
+        } else if (TYPE_HOTEL.equals(type)) {
+            for (Hotel hotel : hotelMapper.selectGeoList(ids)) {
+                addPoint(points, type, hotel.getId(), hotel.getName(), hotel.getCity(),
+                    hotel.getAddress(), hotel.getLatitude(), hotel.getLongitude());
+            }
+        } else if (TYPE_MAP.equals(type)) {
+            for (MapLocation location : mapMapper.selectGeoList(ids)) {
+                addPoint(points, type, location.getId(), location.getName(), null,
+                    location.getAddress(), location.getLatitude(), location.getLongitude());
+            }
+        }
+        return points;
+    }
+
+    private static void addPoint(List<Point> points, String type, Long id, String name, String city,
+                                 String address, BigDecimal latitude, BigDecimal longitude) {
+        if (id == null || latitude == null || longitude == null) {
+            return;
+        }
+        double lat = latitude.doubleValue();
+        double lng = longitude.doubleValue();
+        if (lat < -90 || lat > 90 || lng < -180 || lng > 180) {
+            // 坐标错误（如经纬度填反）的位置不进入索引
+            return;
+        }
+        points.add(new Point(type, id, name, city, address, lat, lng));
+    }
+
+    /**
+     * 按屏幕像素网格聚合：网格边长约 travel.geo.cluster-pixels 像素，只有一个位置的网格直接返回位置点
+     */
+    private void cluster(List<Point> points, int zoom, double centerLat, double centerLng,
+                         GeoViewportResponse response) {
+        int z = Math.max(0, Math.min(zoom, 22));
+        double clusterDegrees = clusterPixels * 360.0 / (256.0 * (1L << z));
+
+        Map<Long, List<Point>> groups = new LinkedHashMap<>();
+        for (Point point : points) {
+            long row = (long) Math.floor((point.latitude + 90) / clusterDegrees);
+            long col = (long) Math.floor((point.longitude + 180) / clusterDegrees);
+            groups.computeIfAbsent(row * 1_000_000_007L + col, key -> new ArrayList<>()).add(point);
+        }
+
+        List<Point> singles = new ArrayList<>();
+        List<GeoClusterResponse> clusters = new ArrayList<>();
+        for (List<Point> group : groups.values()) {
+            if (group.size() == 1) {
+                singles.add(group.get(0));
+                continue;
+            }
+            double latSum = 0;
+            double lngSum = 0;
+            double south = 90;
+            double north = -90;
+            double west = 180;
+            double east = -180;
+            Map<String, Integer> countByType = new LinkedHashMap<>();
+            for (Point point : group) {
+                latSum += point.latitude;
+                lngSum += point.longitude;
+                south = Math.min(south, point.latitude);
+                north = Math.max(north, point.latitude);
+                west = Math.min(west, point.longitude);
+                east = Math.max(east, point.longitude);
+                countByType.merge(point.type, 1, Integer::sum);
+            }
+            GeoClusterResponse cluster = new GeoClusterResponse();
+            cluster.setLatitude(latSum / group.size());
+            cluster.setLongitude(lngSum / group.size());
+            cluster.setCount(group.size());
+            cluster.setCountByType(countByType);
+            cluster.setSouth(south);
+            cluster.setWest(west);
+            cluster.setNorth(north);
+            cluster.setEast(east);
+            clusters.add(cluster);
+        }
+        clusters.sort(Comparator.comparingInt(GeoClusterResponse::getCount).reversed());
+
+        response.setClustered(true);
+        response.setPoints(sortByDistance(singles, centerLat, centerLng));
+        response.setClusters(clusters);
+    }
+
+    private List<GeoPointResponse> sortByDistance(List<Point> points, double latitude, double longitude) {
+        List<Candidate> candidates = new ArrayList<>(points.size());
+        for (Point point : points) {
+            candidates.add(new Candidate(point, distance(latitude, longitude, point.latitude, point.longitude)));
+        }
+        candidates.sort(Comparator.comparingDouble(candidate -> candidate.distance));
+        int size = Math.min(candidates.size(), maxResults);
+        List<GeoPointResponse> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(candidates.get(i).point.toResponse(candidates.get(i).distance));
+        }
+        return result;
+    }
+
+    /**
+     * 按视野宽度估算缩放级别（256像素宽的地图瓦片在缩放级别z时覆盖 360/2^z 度）
+     */
+    private static int estimateZoom(double lngSpan) {
+        if (lngSpan <= 0) {
+            return 20;
+        }
+        return (int) Math.max(0, Math.min(20, Math.floor(Math.log(360.0 / lngSpan) / Math.log(2)) + 1));
+    }
+
+    private static String normalizeType(String type) {
+        if (type == null || type.trim().isEmpty() || "ALL".equalsIgnoreCase(type.trim())) {
+            return null;
+        }
+        String normalized = type.trim().toUpperCase();
+        if (!TYPES.contains(normalized)) {
+            throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "不支持的位置类型: " + type);
+        }
+        return normalized;
+    }
+
+    private static void checkCoordinate(double latitude, double longitude) {
+        if (Double.isNaN(latitude) || latitude < -90 || latitude > 90
+            || Double.isNaN(longitude) || longitude < -180 || longitude > 180) {
+            throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "经纬度超出范围");
+        }
+    }
+
+    private static boolean containsLongitude(double west, double east, double longitude) {
+        return west <= east ? longitude >= west && longitude <= east : longitude >= west || longitude <= east;
+    }
+
+    private static double normalizeLongitude(double longitude) {
+        return longitude > 180 ? longitude - 360 : longitude;
+    }
+
+    /**
+     * 球面距离（米，haversine公式）
+     */
+    private static double distance(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+            + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+            * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    /**
+     * 索引中的位置点（不可变）
+     */
+    private static final class Point {
+        private final String type;
+        private final Long id;
+        private final String name;
+        private final String city;
+        private final String address;
+        private final double latitude;
+        private final double longitude;
+
+        private Point(String type, Long id, String name, String city, String address,
+                      double latitude, double longitude) {
+            this.type = type;
+            this.id = id;
+            this.name = name;
+            this.city = city;
+            this.address = address;
+            this.latitude = latitude;
+            this.longitude = longitude;
+        }
+
+        private String key() {
+            return key(type, id);
+        }
+
+        private static String key(String type, Long id) {
+            return type + ':' + id;
+        }
+
+        private GeoPointResponse toResponse(double distance) {
+            GeoPointResponse response = new GeoPointResponse();
+            response.setType(type);
+            response.setId(id);
+            response.setName(name);
+            response.setCity(city);
+            response.setAddress(address);
+            response.setLatitude(latitude);
+            response.setLongitude(longitude);
+            response.setDistance(Math.round(distance));
+            return response;
+        }
+    }
+
+    private static final class Candidate {
+        private final Point point;
+        private final double distance;
+
+        private Candidate(Point point, double distance) {
+            this.point = point;
+            this.distance = distance;
+        }
+    }
+
+    /**
+     * 经纬度网格索引：读取无锁，增量更新由外层 synchronized 方法串行执行
+     */
+    private static final class Index {
+        private final double cellSize;
+        private final long rows;
+        private final long cols;
+        /**
+         * 列宽：经度方向首尾相接，按整列数均分360°，避免多出一列不存在的180°经线列
+         */
+        private final double colWidth;
+        private final Map<String, Point> byKey = new ConcurrentHashMap<>();
+        private final Map<Long, Map<String, Point>> cells = new ConcurrentHashMap<>();
+
+        private Index(double cellSize) {
+            this.cellSize = cellSize;
+            this.rows = (long) Math.ceil(180 / cellSize) + 1;
+            this.cols = Math.max(1, Math.round(360 / cellSize));
+            this.colWidth = 360.0 / cols;
+        }
+
+        private void put(Point point) {
+            Point old = byKey.put(point.key(), point);
+            if (old != null) {
+                removeFromCell(old);
+            }
+            cells.computeIfAbsent(cellKey(row(point.latitude), col(point.longitude)), key -> new ConcurrentHashMap<>())
+                .put(point.key(), point);
+        }
+
+        private void remove(String type, Long id) {
+            Point old = byKey.remove(Point.key(type, id));
+            if (old != null) {
+                removeFromCell(old);
+            }
+        }
+
+        private void removeFromCell(Point point) {
+            long cellKey = cellKey(row(point.latitude), col(point.longitude));
+            Map<String, Point> cell = cells.get(cellKey);
+            if (cell != null) {
+                // 网格中可能已是同一位置的新坐标点，只移除旧点本身
+                cell.remove(point.key(), point);
+                if (cell.isEmpty()) {
+                    cells.remove(cellKey, cell);
+                }
+            }
+        }
+
+        /**
+         * 遍历矩形范围覆盖的网格中的位置（west 大于 east 时表示跨越180°经线）；
+         * 覆盖的网格数多于位置总数时直接遍历所有位置
+         */
+        private void scan(double south, double west, double north, double east,
+                          Consumer<Point> consumer) {
+            long minRow = row(Math.max(-90, south));
+            long maxRow = row(Math.min(90, north));
+            double lngSpan = west <= east ? east - west : 360 - west + east;
+            long colCount = lngSpan >= 360 ? cols : Math.min(cols, (long) Math.ceil(lngSpan / colWidth) + 1);
+            long cellCount = (maxRow - minRow + 1) * colCount;
+
+            if (cellCount > byKey.size()) {
+                byKey.values().forEach(consumer);
+                return;
+            }
+            long startCol = col(normalize(west));
+            for (long row = minRow; row <= maxRow; row++) {
+                for (long i = 0; i < colCount; i++) {
+                    Map<String, Point> cell = cells.get(cellKey(row, Math.floorMod(startCol + i, cols)));
+                    if (cell != null) {
+                        cell.values().forEach(consumer);
+                    }
+                }
+            }
+        }
+
+        private long row(double latitude) {
+            return Math.min(rows - 1, (long) Math.floor((latitude + 90) / cellSize));
+        }
+
+        /**
+         * 经度所在列：180°与-180°是同一条经线，归入第0列；浮点误差导致的越界收回到首尾列
+         */
+        private long col(double longitude) {
+            double lng = normalize(longitude);
+            if (lng >= 180) {
+                lng -= 360;
+            }
+            long col = (long) Math.floor((lng + 180) / colWidth);
+            return Math.max(0, Math.min(cols - 1, col));
+        }
+
+        private long cellKey(long row, long col) {
+            return row * cols + col;
+        }
+
+        private static double normalize(double longitude) {
+            if (longitude < -180) {
+                return longitude + 360;
+            }
+            return longitude > 180 ? longitude - 360 : longitude;
+        }
+    }
+}
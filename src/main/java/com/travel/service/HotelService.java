@@ -35,6 +35,9 @@ public class HotelService {
     @Autowired
     private HotelRoomMapper hotelRoomMapper;
     
+    @Autowired
+    private GeoLocationIndex geoLocationIndex;
+    
     /**
      * 分页查询酒店列表
      */
@@ -108,6 +111,7 @@ public class HotelService {
         }
         
         log.info("创建酒店成功: id={}, name={}", hotel.getId(), hotel.getName());
+        geoLocationIndex.refreshAfterCommit(GeoLocationIndex.TYPE_HOTEL, hotel.getId());
         
         return hotel;
     }
@@ -168,6 +172,8 @@ public class HotelService {
         }
         
         log.info("更新酒店成功: id={}, name={}", hotel.getId(), hotel.getName());
+        // 坐标、名称或上下架状态可能变化（删除即下架，也经过这里）
+        geoLocationIndex.refreshAfterCommit(GeoLocationIndex.TYPE_HOTEL, id);
         
         return hotel;
     }
@@ -1,13 +1,8 @@
 package com.travel.service;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.travel.common.ResultCode;
 import com.travel.dto.ExternalHotel;
 import com.travel.dto.ExternalHotelRoom;
-import com.travel.dto.HotelCreateRequest;
-import com.travel.dto.HotelRoomCreateRequest;
-import com.travel.dto.HotelUpdateRequest;
 import com.travel.entity.Hotel;
 import com.travel.entity.HotelRoom;
 import com.travel.entity.SyncConfig;
@@ -16,23 +11,21 @@ import com.travel.exception.BusinessException;
 import com.travel.mapper.HotelMapper;
 import com.travel.mapper.HotelRoomMapper;
 import com.travel.mapper.SyncConfigMapper;
-import com.travel.mapper.SyncLogMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * 酒店同步服务类
@@ -47,7 +40,7 @@ public class HotelSyncService {
     private SyncConfigMapper syncConfigMapper;
     
     @Autowired
-    private SyncLogMapper syncLogMapper;
+    private SyncJobService syncJobService;
     
     @Autowired
     private HotelMapper hotelMapper;
@@ -56,19 +49,29 @@ public class HotelSyncService {
     private HotelRoomMapper hotelRoomMapper;
     
     @Autowired
-    private HotelService hotelService;
+    private SyncUpsertEngine syncUpsertEngine;
     
     @Autowired
-    private RestTemplate restTemplate;
+    private CacheService cacheService;
+    
+    @Autowired
+    private GeoLocationIndex geoLocationIndex;
+    
+    @Autowired
+    private SyncFeedReader syncFeedReader;
     
     private static final String SYNC_TYPE_HOTEL = "HOTEL";
-    private static final int MAX_RETRY_COUNT = 3;
-    private static final long RETRY_DELAY_MS = 1000; // 1秒
+    
+    /**
+     * 同步来源前缀（同步来源为 前缀 + 同步配置ID）
+     */
+    private static final String SYNC_SOURCE_PREFIX = "SYNC_CONFIG:";
     
     /**
      * 手动同步酒店数据
+     * 不在事务中执行：外部API调用不占用数据库连接，数据按批写入（见 SyncUpsertEngine）；
+     * 在当前线程执行，与定时同步共用租约和供应商并发限制（见 SyncJobService）
      */
-    @Transactional(rollbackFor = Exception.class)
     public SyncLog manualSync(Long configId) {
         SyncConfig config = syncConfigMapper.selectById(configId);
         if (config == null) {
@@ -79,11 +82,12 @@ public class HotelSyncService {
             throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "同步配置类型不是酒店类型");
         }
         
-        return doSync(config);
+        return syncJobService.run(config, SyncJobService.TRIGGER_MANUAL, job -> doSync(config, false, job));
     }
     
     /**
      * 定时自动同步酒店数据
+     * 各配置提交到同步线程池并行执行（见 SyncJobService），本方法不等待同步完成
      */
     @Scheduled(cron = "0 0 3 * * ?") // 每天凌晨3点执行
     public void autoSync() {
@@ -100,70 +104,71 @@ public class HotelSyncService {
             if ("DAILY".equals(config.getSyncFrequency())) {
                 // 每日同步，检查是否到了同步时间
                 if (shouldSync(config)) {
-                    try {
-                        doSync(config);
-                    } catch (Exception e) {
-                        log.error("定时同步失败: configId={}, error={}", config.getId(), e.getMessage(), e);
-                    }
+                    submitSync(config);
                 }
             } else if ("WEEKLY".equals(config.getSyncFrequency())) {
                 // 每周同步，检查是否到了同步时间（每周一凌晨）
                 if (shouldSyncWeekly(config)) {
-                    try {
-                        doSync(config);
-                    } catch (Exception e) {
-                        log.error("定时同步失败: configId={}, error={}", config.getId(), e.getMessage(), e);
-                    }
+                    submitSync(config);
                 }
             }
         }
         
-        log.info("定时自动同步酒店数据任务完成");
+        log.info("定时自动同步酒店数据任务已提交");
+    }
+    
+    /**
+     * 提交定时同步任务
+     */
+    private void submitSync(SyncConfig config) {
+        try {
+            syncJobService.submit(config, SyncJobService.TRIGGER_SCHEDULED, job -> doSync(config, true, job));
+        } catch (Exception e) {
+            log.error("提交定时同步任务失败: configId={}, error={}", config.getId(), e.getMessage(), e);
+        }
     }
     
     /**
      * 执行同步操作
+     *
+     * @param incremental 是否增量同步（定时同步只拉取上次成功同步后变化的数据，手动同步为全量同步）
+     * @param job 同步任务（进度、取消和超时）
      */
-    private SyncLog doSync(SyncConfig config) {
-        SyncLog syncLog = new SyncLog();
-        syncLog.setSyncType(config.getSyncType());
-        syncLog.setSyncConfigId(config.getId());
-        syncLog.setStatus("FAILED");
-        syncLog.setTotalCount(0);
-        syncLog.setSuccessCount(0);
-        syncLog.setFailedCount(0);
-        syncLog.setStartTime(LocalDateTime.now());
+    private void doSync(SyncConfig config, boolean incremental, SyncJob job) {
+        // 同步日志由 SyncJobService 创建和保存
+        SyncLog syncLog = job.getSyncLog();
         
         try {
-            // 调用外部API获取数据
-            List<ExternalHotel> externalHotels = fetchExternalData(config);
-            
-            syncLog.setTotalCount(externalHotels.size());
-            
-            // 同步数据
-            int successCount = 0;
-            int failedCount = 0;
-            List<String> errorMessages = new ArrayList<>();
-            
-            for (ExternalHotel external : externalHotels) {
-                try {
-                    syncHotel(external, config);
-                    successCount++;
-                } catch (Exception e) {
-                    failedCount++;
-                    String errorMsg = String.format("同步酒店失败: name=%s, error=%s", 
-                        external.getName(), e.getMessage());
-                    errorMessages.add(errorMsg);
-                    log.error(errorMsg, e);
+            // 边读取外部数据边按批同步：按名称+地址匹配已有酒店，批量写入新增和变更的酒店及房型
+            SyncUpsertEngine.Session<ExternalHotel, Hotel> session = syncUpsertEngine.open(new HotelSyncTarget(config));
+            SyncFeedReader.FeedResult feed;
+            try {
+                feed = syncFeedReader.read(config, incremental, ExternalHotel.class, batch -> {
+                    job.checkActive();
+                    session.apply(batch);
+                    syncJobService.reportProgress(job, session.snapshot());
+                });
+            } finally {
+                // 读取中断时已写入的批次仍然有效，同样统计结果并清除缓存
+                SyncUpsertEngine.SyncUpsertResult result = session.finish();
+                syncLog.setTotalCount(result.getTotalCount());
+                syncLog.setSuccessCount(result.getSuccessCount());
+                syncLog.setFailedCount(result.getFailedCount());
+                if (!result.getErrors().isEmpty()) {
+                    syncLog.setErrorMessage(String.join("; ", result.getErrors()));
                 }
             }
+            // 增量同步没有变化的数据时也是成功；全量同步没有任何成功记录时为失败
+            boolean success = syncLog.getSuccessCount() > 0
+                || (feed.isIncremental() && syncLog.getFailedCount() == 0);
+            syncLog.setStatus(success ? "SUCCESS" : "FAILED");
             
-            syncLog.setSuccessCount(successCount);
-            syncLog.setFailedCount(failedCount);
-            syncLog.setStatus(successCount > 0 ? "SUCCESS" : "FAILED");
-            
-            if (!errorMessages.isEmpty()) {
-                syncLog.setErrorMessage(String.join("; ", errorMessages));
+            // 全部成功时保存增量同步状态，有失败记录时保留原状态，下次同步重新拉取
+            if (syncLog.getFailedCount() == 0 && !feed.isNotModified()) {
+                syncConfigMapper.updateDeltaState(config.getId(), feed.getCursor(), feed.getEtag(), feed.getLastModified());
+            }
+            if (feed.isNotModified()) {
+                log.info("外部数据未变化，跳过同步: configId={}", config.getId());
             }
             
             // 更新最后同步时间
@@ -173,177 +178,207 @@ public class HotelSyncService {
             log.error("同步失败: configId={}, error={}", config.getId(), e.getMessage(), e);
             syncLog.setErrorMessage(e.getMessage());
             syncLog.setStatus("FAILED");
-        } finally {
-            syncLog.setEndTime(LocalDateTime.now());
-            syncLogMapper.insert(syncLog);
         }
-        
-        return syncLog;
     }
     
     /**
-     * 调用外部API获取数据（带重试机制）
+     * 酒店同步目标：按 名称+地址 匹配已有酒店（外部数据未提供地址时按 名称+城市 匹配），同时同步房型
      */
-    private List<ExternalHotel> fetchExternalData(SyncConfig config) {
-        Exception lastException = null;
+    private class HotelSyncTarget implements SyncUpsertEngine.Target<ExternalHotel, Hotel> {
         
-        for (int i = 0; i < MAX_RETRY_COUNT; i++) {
-            try {
-                // 构建请求头
-                HttpHeaders headers = new HttpHeaders();
-                headers.set("Content-Type", "application/json");
-                
-                if (config.getApiKey() != null && !config.getApiKey().isEmpty()) {
-                    headers.set("Authorization", "Bearer " + config.getApiKey());
-                }
-                
-                HttpEntity<String> entity = new HttpEntity<>(headers);
-                
-                // 调用外部API
-                ResponseEntity<String> response = restTemplate.exchange(
-                    config.getApiUrl(),
-                    HttpMethod.GET,
-                    entity,
-                    String.class
-                );
-                
-                if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                    // 解析JSON响应
-                    ObjectMapper objectMapper = new ObjectMapper();
-                    String body = response.getBody();
-                    
-                    // 尝试解析为数组
-                    try {
-                        List<ExternalHotel> hotels = objectMapper.readValue(
-                            body,
-                            new TypeReference<List<ExternalHotel>>() {}
-                        );
-                        return hotels;
-                    } catch (Exception e) {
-                        // 如果不是数组，尝试解析为对象包装的数组
-                        @SuppressWarnings("unchecked")
-                        Map<String, Object> map = (Map<String, Object>) objectMapper.readValue(body, Map.class);
-                        if (map.containsKey("data")) {
-                            Object data = map.get("data");
-                            return objectMapper.convertValue(data, new TypeReference<List<ExternalHotel>>() {});
-                        }
-                        throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "外部API返回数据格式不正确");
-                    }
-                } else {
-                    throw new BusinessException(ResultCode.OPERATION_FAILED.getCode(), 
-                        "外部API调用失败: " + response.getStatusCode());
-                }
-                
-            } catch (Exception e) {
-                lastException = e;
-                log.warn("调用外部API失败，重试 {}/{}: error={}", i + 1, MAX_RETRY_COUNT, e.getMessage());
-                
-                if (i < MAX_RETRY_COUNT - 1) {
-                    try {
-                        Thread.sleep(RETRY_DELAY_MS * (i + 1)); // 递增延迟
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        throw new BusinessException(ResultCode.OPERATION_FAILED.getCode(), "同步被中断");
-                    }
-                }
-            }
+        private final String syncSource;
+        private final LocalDateTime syncTime = LocalDateTime.now();
+        
+        private HotelSyncTarget(SyncConfig config) {
+            this.syncSource = SYNC_SOURCE_PREFIX + config.getId();
         }
         
-        throw new BusinessException(ResultCode.OPERATION_FAILED.getCode(), 
-            "调用外部API失败，已重试" + MAX_RETRY_COUNT + "次: " + 
-            (lastException != null ? lastException.getMessage() : "未知错误"));
-    }
-    
-    /**
-     * 同步单个酒店（增量同步，根据名称+地址判断是否已存在）
-     */
-    private void syncHotel(ExternalHotel external, SyncConfig config) {
-        // 验证数据
-        if (external.getName() == null || external.getName().trim().isEmpty()) {
-            throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "酒店名称不能为空");
+        @Override
+        public String name() {
+            return "酒店";
         }
         
-        // 根据名称+地址查询是否已存在
-        List<Hotel> existing = hotelMapper.selectList(
-            external.getName(),
-            external.getCity(),
-            null,
-            null,
-            0,
-            100
-        );
+        @Override
+        public List<Hotel> loadExisting() {
+            return hotelMapper.selectAll();
+        }
+        
+        @Override
+        public List<String> entityKeys(Hotel hotel) {
+            return Arrays.asList(
+                naturalKey(hotel.getName(), hotel.getAddress()),
+                nameKey(hotel.getName(), hotel.getCity()),
+                nameKey(hotel.getName(), null)
+            );
+        }
+        
+        @Override
+        public String label(ExternalHotel external) {
+            return external.getName();
+        }
         
-        Hotel hotel = null;
-        for (Hotel h : existing) {
-            // 判断名称和地址是否匹配
-            if (external.getName().equals(h.getName()) && 
-                (external.getAddress() == null || external.getAddress().equals(h.getAddress()))) {
-                hotel = h;
-                break;
+        @Override
+        public String recordKey(ExternalHotel external) {
+            if (external.getName() == null || external.getName().trim().isEmpty()) {
+                throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "酒店名称不能为空");
             }
+            return external.getAddress() != null
+                ? naturalKey(external.getName(), external.getAddress())
+                : nameKey(external.getName(), external.getCity());
         }
         
-        if (hotel == null) {
-            // 创建新酒店
-            HotelCreateRequest createRequest = new HotelCreateRequest();
-            BeanUtils.copyProperties(external, createRequest);
-            createRequest.setStatus(1); // 默认上架
-            hotel = hotelService.create(createRequest);
-            log.info("同步创建酒店: name={}", external.getName());
-        } else {
-            // 更新已有酒店
-            HotelUpdateRequest updateRequest = new HotelUpdateRequest();
-            BeanUtils.copyProperties(external, updateRequest);
-            hotel = hotelService.update(hotel.getId(), updateRequest);
-            log.info("同步更新酒店: id={}, name={}", hotel.getId(), external.getName());
+        @Override
+        public Hotel create(ExternalHotel external) {
+            Hotel hotel = new Hotel();
+            BeanUtils.copyProperties(external, hotel);
+            hotel.setStatus(1); // 默认上架
+            hotel.setSyncSource(syncSource);
+            hotel.setSyncTime(syncTime);
+            return hotel;
         }
         
-        // 同步房型信息
-        if (external.getRooms() != null && !external.getRooms().isEmpty()) {
-            syncHotelRooms(hotel.getId(), external.getRooms());
+        @Override
+        public boolean merge(Hotel hotel, ExternalHotel external) {
+            boolean changed = SyncUpsertEngine.updateField(hotel.getName(), external.getName(), hotel::setName);
+            changed |= SyncUpsertEngine.updateField(hotel.getAddress(), external.getAddress(), hotel::setAddress);
+            changed |= SyncUpsertEngine.updateField(hotel.getProvince(), external.getProvince(), hotel::setProvince);
+            changed |= SyncUpsertEngine.updateField(hotel.getCity(), external.getCity(), hotel::setCity);
+            changed |= SyncUpsertEngine.updateField(hotel.getDistrict(), external.getDistrict(), hotel::setDistrict);
+            changed |= SyncUpsertEngine.updateField(hotel.getStarLevel(), external.getStarLevel(), hotel::setStarLevel);
+            changed |= SyncUpsertEngine.updateField(hotel.getDescription(), external.getDescription(), hotel::setDescription);
+            changed |= SyncUpsertEngine.updateField(hotel.getImages(), external.getImages(), hotel::setImages);
+            changed |= SyncUpsertEngine.updateField(hotel.getFacilities(), external.getFacilities(), hotel::setFacilities);
+            changed |= SyncUpsertEngine.updateField(hotel.getContactPhone(), external.getContactPhone(), hotel::setContactPhone);
+            changed |= SyncUpsertEngine.updateField(hotel.getLongitude(), external.getLongitude(), hotel::setLongitude);
+            changed |= SyncUpsertEngine.updateField(hotel.getLatitude(), external.getLatitude(), hotel::setLatitude);
+            if (changed) {
+                hotel.setSyncSource(syncSource);
+                hotel.setSyncTime(syncTime);
+            }
+            return changed;
+        }
+        
+        @Override
+        public Long getId(Hotel hotel) {
+            return hotel.getId();
+        }
+        
+        @Override
+        public String getFingerprint(Hotel hotel) {
+            return hotel.getSyncFingerprint();
+        }
+        
+        @Override
+        public void setFingerprint(Hotel hotel, String fingerprint) {
+            hotel.setSyncFingerprint(fingerprint);
+        }
+        
+        @Override
+        public void insertBatch(List<Hotel> hotels) {
+            hotelMapper.batchInsert(hotels);
+        }
+        
+        @Override
+        public int updateBatch(List<Hotel> hotels) {
+            return hotelMapper.batchUpdate(hotels);
+        }
+        
+        @Override
+        public void afterBatch(List<SyncUpsertEngine.Match<ExternalHotel, Hotel>> matches) {
+            syncHotelRooms(matches);
+        }
+        
+        @Override
+        public void invalidate(Set<Long> changedIds) {
+            // 首页推荐酒店来自首页缓存
+            cacheService.evictHome();
+            geoLocationIndex.refresh(GeoLocationIndex.TYPE_HOTEL, changedIds);
         }
     }
     
     /**
-     * 同步酒店房型
+     * 同步一批酒店的房型（一次查询已有房型，按房型名称匹配，批量写入新增和变更的房型）
      */
-    private void syncHotelRooms(Long hotelId, List<ExternalHotelRoom> externalRooms) {
-        // 获取现有房型列表
-        List<HotelRoom> existingRooms = hotelRoomMapper.selectByHotelId(hotelId);
+    private void syncHotelRooms(List<SyncUpsertEngine.Match<ExternalHotel, Hotel>> matches) {
+        List<Long> hotelIds = new ArrayList<>();
+        for (SyncUpsertEngine.Match<ExternalHotel, Hotel> match : matches) {
+            List<ExternalHotelRoom> rooms = match.getRecord().getRooms();
+            if (rooms != null && !rooms.isEmpty() && !match.isInserted()) {
+                hotelIds.add(match.getEntity().getId());
+            }
+        }
         
-        for (ExternalHotelRoom externalRoom : externalRooms) {
-            try {
-                // 查找是否已存在相同房型
-                HotelRoom existingRoom = null;
-                for (HotelRoom room : existingRooms) {
-                    if (externalRoom.getRoomType() != null && 
-                        externalRoom.getRoomType().equals(room.getRoomType())) {
-                        existingRoom = room;
-                        break;
+        // 已有房型：酒店ID -> 房型名称 -> 房型
+        Map<Long, Map<String, HotelRoom>> existingRooms = new HashMap<>();
+        if (!hotelIds.isEmpty()) {
+            for (HotelRoom room : hotelRoomMapper.selectByHotelIds(hotelIds)) {
+                existingRooms.computeIfAbsent(room.getHotelId(), key -> new HashMap<>())
+                    .putIfAbsent(room.getRoomType(), room);
+            }
+        }
+        
+        List<HotelRoom> inserts = new ArrayList<>();
+        Set<HotelRoom> updates = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (SyncUpsertEngine.Match<ExternalHotel, Hotel> match : matches) {
+            List<ExternalHotelRoom> externalRooms = match.getRecord().getRooms();
+            if (externalRooms == null || externalRooms.isEmpty()) {
+                continue;
+            }
+            Long hotelId = match.getEntity().getId();
+            Map<String, HotelRoom> rooms = existingRooms.computeIfAbsent(hotelId, key -> new HashMap<>());
+            for (ExternalHotelRoom externalRoom : externalRooms) {
+                HotelRoom room = externalRoom.getRoomType() != null ? rooms.get(externalRoom.getRoomType()) : null;
+                if (room == null) {
+                    room = new HotelRoom();
+                    BeanUtils.copyProperties(externalRoom, room);
+                    room.setHotelId(hotelId);
+                    room.setStatus(1); // 默认上架
+                    inserts.add(room);
+                    if (externalRoom.getRoomType() != null) {
+                        rooms.put(externalRoom.getRoomType(), room);
                     }
+                } else if (mergeRoom(room, externalRoom) && room.getId() != null) {
+                    updates.add(room);
                 }
-                
-                if (existingRoom == null) {
-                    // 创建新房型
-                    HotelRoomCreateRequest createRequest = new HotelRoomCreateRequest();
-                    BeanUtils.copyProperties(externalRoom, createRequest);
-                    createRequest.setHotelId(hotelId);
-                    createRequest.setStatus(1); // 默认上架
-                    hotelService.createRoom(createRequest);
-                    log.info("同步创建房型: hotelId={}, roomType={}", hotelId, externalRoom.getRoomType());
-                } else {
-                    // 更新已有房型
-                    com.travel.dto.HotelRoomUpdateRequest updateRequest = new com.travel.dto.HotelRoomUpdateRequest();
-                    BeanUtils.copyProperties(externalRoom, updateRequest);
-                    hotelService.updateRoom(existingRoom.getId(), updateRequest);
-                    log.info("同步更新房型: id={}, roomType={}", existingRoom.getId(), externalRoom.getRoomType());
-                }
-            } catch (Exception e) {
-                log.error("同步房型失败: hotelId={}, roomType={}, error={}", 
-                    hotelId, externalRoom.getRoomType(), e.getMessage(), e);
-                // 继续同步其他房型，不中断整个同步过程
             }
         }
+        
+        if (!inserts.isEmpty()) {
+            hotelRoomMapper.batchInsert(inserts);
+        }
+        if (!updates.isEmpty()) {
+            int matched = hotelRoomMapper.batchUpdate(new ArrayList<>(updates));
+            if (matched < updates.size()) {
+                throw new IllegalStateException("房型已被删除，" + (updates.size() - matched) + "条未更新");
+            }
+        }
+        if (!inserts.isEmpty() || !updates.isEmpty()) {
+            log.info("同步房型: 新增={}, 更新={}", inserts.size(), updates.size());
+        }
+    }
+    
+    private boolean mergeRoom(HotelRoom room, ExternalHotelRoom external) {
+        boolean changed = SyncUpsertEngine.updateField(room.getPrice(), external.getPrice(), room::setPrice);
+        changed |= SyncUpsertEngine.updateField(room.getStock(), external.getStock(), room::setStock);
+        changed |= SyncUpsertEngine.updateField(room.getBedType(), external.getBedType(), room::setBedType);
+        changed |= SyncUpsertEngine.updateField(room.getArea(), external.getArea(), room::setArea);
+        changed |= SyncUpsertEngine.updateField(room.getFacilities(), external.getFacilities(), room::setFacilities);
+        changed |= SyncUpsertEngine.updateField(room.getImages(), external.getImages(), room::setImages);
+        return changed;
+    }
+    
+    /**
+     * 自然键：名称+地址
+     */
+    private static String naturalKey(String name, String address) {
+        return name + '\u0001' + address;
+    }
+    
+    /**
+     * 外部数据未提供地址时的匹配键：名称+城市（城市为空时只按名称）
+     */
+    private static String nameKey(String name, String city) {
+        return name + '\u0002' + (city != null ? city : "");
     }
     
     /**
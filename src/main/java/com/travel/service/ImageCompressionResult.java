@@ -0,0 +1,42 @@
+package com.travel.service;
+
+import lombok.Builder;
+import lombok.Data;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 图片压缩结果内部类
+ * 一次解码产生的主图和多宽度WebP副本
+ * 
+ * @author travel-platform
+ */
+@Data
+@Builder
+public class ImageCompressionResult {
+
+    /**
+     * 主图（未达到压缩阈值时为原始文件）
+     */
+    private MultipartFile file;
+
+    /**
+     * 主图是否经过WebP压缩
+     */
+    private boolean compressed;
+
+    /**
+     * 多宽度副本（宽度 -> WebP字节，按宽度升序）
+     */
+    @Builder.Default
+    private Map<Integer, byte[]> variants = new LinkedHashMap<>();
+
+    /**
+     * 是否包含多宽度副本
+     */
+    public boolean hasVariants() {
+        return variants != null && !variants.isEmpty();
+    }
+}
@@ -21,6 +21,16 @@ public interface ImageCompressionService {
      */
     MultipartFile compressToWebP(MultipartFile file) throws IOException;
     
+    /**
+     * 将图片压缩为 WebP 格式，并在同一次解码中生成多宽度副本
+     * 副本宽度由 travel.file.webp.variant-widths 配置，只生成小于主图宽度的副本
+     * 
+     * @param file 原始图片文件
+     * @return 压缩结果（主图 + 副本）
+     * @throws IOException 压缩失败时抛出异常
+     */
+    ImageCompressionResult compressToWebPWithVariants(MultipartFile file) throws IOException;
+    
     /**
      * 将图片输入流压缩为 WebP 格式
      * 
@@ -0,0 +1,478 @@
+package com.travel.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.travel.common.ResultCode;
+import com.travel.dto.ImageProcessingJobResponse;
+import com.travel.entity.FileRecord;
+import com.travel.exception.BusinessException;
+import com.travel.util.ImageVariantUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 图片异步处理服务
+ *
+ * 上传接口只保存原图并创建文件记录，WebP压缩在独立的工作线程池中完成：
+ * - 工作线程数默认等于CPU核数，避免图片编码占满Tomcat请求线程
+ * - 待处理任务按上传人分队列，工作线程轮流从各队列取任务，单个管理员批量上传不会饿死其他人
+ * - 待处理任务总数和单人任务数均有上限，超出时拒绝新的上传（背压）
+ *
+ * 任务状态保存在本地内存中，完成后保留1小时供轮询查询。
+ * 压缩时同时生成多宽度副本（见 {@link ImageVariantUtil}），列表页可按显示宽度选用。
+ *
+ * @author travel-platform
+ */
+@Slf4j
+@Service
+public class ImageProcessingService {
+
+    @Autowired
+    private ImageCompressionService imageCompressionService;
+
+    @Autowired
+    private OssService ossService;
+
+    @Autowired
+    private FileRecordService fileRecordService;
+
+    @Value("${travel.file.image-processing.worker-threads:0}")
+    private int workerThreads;
+
+    @Value("${travel.file.image-processing.max-pending:200}")
+    private int maxPending;
+
+    @Value("${travel.file.image-processing.max-pending-per-tenant:50}")
+    private int maxPendingPerTenant;
+
+    /**
+     * 工作线程池（任务本身从公平队列中获取，线程池队列只承载"处理下一个任务"的信号）
+     */
+    private ThreadPoolExecutor workerPool;
+
+    /**
+     * 按上传人分组的待处理队列
+     */
+    private final Map<String, Deque<ImageProcessingJob>> tenantQueues = new HashMap<>();
+
+    /**
+     * 有待处理任务的上传人轮询顺序
+     */
+    private final Deque<String> tenantOrder = new ArrayDeque<>();
+
+    /**
+     * 待处理任务总数（受 tenantQueues 锁保护）
+     */
+    private int pendingCount;
+
+    /**
+     * 任务状态表
+     */
+    private final Cache<String, ImageProcessingJob> jobs = Caffeine.newBuilder()
+            .maximumSize(10000)
+            .expireAfterWrite(1, TimeUnit.HOURS)
+            .build();
+
+    @PostConstruct
+    public void init() {
+        int threads = workerThreads > 0 ? workerThreads : Runtime.getRuntime().availableProcessors();
+        workerPool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new CustomizableThreadFactory("image-process-"));
+        log.info("图片处理工作线程池已初始化 - 线程数: {}, 最大待处理任务数: {}, 单人最大待处理任务数: {}",
+                threads, maxPending, maxPendingPerTenant);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workerPool.shutdown();
+        try {
+            if (!workerPool.awaitTermination(60, TimeUnit.SECONDS)) {
+                workerPool.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workerPool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 检查处理队列是否还能接收指定上传人的任务
+     * 应在上传原图之前调用，避免队列已满时仍然产生上传开销
+     *
+     * @param tenant 上传人标识
+     * @throws BusinessException 队列已满时抛出
+     */
+    public void ensureCapacity(String tenant) {
+        synchronized (tenantQueues) {
+            if (pendingCount >= maxPending) {
+                throw new BusinessException(ResultCode.OPERATION_FAILED.getCode(), "图片处理队列繁忙，请稍后重试");
+            }
+            Deque<ImageProcessingJob> queue = tenantQueues.get(tenant);
+            if (queue != null && queue.size() >= maxPendingPerTenant) {
+                throw new BusinessException(ResultCode.OPERATION_FAILED.getCode(),
+                        "待处理图片过多（上限" + maxPendingPerTenant + "张），请等待处理完成后再上传");
+            }
+        }
+    }
+
+    /**
+     * 提交图片处理任务
+     *
+     * @param tenant 上传人标识
+     * @param sourceFile 原图本地临时文件（任务结束后删除）
+     * @param originalFilename 原始文件名
+     * @param contentType 文件类型
+     * @param module 模块名称
+     * @param record 已保存的文件记录（指向原图）
+     * @param contentHash 原图内容SHA-256（处理完成后写入文件记录，供去重复用）
+     * @return 任务信息
+     */
+    public ImageProcessingJobResponse submit(String tenant, Path sourceFile, String originalFilename,
+                                             String contentType, String module, FileRecord record,
+                                             String contentHash) {
+        ImageProcessingJob job = new ImageProcessingJob();
+        job.jobId = "image-job-" + UUID.randomUUID().toString().replace("-", "");
+        job.tenant = tenant;
+        job.sourceFile = sourceFile;
+        job.originalFilename = originalFilename;
+        job.contentType = contentType;
+        job.module = module;
+        job.record = record;
+        job.contentHash = contentHash;
+        job.originalUrl = record.getFileUrl();
+        job.status = "PENDING";
+        job.submitTime = LocalDateTime.now();
+
+        jobs.put(job.jobId, job);
+        synchronized (tenantQueues) {
+            Deque<ImageProcessingJob> queue = tenantQueues.computeIfAbsent(tenant, key -> new ArrayDeque<>());
+            if (queue.isEmpty()) {
+                tenantOrder.addLast(tenant);
+            }
+            queue.addLast(job);
+            pendingCount++;
+        }
+        workerPool.execute(this::processNext);
+
+        log.info("提交图片处理任务，jobId: {}, 上传人: {}, 文件: {}", job.jobId, tenant, originalFilename);
+        return toResponse(job);
+    }
+
+    /**
+     * 登记已完成的图片处理任务
+     * 内容与已处理图片相同时直接复用处理结果，不再排队压缩
+     *
+     * @param record 已保存的文件记录（指向复用的处理结果）
+     * @return 任务信息
+     */
+    public ImageProcessingJobResponse submitCompleted(FileRecord record) {
+        ImageProcessingJob job = new ImageProcessingJob();
+        job.jobId = "image-job-" + UUID.randomUUID().toString().replace("-", "");
+        job.record = record;
+        job.originalUrl = record.getFileUrl();
+        job.fileUrl = record.getFileUrl();
+        job.status = "COMPLETED";
+        job.submitTime = LocalDateTime.now();
+        job.endTime = job.submitTime;
+        jobs.put(job.jobId, job);
+        return toResponse(job);
+    }
+
+    /**
+     * 查询图片处理任务
+     *
+     * @param jobId 任务ID
+     * @return 任务信息
+     */
+    public ImageProcessingJobResponse getJob(String jobId) {
+        if (jobId == null || jobId.trim().isEmpty()) {
+            throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "任务ID不能为空");
+        }
+        ImageProcessingJob job = jobs.getIfPresent(jobId);
+        if (job == null) {
+            throw new BusinessException(ResultCode.NOT_FOUND.getCode(), "任务不存在或已过期: " + jobId);
+        }
+        return toResponse(job);
+    }
+
+    /**
+     * 上传压缩结果到OSS
+     * 有多宽度副本时，先上传副本，再上传带副本标记的主图，保证主图URL可见时副本已存在
+     *
+     * @param result 压缩结果
+     * @param module 模块名称
+     * @return 主图URL
+     * @throws Exception 上传失败时抛出异常
+     */
+    public String uploadCompressed(ImageCompressionResult result, String module) throws Exception {
+        MultipartFile file = result.getFile();
+        if (!result.hasVariants()) {
+            return ossService.uploadFile(file, module);
+        }
+
+        String objectKey = ossService.generateObjectKey(file.getOriginalFilename(), module);
+        String mainKey = ImageVariantUtil.buildMainKey(objectKey, result.getVariants().keySet());
+        for (Map.Entry<Integer, byte[]> variant : result.getVariants().entrySet()) {
+            ossService.uploadObject(ImageVariantUtil.buildVariantKey(mainKey, variant.getKey()),
+                    new ByteArrayInputStream(variant.getValue()));
+        }
+        try (InputStream inputStream = file.getInputStream()) {
+            return ossService.uploadObject(mainKey, inputStream);
+        }
+    }
+
+    /**
+     * 获取副本宽度列表（逗号分隔，用于保存到文件记录）
+     *
+     * @param result 压缩结果
+     * @return 副本宽度列表，无副本时返回null
+     */
+    public static String joinVariantWidths(ImageCompressionResult result) {
+        if (!result.hasVariants()) {
+            return null;
+        }
+        return result.getVariants().keySet().stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining(","));
+    }
+
+    /**
+     * 按上传人轮询取出下一个待处理任务
+     */
+    private ImageProcessingJob pollNextJob() {
+        synchronized (tenantQueues) {
+            String tenant = tenantOrder.pollFirst();
+            if (tenant == null) {
+                return null;
+            }
+            Deque<ImageProcessingJob> queue = tenantQueues.get(tenant);
+            ImageProcessingJob job = queue.pollFirst();
+            if (queue.isEmpty()) {
+                tenantQueues.remove(tenant);
+            } else {
+                // 该上传人还有任务，排到轮询队尾
+                tenantOrder.addLast(tenant);
+            }
+            pendingCount--;
+            return job;
+        }
+    }
+
+    /**
+     * 处理一个任务：压缩原图为WebP，上传后将文件记录指向压缩结果
+     */
+    private void processNext() {
+        ImageProcessingJob job = pollNextJob();
+        if (job == null) {
+            return;
+        }
+
+        job.status = "RUNNING";
+        try {
+            MultipartFile source = new StoredMultipartFile(job.sourceFile, job.originalFilename, job.contentType);
+            ImageCompressionResult result = imageCompressionService.compressToWebPWithVariants(source);
+
+            if (!result.isCompressed()) {
+                // 未达到压缩阈值，原图即为最终结果
+                job.record.setContentHash(job.contentHash);
+                fileRecordService.updateFileRecord(job.record);
+                job.fileUrl = job.originalUrl;
+            } else {
+                MultipartFile processed = result.getFile();
+                String fileUrl = uploadCompressed(result, job.module);
+                FileRecord record = job.record;
+                String originalPath = record.getFilePath();
+                record.setFileName(extractFileName(fileUrl));
+                record.setFilePath(extractPathFromUrl(fileUrl));
+                record.setFileUrl(fileUrl);
+                record.setFileSize(processed.getSize());
+                record.setFileExtension("webp");
+                record.setVariantWidths(joinVariantWidths(result));
+                record.setContentHash(job.contentHash);
+                fileRecordService.updateFileRecord(record);
+                job.fileUrl = fileUrl;
+                deleteOriginal(originalPath, job.contentHash);
+            }
+
+            job.status = "COMPLETED";
+            log.info("图片处理完成，jobId: {}, url: {}", job.jobId, job.fileUrl);
+        } catch (Exception e) {
+            job.status = "FAILED";
+            job.errorMessage = e.getMessage();
+            log.error("图片处理失败，jobId: {}, 文件: {}", job.jobId, job.originalFilename, e);
+        } finally {
+            job.endTime = LocalDateTime.now();
+            try {
+                Files.deleteIfExists(job.sourceFile);
+            } catch (IOException e) {
+                log.warn("删除图片临时文件失败：{}", job.sourceFile, e);
+            }
+        }
+    }
+
+    /**
+     * 删除已被压缩结果替换的原图（仍被其他文件记录引用时保留）
+     */
+    private void deleteOriginal(String originalPath, String contentHash) {
+        if (originalPath == null || originalPath.isEmpty()) {
+            return;
+        }
+        FileRecord reference = new FileRecord();
+        reference.setFilePath(originalPath);
+        reference.setContentHash(contentHash);
+        try {
+            if (fileRecordService.countReferences(reference) > 0) {
+                log.info("原图仍被其他文件记录引用，跳过删除：{}", originalPath);
+                return;
+            }
+            if (!ossService.deleteFile(originalPath)) {
+                log.warn("删除原图失败：{}", originalPath);
+            }
+        } catch (Exception e) {
+            log.warn("删除原图失败：{}", originalPath, e);
+        }
+    }
+
+    private ImageProcessingJobResponse toResponse(ImageProcessingJob job) {
+        int queueSize;
+        synchronized (tenantQueues) {
+            queueSize = pendingCount;
+        }
+        return ImageProcessingJobResponse.builder()
+                .jobId(job.jobId)
+                .fileRecordId(job.record.getId())
+                .status(job.status)
+                .originalUrl(job.originalUrl)
+                .fileUrl(job.fileUrl)
+                .queueSize(queueSize)
+                .errorMessage(job.errorMessage)
+                .submitTime(job.submitTime)
+                .endTime(job.endTime)
+                .build();
+    }
+
+    /**
+     * 从OSS URL中提取相对路径
+     * URL格式：https://{bucket}.{endpoint}/{path}
+     */
+    private String extractPathFromUrl(String url) {
+        int thirdSlashIndex = url.indexOf("/", url.indexOf("/", url.indexOf("/") + 1) + 1);
+        if (thirdSlashIndex > 0) {
+            return url.substring(thirdSlashIndex + 1);
+        }
+        return url;
+    }
+
+    /**
+     * 从OSS URL中提取文件名
+     */
+    private String extractFileName(String url) {
+        int lastSlashIndex = url.lastIndexOf('/');
+        return lastSlashIndex >= 0 ? url.substring(lastSlashIndex + 1) : url;
+    }
+
+    /**
+     * 图片处理任务（内部状态）
+     */
+    private static class ImageProcessingJob {
+        String jobId;
+        String tenant;
+        Path sourceFile;
+        String originalFilename;
+        String contentType;
+        String module;
+        FileRecord record;
+        String contentHash;
+        String originalUrl;
+        volatile String status;
+        volatile String fileUrl;
+        volatile String errorMessage;
+        LocalDateTime submitTime;
+        volatile LocalDateTime endTime;
+    }
+
+    /**
+     * 基于本地临时文件的 MultipartFile 包装类
+     */
+    private static class StoredMultipartFile implements MultipartFile {
+        private final Path path;
+        private final String filename;
+        private final String contentType;
+
+        StoredMultipartFile(Path path, String filename, String contentType) {
+            this.path = path;
+            this.filename = filename;
+            this.contentType = contentType;
+        }
+
+        @Override
+        @NonNull
+        public String getName() {
+            return "file";
+        }
+
+        @Override
+        public String getOriginalFilename() {
+            return filename;
+        }
+
+        @Override
+        public String getContentType() {
+            return contentType;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return getSize() == 0;
+        }
+
+        @Override
+        public long getSize() {
+            try {
+                return Files.size(path);
+            } catch (IOException e) {
+                return 0;
+            }
+        }
+
+        @Override
+        @NonNull
+        public byte[] getBytes() throws IOException {
+            return Files.readAllBytes(path);
+        }
+
+        @Override
+        @NonNull
+        public InputStream getInputStream() throws IOException {
+            return Files.newInputStream(path);
+        }
+
+        @Override
+        public void transferTo(@NonNull java.io.File dest) throws IOException, IllegalStateException {
+            Files.copy(path, dest.toPath(), java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -26,6 +26,9 @@ public class MapService {
     @Autowired
     private MapMapper mapMapper;
     
+    @Autowired
+    private GeoLocationIndex geoLocationIndex;
+    
     /**
      * 查询地图列表（按状态筛选）
      */
@@ -70,6 +73,7 @@ public class MapService {
         }
         
         log.info("创建地图成功: id={}, name={}", mapLocation.getId(), mapLocation.getName());
+        geoLocationIndex.refreshAfterCommit(GeoLocationIndex.TYPE_MAP, mapLocation.getId());
         
         return mapLocation;
     }
@@ -109,6 +113,7 @@ public class MapService {
         }
         
         log.info("更新地图成功: id={}, name={}", mapLocation.getId(), mapLocation.getName());
+        geoLocationIndex.refreshAfterCommit(GeoLocationIndex.TYPE_MAP, id);
         
         return mapLocation;
     }
@@ -128,5 +133,6 @@ public class MapService {
         }
         
         log.info("删除地图成功: id={}, name={}", mapLocation.getId(), mapLocation.getName());
+        geoLocationIndex.refreshAfterCommit(GeoLocationIndex.TYPE_MAP, id);
     }
 }
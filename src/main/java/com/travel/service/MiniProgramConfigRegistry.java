@@ -0,0 +1,442 @@
+package com.travel.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.travel.common.ResultCode;
+import com.travel.entity.MiniProgramConfig;
+import com.travel.exception.BusinessException;
+import com.travel.mapper.MiniProgramConfigMapper;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 小程序配置注册表
+ *
+ * 一次查询加载所有启用的配置，并把配置值解析为类型化对象（轮播图、图标、推荐、分类），保存为不可变快照：
+ * - 读取方直接使用快照中的对象，不再访问数据库，也不再解析JSON
+ * - 配置变更（见 MiniProgramConfigService）在事务提交后重新加载，整体替换快照，读取方不会看到部分更新的数据
+ * - 管理端写入配置时按同样的规则校验（{@link #validate}），格式错误的配置不会写入数据库
+ * - 定时重新加载，使多实例部署时其他实例的变更也能生效
+ *
+ * 快照中的对象为共享只读对象，调用方不要修改。
+ *
+ * @author travel-platform
+ */
+@Slf4j
+@Service
+public class MiniProgramConfigRegistry {
+
+    public static final String TYPE_BANNER = "BANNER";
+    public static final String TYPE_ICON = "ICON";
+    public static final String TYPE_RECOMMEND = "RECOMMEND";
+    public static final String TYPE_CATEGORY = "CATEGORY";
+
+    /**
+     * 推荐商品分类配置键（格式与推荐配置相同：{"ids": [分类ID, ...]}）
+     */
+    public static final String KEY_RECOMMEND_PRODUCT_CATEGORY = "RECOMMEND_PRODUCT_CATEGORY";
+
+    /**
+     * 忽略未知字段，管理端保存的附加字段不影响解析
+     */
+    private static final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private static final ObjectReader BANNER_READER = objectMapper.readerFor(BannerConfig.class);
+    private static final ObjectReader BANNER_LIST_READER = objectMapper.readerForListOf(BannerConfig.class);
+    private static final ObjectReader ICON_READER = objectMapper.readerFor(IconConfig.class);
+    private static final ObjectReader RECOMMEND_READER = objectMapper.readerFor(RecommendConfig.class);
+    private static final ObjectReader CATEGORY_LIST_READER = objectMapper.readerForListOf(CategoryConfig.class);
+
+    @Autowired
+    private MiniProgramConfigMapper miniProgramConfigMapper;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    /**
+     * 启用的轮播图配置（每个配置可包含多张轮播图）
+     */
+    public List<ConfigEntry<List<BannerConfig>>> getBanners() {
+        return snapshot().banners;
+    }
+
+    /**
+     * 启用的图标配置
+     */
+    public List<ConfigEntry<IconConfig>> getIcons() {
+        return snapshot().icons;
+    }
+
+    /**
+     * 启用的推荐配置（景点、酒店等，按配置键区分）
+     */
+    public List<ConfigEntry<RecommendConfig>> getRecommends() {
+        return snapshot().recommends;
+    }
+
+    /**
+     * 启用的分类导航配置
+     */
+    public List<ConfigEntry<List<CategoryConfig>>> getCategories() {
+        return snapshot().categories;
+    }
+
+    /**
+     * 推荐商品分类配置，未配置或未启用时返回null
+     */
+    public RecommendConfig getRecommendProductCategory() {
+        Object value = snapshot().values.get(KEY_RECOMMEND_PRODUCT_CATEGORY);
+        return value instanceof RecommendConfig ? (RecommendConfig) value : null;
+    }
+
+    /**
+     * 启用的配置，不存在或未启用时返回null
+     */
+    public MiniProgramConfig getConfig(String configKey) {
+        return snapshot().configsByKey.get(configKey);
+    }
+
+    /**
+     * 启用的指定类型配置（按排序升序、创建时间降序）
+     */
+    public List<MiniProgramConfig> getConfigs(String configType) {
+        return snapshot().configsByType.getOrDefault(configType, Collections.emptyList());
+    }
+
+    /**
+     * 未定义类型的配置（如Logo、广告位）的配置值，不存在、未启用或配置值为空时返回null
+     */
+    public JsonNode getJson(String configKey) {
+        Object value = snapshot().values.get(configKey);
+        return value instanceof JsonNode ? (JsonNode) value : null;
+    }
+
+    /**
+     * 快照加载时间
+     */
+    public LocalDateTime getLoadTime() {
+        return snapshot().loadTime;
+    }
+
+    /**
+     * 快照中的配置数量
+     */
+    public int size() {
+        return snapshot().configsByKey.size();
+    }
+
+    /**
+     * 快照中配置值解析失败（未出现在类型化列表中）的配置数量
+     */
+    public int getFailedCount() {
+        return snapshot().failedCount;
+    }
+
+    /**
+     * 校验配置值（管理端写入前调用），格式错误时抛出参数错误
+     *
+     * @param configKey 配置键
+     * @param configType 配置类型
+     * @param configValue 配置值，为空时不校验
+     */
+    public void validate(String configKey, String configType, String configValue) {
+        if (configValue == null || configValue.trim().isEmpty()) {
+            return;
+        }
+        try {
+            parse(configKey, configType, configValue);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), describe(configKey, configType, e));
+        }
+    }
+
+    /**
+     * 从数据库重新加载所有启用的配置并替换快照
+     * 配置值格式错误的配置保留在按键/类型查询的结果中，但不出现在类型化列表中
+     */
+    public synchronized void reload() {
+        long startTime = System.currentTimeMillis();
+        List<MiniProgramConfig> configs = miniProgramConfigMapper.selectAll(null, 1);
+        Snapshot loaded = new Snapshot(configs);
+        snapshot.set(loaded);
+        log.info("小程序配置已加载，配置数: {}, 解析失败: {}, 耗时: {}ms",
+                loaded.configsByKey.size(), loaded.failedCount, System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * 丢弃当前快照，下次读取时重新加载
+     */
+    public void invalidate() {
+        snapshot.set(null);
+    }
+
+    /**
+     * 定时重新加载（多实例部署时同步其他实例的配置变更）
+     */
+    @Scheduled(fixedDelayString = "${travel.miniprogram-config.refresh-interval-ms:300000}",
+               initialDelayString = "${travel.miniprogram-config.refresh-interval-ms:300000}")
+    public void scheduledReload() {
+        try {
+            reload();
+        } catch (Exception e) {
+            log.error("定时加载小程序配置失败，继续使用当前快照", e);
+        }
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot.get();
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot.get();
+                if (current == null) {
+                    reload();
+                    current = snapshot.get();
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 按配置键和类型解析配置值
+     *
+     * @return List&lt;BannerConfig&gt; / IconConfig / RecommendConfig / List&lt;CategoryConfig&gt;，其他类型返回JsonNode
+     */
+    private static Object parse(String configKey, String configType, String configValue) throws IOException {
+        JsonNode node = objectMapper.readTree(configValue);
+        if (node == null || node.isMissingNode()) {
+            throw new IllegalArgumentException("配置值为空");
+        }
+        if (KEY_RECOMMEND_PRODUCT_CATEGORY.equals(configKey) || TYPE_RECOMMEND.equals(configType)) {
+            requireObject(node);
+            RecommendConfig recommend = RECOMMEND_READER.readValue(node);
+            if (recommend.getIds().contains(null)) {
+                throw new IllegalArgumentException("ID不能为空");
+            }
+            return recommend;
+        }
+        if (TYPE_BANNER.equals(configType)) {
+            // 兼容单个对象和数组两种格式
+            if (node.isArray()) {
+                List<BannerConfig> banners = BANNER_LIST_READER.readValue(node);
+                if (banners.contains(null)) {
+                    throw new IllegalArgumentException("轮播图不能为空");
+                }
+                return Collections.unmodifiableList(banners);
+            }
+            requireObject(node);
+            return Collections.singletonList((BannerConfig) BANNER_READER.readValue(node));
+        }
+        if (TYPE_ICON.equals(configType)) {
+            requireObject(node);
+            return ICON_READER.readValue(node);
+        }
+        if (TYPE_CATEGORY.equals(configType)) {
+            if (!node.isArray()) {
+                throw new IllegalArgumentException("必须是数组格式");
+            }
+            List<CategoryConfig> categories = CATEGORY_LIST_READER.readValue(node);
+            for (CategoryConfig category : categories) {
+                if (category == null || category.getId() == null) {
+                    throw new IllegalArgumentException("分类ID不能为空");
+                }
+            }
+            return Collections.unmodifiableList(categories);
+        }
+        return node;
+    }
+
+    private static void requireObject(JsonNode node) {
+        if (!node.isObject()) {
+            throw new IllegalArgumentException("必须是对象格式");
+        }
+    }
+
+    private static String describe(String configKey, String configType, Exception e) {
+        String format;
+        if (KEY_RECOMMEND_PRODUCT_CATEGORY.equals(configKey) || TYPE_RECOMMEND.equals(configType)) {
+            format = "推荐配置格式应为 {\"ids\": [ID, ...]}";
+        } else if (TYPE_BANNER.equals(configType)) {
+            format = "轮播图配置应为对象或对象数组";
+        } else if (TYPE_ICON.equals(configType)) {
+            format = "图标配置应为对象";
+        } else if (TYPE_CATEGORY.equals(configType)) {
+            format = "分类配置应为 [{\"id\": 分类ID, \"name\": 名称, ...}]";
+        } else {
+            return "配置值必须是有效的JSON格式";
+        }
+        String reason = e instanceof JsonProcessingException
+                ? ((JsonProcessingException) e).getOriginalMessage() : e.getMessage();
+        return "配置值格式错误（" + format + "）: " + reason;
+    }
+
+    /**
+     * 不可变的配置快照
+     */
+    private static final class Snapshot {
+        private final Map<String, MiniProgramConfig> configsByKey;
+        private final Map<String, List<MiniProgramConfig>> configsByType;
+        /**
+         * 解析后的配置值（按配置键）
+         */
+        private final Map<String, Object> values;
+        private final List<ConfigEntry<List<BannerConfig>>> banners;
+        private final List<ConfigEntry<IconConfig>> icons;
+        private final List<ConfigEntry<RecommendConfig>> recommends;
+        private final List<ConfigEntry<List<CategoryConfig>>> categories;
+        private final LocalDateTime loadTime = LocalDateTime.now();
+        private int failedCount;
+
+        @SuppressWarnings("unchecked")
+        private Snapshot(List<MiniProgramConfig> configs) {
+            Map<String, MiniProgramConfig> byKey = new LinkedHashMap<>();
+            Map<String, List<MiniProgramConfig>> byType = new LinkedHashMap<>();
+            Map<String, Object> parsed = new LinkedHashMap<>();
+            List<ConfigEntry<List<BannerConfig>>> bannerList = new ArrayList<>();
+            List<ConfigEntry<IconConfig>> iconList = new ArrayList<>();
+            List<ConfigEntry<RecommendConfig>> recommendList = new ArrayList<>();
+            List<ConfigEntry<List<CategoryConfig>>> categoryList = new ArrayList<>();
+
+            for (MiniProgramConfig config : configs) {
+                if (config.getConfigKey() == null) {
+                    continue;
+                }
+                byKey.put(config.getConfigKey(), config);
+                if (config.getConfigType() != null) {
+                    byType.computeIfAbsent(config.getConfigType(), key -> new ArrayList<>()).add(config);
+                }
+                String configValue = config.getConfigValue();
+                if (configValue == null || configValue.trim().isEmpty()) {
+                    continue;
+                }
+                Object value;
+                try {
+                    value = parse(config.getConfigKey(), config.getConfigType(), configValue);
+                } catch (Exception e) {
+                    failedCount++;
+                    log.warn("解析小程序配置失败，已跳过 - configKey: {}, configType: {}, 原因: {}",
+                            config.getConfigKey(), config.getConfigType(), e.getMessage());
+                    continue;
+                }
+                parsed.put(config.getConfigKey(), value);
+                ConfigEntry<?> entry = new ConfigEntry<>(config.getId(), config.getConfigKey(), value);
+                if (value instanceof RecommendConfig) {
+                    if (TYPE_RECOMMEND.equals(config.getConfigType())) {
+                        recommendList.add((ConfigEntry<RecommendConfig>) entry);
+                    }
+                } else if (value instanceof IconConfig) {
+                    iconList.add((ConfigEntry<IconConfig>) entry);
+                } else if (TYPE_BANNER.equals(config.getConfigType())) {
+                    bannerList.add((ConfigEntry<List<BannerConfig>>) entry);
+                } else if (TYPE_CATEGORY.equals(config.getConfigType())) {
+                    categoryList.add((ConfigEntry<List<CategoryConfig>>) entry);
+                }
+            }
+
+            byType.replaceAll((type, list) -> Collections.unmodifiableList(list));
+            this.configsByKey = Collections.unmodifiableMap(byKey);
+            this.configsByType = Collections.unmodifiableMap(byType);
+            this.values = Collections.unmodifiableMap(parsed);
+            this.banners = Collections.unmodifiableList(bannerList);
+            this.icons = Collections.unmodifiableList(iconList);
+            this.recommends = Collections.unmodifiableList(recommendList);
+            this.categories = Collections.unmodifiableList(categoryList);
+        }
+    }
+
+    /**
+     * 快照中的一条配置
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class ConfigEntry<T> {
+        private final Long configId;
+        private final String configKey;
+        private final T value;
+    }
+
+    /**
+     * 轮播图配置项
+     */
+    @Getter
+    @NoArgsConstructor
+    public static class BannerConfig {
+        /**
+         * 类型：image-图片，video-视频
+         */
+        private String type = "image";
+        private String image;
+        private String video;
+        /**
+         * 跳转链接（旧版本字段）
+         */
+        private String link;
+        private String title;
+        private String linkType;
+        private String linkValue;
+        private String linkDisplay;
+    }
+
+    /**
+     * 图标配置
+     */
+    @Getter
+    @NoArgsConstructor
+    public static class IconConfig {
+        private String type;
+        private Long relatedId;
+        private String relatedName;
+        private String name;
+        private String icon;
+        /**
+         * 外部链接（外部链接类型使用）
+         */
+        private String linkUrl;
+        /**
+         * 文章分类ID（文章分类类型使用）
+         */
+        private Long categoryId;
+    }
+
+    /**
+     * 推荐配置：{"ids": [ID, ...]}
+     */
+    @Getter
+    @NoArgsConstructor
+    public static class RecommendConfig {
+        private List<Long> ids = Collections.emptyList();
+
+        private void setIds(List<Long> ids) {
+            this.ids = ids != null ? Collections.unmodifiableList(ids) : Collections.emptyList();
+        }
+    }
+
+    /**
+     * 分类导航配置项
+     */
+    @Getter
+    @NoArgsConstructor
+    public static class CategoryConfig {
+        private Long id;
+        private String name;
+        private String icon;
+        private Integer level = 1;
+        private Long parentId;
+    }
+}
@@ -1,6 +1,5 @@
 package com.travel.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.travel.common.ResultCode;
 import com.travel.dto.HomeResponse;
@@ -9,6 +8,7 @@ import com.travel.dto.MiniProgramConfigUpdateRequest;
 import com.travel.entity.MiniProgramConfig;
 import com.travel.exception.BusinessException;
 import com.travel.mapper.MiniProgramConfigMapper;
+import com.travel.util.TransactionUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -31,15 +31,12 @@ public class MiniProgramConfigService {
     private MiniProgramConfigMapper miniProgramConfigMapper;
     
     @Autowired
-    @Qualifier("miniprogramConfigCache")
-    private Cache<String, MiniProgramConfig> configCache;
+    private MiniProgramConfigRegistry miniProgramConfigRegistry;
     
     @Autowired
     @Qualifier("homeCache")
     private Cache<String, HomeResponse> homeCache;
     
-    private static final ObjectMapper objectMapper = new ObjectMapper();
-    
     /**
      * 根据ID查询配置
      */
@@ -56,31 +53,28 @@ public class MiniProgramConfigService {
     
     /**
      * 根据配置键查询配置
+     * 启用的配置从配置快照中读取，未启用的配置查询数据库
      */
     public MiniProgramConfig getByConfigKey(String configKey) {
         if (configKey == null || configKey.trim().isEmpty()) {
             throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "配置键不能为空");
         }
         
-        // 先从缓存中获取
-        MiniProgramConfig cachedConfig = configCache.getIfPresent(configKey);
-        if (cachedConfig != null) {
-            return cachedConfig;
-        }
-        
-        // 从数据库查询
-        MiniProgramConfig config = miniProgramConfigMapper.selectByConfigKey(configKey);
-        if (config != null && config.getStatus() == 1) {
-            // 存入缓存
-            configCache.put(configKey, config);
+        MiniProgramConfig config = miniProgramConfigRegistry.getConfig(configKey);
+        if (config != null) {
+            return config;
         }
-        return config;
+        return miniProgramConfigMapper.selectByConfigKey(configKey);
     }
     
     /**
      * 根据配置类型查询配置列表
+     * 查询启用的配置时从配置快照中读取
      */
     public List<MiniProgramConfig> getByConfigType(String configType, Integer status) {
+        if (status != null && status == 1) {
+            return miniProgramConfigRegistry.getConfigs(configType);
+        }
         return miniProgramConfigMapper.selectByConfigType(configType, status);
     }
     
@@ -102,10 +96,8 @@ public class MiniProgramConfigService {
             throw new BusinessException(ResultCode.DATA_ALREADY_EXISTS.getCode(), "配置键已存在");
         }
         
-        // 验证JSON格式
-        if (request.getConfigValue() != null && !request.getConfigValue().trim().isEmpty()) {
-            validateJsonFormat(request.getConfigValue());
-        }
+        // 按配置类型验证配置值格式
+        miniProgramConfigRegistry.validate(request.getConfigKey(), request.getConfigType(), request.getConfigValue());
         
         // 创建配置对象
         MiniProgramConfig config = new MiniProgramConfig();
@@ -141,9 +133,11 @@ public class MiniProgramConfigService {
         MiniProgramConfig config = getById(id);
         String oldConfigKey = config.getConfigKey();
         
-        // 验证JSON格式
-        if (request.getConfigValue() != null && !request.getConfigValue().trim().isEmpty()) {
-            validateJsonFormat(request.getConfigValue());
+        // 按配置类型验证配置值格式（只修改类型时也按新类型验证原配置值）
+        if (request.getConfigValue() != null || request.getConfigType() != null) {
+            miniProgramConfigRegistry.validate(config.getConfigKey(),
+                    request.getConfigType() != null ? request.getConfigType() : config.getConfigType(),
+                    request.getConfigValue() != null ? request.getConfigValue() : config.getConfigValue());
         }
         
         // 更新配置
@@ -221,25 +215,20 @@ public class MiniProgramConfigService {
     }
     
     /**
-     * 验证JSON格式
+     * 重新加载配置快照并清除首页数据缓存
+     * 事务提交后执行，避免加载到未提交（可能回滚）的数据，也避免并发请求在提交前用旧配置重建首页缓存
      */
-    private void validateJsonFormat(String json) {
-        try {
-            objectMapper.readTree(json);
-        } catch (Exception e) {
-            throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "配置值必须是有效的JSON格式");
-        }
+    private void clearCache(String configKey) {
+        TransactionUtils.afterCommit(() -> reloadConfigs(configKey));
     }
     
-    /**
-     * 清除缓存
-     */
-    private void clearCache(String configKey) {
-        if (configKey != null) {
-            configCache.invalidate(configKey);
-            log.debug("已清除小程序配置缓存: {}", configKey);
+    private void reloadConfigs(String configKey) {
+        try {
+            miniProgramConfigRegistry.reload();
+            log.debug("已重新加载小程序配置: {}", configKey);
+        } catch (Exception e) {
+            log.error("重新加载小程序配置失败，configKey: {}", configKey, e);
         }
-        // 清除首页数据缓存（修复：使用正确的 homeCache）
         homeCache.invalidateAll();
         log.info("已清除首页数据缓存（因小程序配置变更）");
     }
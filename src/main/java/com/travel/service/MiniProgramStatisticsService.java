@@ -1,6 +1,10 @@
 package com.travel.service;
 
+import com.travel.common.ResultCode;
 import com.travel.dto.MiniProgramStatisticsResponse;
+import com.travel.entity.AccessStatsDaily;
+import com.travel.entity.StatsDaily;
+import com.travel.exception.BusinessException;
 import com.travel.mapper.StatisticsMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,10 +14,12 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 小程序统计服务类
@@ -27,6 +33,15 @@ public class MiniProgramStatisticsService {
     @Autowired
     private StatisticsMapper statisticsMapper;
     
+    @Autowired
+    private StatisticsRollupService statisticsRollupService;
+    
+    @Autowired
+    private StatisticsQueryExecutor statisticsQueryExecutor;
+    
+    @Autowired
+    private AccessLogService accessLogService;
+    
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
     
     /**
@@ -44,26 +59,59 @@ public class MiniProgramStatisticsService {
         }
         
         // 如果没有指定时间范围，默认查询最近30天
+        LocalDate start;
+        LocalDate end;
         if (startTime == null || endTime == null) {
-            LocalDate end = LocalDate.now();
-            LocalDate start = end.minusDays(30);
+            end = LocalDate.now();
+            start = end.minusDays(30);
             startTime = start.format(DATE_FORMATTER) + " 00:00:00";
             endTime = end.format(DATE_FORMATTER) + " 23:59:59";
+        } else {
+            try {
+                start = LocalDate.parse(startDate.trim(), DATE_FORMATTER);
+                end = LocalDate.parse(endDate.trim(), DATE_FORMATTER);
+            } catch (DateTimeParseException e) {
+                throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "日期格式错误，应为 yyyy-MM-dd");
+            }
         }
         
+        // 各项查询互相独立，并发执行（订单和用户统计读取汇总表，当天实时统计，各部分共用同一份结果）
+        LocalDate rangeStart = start;
+        LocalDate rangeEnd = end;
+        String rangeStartTime = startTime;
+        String rangeEndTime = endTime;
+        CompletableFuture<StatisticsSummary> summaryFuture = statisticsQueryExecutor.submit(
+                "summary:" + start + ":" + end, () -> statisticsRollupService.getSummary(rangeStart, rangeEnd));
+        CompletableFuture<List<StatsDaily>> dailyStatsFuture = statisticsQueryExecutor.submit(
+                "daily:" + start + ":" + end, () -> statisticsRollupService.getDailyStats(rangeStart, rangeEnd));
+        CompletableFuture<List<Map<String, Object>>> hotProductsFuture = statisticsQueryExecutor.submit(
+                "hotProducts:" + startTime + ":" + endTime,
+                () -> statisticsMapper.getHotProducts(rangeStartTime, rangeEndTime, 10));
+        CompletableFuture<List<Map<String, Object>>> typeDistributionFuture = statisticsQueryExecutor.submit(
+                "typeDistribution:" + startTime + ":" + endTime,
+                () -> statisticsMapper.getProductTypeDistribution(rangeStartTime, rangeEndTime));
+        CompletableFuture<Long> totalUsersFuture = statisticsQueryExecutor.submit(
+                "totalUsers", () -> statisticsMapper.countUsers(null, null));
+        CompletableFuture<List<AccessStatsDaily>> accessStatsFuture = statisticsQueryExecutor.submit(
+                "access:" + start + ":" + end, () -> accessLogService.getDailyStats(rangeStart, rangeEnd));
+        
+        StatisticsSummary summary = statisticsQueryExecutor.join(summaryFuture);
+        List<StatsDaily> dailyStats = statisticsQueryExecutor.join(dailyStatsFuture);
+        
         MiniProgramStatisticsResponse response = new MiniProgramStatisticsResponse();
         
-        // 访问统计（暂时使用订单数据估算，后续需要访问日志表）
-        response.setAccess(buildAccessStatistics(startTime, endTime));
+        // 访问统计
+        response.setAccess(buildAccessStatistics(statisticsQueryExecutor.join(accessStatsFuture)));
         
         // 订单统计
-        response.setOrder(buildOrderStatistics(startTime, endTime));
+        response.setOrder(buildOrderStatistics(summary, dailyStats));
         
         // 商品浏览统计
-        response.setProduct(buildProductStatistics(startTime, endTime));
+        response.setProduct(buildProductStatistics(statisticsQueryExecutor.join(hotProductsFuture),
+                statisticsQueryExecutor.join(typeDistributionFuture)));
         
         // 用户统计
-        response.setUser(buildUserStatistics(startTime, endTime));
+        response.setUser(buildUserStatistics(summary, dailyStats, statisticsQueryExecutor.join(totalUsersFuture)));
         
         return response;
     }
@@ -71,47 +119,30 @@ public class MiniProgramStatisticsService {
     /**
      * 构建访问统计
      */
-    private MiniProgramStatisticsResponse.AccessStatistics buildAccessStatistics(String startTime, String endTime) {
+    private MiniProgramStatisticsResponse.AccessStatistics buildAccessStatistics(List<AccessStatsDaily> accessStats) {
         MiniProgramStatisticsResponse.AccessStatistics statistics = new MiniProgramStatisticsResponse.AccessStatistics();
         
-        // 暂时使用订单数估算PV，UV使用活跃用户数
-        // 后续需要创建访问日志表来准确统计PV/UV
-        Long orderCount = statisticsMapper.countOrders(startTime, endTime);
-        Long activeUsers = statisticsMapper.countActiveUsers(startTime, endTime);
-        
-        // 估算PV：订单数 * 10（假设每个订单平均浏览10个页面）
-        statistics.setPv(orderCount * 10);
-        statistics.setUv(activeUsers);
-        
-        // 构建趋势数据（使用订单趋势数据）
-        List<Map<String, Object>> orderTrend = statisticsMapper.getOrderTrend(startTime, endTime);
+        // PV为访问次数之和，UV合并各天的估算器（同一访客跨天只计一次）
+        long pv = 0;
         List<Map<String, Object>> pvTrend = new ArrayList<>();
         List<Map<String, Object>> uvTrend = new ArrayList<>();
-        
-        for (Map<String, Object> item : orderTrend) {
-            // 处理 date 字段，可能是 java.sql.Date 或 String
-            Object dateObj = item.get("date");
-            String date;
-            if (dateObj instanceof java.sql.Date) {
-                date = ((java.sql.Date) dateObj).toLocalDate().format(DATE_FORMATTER);
-            } else if (dateObj instanceof java.util.Date) {
-                date = new java.text.SimpleDateFormat("yyyy-MM-dd").format((java.util.Date) dateObj);
-            } else {
-                date = dateObj != null ? dateObj.toString() : "";
-            }
-            Long count = ((Number) item.get("count")).longValue();
+        for (AccessStatsDaily daily : accessStats) {
+            pv += daily.getPv();
+            String date = daily.getStatDate().format(DATE_FORMATTER);
             
             Map<String, Object> pvItem = new HashMap<>();
             pvItem.put("date", date);
-            pvItem.put("value", count * 10); // 估算PV
+            pvItem.put("value", daily.getPv());
             pvTrend.add(pvItem);
             
             Map<String, Object> uvItem = new HashMap<>();
             uvItem.put("date", date);
-            uvItem.put("value", count); // 使用订单数估算UV
+            uvItem.put("value", daily.getUv());
             uvTrend.add(uvItem);
         }
         
+        statistics.setPv(pv);
+        statistics.setUv(accessLogService.countUniqueVisitors(accessStats));
         statistics.setPvTrend(pvTrend);
         statistics.setUvTrend(uvTrend);
         
@@ -121,23 +152,20 @@ public class MiniProgramStatisticsService {
     /**
      * 构建订单统计
      */
-    private MiniProgramStatisticsResponse.OrderStatistics buildOrderStatistics(String startTime, String endTime) {
+    private MiniProgramStatisticsResponse.OrderStatistics buildOrderStatistics(StatisticsSummary summary,
+                                                                               List<StatsDaily> dailyStats) {
         MiniProgramStatisticsResponse.OrderStatistics statistics = new MiniProgramStatisticsResponse.OrderStatistics();
         
         // 统计订单数据
-        Long totalOrders = statisticsMapper.countOrders(startTime, endTime);
-        Long paidOrders = statisticsMapper.countPaidOrders(startTime, endTime);
-        BigDecimal totalAmount = statisticsMapper.sumOrderAmount(startTime, endTime);
-        BigDecimal paidAmount = statisticsMapper.sumPaidOrderAmount(startTime, endTime);
-        
-        statistics.setTotalOrders(totalOrders);
+        long paidOrders = summary.getPaidOrderCount();
+        statistics.setTotalOrders(summary.getOrderCount());
         statistics.setPaidOrders(paidOrders);
-        statistics.setTotalAmount(totalAmount != null ? totalAmount : BigDecimal.ZERO);
-        statistics.setPaidAmount(paidAmount != null ? paidAmount : BigDecimal.ZERO);
+        statistics.setTotalAmount(summary.getOrderAmount());
+        statistics.setPaidAmount(summary.getPaidAmount());
         
         // 计算转化率（已支付订单数 / 活跃用户数）
-        Long activeUsers = statisticsMapper.countActiveUsers(startTime, endTime);
-        if (activeUsers != null && activeUsers > 0) {
+        long activeUsers = summary.getActiveUsers();
+        if (activeUsers > 0) {
             BigDecimal conversionRate = BigDecimal.valueOf(paidOrders)
                     .divide(BigDecimal.valueOf(activeUsers), 4, RoundingMode.HALF_UP)
                     .multiply(BigDecimal.valueOf(100));
@@ -146,45 +174,24 @@ public class MiniProgramStatisticsService {
             statistics.setConversionRate(BigDecimal.ZERO);
         }
         
-        // 构建趋势数据
-        List<Map<String, Object>> orderTrend = statisticsMapper.getOrderTrend(startTime, endTime);
-        List<Map<String, Object>> amountTrend = statisticsMapper.getAmountTrend(startTime, endTime);
-        
-        // 格式化趋势数据
+        // 构建趋势数据（只包含有订单的日期）
         List<Map<String, Object>> formattedOrderTrend = new ArrayList<>();
-        for (Map<String, Object> item : orderTrend) {
-            Map<String, Object> formatted = new HashMap<>();
-            // 处理 date 字段，可能是 java.sql.Date 或 String
-            Object dateObj = item.get("date");
-            String date;
-            if (dateObj instanceof java.sql.Date) {
-                date = ((java.sql.Date) dateObj).toLocalDate().format(DATE_FORMATTER);
-            } else if (dateObj instanceof java.util.Date) {
-                date = new java.text.SimpleDateFormat("yyyy-MM-dd").format((java.util.Date) dateObj);
-            } else {
-                date = dateObj != null ? dateObj.toString() : "";
-            }
-            formatted.put("date", date);
-            formatted.put("value", item.get("count"));
-            formattedOrderTrend.add(formatted);
-        }
-        
         List<Map<String, Object>> formattedAmountTrend = new ArrayList<>();
-        for (Map<String, Object> item : amountTrend) {
-            Map<String, Object> formatted = new HashMap<>();
-            // 处理 date 字段，可能是 java.sql.Date 或 String
-            Object dateObj = item.get("date");
-            String date;
-            if (dateObj instanceof java.sql.Date) {
-                date = ((java.sql.Date) dateObj).toLocalDate().format(DATE_FORMATTER);
-            } else if (dateObj instanceof java.util.Date) {
-                date = new java.text.SimpleDateFormat("yyyy-MM-dd").format((java.util.Date) dateObj);
-            } else {
-                date = dateObj != null ? dateObj.toString() : "";
+        for (StatsDaily daily : dailyStats) {
+            if (daily.getOrderCount() == null || daily.getOrderCount() == 0) {
+                continue;
             }
-            formatted.put("date", date);
-            formatted.put("value", item.get("amount"));
-            formattedAmountTrend.add(formatted);
+            String date = daily.getStatDate().format(DATE_FORMATTER);
+            
+            Map<String, Object> orderItem = new HashMap<>();
+            orderItem.put("date", date);
+            orderItem.put("value", daily.getOrderCount());
+            formattedOrderTrend.add(orderItem);
+            
+            Map<String, Object> amountItem = new HashMap<>();
+            amountItem.put("date", date);
+            amountItem.put("value", daily.getOrderAmount());
+            formattedAmountTrend.add(amountItem);
         }
         
         statistics.setOrderTrend(formattedOrderTrend);
@@ -196,13 +203,11 @@ public class MiniProgramStatisticsService {
     /**
      * 构建商品浏览统计
      */
-    private MiniProgramStatisticsResponse.ProductStatistics buildProductStatistics(String startTime, String endTime) {
+    private MiniProgramStatisticsResponse.ProductStatistics buildProductStatistics(List<Map<String, Object>> hotProducts,
+                                                                                   List<Map<String, Object>> typeDistribution) {
         MiniProgramStatisticsResponse.ProductStatistics statistics = new MiniProgramStatisticsResponse.ProductStatistics();
         
-        // 获取热门商品（前10）
-        List<Map<String, Object>> hotProducts = statisticsMapper.getHotProducts(startTime, endTime, 10);
-        
-        // 格式化热门商品数据
+        // 格式化热门商品数据（前10）
         List<Map<String, Object>> formattedHotProducts = new ArrayList<>();
         long totalViews = 0;
         for (Map<String, Object> item : hotProducts) {
@@ -220,8 +225,7 @@ public class MiniProgramStatisticsService {
         statistics.setTotalViews(totalViews);
         statistics.setHotProducts(formattedHotProducts);
         
-        // 获取商品类型分布
-        List<Map<String, Object>> typeDistribution = statisticsMapper.getProductTypeDistribution(startTime, endTime);
+        // 格式化商品类型分布
         List<Map<String, Object>> formattedTypeDistribution = new ArrayList<>();
         for (Map<String, Object> item : typeDistribution) {
             Map<String, Object> formatted = new HashMap<>();
@@ -239,17 +243,17 @@ public class MiniProgramStatisticsService {
     /**
      * 构建用户统计
      */
-    private MiniProgramStatisticsResponse.UserStatistics buildUserStatistics(String startTime, String endTime) {
+    private MiniProgramStatisticsResponse.UserStatistics buildUserStatistics(StatisticsSummary summary,
+                                                                             List<StatsDaily> dailyStats,
+                                                                             Long totalUsers) {
         MiniProgramStatisticsResponse.UserStatistics statistics = new MiniProgramStatisticsResponse.UserStatistics();
         
-        // 统计用户数据
-        Long totalUsers = statisticsMapper.countUsers(null, null); // 总用户数不限制时间
-        Long activeUsers = statisticsMapper.countActiveUsers(startTime, endTime);
-        Long newUsers = statisticsMapper.countNewUsers(startTime, endTime);
+        // 统计用户数据（总用户数不限制时间）
+        long activeUsers = summary.getActiveUsers();
         
         statistics.setTotalUsers(totalUsers);
         statistics.setActiveUsers(activeUsers);
-        statistics.setNewUsers(newUsers);
+        statistics.setNewUsers(summary.getNewUsers());
         
         // 计算用户留存率（活跃用户数 / 总用户数）
         if (totalUsers != null && totalUsers > 0) {
@@ -261,23 +265,15 @@ public class MiniProgramStatisticsService {
             statistics.setRetentionRate(BigDecimal.ZERO);
         }
         
-        // 构建新增用户趋势数据
-        List<Map<String, Object>> newUserTrend = statisticsMapper.getNewUserTrend(startTime, endTime);
+        // 构建新增用户趋势数据（只包含有新增用户的日期）
         List<Map<String, Object>> formattedNewUserTrend = new ArrayList<>();
-        for (Map<String, Object> item : newUserTrend) {
-            Map<String, Object> formatted = new HashMap<>();
-            // 处理 date 字段，可能是 java.sql.Date 或 String
-            Object dateObj = item.get("date");
-            String date;
-            if (dateObj instanceof java.sql.Date) {
-                date = ((java.sql.Date) dateObj).toLocalDate().format(DATE_FORMATTER);
-            } else if (dateObj instanceof java.util.Date) {
-                date = new java.text.SimpleDateFormat("yyyy-MM-dd").format((java.util.Date) dateObj);
-            } else {
-                date = dateObj != null ? dateObj.toString() : "";
+        for (StatsDaily daily : dailyStats) {
+            if (daily.getNewUsers() == null || daily.getNewUsers() == 0) {
+                continue;
             }
-            formatted.put("date", date);
-            formatted.put("value", item.get("count"));
+            Map<String, Object> formatted = new HashMap<>();
+            formatted.put("date", daily.getStatDate().format(DATE_FORMATTER));
+            formatted.put("value", daily.getNewUsers());
             formattedNewUserTrend.add(formatted);
         }
         statistics.setNewUserTrend(formattedNewUserTrend);
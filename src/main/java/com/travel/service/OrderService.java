@@ -9,7 +9,6 @@ import com.travel.dto.PageResult;
 import com.travel.entity.*;
 import com.travel.exception.BusinessException;
 import com.travel.mapper.*;
-import com.travel.util.OssUrlUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -63,8 +62,8 @@ public class OrderService {
     private UserMapper userMapper;
     
     @Autowired
-    private OssUrlUtil ossUrlUtil;
-
+    private StatisticsRollupService statisticsRollupService;
+    
     @Autowired
     private com.travel.mapper.AttractionTicketMapper attractionTicketMapper;
     
@@ -164,10 +163,7 @@ public class OrderService {
         // 填充订单项商品信息
         enrichOrderItems(items);
         
-        // 处理OSS URL签名（返回的URL都是签名URL）
-        processOssUrlsInOrderItems(items);
-        
-        // 设置订单项列表
+        // 设置订单项列表（商品图片URL在序列化时处理，见 OrderItem.itemImage 上的 @OssUrl）
         order.setItems(items);
         
         return order;
@@ -254,6 +250,7 @@ public class OrderService {
         // 更新订单状态
         order.setStatus("CANCELLED");
         orderMapper.updateById(order);
+        statisticsRollupService.markOrderChanged(order.getCreateTime());
         
         log.info("订单已取消，订单ID: {}, 用户ID: {}", orderId, userId);
     }
@@ -287,6 +284,7 @@ public class OrderService {
         // 更新订单状态为退款中（这里简化为直接退款，实际应该有退款审核流程）
         order.setStatus("REFUNDED");
         orderMapper.updateById(order);
+        statisticsRollupService.markOrderChanged(order.getCreateTime());
         
         log.info("订单已申请退款，订单ID: {}, 用户ID: {}, 原因: {}", orderId, userId, reason);
     }
@@ -726,20 +724,4 @@ public class OrderService {
         String random = UUID.randomUUID().toString().substring(0, 8).toUpperCase();
         return "ORDER" + timestamp + random;
     }
-    
-    /**
-     * 处理订单项中的OSS URL，生成签名URL
-     * 使用OssUrlUtil统一处理，返回的URL都是签名URL
-     */
-    private void processOssUrlsInOrderItems(List<OrderItem> items) {
-        if (items == null || items.isEmpty()) {
-            return;
-        }
-        for (OrderItem item : items) {
-            // 处理商品图片
-            if (item.getItemImage() != null && !item.getItemImage().isEmpty()) {
-                item.setItemImage(ossUrlUtil.processUrl(item.getItemImage()));
-            }
-        }
-    }
 }
@@ -3,6 +3,9 @@ package com.travel.service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Map;
 
 /**
  * OSS文件服务接口
@@ -36,6 +39,34 @@ public interface OssService {
      */
     String uploadFile(InputStream inputStream, String fileName, String module) throws Exception;
     
+    /**
+     * 上传文件到OSS指定路径
+     * @param objectKey 对象路径（相对路径，通常由 {@link #generateObjectKey(String, String)} 生成）
+     * @param inputStream 文件输入流
+     * @return 文件访问URL
+     * @throws Exception 上传失败时抛出异常
+     */
+    String uploadObject(String objectKey, InputStream inputStream) throws Exception;
+    
+    /**
+     * 生成新的对象路径：{module}/{type}/{date}/{uuid}.{extension}
+     * @param fileName 文件名（用于确定扩展名和文件类型）
+     * @param module 模块名称
+     * @return 对象路径（相对路径）
+     */
+    String generateObjectKey(String fileName, String module);
+    
+    /**
+     * 上传本地文件到OSS（大文件使用并行分片上传）
+     * 文件不超过分片阈值时退化为普通上传；分片按偏移量从文件流式读取，单个分片失败只重试该分片
+     * @param localFile 本地文件路径（通常为上传请求落盘的临时文件）
+     * @param fileName 原始文件名（用于确定扩展名）
+     * @param module 模块名称
+     * @return 文件访问URL
+     * @throws Exception 上传失败时抛出异常
+     */
+    String uploadLargeFile(Path localFile, String fileName, String module) throws Exception;
+    
     /**
      * 从OSS删除文件
      * @param filePath 文件路径（相对路径）
@@ -44,6 +75,13 @@ public interface OssService {
      */
     boolean deleteFile(String filePath) throws Exception;
     
+    /**
+     * 批量删除OSS文件（每1000个对象一次 DeleteObjects 请求，多个请求并行执行）
+     * @param filePaths 文件路径列表（相对路径）
+     * @return 删除失败的文件路径及原因，全部成功时为空
+     */
+    Map<String, String> deleteFiles(Collection<String> filePaths);
+    
     /**
      * 检查文件是否存在于OSS
      * @param filePath 文件路径（相对路径）
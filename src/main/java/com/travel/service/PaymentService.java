@@ -36,6 +36,9 @@ public class PaymentService {
     @Autowired
     private PaymentConfigService paymentConfigService;
     
+    @Autowired
+    private StatisticsRollupService statisticsRollupService;
+    
     private RestTemplate restTemplate = new RestTemplate();
     
     /**
@@ -202,6 +205,7 @@ public class PaymentService {
             order.setPayType("WECHAT");
             order.setPayNo(transactionId);
             orderMapper.updateById(order);
+            statisticsRollupService.markOrderChanged(order.getCreateTime());
             
             // 如果使用了优惠券，更新优惠券状态
             if (order.getCouponId() != null) {
@@ -0,0 +1,277 @@
+package com.travel.service;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * SQL执行统计服务
+ *
+ * 由 {@link com.travel.config.SqlMetricsInterceptor} 记录每条Mapper语句的执行情况：
+ * - 按语句统计执行次数、失败次数、影响/返回行数和耗时分布（固定区间直方图，估算P50/P95/P99）
+ * - 保留最近的慢查询样本（包含SQL和绑定参数）
+ * - 日志通过SLF4J按采样输出：慢查询每条语句限频输出WARN日志，普通语句按采样率输出DEBUG日志
+ *
+ * @author travel-platform
+ */
+@Slf4j
+@Service
+public class SqlMetricsService {
+
+    /**
+     * 耗时直方图区间上限（毫秒），最后一个区间为无穷大
+     */
+    private static final long[] BUCKET_BOUNDS_MS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, Long.MAX_VALUE};
+
+    @Value("${travel.sql-metrics.slow-threshold-ms:500}")
+    private long slowThresholdMs;
+
+    @Value("${travel.sql-metrics.slow-sample-size:100}")
+    private int slowSampleSize;
+
+    @Value("${travel.sql-metrics.slow-log-interval-ms:10000}")
+    private long slowLogIntervalMs;
+
+    @Value("${travel.sql-metrics.log-sample-rate:0.01}")
+    private double logSampleRate;
+
+    private final Map<String, StatementMetrics> metrics = new ConcurrentHashMap<>();
+
+    private final Deque<SlowQuerySample> slowSamples = new ConcurrentLinkedDeque<>();
+
+    private final AtomicInteger slowSampleCount = new AtomicInteger();
+
+    /**
+     * 记录一次语句执行
+     *
+     * @param statementId Mapper语句ID
+     * @param elapsedNanos 耗时（纳秒）
+     * @param rows 返回/影响行数（未知时为-1）
+     * @param failed 是否执行失败
+     * @param sql SQL（只在需要记录样本或输出日志时调用）
+     * @param parameters 绑定参数（只在需要记录样本或输出日志时调用）
+     */
+    public void record(String statementId, long elapsedNanos, long rows, boolean failed,
+                       Supplier<String> sql, Supplier<String> parameters) {
+        StatementMetrics statementMetrics = metrics.computeIfAbsent(statementId, key -> new StatementMetrics());
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        statementMetrics.record(elapsedNanos, elapsedMs, rows, failed);
+
+        if (elapsedMs >= slowThresholdMs) {
+            statementMetrics.slowCount.increment();
+            String sqlText = sql.get();
+            String parameterText = parameters.get();
+            addSlowSample(SlowQuerySample.builder()
+                    .statementId(statementId)
+                    .sql(sqlText)
+                    .parameters(parameterText)
+                    .elapsedMs(elapsedMs)
+                    .rows(rows)
+                    .failed(failed)
+                    .executeTime(LocalDateTime.now())
+                    .build());
+            // 每条语句限频输出，避免慢查询集中出现时刷屏
+            long now = System.currentTimeMillis();
+            long last = statementMetrics.lastSlowLogTime.get();
+            if (now - last >= slowLogIntervalMs && statementMetrics.lastSlowLogTime.compareAndSet(last, now)) {
+                long suppressed = statementMetrics.suppressedSlowLogs.getAndSet(0);
+                log.warn("慢查询: {} 耗时{}ms, 行数: {}, SQL: {}, 参数: {}{}", statementId, elapsedMs, rows,
+                        sqlText, parameterText, suppressed > 0 ? "（期间另有" + suppressed + "次慢查询未输出）" : "");
+            } else {
+                statementMetrics.suppressedSlowLogs.incrementAndGet();
+            }
+        } else if (log.isDebugEnabled() && ThreadLocalRandom.current().nextDouble() < logSampleRate) {
+            log.debug("SQL采样: {} 耗时{}ms, 行数: {}, SQL: {}, 参数: {}", statementId, elapsedMs, rows,
+                    sql.get(), parameters.get());
+        }
+    }
+
+    /**
+     * 查询各语句的执行统计，按总耗时降序
+     *
+     * @param limit 返回数量
+     */
+    public List<SqlStatementStats> getStatementStats(int limit) {
+        return metrics.entrySet().stream()
+                .map(entry -> entry.getValue().snapshot(entry.getKey()))
+                .sorted(Comparator.comparingLong(SqlStatementStats::getTotalMs).reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 查询最近的慢查询样本（最新的在前）
+     */
+    public List<SlowQuerySample> getSlowSamples() {
+        return new ArrayList<>(slowSamples);
+    }
+
+    /**
+     * 清空统计数据
+     */
+    public void reset() {
+        metrics.clear();
+        slowSamples.clear();
+        slowSampleCount.set(0);
+        log.info("已清空SQL执行统计");
+    }
+
+    public long getSlowThresholdMs() {
+        return slowThresholdMs;
+    }
+
+    private void addSlowSample(SlowQuerySample sample) {
+        slowSamples.addFirst(sample);
+        if (slowSampleCount.incrementAndGet() > slowSampleSize) {
+            if (slowSamples.pollLast() != null) {
+                slowSampleCount.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * 单条语句的累计统计
+     */
+    private static final class StatementMetrics {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder errorCount = new LongAdder();
+        private final LongAdder slowCount = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAdder totalRows = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS_MS.length];
+        private final AtomicLong lastSlowLogTime = new AtomicLong();
+        private final AtomicLong suppressedSlowLogs = new AtomicLong();
+
+        private StatementMetrics() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        private void record(long elapsedNanos, long elapsedMs, long rows, boolean failed) {
+            count.increment();
+            totalNanos.add(elapsedNanos);
+            if (failed) {
+                errorCount.increment();
+            }
+            if (rows > 0) {
+                totalRows.add(rows);
+            }
+            maxNanos.accumulateAndGet(elapsedNanos, Math::max);
+            for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+                if (elapsedMs < BUCKET_BOUNDS_MS[i]) {
+                    buckets[i].increment();
+                    break;
+                }
+            }
+        }
+
+        private SqlStatementStats snapshot(String statementId) {
+            long[] bucketCounts = new long[buckets.length];
+            long total = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                bucketCounts[i] = buckets[i].sum();
+                total += bucketCounts[i];
+            }
+            long executions = count.sum();
+            long totalMs = TimeUnit.NANOSECONDS.toMillis(totalNanos.sum());
+            return SqlStatementStats.builder()
+                    .statementId(statementId)
+                    .count(executions)
+                    .errorCount(errorCount.sum())
+                    .slowCount(slowCount.sum())
+                    .totalMs(totalMs)
+                    .avgMs(executions > 0 ? (double) totalNanos.sum() / executions / 1_000_000 : 0)
+                    .maxMs(TimeUnit.NANOSECONDS.toMillis(maxNanos.get()))
+                    .p50Ms(percentile(bucketCounts, total, 0.50))
+                    .p95Ms(percentile(bucketCounts, total, 0.95))
+                    .p99Ms(percentile(bucketCounts, total, 0.99))
+                    .avgRows(executions > 0 ? (double) totalRows.sum() / executions : 0)
+                    .build();
+        }
+
+        /**
+         * 按直方图估算分位耗时（返回所在区间的上限，最后一个区间返回最大耗时）
+         */
+        private long percentile(long[] bucketCounts, long total, double quantile) {
+            if (total == 0) {
+                return 0;
+            }
+            long target = (long) Math.ceil(total * quantile);
+            long cumulative = 0;
+            for (int i = 0; i < bucketCounts.length; i++) {
+                cumulative += bucketCounts[i];
+                if (cumulative >= target) {
+                    return BUCKET_BOUNDS_MS[i] == Long.MAX_VALUE
+                            ? TimeUnit.NANOSECONDS.toMillis(maxNanos.get()) : BUCKET_BOUNDS_MS[i];
+                }
+            }
+            return TimeUnit.NANOSECONDS.toMillis(maxNanos.get());
+        }
+    }
+
+    /**
+     * 语句执行统计
+     */
+    @Data
+    @Builder
+    public static class SqlStatementStats {
+        /**
+         * Mapper语句ID
+         */
+        private String statementId;
+        private long count;
+        private long errorCount;
+        private long slowCount;
+        private long totalMs;
+        private double avgMs;
+        private long maxMs;
+        /**
+         * 分位耗时（按直方图区间上限估算）
+         */
+        private long p50Ms;
+        private long p95Ms;
+        private long p99Ms;
+        /**
+         * 平均返回/影响行数
+         */
+        private double avgRows;
+    }
+
+    /**
+     * 慢查询样本
+     */
+    @Data
+    @Builder
+    public static class SlowQuerySample {
+        private String statementId;
+        private String sql;
+        /**
+         * 绑定参数
+         */
+        private String parameters;
+        private long elapsedMs;
+        private long rows;
+        private boolean failed;
+        private LocalDateTime executeTime;
+    }
+}
@@ -0,0 +1,152 @@
+package com.travel.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.travel.common.ResultCode;
+import com.travel.exception.BusinessException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * 统计查询执行器
+ *
+ * 统计页面的各项查询互相独立，由本执行器统一调度：
+ * - 相同key的查询共享同一个结果（同一请求内、并发请求之间都只执行一次）
+ * - 结果缓存较短时间（默认10秒），仪表盘各接口同时加载时复用同一份数据
+ * - {@link #submit} 在有界线程池中并发执行，页面响应时间取决于最慢的查询而不是所有查询之和
+ * - {@link #get} 在调用线程中执行（用于已在线程池中运行的查询内部，避免嵌套提交占满线程池）
+ *
+ * 查询失败时结果不缓存，下次调用重新执行。
+ *
+ * @author travel-platform
+ */
+@Slf4j
+@Service
+public class StatisticsQueryExecutor {
+
+    @Value("${travel.statistics.query.threads:8}")
+    private int threads;
+
+    @Value("${travel.statistics.query.cache-ttl-seconds:10}")
+    private int cacheTtlSeconds;
+
+    @Value("${travel.statistics.query.timeout-seconds:30}")
+    private int timeoutSeconds;
+
+    /**
+     * 查询线程池
+     */
+    private ThreadPoolExecutor queryPool;
+
+    /**
+     * 查询结果（进行中或已完成），key为查询标识
+     */
+    private Cache<String, CompletableFuture<Object>> results;
+
+    @PostConstruct
+    public void init() {
+        queryPool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(threads * 20), new CustomizableThreadFactory("statistics-query-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        results = Caffeine.newBuilder()
+                .maximumSize(1000)
+                .expireAfterWrite(cacheTtlSeconds, TimeUnit.SECONDS)
+                .build();
+        log.info("统计查询执行器已初始化 - 线程数: {}, 结果缓存时间: {}秒", threads, cacheTtlSeconds);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        queryPool.shutdownNow();
+    }
+
+    /**
+     * 在线程池中执行查询（相同key的查询只执行一次）
+     *
+     * @param key 查询标识（查询名称 + 参数）
+     * @param query 查询
+     * @return 查询结果，通过 {@link #join} 获取
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> submit(String key, Supplier<T> query) {
+        CompletableFuture<Object> created = new CompletableFuture<>();
+        CompletableFuture<Object> existing = results.asMap().putIfAbsent(key, created);
+        if (existing != null) {
+            return (CompletableFuture<T>) existing;
+        }
+        queryPool.execute(() -> run(key, created, query));
+        return (CompletableFuture<T>) created;
+    }
+
+    /**
+     * 在调用线程中执行查询（相同key的查询只执行一次，其他线程正在执行时等待其结果）
+     *
+     * @param key 查询标识（查询名称 + 参数）
+     * @param query 查询
+     * @return 查询结果
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, Supplier<T> query) {
+        CompletableFuture<Object> created = new CompletableFuture<>();
+        CompletableFuture<Object> existing = results.asMap().putIfAbsent(key, created);
+        if (existing != null) {
+            return join((CompletableFuture<T>) existing);
+        }
+        run(key, created, query);
+        return join((CompletableFuture<T>) created);
+    }
+
+    /**
+     * 等待查询结果
+     *
+     * @param future {@link #submit} 返回的结果
+     * @return 查询结果
+     * @throws BusinessException 查询超时
+     */
+    public <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.get(timeoutSeconds, TimeUnit.SECONDS);
+        } catch (ExecutionException | CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("统计查询失败: " + cause.getMessage(), cause);
+        } catch (TimeoutException e) {
+            throw new BusinessException(ResultCode.OPERATION_FAILED.getCode(), "统计查询超时，请稍后重试");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(ResultCode.OPERATION_FAILED.getCode(), "统计查询被中断");
+        }
+    }
+
+    /**
+     * 清除缓存的查询结果（统计数据被重建后调用）
+     */
+    public void clear() {
+        results.invalidateAll();
+    }
+
+    private void run(String key, CompletableFuture<Object> future, Supplier<?> query) {
+        try {
+            future.complete(query.get());
+        } catch (Throwable e) {
+            // 失败的结果不缓存
+            results.asMap().remove(key, future);
+            future.completeExceptionally(e);
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.travel.service;
+
+import com.travel.entity.StatsDaily;
+import com.travel.mapper.StatisticsRollupMapper;
+import com.travel.util.TransactionUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 统计汇总服务
+ *
+ * 按天维护订单和用户统计汇总（stats_daily、stats_user_activity_daily），统计查询只读取汇总表和当天的实时数据：
+ * - 订单状态变更时标记订单创建日期，定时重新汇总这些历史日期
+ * - 每天凌晨汇总前一天，并补齐最近几天缺失的汇总
+ * - 查询只读取已有的汇总，不在请求中补齐；缺少汇总的日期（如上线前的历史日期）按没有数据处理
+ * - 管理端可按日期范围重建汇总（回填历史数据）
+ *
+ * 每次汇总都从原始表重新计算整天的数据，重复执行结果相同。
+ *
+ * @author travel-platform
+ */
+@Slf4j
+@Service
+public class StatisticsRollupService {
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    @Autowired
+    private StatisticsRollupMapper statisticsRollupMapper;
+
+    @Autowired
+    private StatisticsQueryExecutor statisticsQueryExecutor;
+
+    @Value("${travel.statistics.rollup.catch-up-days:7}")
+    private int catchUpDays;
+
+    /**
+     * 订单变更后需要重新汇总的日期
+     */
+    private final Set<LocalDate> dirtyDates = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 标记订单变更（订单支付、取消、退款后调用）
+     * 当天的数据实时查询，只有历史日期需要重新汇总（新建订单无需标记）；在事务中调用时，事务提交后才标记
+     *
+     * @param orderCreateTime 订单创建时间
+     */
+    public void markOrderChanged(LocalDateTime orderCreateTime) {
+        if (orderCreateTime == null) {
+            return;
+        }
+        LocalDate statDate = orderCreateTime.toLocalDate();
+        if (!statDate.isBefore(LocalDate.now())) {
+            return;
+        }
+        TransactionUtils.afterCommit(() -> dirtyDates.add(statDate));
+    }
+
+    /**
+     * 定时重新汇总订单变更涉及的历史日期
+     */
+    @Scheduled(fixedDelayString = "${travel.statistics.rollup.flush-interval-ms:60000}")
+    public void flushDirtyDates() {
+        if (dirtyDates.isEmpty()) {
+            return;
+        }
+        List<LocalDate> dates = new ArrayList<>(dirtyDates);
+        for (LocalDate date : dates) {
+            dirtyDates.remove(date);
+            try {
+                rebuildDay(date);
+            } catch (Exception e) {
+                log.error("重新汇总统计数据失败，日期: {}", date, e);
+                dirtyDates.add(date);
+            }
+        }
+        log.info("订单变更统计汇总完成，日期数: {}", dates.size());
+    }
+
+    /**
+     * 每天凌晨汇总前一天的数据，并补齐最近几天缺失的汇总
+     */
+    @Scheduled(cron = "${travel.statistics.rollup.daily-cron:0 5 0 * * ?}")
+    public void rollupYesterday() {
+        try {
+            LocalDate yesterday = LocalDate.now().minusDays(1);
+            rebuildDay(yesterday);
+            int filled = fillMissing(yesterday.minusDays(Math.max(catchUpDays, 1)), yesterday.minusDays(1));
+            log.info("每日统计汇总完成，日期: {}, 补齐缺失日期数: {}", yesterday, filled);
+        } catch (Exception e) {
+            log.error("每日统计汇总失败", e);
+            // 不抛出异常，避免影响定时任务调度
+        }
+    }
+
+    /**
+     * 重建日期范围内的汇总（用于历史数据回填或手工修正订单数据后）
+     * 当天及之后的日期实时查询，不会被汇总
+     *
+     * @param startDate 开始日期
+     * @param endDate 结束日期
+     * @return 重建的天数
+     */
+    public int rebuild(LocalDate startDate, LocalDate endDate) {
+        LocalDate lastClosedDate = lastClosedDate(endDate);
+        int count = 0;
+        for (LocalDate date = startDate; !date.isAfter(lastClosedDate); date = date.plusDays(1)) {
+            rebuildDay(date);
+            count++;
+        }
+        statisticsQueryExecutor.clear();
+        log.info("重建统计汇总完成，日期范围: {} ~ {}, 天数: {}", startDate, lastClosedDate, count);
+        return count;
+    }
+
+    /**
+     * 统计日期范围内的订单和用户数据
+     *
+     * @param startDate 开始日期
+     * @param endDate 结束日期
+     * @return 统计汇总
+     */
+    public StatisticsSummary getSummary(LocalDate startDate, LocalDate endDate) {
+        LocalDate lastClosedDate = lastClosedDate(endDate);
+
+        StatsDaily closed = statisticsRollupMapper.sumDailyRange(startDate, lastClosedDate);
+        StatsDaily live = includesToday(startDate, endDate) ? selectToday() : null;
+        String today = LocalDate.now().format(DATE_FORMATTER);
+        Long activeUsers = statisticsRollupMapper.countActiveUsers(startDate, lastClosedDate,
+            live != null ? today + " 00:00:00" : null, today + " 23:59:59");
+
+        return StatisticsSummary.builder()
+                .orderCount(valueOf(closed.getOrderCount()) + (live != null ? valueOf(live.getOrderCount()) : 0))
+                .paidOrderCount(valueOf(closed.getPaidOrderCount()) + (live != null ? valueOf(live.getPaidOrderCount()) : 0))
+                .orderAmount(valueOf(closed.getOrderAmount()).add(live != null ? valueOf(live.getOrderAmount()) : BigDecimal.ZERO))
+                .paidAmount(valueOf(closed.getPaidAmount()).add(live != null ? valueOf(live.getPaidAmount()) : BigDecimal.ZERO))
+                .activeUsers(valueOf(activeUsers))
+                .newUsers(valueOf(closed.getNewUsers()) + (live != null ? valueOf(live.getNewUsers()) : 0))
+                .build();
+    }
+
+    /**
+     * 查询日期范围内的每日统计（当天为实时数据），按日期升序
+     *
+     * @param startDate 开始日期
+     * @param endDate 结束日期
+     * @return 每日统计列表（只包含已汇总的日期和当天）
+     */
+    public List<StatsDaily> getDailyStats(LocalDate startDate, LocalDate endDate) {
+        LocalDate lastClosedDate = lastClosedDate(endDate);
+
+        List<StatsDaily> result = new ArrayList<>();
+        if (!startDate.isAfter(lastClosedDate)) {
+            result.addAll(statisticsRollupMapper.selectDailyRange(startDate, lastClosedDate));
+        }
+        if (includesToday(startDate, endDate)) {
+            result.add(selectToday());
+        }
+        return result;
+    }
+
+    /**
+     * 补齐日期范围内缺失的汇总（只由每日汇总任务调用，范围为最近 catch-up-days 天）
+     *
+     * @return 补齐的天数
+     */
+    private int fillMissing(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            return 0;
+        }
+        Set<LocalDate> rolledUp = new HashSet<>(statisticsRollupMapper.selectRolledUpDates(startDate, endDate));
+        int count = 0;
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            if (!rolledUp.contains(date)) {
+                rebuildDay(date);
+                count++;
+            }
+        }
+        if (count > 0) {
+            log.info("补齐缺失的统计汇总，日期范围: {} ~ {}, 天数: {}", startDate, endDate, count);
+        }
+        return count;
+    }
+
+    /**
+     * 从订单表和用户表重新汇总一天
+     */
+    private void rebuildDay(LocalDate date) {
+        String startTime = date.format(DATE_FORMATTER) + " 00:00:00";
+        String endTime = date.format(DATE_FORMATTER) + " 23:59:59";
+        statisticsRollupMapper.deleteUserActivity(date);
+        statisticsRollupMapper.insertUserActivity(date, startTime, endTime);
+        statisticsRollupMapper.upsertDaily(date, startTime, endTime);
+    }
+
+    /**
+     * 实时统计当天数据（汇总和趋势查询共用同一次查询结果）
+     */
+    private StatsDaily selectToday() {
+        LocalDate today = LocalDate.now();
+        String date = today.format(DATE_FORMATTER);
+        return statisticsQueryExecutor.get("live:" + date, () -> {
+            StatsDaily live = statisticsRollupMapper.selectLive(date + " 00:00:00", date + " 23:59:59");
+            live.setStatDate(today);
+            return live;
+        });
+    }
+
+    /**
+     * 可汇总的最后一天（不超过昨天）
+     */
+    private LocalDate lastClosedDate(LocalDate endDate) {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        return endDate.isBefore(yesterday) ? endDate : yesterday;
+    }
+
+    private boolean includesToday(LocalDate startDate, LocalDate endDate) {
+        LocalDate today = LocalDate.now();
+        return !today.isBefore(startDate) && !today.isAfter(endDate);
+    }
+
+    private static long valueOf(Long value) {
+        return value != null ? value : 0L;
+    }
+
+    private static BigDecimal valueOf(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,47 @@
+package com.travel.service;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * 统计汇总结果内部类
+ * 用于Service层内部传递日期范围内的订单和用户统计（已汇总日期 + 当天实时数据）
+ * 
+ * @author travel-platform
+ */
+@Data
+@Builder
+public class StatisticsSummary {
+
+    /**
+     * 订单数
+     */
+    private long orderCount;
+
+    /**
+     * 已支付订单数
+     */
+    private long paidOrderCount;
+
+    /**
+     * 订单总金额
+     */
+    private BigDecimal orderAmount;
+
+    /**
+     * 已支付订单实付金额
+     */
+    private BigDecimal paidAmount;
+
+    /**
+     * 下单用户数（跨天去重）
+     */
+    private long activeUsers;
+
+    /**
+     * 新增用户数
+     */
+    private long newUsers;
+}
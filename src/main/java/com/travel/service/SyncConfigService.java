@@ -100,6 +100,10 @@ public class SyncConfigService {
     public SyncConfig update(Long id, SyncConfigUpdateRequest request) {
         SyncConfig config = getById(id);
         
+        // 数据来源变化时，上次同步的ETag、增量起点不再适用
+        boolean sourceChanged = (request.getApiUrl() != null && !request.getApiUrl().equals(config.getApiUrl()))
+            || (request.getDeltaParam() != null && !request.getDeltaParam().equals(config.getDeltaParam()));
+        
         if (request.getApiUrl() != null) {
             config.setApiUrl(request.getApiUrl());
         }
@@ -118,11 +122,20 @@ public class SyncConfigService {
         if (request.getStatus() != null) {
             config.setStatus(request.getStatus());
         }
+        if (request.getDeltaParam() != null) {
+            config.setDeltaParam(request.getDeltaParam());
+        }
         
         int result = syncConfigMapper.updateById(config);
         if (result <= 0) {
             throw new BusinessException(ResultCode.OPERATION_FAILED);
         }
+        if (sourceChanged) {
+            syncConfigMapper.resetDeltaState(id);
+            config.setSyncCursor(null);
+            config.setEtag(null);
+            config.setLastModified(null);
+        }
         
         log.info("更新同步配置成功: id={}, syncType={}", config.getId(), config.getSyncType());
         
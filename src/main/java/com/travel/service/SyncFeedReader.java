@@ -0,0 +1,258 @@
+package com.travel.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.travel.common.ResultCode;
+import com.travel.entity.SyncConfig;
+import com.travel.exception.BusinessException;
+import lombok.Builder;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.Consumer;
+
+/**
+ * 外部同步数据流式读取（景点、酒店同步共用）
+ *
+ * 直接从响应流中逐条解析记录，不再把整个响应读入字符串后整体解析，内存占用只与批大小有关：
+ * - 支持两种格式：记录数组 [...]，或对象包装的数组 {"data": [...], ...}；
+ *   由第一个token判断格式，包装对象中 data 以外的字段直接跳过，不会重新解析
+ * - 每读满 travel.sync.batch-size 条记录交给调用方处理一次（如 {@link SyncUpsertEngine.Session#apply}）
+ *
+ * 增量读取（定时同步）：
+ * - 带上次成功同步保存的 ETag / Last-Modified 发送条件请求（If-None-Match / If-Modified-Since），
+ *   外部API返回 304 时不读取任何记录
+ * - 同步配置设置了增量参数名（deltaParam）时，附加“更新时间起点”参数（上次成功同步的开始时间，
+ *   提前 travel.sync.cursor-overlap-minutes 分钟，避免双方时钟偏差漏掉数据；重复拉取的记录由内容指纹跳过）
+ * 返回的 ETag、Last-Modified 和新的起点由调用方在同步成功后保存（见 SyncConfigMapper#updateDeltaState）。
+ *
+ * 重试：连接失败、响应状态错误或尚未读出任何记录时重试；已有记录交给调用方处理后读取失败则不再重试，
+ * 直接抛出异常（已处理的批次保留，同步按自然键匹配，下次同步会补齐）。
+ *
+ * @author travel-platform
+ */
+@Slf4j
+@Service
+public class SyncFeedReader {
+
+    private static final int MAX_RETRY_COUNT = 3;
+    private static final long RETRY_DELAY_MS = 1000; // 1秒
+
+    /**
+     * 包装对象中记录数组的字段名
+     */
+    private static final String DATA_FIELD = "data";
+
+    private static final DateTimeFormatter CURSOR_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    /**
+     * 外部数据使用默认配置解析（与应用的 ObjectMapper 配置无关）
+     */
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Value("${travel.sync.batch-size:500}")
+    private int batchSize;
+
+    @Value("${travel.sync.delta-enabled:true}")
+    private boolean deltaEnabled;
+
+    @Value("${travel.sync.cursor-overlap-minutes:5}")
+    private long cursorOverlapMinutes;
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    /**
+     * 调用外部API并按批读取记录（带重试机制）
+     *
+     * @param config 同步配置（API地址、API密钥、增量同步状态）
+     * @param incremental 是否增量读取（手动同步为全量读取）
+     * @param type 记录类型
+     * @param consumer 每批记录的处理
+     * @return 读取结果
+     */
+    public <T> FeedResult read(SyncConfig config, boolean incremental, Class<T> type, Consumer<List<T>> consumer) {
+        boolean delta = incremental && deltaEnabled;
+        boolean useCursor = hasText(config.getDeltaParam());
+        String url = config.getApiUrl();
+        if (delta && useCursor && hasText(config.getSyncCursor())) {
+            url = url + (url.contains("?") ? "&" : "?") + config.getDeltaParam() + "=" + config.getSyncCursor();
+        }
+        // 新的起点为本次请求开始时间，下次同步从这里开始拉取
+        String cursor = useCursor ? LocalDateTime.now().minusMinutes(cursorOverlapMinutes).format(CURSOR_FORMATTER) : null;
+
+        ObjectReader reader = OBJECT_MAPPER.readerFor(type);
+        Exception lastException = null;
+
+        for (int i = 0; i < MAX_RETRY_COUNT; i++) {
+            int[] delivered = new int[1];
+            try {
+                FeedResult result = restTemplate.execute(url, HttpMethod.GET,
+                    request -> {
+                        HttpHeaders headers = request.getHeaders();
+                        headers.set("Content-Type", "application/json");
+                        if (config.getApiKey() != null && !config.getApiKey().isEmpty()) {
+                            headers.set("Authorization", "Bearer " + config.getApiKey());
+                        }
+                        if (delta && hasText(config.getEtag())) {
+                            headers.set(HttpHeaders.IF_NONE_MATCH, config.getEtag());
+                        }
+                        if (delta && hasText(config.getLastModified())) {
+                            headers.set(HttpHeaders.IF_MODIFIED_SINCE, config.getLastModified());
+                        }
+                    },
+                    response -> extract(response, reader, consumer, delivered));
+                if (result == null) {
+                    throw new BusinessException(ResultCode.OPERATION_FAILED.getCode(), "外部API无响应");
+                }
+                result.setIncremental(delta);
+                result.setCursor(cursor);
+                if (result.isNotModified()) {
+                    // 未变化时沿用原有的条件和起点
+                    result.setEtag(config.getEtag());
+                    result.setLastModified(config.getLastModified());
+                    result.setCursor(config.getSyncCursor());
+                }
+                return result;
+
+            } catch (CancellationException e) {
+                // 任务已取消或超时（见 SyncJob#checkActive），不再重试
+                throw e;
+            } catch (Exception e) {
+                if (delivered[0] > 0) {
+                    log.error("读取外部数据中断，已处理 {} 条: url={}", delivered[0], config.getApiUrl(), e);
+                    throw new BusinessException(ResultCode.OPERATION_FAILED.getCode(),
+                        "读取外部数据中断（已处理" + delivered[0] + "条）: " + e.getMessage());
+                }
+                lastException = e;
+                log.warn("调用外部API失败，重试 {}/{}: error={}", i + 1, MAX_RETRY_COUNT, e.getMessage());
+
+                if (i < MAX_RETRY_COUNT - 1) {
+                    try {
+                        Thread.sleep(RETRY_DELAY_MS * (i + 1)); // 递增延迟
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        throw new BusinessException(ResultCode.OPERATION_FAILED.getCode(), "同步被中断");
+                    }
+                }
+            }
+        }
+
+        throw new BusinessException(ResultCode.OPERATION_FAILED.getCode(),
+            "调用外部API失败，已重试" + MAX_RETRY_COUNT + "次: " +
+            (lastException != null ? lastException.getMessage() : "未知错误"));
+    }
+
+    private <T> FeedResult extract(ClientHttpResponse response, ObjectReader reader,
+                                   Consumer<List<T>> consumer, int[] delivered) throws IOException {
+        if (response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+            return FeedResult.builder().notModified(true).build();
+        }
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            throw new BusinessException(ResultCode.OPERATION_FAILED.getCode(),
+                "外部API调用失败: " + response.getStatusCode());
+        }
+        try (InputStream body = response.getBody();
+             JsonParser parser = OBJECT_MAPPER.getFactory().createParser(body)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_OBJECT) {
+                token = seekDataField(parser);
+            }
+            if (token != JsonToken.START_ARRAY) {
+                throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "外部API返回数据格式不正确");
+            }
+
+            int size = Math.max(1, batchSize);
+            List<T> batch = new ArrayList<>(size);
+            int count = 0;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "外部API返回数据不完整");
+                }
+                if (token == JsonToken.VALUE_NULL) {
+                    continue;
+                }
+                batch.add(reader.readValue(parser));
+                count++;
+                if (batch.size() >= size) {
+                    consumer.accept(batch);
+                    delivered[0] += batch.size();
+                    batch = new ArrayList<>(size);
+                }
+            }
+            if (!batch.isEmpty()) {
+                consumer.accept(batch);
+                delivered[0] += batch.size();
+            }
+            return FeedResult.builder()
+                .count(count)
+                .etag(response.getHeaders().getETag())
+                .lastModified(response.getHeaders().getFirst(HttpHeaders.LAST_MODIFIED))
+                .build();
+        }
+    }
+
+    /**
+     * 在包装对象中定位 data 字段，跳过其他字段
+     *
+     * @return data 字段值的第一个token，没有 data 字段时返回 null
+     */
+    private JsonToken seekDataField(JsonParser parser) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (DATA_FIELD.equals(field)) {
+                return value;
+            }
+            parser.skipChildren();
+        }
+        return null;
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.trim().isEmpty();
+    }
+
+    /**
+     * 读取结果
+     */
+    @Data
+    @Builder
+    public static class FeedResult {
+        /**
+         * 是否为增量读取
+         */
+        private boolean incremental;
+        /**
+         * 外部数据未变化（304），没有读取任何记录
+         */
+        private boolean notModified;
+        /**
+         * 读取的记录数
+         */
+        private int count;
+        private String etag;
+        private String lastModified;
+        /**
+         * 下次增量同步的起点
+         */
+        private String cursor;
+    }
+}
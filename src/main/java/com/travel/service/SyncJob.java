@@ -0,0 +1,119 @@
+package com.travel.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.travel.entity.SyncConfig;
+import com.travel.entity.SyncLog;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CancellationException;
+
+/**
+ * 同步任务（由 SyncJobService 调度执行）
+ * 进度字段在每批记录写入后更新，可通过同步任务接口实时查询
+ *
+ * @author travel-platform
+ */
+@Data
+public class SyncJob {
+
+    /**
+     * 任务ID
+     */
+    private String jobId;
+
+    /**
+     * 同步配置ID
+     */
+    private Long configId;
+
+    /**
+     * 同步类型：ATTRACTION-景点，HOTEL-酒店
+     */
+    private String syncType;
+
+    /**
+     * 触发方式：MANUAL-手动，SCHEDULED-定时
+     */
+    private String trigger;
+
+    /**
+     * 供应商（API地址的主机名，用于并发和频率限制）
+     */
+    private String supplier;
+
+    /**
+     * 状态：PENDING-等待，RUNNING-执行中，SUCCESS-成功，FAILED-失败，CANCELLED-已取消
+     */
+    private volatile String status;
+
+    /**
+     * 同步日志ID
+     */
+    private Long syncLogId;
+
+    private volatile int totalCount;
+
+    private volatile int successCount;
+
+    private volatile int failedCount;
+
+    private String errorMessage;
+
+    private LocalDateTime createTime;
+
+    private LocalDateTime startTime;
+
+    private LocalDateTime endTime;
+
+    /**
+     * 同步配置（执行时使用）
+     */
+    @JsonIgnore
+    private SyncConfig config;
+
+    /**
+     * 同步日志（执行过程中填写）
+     */
+    @JsonIgnore
+    private SyncLog syncLog;
+
+    /**
+     * 租约持有者（节点ID + 任务ID）
+     */
+    @JsonIgnore
+    private String leaseOwner;
+
+    /**
+     * 超时时间（毫秒时间戳）
+     */
+    @JsonIgnore
+    private long deadline;
+
+    /**
+     * 取消原因，不为null时任务在下一批记录前停止
+     */
+    @JsonIgnore
+    private volatile String cancelReason;
+
+    /**
+     * 是否已结束
+     */
+    public boolean isFinished() {
+        return "SUCCESS".equals(status) || "FAILED".equals(status) || "CANCELLED".equals(status);
+    }
+
+    /**
+     * 检查任务是否已被取消或超时，是则抛出 CancellationException
+     */
+    public void checkActive() {
+        String reason = cancelReason;
+        if (reason != null) {
+            throw new CancellationException(reason);
+        }
+        if (deadline > 0 && System.currentTimeMillis() > deadline) {
+            cancelReason = "同步超时";
+            throw new CancellationException(cancelReason);
+        }
+    }
+}
@@ -0,0 +1,493 @@
+package com.travel.service;
+
+import com.travel.common.ResultCode;
+import com.travel.entity.SyncConfig;
+import com.travel.entity.SyncLog;
+import com.travel.exception.BusinessException;
+import com.travel.mapper.SyncConfigMapper;
+import com.travel.mapper.SyncLogMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * 同步任务调度服务类
+ * 管理景点、酒店同步任务的执行、并发限制、租约和进度
+ *
+ * - 定时同步的各个配置提交到专用的有界线程池（syncExecutor）并行执行，一个供应商慢不影响其他供应商
+ * - 按供应商（API地址主机名）限制并发数（travel.sync.supplier-concurrency）和相邻任务的启动间隔
+ *   （travel.sync.supplier-min-interval-ms），超出并发数的任务在该供应商的队列中等待，不占用线程
+ * - 租约：执行前在 sync_config 行上以条件UPDATE获取租约（行锁保证原子性），执行期间定时续约，
+ *   多个节点同时触发时同一配置只有一个节点执行；节点宕机后租约过期（travel.sync.lease-seconds）可被其他节点获取
+ * - 任务超过 travel.sync.job-timeout-minutes 或被取消时，在下一批记录写入前停止，已写入的批次保留
+ * - 进度：任务开始时写入状态为 RUNNING 的同步日志，每批记录写入后更新数量，结束时写入最终状态
+ *
+ * @author travel-platform
+ */
+@Slf4j
+@Service
+public class SyncJobService {
+
+    public static final String TRIGGER_MANUAL = "MANUAL";
+    public static final String TRIGGER_SCHEDULED = "SCHEDULED";
+
+    /**
+     * 内存中保留的已结束任务数量（完整记录见同步日志）
+     */
+    private static final int MAX_FINISHED_JOBS = 50;
+
+    @Autowired
+    private SyncConfigMapper syncConfigMapper;
+
+    @Autowired
+    private SyncLogMapper syncLogMapper;
+
+    @Autowired
+    @Qualifier("syncExecutor")
+    private ThreadPoolTaskExecutor syncExecutor;
+
+    @Value("${travel.sync.job-timeout-minutes:60}")
+    private long jobTimeoutMinutes;
+
+    @Value("${travel.sync.lease-seconds:120}")
+    private int leaseSeconds;
+
+    @Value("${travel.sync.supplier-concurrency:1}")
+    private int supplierConcurrency;
+
+    @Value("${travel.sync.supplier-min-interval-ms:1000}")
+    private long supplierMinIntervalMs;
+
+    @Value("${travel.sync.node-id:}")
+    private String nodeId;
+
+    /**
+     * 等待和执行中的任务
+     */
+    private final Map<String, SyncJob> activeJobs = new ConcurrentHashMap<>();
+
+    /**
+     * 最近结束的任务
+     */
+    private final Deque<SyncJob> finishedJobs = new ArrayDeque<>();
+
+    /**
+     * 供应商 -> 并发和频率状态（以自身为锁）
+     */
+    private final Map<String, SupplierState> suppliers = new HashMap<>();
+
+    @PostConstruct
+    public void init() {
+        if (nodeId == null || nodeId.trim().isEmpty()) {
+            // 形如 pid@hostname
+            nodeId = ManagementFactory.getRuntimeMXBean().getName();
+        }
+        log.info("同步任务调度已初始化，节点: {}, 供应商并发数: {}, 租约: {}s", nodeId, supplierConcurrency, leaseSeconds);
+    }
+
+    /**
+     * 提交异步同步任务（定时同步）
+     * 同一配置已有等待或执行中的任务时返回已有任务
+     *
+     * @param config 同步配置
+     * @param trigger 触发方式
+     * @param task 同步操作（填写 job.getSyncLog()）
+     * @return 任务
+     */
+    public SyncJob submit(SyncConfig config, String trigger, Consumer<SyncJob> task) {
+        SyncJob job;
+        synchronized (suppliers) {
+            SyncJob existing = findActiveJob(config.getId());
+            if (existing != null) {
+                log.info("同步配置已有任务在执行，跳过: configId={}, jobId={}", config.getId(), existing.getJobId());
+                return existing;
+            }
+            job = newJob(config, trigger);
+            activeJobs.put(job.getJobId(), job);
+            SupplierState state = supplierState(job.getSupplier());
+            if (state.running < supplierConcurrency) {
+                state.running++;
+                dispatch(job, task);
+            } else {
+                state.pending.add(new PendingJob(job, task));
+                log.info("供应商并发已满，任务排队: supplier={}, jobId={}", job.getSupplier(), job.getJobId());
+            }
+        }
+        return job;
+    }
+
+    /**
+     * 在当前线程执行同步任务（手动同步）
+     * 供应商并发已满或其他节点正在执行该配置时直接失败，不排队等待
+     *
+     * @return 同步日志
+     */
+    public SyncLog run(SyncConfig config, String trigger, Consumer<SyncJob> task) {
+        SyncJob job;
+        synchronized (suppliers) {
+            if (findActiveJob(config.getId()) != null) {
+                throw new BusinessException(ResultCode.OPERATION_FAILED.getCode(), "该同步配置正在执行中，请稍后重试");
+            }
+            job = newJob(config, trigger);
+            SupplierState state = supplierState(job.getSupplier());
+            if (state.running >= supplierConcurrency) {
+                throw new BusinessException(ResultCode.OPERATION_FAILED.getCode(), "该供应商的同步任务正在执行，请稍后重试");
+            }
+            state.running++;
+            activeJobs.put(job.getJobId(), job);
+        }
+        try {
+            if (!execute(job, task)) {
+                throw new BusinessException(ResultCode.OPERATION_FAILED.getCode(), "该同步配置正在其他节点执行，请稍后重试");
+            }
+            return job.getSyncLog();
+        } finally {
+            releaseSupplier(job);
+        }
+    }
+
+    /**
+     * 查询任务（等待、执行中和最近结束的任务）
+     *
+     * @param syncType 同步类型，为空时查询全部
+     */
+    public List<SyncJob> listJobs(String syncType) {
+        List<SyncJob> jobs = new ArrayList<>(activeJobs.values());
+        synchronized (finishedJobs) {
+            jobs.addAll(finishedJobs);
+        }
+        jobs.removeIf(job -> syncType != null && !syncType.equals(job.getSyncType()));
+        jobs.sort(Comparator.comparing(SyncJob::getCreateTime).reversed());
+        return jobs;
+    }
+
+    /**
+     * 根据任务ID查询任务
+     */
+    public SyncJob getJob(String jobId) {
+        SyncJob job = activeJobs.get(jobId);
+        if (job == null) {
+            synchronized (finishedJobs) {
+                job = finishedJobs.stream().filter(item -> item.getJobId().equals(jobId)).findFirst().orElse(null);
+            }
+        }
+        if (job == null) {
+            throw new BusinessException(ResultCode.NOT_FOUND.getCode(), "任务不存在: " + jobId);
+        }
+        return job;
+    }
+
+    /**
+     * 取消任务
+     * 等待中的任务直接结束，执行中的任务在下一批记录写入前停止
+     *
+     * @return 是否成功取消
+     */
+    public boolean cancel(String jobId) {
+        SyncJob job = getJob(jobId);
+        if (job.isFinished()) {
+            log.warn("任务已结束，无法取消，jobId: {}, status: {}", jobId, job.getStatus());
+            return false;
+        }
+        cancel(job, "任务已被取消");
+        return true;
+    }
+
+    /**
+     * 更新任务进度（每批记录写入后调用）
+     */
+    public void reportProgress(SyncJob job, SyncUpsertEngine.SyncUpsertResult progress) {
+        job.setTotalCount(progress.getTotalCount());
+        job.setSuccessCount(progress.getSuccessCount());
+        job.setFailedCount(progress.getFailedCount());
+
+        SyncLog syncLog = job.getSyncLog();
+        if (syncLog != null && syncLog.getId() != null) {
+            SyncLog update = new SyncLog();
+            update.setId(syncLog.getId());
+            update.setTotalCount(progress.getTotalCount());
+            update.setSuccessCount(progress.getSuccessCount());
+            update.setFailedCount(progress.getFailedCount());
+            try {
+                syncLogMapper.updateById(update);
+            } catch (Exception e) {
+                log.warn("更新同步进度失败，jobId: {}, error: {}", job.getJobId(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 续约执行中任务的租约，停止超时的任务
+     */
+    @Scheduled(fixedDelayString = "${travel.sync.heartbeat-interval-ms:30000}")
+    public void heartbeat() {
+        long now = System.currentTimeMillis();
+        for (SyncJob job : activeJobs.values()) {
+            if (!"RUNNING".equals(job.getStatus()) || job.getCancelReason() != null) {
+                continue;
+            }
+            if (job.getDeadline() > 0 && now > job.getDeadline()) {
+                cancel(job, "同步超时");
+                continue;
+            }
+            try {
+                if (syncConfigMapper.renewLease(job.getConfigId(), job.getLeaseOwner(), leaseSeconds) == 0) {
+                    // 租约已过期并被其他节点获取
+                    cancel(job, "同步租约已失效");
+                }
+            } catch (Exception e) {
+                log.warn("同步租约续约失败，jobId: {}, error: {}", job.getJobId(), e.getMessage());
+            }
+        }
+    }
+
+    private SyncJob newJob(SyncConfig config, String trigger) {
+        SyncJob job = new SyncJob();
+        job.setJobId("sync-" + UUID.randomUUID());
+        job.setConfigId(config.getId());
+        job.setSyncType(config.getSyncType());
+        job.setTrigger(trigger);
+        job.setSupplier(supplierOf(config.getApiUrl()));
+        job.setStatus("PENDING");
+        job.setCreateTime(LocalDateTime.now());
+        job.setConfig(config);
+        job.setLeaseOwner(nodeId + "/" + job.getJobId());
+        return job;
+    }
+
+    private SyncJob findActiveJob(Long configId) {
+        for (SyncJob job : activeJobs.values()) {
+            if (job.getConfigId().equals(configId)) {
+                return job;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 提交到线程池（调用方已占用供应商并发数）
+     */
+    private void dispatch(SyncJob job, Consumer<SyncJob> task) {
+        try {
+            syncExecutor.execute(() -> {
+                try {
+                    if (!execute(job, task)) {
+                        log.info("同步配置正在其他节点执行，跳过: configId={}", job.getConfigId());
+                    }
+                } catch (Exception e) {
+                    log.error("同步任务执行异常，jobId: {}", job.getJobId(), e);
+                } finally {
+                    releaseSupplier(job);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.error("同步任务队列已满，jobId: {}", job.getJobId());
+            finish(job, "FAILED", "同步任务队列已满");
+            releaseSupplier(job);
+        }
+    }
+
+    /**
+     * 获取租约并执行同步
+     *
+     * @return 是否获取到租约（未获取到时任务以 CANCELLED 结束）
+     */
+    private boolean execute(SyncJob job, Consumer<SyncJob> task) {
+        if (job.getCancelReason() != null) {
+            finish(job, "CANCELLED", job.getCancelReason());
+            return true;
+        }
+        try {
+            awaitSupplierInterval(job);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finish(job, "CANCELLED", "同步被中断");
+            return true;
+        }
+        if (syncConfigMapper.tryAcquireLease(job.getConfigId(), job.getLeaseOwner(), leaseSeconds) == 0) {
+            finish(job, "CANCELLED", "同步配置正在其他节点执行");
+            return false;
+        }
+
+        SyncLog syncLog = new SyncLog();
+        syncLog.setSyncType(job.getSyncType());
+        syncLog.setSyncConfigId(job.getConfigId());
+        syncLog.setStatus("RUNNING");
+        syncLog.setTotalCount(0);
+        syncLog.setSuccessCount(0);
+        syncLog.setFailedCount(0);
+        syncLog.setStartTime(LocalDateTime.now());
+        job.setSyncLog(syncLog);
+        job.setStartTime(syncLog.getStartTime());
+        job.setDeadline(System.currentTimeMillis() + jobTimeoutMinutes * 60_000L);
+        job.setStatus("RUNNING");
+
+        try {
+            syncLogMapper.insert(syncLog);
+            job.setSyncLogId(syncLog.getId());
+            task.accept(job);
+        } catch (Exception e) {
+            log.error("同步任务失败，jobId: {}", job.getJobId(), e);
+            syncLog.setStatus("FAILED");
+            syncLog.setErrorMessage(e.getMessage());
+        } finally {
+            if (job.getCancelReason() != null) {
+                syncLog.setStatus("CANCELLED");
+                syncLog.setErrorMessage(job.getCancelReason()
+                    + (syncLog.getErrorMessage() != null ? ": " + syncLog.getErrorMessage() : ""));
+            } else if ("RUNNING".equals(syncLog.getStatus())) {
+                syncLog.setStatus("FAILED");
+            }
+            syncLog.setEndTime(LocalDateTime.now());
+            try {
+                if (syncLog.getId() != null) {
+                    syncLogMapper.updateById(syncLog);
+                } else {
+                    syncLogMapper.insert(syncLog);
+                }
+            } catch (Exception e) {
+                log.error("保存同步日志失败，jobId: {}", job.getJobId(), e);
+            }
+            try {
+                syncConfigMapper.releaseLease(job.getConfigId(), job.getLeaseOwner());
+            } catch (Exception e) {
+                log.warn("释放同步租约失败，jobId: {}, error: {}", job.getJobId(), e.getMessage());
+            }
+            job.setTotalCount(syncLog.getTotalCount());
+            job.setSuccessCount(syncLog.getSuccessCount());
+            job.setFailedCount(syncLog.getFailedCount());
+            finish(job, syncLog.getStatus(), syncLog.getErrorMessage());
+        }
+        return true;
+    }
+
+    private void cancel(SyncJob job, String reason) {
+        job.setCancelReason(reason);
+        PendingJob removed = null;
+        synchronized (suppliers) {
+            SupplierState state = suppliers.get(job.getSupplier());
+            if (state != null) {
+                Iterator<PendingJob> iterator = state.pending.iterator();
+                while (iterator.hasNext()) {
+                    PendingJob pending = iterator.next();
+                    if (pending.job == job) {
+                        iterator.remove();
+                        removed = pending;
+                        break;
+                    }
+                }
+            }
+        }
+        if (removed != null) {
+            finish(job, "CANCELLED", reason);
+        }
+        log.info("取消同步任务，jobId: {}, reason: {}", job.getJobId(), reason);
+    }
+
+    /**
+     * 释放供应商并发数，并启动该供应商下一个等待中的任务
+     */
+    private void releaseSupplier(SyncJob job) {
+        synchronized (suppliers) {
+            SupplierState state = suppliers.get(job.getSupplier());
+            if (state == null) {
+                return;
+            }
+            PendingJob next = state.pending.poll();
+            if (next != null) {
+                dispatch(next.job, next.task);
+            } else {
+                state.running--;
+            }
+        }
+    }
+
+    /**
+     * 同一供应商相邻任务的启动间隔
+     */
+    private void awaitSupplierInterval(SyncJob job) throws InterruptedException {
+        long wait;
+        synchronized (suppliers) {
+            SupplierState state = supplierState(job.getSupplier());
+            long now = System.currentTimeMillis();
+            long start = Math.max(now, state.nextStartTime);
+            state.nextStartTime = start + supplierMinIntervalMs;
+            wait = start - now;
+        }
+        if (wait > 0) {
+            Thread.sleep(wait);
+        }
+    }
+
+    private void finish(SyncJob job, String status, String message) {
+        job.setStatus(status);
+        job.setErrorMessage(message);
+        job.setEndTime(LocalDateTime.now());
+        activeJobs.remove(job.getJobId());
+        synchronized (finishedJobs) {
+            finishedJobs.addFirst(job);
+            while (finishedJobs.size() > MAX_FINISHED_JOBS) {
+                finishedJobs.removeLast();
+            }
+        }
+    }
+
+    private SupplierState supplierState(String supplier) {
+        return suppliers.computeIfAbsent(supplier, key -> new SupplierState());
+    }
+
+    /**
+     * 供应商标识：API地址的主机名
+     */
+    private static String supplierOf(String apiUrl) {
+        try {
+            String host = URI.create(apiUrl).getHost();
+            if (host != null) {
+                return host;
+            }
+        } catch (Exception e) {
+            // 无法解析的地址按完整地址区分
+        }
+        return String.valueOf(apiUrl);
+    }
+
+    /**
+     * 供应商并发和频率状态
+     */
+    private static class SupplierState {
+        private int running;
+        private long nextStartTime;
+        private final Deque<PendingJob> pending = new ArrayDeque<>();
+    }
+
+    private static class PendingJob {
+        private final SyncJob job;
+        private final Consumer<SyncJob> task;
+
+        private PendingJob(SyncJob job, Consumer<SyncJob> task) {
+            this.job = job;
+            this.task = task;
+        }
+    }
+}
@@ -0,0 +1,416 @@
+package com.travel.service;
+
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import lombok.Builder;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.DigestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * 外部数据批量同步引擎（景点、酒店同步共用）
+ *
+ * 同步流程：
+ * - 一次查询加载已有数据，按自然键（如 名称+地址）建立内存索引，不再逐条查询匹配
+ * - 外部记录内容指纹（MD5）与实体上保存的指纹相同时直接跳过（不比较字段、不处理子表）；
+ *   指纹不同时逐字段比较，未变化的字段不写数据库，新的指纹随实体一起写入
+ * - 新增和变更按批（travel.sync.batch-size）多行写入，每批一个事务，某批失败不影响其他批；
+ *   变更只按ID更新已存在的行（不插入），某批失败后重新加载索引
+ * - 同步结束后统一清除一次缓存
+ *
+ * 外部数据的获取（HTTP调用、重试）应在调用本引擎之前完成，不占用数据库事务。
+ *
+ * @author travel-platform
+ */
+@Slf4j
+@Service
+public class SyncUpsertEngine {
+
+    /**
+     * 同步结果中保留的错误信息条数
+     */
+    private static final int MAX_ERROR_MESSAGES = 50;
+
+    /**
+     * 计算指纹用的序列化（属性、Map键排序，保证相同内容得到相同结果）
+     */
+    private static final ObjectMapper FINGERPRINT_MAPPER = JsonMapper.builder()
+            .enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+            .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+            .build();
+
+    @Value("${travel.sync.batch-size:500}")
+    private int batchSize;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * 同步一批外部记录
+     */
+    public <X, E> SyncUpsertResult upsert(List<X> records, Target<X, E> target) {
+        Session<X, E> session = open(target);
+        session.apply(records);
+        return session.finish();
+    }
+
+    /**
+     * 开始同步
+     * 返回的会话可以多次调用 {@link Session#apply}（如分批读取外部数据时），最后调用 {@link Session#finish}；
+     * 已有数据在第一次 apply 时才加载（外部数据未变化时不查询已有数据）
+     */
+    public <X, E> Session<X, E> open(Target<X, E> target) {
+        return new Session<>(target);
+    }
+
+    /**
+     * 字段比较和赋值：外部值不为null且与当前值不同时赋值
+     * BigDecimal 按数值比较（忽略精度差异，如 10.0 与 10.00）
+     *
+     * @return 是否赋值
+     */
+    public static <T> boolean updateField(T current, T incoming, Consumer<T> setter) {
+        if (incoming == null || sameValue(current, incoming)) {
+            return false;
+        }
+        setter.accept(incoming);
+        return true;
+    }
+
+    /**
+     * 外部记录内容指纹，无法序列化时返回null（按无指纹处理）
+     */
+    static String fingerprint(Object record) {
+        try {
+            return DigestUtils.md5DigestAsHex(FINGERPRINT_MAPPER.writeValueAsBytes(record));
+        } catch (Exception e) {
+            log.debug("计算同步指纹失败: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static boolean sameValue(Object current, Object incoming) {
+        if (current instanceof BigDecimal && incoming instanceof BigDecimal) {
+            return ((BigDecimal) current).compareTo((BigDecimal) incoming) == 0;
+        }
+        return Objects.equals(current, incoming);
+    }
+
+    /**
+     * 同步目标（外部记录类型 X，实体类型 E）
+     */
+    public interface Target<X, E> {
+
+        /**
+         * 名称（用于日志）
+         */
+        String name();
+
+        /**
+         * 一次查询加载所有已有数据
+         */
+        List<E> loadExisting();
+
+        /**
+         * 实体的自然键（可以有多个，如 名称+地址、名称+城市），键相同时先加载的实体优先
+         */
+        List<String> entityKeys(E entity);
+
+        /**
+         * 外部记录的说明（用于错误信息，如名称）
+         */
+        String label(X record);
+
+        /**
+         * 外部记录的自然键，记录无效时抛出异常（计入失败数）
+         */
+        String recordKey(X record);
+
+        /**
+         * 由外部记录创建新实体
+         */
+        E create(X record);
+
+        /**
+         * 把外部记录中变化的字段合并到实体
+         *
+         * @return 是否有字段变化
+         */
+        boolean merge(E entity, X record);
+
+        Long getId(E entity);
+
+        /**
+         * 实体上保存的同步指纹，不支持指纹时返回null
+         */
+        default String getFingerprint(E entity) {
+            return null;
+        }
+
+        default void setFingerprint(E entity, String fingerprint) {
+        }
+
+        /**
+         * 多行插入（需要回填ID）
+         */
+        void insertBatch(List<E> entities);
+
+        /**
+         * 多行更新（只更新已存在的行，不插入）
+         *
+         * @return 匹配的行数，小于实体数时整批回滚
+         */
+        int updateBatch(List<E> entities);
+
+        /**
+         * 一批实体写入后、事务提交前调用（如同步子表），抛出异常时整批回滚
+         * 指纹未变化而跳过的记录不在其中
+         */
+        default void afterBatch(List<Match<X, E>> matches) {
+        }
+
+        /**
+         * 同步结束后清除缓存、更新内存索引（只调用一次）
+         *
+         * @param changedIds 新增和变更的实体ID
+         */
+        void invalidate(Set<Long> changedIds);
+    }
+
+    /**
+     * 外部记录与实体的匹配结果
+     */
+    @Data
+    public static class Match<X, E> {
+        private final X record;
+        private final E entity;
+        /**
+         * 实体是否为本批新增
+         */
+        private final boolean inserted;
+    }
+
+    /**
+     * 同步会话（非线程安全）
+     */
+    public class Session<X, E> {
+
+        private final Target<X, E> target;
+        /**
+         * 自然键索引，第一次 apply 时加载
+         */
+        private Map<String, E> index;
+        private final Set<Long> changedIds = new LinkedHashSet<>();
+        private final List<String> errors = new ArrayList<>();
+        private final long startTime = System.currentTimeMillis();
+        private int totalCount;
+        private int insertedCount;
+        private int updatedCount;
+        private int unchangedCount;
+        private int failedCount;
+
+        private Session(Target<X, E> target) {
+            this.target = target;
+        }
+
+        /**
+         * 一次查询加载已有数据并建立自然键索引
+         */
+        private void loadIndex() {
+            long loadStart = System.currentTimeMillis();
+            List<E> existing = target.loadExisting();
+            index = new HashMap<>(Math.max(16, existing.size() * 3));
+            for (E entity : existing) {
+                for (String key : target.entityKeys(entity)) {
+                    index.putIfAbsent(key, entity);
+                }
+            }
+            log.info("{}同步索引已加载，已有数据: {}, 索引键: {}, 耗时: {}ms",
+                    target.name(), existing.size(), index.size(), System.currentTimeMillis() - loadStart);
+        }
+
+        /**
+         * 同步一批外部记录（按 travel.sync.batch-size 分批写入）
+         */
+        public void apply(List<X> records) {
+            if (records.isEmpty()) {
+                return;
+            }
+            int size = Math.max(1, batchSize);
+            for (int from = 0; from < records.size(); from += size) {
+                if (index == null) {
+                    // 第一次 apply，或上一批写入失败后重新加载
+                    loadIndex();
+                }
+                applyChunk(records.subList(from, Math.min(records.size(), from + size)));
+            }
+        }
+
+        private void applyChunk(List<X> records) {
+            totalCount += records.size();
+            // 本批新增的实体（同一批中重复的记录合并到同一个新实体）
+            Map<E, Boolean> toInsert = new IdentityHashMap<>();
+            // 本批更新的实体 -> 是否有字段变化（否则只更新指纹）
+            Map<E, Boolean> toUpdate = new IdentityHashMap<>();
+            List<Match<X, E>> matches = new ArrayList<>(records.size());
+            int unchanged = 0;
+
+            for (X record : records) {
+                try {
+                    String key = target.recordKey(record);
+                    String fingerprint = fingerprint(record);
+                    E entity = index.get(key);
+                    if (entity == null) {
+                        entity = target.create(record);
+                        target.setFingerprint(entity, fingerprint);
+                        toInsert.put(entity, Boolean.TRUE);
+                        index.put(key, entity);
+                        for (String entityKey : target.entityKeys(entity)) {
+                            index.putIfAbsent(entityKey, entity);
+                        }
+                    } else if (toInsert.containsKey(entity)) {
+                        target.merge(entity, record);
+                        target.setFingerprint(entity, fingerprint);
+                    } else if (fingerprint != null && fingerprint.equals(target.getFingerprint(entity))) {
+                        // 与上次同步的内容相同
+                        unchanged++;
+                        continue;
+                    } else {
+                        boolean changed = target.merge(entity, record);
+                        target.setFingerprint(entity, fingerprint);
+                        toUpdate.merge(entity, changed, Boolean::logicalOr);
+                    }
+                    matches.add(new Match<>(record, entity, toInsert.containsKey(entity)));
+                } catch (Exception e) {
+                    failedCount++;
+                    addError("同步" + target.name() + "失败: name=" + target.label(record) + ", error=" + e.getMessage());
+                }
+            }
+
+            List<E> inserts = new ArrayList<>(toInsert.keySet());
+            List<E> updates = new ArrayList<>(toUpdate.keySet());
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (!inserts.isEmpty()) {
+                        target.insertBatch(inserts);
+                    }
+                    if (!updates.isEmpty()) {
+                        int matched = target.updateBatch(updates);
+                        if (matched < updates.size()) {
+                            // 加载索引后有数据被删除，不重新插入，整批回滚
+                            throw new IllegalStateException("有" + (updates.size() - matched) + "条已被删除");
+                        }
+                    }
+                    target.afterBatch(matches);
+                });
+            } catch (Exception e) {
+                // 整批回滚：索引中的实体已合并了未写入的字段（新增的实体也已加入索引），
+                // 丢弃索引，下一批从数据库重新加载，不与未保存的值比较
+                index = null;
+                failedCount += matches.size();
+                addError("批量写入" + target.name() + "失败（" + matches.size() + "条）: " + e.getMessage());
+                log.error("批量写入{}失败，记录数: {}", target.name(), matches.size(), e);
+                return;
+            }
+
+            for (E entity : inserts) {
+                changedIds.add(target.getId(entity));
+            }
+            int updated = 0;
+            for (Map.Entry<E, Boolean> entry : toUpdate.entrySet()) {
+                if (entry.getValue()) {
+                    changedIds.add(target.getId(entry.getKey()));
+                    updated++;
+                }
+            }
+            insertedCount += inserts.size();
+            updatedCount += updated;
+            // 只更新了指纹的记录内容与已有数据相同，计入未变化
+            unchangedCount += unchanged + updates.size() - updated;
+        }
+
+        private void addError(String message) {
+            if (errors.size() < MAX_ERROR_MESSAGES) {
+                errors.add(message);
+            }
+        }
+
+        /**
+         * 当前进度（不结束同步）
+         */
+        public SyncUpsertResult snapshot() {
+            return SyncUpsertResult.builder()
+                    .totalCount(totalCount)
+                    .insertedCount(insertedCount)
+                    .updatedCount(updatedCount)
+                    .unchangedCount(unchangedCount)
+                    .failedCount(failedCount)
+                    .errors(new ArrayList<>(errors))
+                    .duration(System.currentTimeMillis() - startTime)
+                    .build();
+        }
+
+        /**
+         * 结束同步并清除缓存
+         */
+        public SyncUpsertResult finish() {
+            if (!changedIds.isEmpty()) {
+                try {
+                    target.invalidate(Collections.unmodifiableSet(changedIds));
+                } catch (Exception e) {
+                    log.error("同步{}后清除缓存失败", target.name(), e);
+                }
+            }
+            SyncUpsertResult result = snapshot();
+            log.info("{}同步完成，总数: {}, 新增: {}, 更新: {}, 未变化: {}, 失败: {}, 耗时: {}ms", target.name(),
+                    totalCount, insertedCount, updatedCount, unchangedCount, failedCount, result.getDuration());
+            return result;
+        }
+    }
+
+    /**
+     * 同步结果
+     */
+    @Data
+    @Builder
+    public static class SyncUpsertResult {
+        private int totalCount;
+        private int insertedCount;
+        private int updatedCount;
+        /**
+         * 与已有数据相同的记录数（指纹相同而跳过，或字段相同只更新了指纹）
+         */
+        private int unchangedCount;
+        private int failedCount;
+        /**
+         * 错误信息（最多保留 50 条）
+         */
+        private List<String> errors;
+        private long duration;
+
+        /**
+         * 成功数（新增 + 更新 + 未变化）
+         */
+        public int getSuccessCount() {
+            return totalCount - failedCount;
+        }
+    }
+}
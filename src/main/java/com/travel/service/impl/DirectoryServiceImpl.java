@@ -4,16 +4,16 @@ import com.travel.entity.Directory;
 import com.travel.mapper.DirectoryMapper;
 import com.travel.mapper.FileRecordMapper;
 import com.travel.service.DirectoryService;
+import com.travel.service.DirectoryTreeCache;
+import com.travel.util.TransactionUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * 目录服务实现类
@@ -30,77 +30,13 @@ public class DirectoryServiceImpl implements DirectoryService {
     @Autowired
     private FileRecordMapper fileRecordMapper;
     
+    @Autowired
+    private DirectoryTreeCache directoryTreeCache;
+    
     @Override
     public List<Directory> getDirectoryTree() {
-        // 查询所有目录
-        List<Directory> allDirectories = directoryMapper.selectAll();
-        
-        if (allDirectories == null || allDirectories.isEmpty()) {
-            return new ArrayList<>();
-        }
-        
-        // 构建目录树
-        return buildTree(allDirectories);
-    }
-    
-    /**
-     * 构建目录树
-     */
-    private List<Directory> buildTree(List<Directory> allDirectories) {
-        // 创建ID到目录的映射
-        Map<Long, Directory> directoryMap = new HashMap<>();
-        for (Directory dir : allDirectories) {
-            directoryMap.put(dir.getId(), dir);
-            dir.setChildren(new ArrayList<>());
-        }
-        
-        // 构建树形结构
-        List<Directory> rootDirectories = new ArrayList<>();
-        for (Directory dir : allDirectories) {
-            if (dir.getParentId() == null) {
-                // 根目录
-                rootDirectories.add(dir);
-            } else {
-                // 子目录，添加到父目录的children中
-                Directory parent = directoryMap.get(dir.getParentId());
-                if (parent != null) {
-                    parent.getChildren().add(dir);
-                }
-            }
-        }
-        
-        // 对每个层级的目录进行排序
-        sortDirectories(rootDirectories);
-        
-        return rootDirectories;
-    }
-    
-    /**
-     * 递归排序目录
-     */
-    private void sortDirectories(List<Directory> directories) {
-        if (directories == null || directories.isEmpty()) {
-            return;
-        }
-        
-        // 按sort和id排序
-        directories.sort((a, b) -> {
-            int sortCompare = Integer.compare(
-                a.getSort() != null ? a.getSort() : 0,
-                b.getSort() != null ? b.getSort() : 0
-            );
-            if (sortCompare != 0) {
-                return sortCompare;
-            }
-            return Long.compare(a.getId(), b.getId());
-        });
-        
-        // 递归排序子目录
-        for (Directory dir : directories) {
-            if (dir.getChildren() != null && !dir.getChildren().isEmpty()) {
-                sortDirectories(dir.getChildren());
-            }
-        }
+        // 目录树由缓存提供（已建好索引并排序），不访问数据库
+        return directoryTreeCache.getTree();
     }
     
     @Override
@@ -161,6 +97,15 @@ public class DirectoryServiceImpl implements DirectoryService {
         // 保存目录
         directoryMapper.insert(directory);
         
+        // 该路径下可能已有文件（如按模块名上传的文件），按现有文件记录初始化统计
+        directoryMapper.refreshFileStats(directory.getId());
+        Directory saved = directoryMapper.selectById(directory.getId());
+        if (saved != null) {
+            directory.setFileCount(saved.getFileCount());
+            directory.setFileSize(saved.getFileSize());
+        }
+        TransactionUtils.afterCommit(() -> directoryTreeCache.added(directory));
+        
         log.info("创建目录成功，ID：{}, 名称：{}, 路径：{}", directory.getId(), name, path);
         
         return directory;
@@ -172,7 +117,9 @@ public class DirectoryServiceImpl implements DirectoryService {
             throw new IllegalArgumentException("目录ID不能为空");
         }
         
-        return directoryMapper.selectById(id);
+        // 上传文件时按目录ID解析路径，优先从缓存读取；其他实例刚创建的目录缓存中可能还没有
+        Directory directory = directoryTreeCache.get(id);
+        return directory != null ? directory : directoryMapper.selectById(id);
     }
     
     @Override
@@ -188,19 +135,23 @@ public class DirectoryServiceImpl implements DirectoryService {
             throw new IllegalArgumentException("目录不存在");
         }
         
-        // 检查目录下是否有文件（包括子目录下的文件）
-        int fileCount = fileRecordMapper.countByModulePath(directory.getPath());
-        if (fileCount > 0) {
+        // 检查目录下是否有文件（包括子目录下的文件），找到一条即返回
+        if (fileRecordMapper.existsByModulePath(directory.getPath())) {
             throw new IllegalArgumentException("该目录或其子目录下存在文件，无法删除。请先删除文件后再删除目录。");
         }
         
-        // 递归删除所有子目录
-        deleteChildrenRecursively(id);
+        // 按物化路径一次查出目录及所有子目录，一条语句删除
+        List<Long> ids = directoryMapper.selectSubtree(directory.getPath()).stream()
+            .map(Directory::getId)
+            .collect(Collectors.toList());
+        if (!ids.contains(id)) {
+            ids.add(id);
+        }
         
-        // 删除当前目录
-        int rows = directoryMapper.delete(id);
+        int rows = directoryMapper.deleteByIds(ids);
         if (rows > 0) {
-            log.info("删除目录成功，ID：{}, 路径：{}", id, directory.getPath());
+            TransactionUtils.afterCommit(() -> directoryTreeCache.removed(ids));
+            log.info("删除目录成功，ID：{}, 路径：{}, 删除目录数：{}", id, directory.getPath(), rows);
             return true;
         } else {
             log.warn("删除目录失败，ID：{}", id);
@@ -208,23 +159,6 @@ public class DirectoryServiceImpl implements DirectoryService {
         }
     }
     
-    /**
-     * 递归删除所有子目录
-     * @param parentId 父目录ID
-     */
-    private void deleteChildrenRecursively(Long parentId) {
-        List<Directory> children = directoryMapper.selectByParentId(parentId);
-        if (children != null && !children.isEmpty()) {
-            for (Directory child : children) {
-                // 递归删除子目录的子目录
-                deleteChildrenRecursively(child.getId());
-                // 删除子目录
-                directoryMapper.delete(child.getId());
-                log.info("删除子目录，ID：{}, 路径：{}", child.getId(), child.getPath());
-            }
-        }
-    }
-    
     @Override
     public String buildDirectoryPath(String name, Long parentId) {
         if (parentId == null) {
@@ -1,8 +1,12 @@
 package com.travel.service.impl;
 
 import com.travel.entity.FileRecord;
+import com.travel.mapper.DirectoryMapper;
 import com.travel.mapper.FileRecordMapper;
+import com.travel.service.DirectoryTreeCache;
 import com.travel.service.FileRecordService;
+import com.travel.service.FileStatisticsService;
+import com.travel.util.TransactionUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -10,8 +14,10 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * 文件记录服务实现类
@@ -25,6 +31,15 @@ public class FileRecordServiceImpl implements FileRecordService {
     @Autowired
     private FileRecordMapper fileRecordMapper;
     
+    @Autowired
+    private DirectoryMapper directoryMapper;
+    
+    @Autowired
+    private DirectoryTreeCache directoryTreeCache;
+    
+    @Autowired
+    private FileStatisticsService fileStatisticsService;
+    
     @Override
     @Transactional(rollbackFor = Exception.class)
     public FileRecord saveFileRecord(FileRecord record) {
@@ -38,11 +53,33 @@ public class FileRecordServiceImpl implements FileRecordService {
         }
         
         fileRecordMapper.insert(record);
+        applyStats(record, 1, sizeOf(record));
         log.info("保存文件记录成功，ID：{}, 文件名：{}", record.getId(), record.getFileName());
         
         return record;
     }
     
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public boolean updateFileRecord(FileRecord record) {
+        if (record == null || record.getId() == null) {
+            throw new IllegalArgumentException("文件记录ID不能为空");
+        }
+        
+        // 压缩后文件大小会变化，按新旧大小之差更新统计；加锁读取旧大小，避免并发更新时差值重复计算
+        FileRecord existing = fileRecordMapper.selectByIdForUpdate(record.getId());
+        int rows = fileRecordMapper.update(record);
+        if (rows > 0) {
+            if (existing != null && record.getFileSize() != null) {
+                applyStats(existing, 0, record.getFileSize() - sizeOf(existing));
+            }
+            log.info("更新文件记录成功，ID：{}, 文件名：{}", record.getId(), record.getFileName());
+            return true;
+        }
+        log.warn("更新文件记录失败，ID：{}", record.getId());
+        return false;
+    }
+    
     @Override
     public FileRecord getFileRecordById(Long id) {
         if (id == null) {
@@ -104,8 +141,15 @@ public class FileRecordServiceImpl implements FileRecordService {
             throw new IllegalArgumentException("文件ID不能为空");
         }
         
+        // 加锁读取，并发删除同一记录时后到的事务等待锁释放后读不到该记录，不会重复扣减统计
+        FileRecord existing = fileRecordMapper.selectByIdForUpdate(id);
+        if (existing == null) {
+            log.warn("删除文件记录失败，ID：{}", id);
+            return false;
+        }
         int rows = fileRecordMapper.delete(id);
         if (rows > 0) {
+            applyStats(existing, -1, -sizeOf(existing));
             log.info("删除文件记录成功，ID：{}", id);
             return true;
         } else {
@@ -132,7 +176,30 @@ public class FileRecordServiceImpl implements FileRecordService {
             return 0;
         }
         
-        int rows = fileRecordMapper.deleteBatch(validIds);
+        // 加锁读取并只删除读到的记录，统计只按本事务实际删除的记录扣减（并发删除的记录已读不到）
+        List<FileRecord> existing = fileRecordMapper.selectByIdsForUpdate(validIds);
+        if (existing.isEmpty()) {
+            log.warn("批量删除文件记录失败，记录不存在，数量：{}", validIds.size());
+            return 0;
+        }
+        List<Long> lockedIds = existing.stream()
+            .map(FileRecord::getId)
+            .collect(java.util.stream.Collectors.toList());
+        int rows = fileRecordMapper.deleteBatch(lockedIds);
+        // 按目录、按存储类型和文件类型汇总被删除文件的数量和大小，每个汇总行更新一次
+        Map<String, long[]> directoryDeltas = new HashMap<>();
+        Map<List<String>, long[]> typeDeltas = new HashMap<>();
+        for (FileRecord record : existing) {
+            long[] directoryDelta = directoryDeltas.computeIfAbsent(record.getModule(), key -> new long[2]);
+            directoryDelta[0]--;
+            directoryDelta[1] -= sizeOf(record);
+            long[] typeDelta = typeDeltas.computeIfAbsent(
+                java.util.Arrays.asList(record.getStorageType(), record.getFileType()), key -> new long[2]);
+            typeDelta[0]--;
+            typeDelta[1] -= sizeOf(record);
+        }
+        directoryDeltas.forEach((module, delta) -> applyDirectoryStats(module, delta[0], delta[1]));
+        typeDeltas.forEach((key, delta) -> fileStatisticsService.applyDelta(key.get(0), key.get(1), delta[0], delta[1]));
         log.info("批量删除文件记录成功，删除数量：{}/{}", rows, validIds.size());
         return rows;
     }
@@ -157,27 +224,81 @@ public class FileRecordServiceImpl implements FileRecordService {
     }
     
     @Override
-    public Map<String, Object> getFileStatistics() {
-        Map<String, Object> stats = new HashMap<>();
-        
-        // 查询总文件数和总大小
-        Long totalSize = fileRecordMapper.selectTotalSize();
-        
-        // 查询OSS文件统计
-        Long ossSize = fileRecordMapper.selectSizeByStorageType("OSS");
-        int ossCount = fileRecordMapper.selectCountByStorageType("OSS");
-        
-        // 查询本地文件统计
-        Long localSize = fileRecordMapper.selectSizeByStorageType("LOCAL");
-        int localCount = fileRecordMapper.selectCountByStorageType("LOCAL");
+    public FileRecord getFileRecordByContentHash(String contentHash, String fileType) {
+        if (contentHash == null || contentHash.isEmpty()) {
+            return null;
+        }
+        return fileRecordMapper.selectByContentHash(contentHash, fileType);
+    }
+    
+    @Override
+    public int countReferences(FileRecord record) {
+        if (record.getContentHash() == null || record.getContentHash().isEmpty()) {
+            return 1;
+        }
+        return fileRecordMapper.countReferences(record.getContentHash(), record.getFilePath());
+    }
+    
+    @Override
+    public Set<String> getSharedFilePaths(List<FileRecord> records) {
+        Set<String> shared = new HashSet<>();
+        if (records == null || records.isEmpty()) {
+            return shared;
+        }
         
-        stats.put("totalCount", ossCount + localCount);
-        stats.put("totalSize", totalSize != null ? totalSize : 0L);
-        stats.put("ossCount", ossCount);
-        stats.put("ossSize", ossSize != null ? ossSize : 0L);
-        stats.put("localCount", localCount);
-        stats.put("localSize", localSize != null ? localSize : 0L);
+        // 没有内容哈希的历史记录不共享OSS对象
+        List<String> filePaths = records.stream()
+            .filter(record -> record.getContentHash() != null && !record.getContentHash().isEmpty())
+            .map(FileRecord::getFilePath)
+            .distinct()
+            .collect(java.util.stream.Collectors.toList());
+        if (filePaths.isEmpty()) {
+            return shared;
+        }
+        List<Long> ids = records.stream()
+            .map(FileRecord::getId)
+            .collect(java.util.stream.Collectors.toList());
         
-        return stats;
+        Set<String> referenced = new HashSet<>();
+        for (FileRecord other : fileRecordMapper.selectOtherReferences(filePaths, ids)) {
+            referenced.add(other.getContentHash() + "|" + other.getFilePath());
+        }
+        for (FileRecord record : records) {
+            if (referenced.contains(record.getContentHash() + "|" + record.getFilePath())) {
+                shared.add(record.getFilePath());
+            }
+        }
+        return shared;
+    }
+    
+    @Override
+    public Map<String, Object> getFileStatistics() {
+        // 读取维护的汇总数据，不扫描文件记录表
+        return fileStatisticsService.getStatistics();
+    }
+    
+    /**
+     * 更新文件统计汇总和所在目录的直属文件统计
+     */
+    private void applyStats(FileRecord record, long countDelta, long sizeDelta) {
+        fileStatisticsService.applyDelta(record.getStorageType(), record.getFileType(), countDelta, sizeDelta);
+        applyDirectoryStats(record.getModule(), countDelta, sizeDelta);
+    }
+    
+    /**
+     * 更新文件所在目录的直属文件统计：数据库在当前事务中更新，目录树缓存在事务提交后更新
+     */
+    private void applyDirectoryStats(String module, long countDelta, long sizeDelta) {
+        if (module == null || (countDelta == 0 && sizeDelta == 0)) {
+            return;
+        }
+        int rows = directoryMapper.incrementFileStats(module, countDelta, sizeDelta);
+        if (rows > 0) {
+            TransactionUtils.afterCommit(() -> directoryTreeCache.applyFileStats(module, countDelta, sizeDelta));
+        }
+    }
+    
+    private static long sizeOf(FileRecord record) {
+        return record.getFileSize() != null ? record.getFileSize() : 0L;
     }
 }
@@ -1,6 +1,8 @@
 package com.travel.service.impl;
 
+import com.travel.service.ImageCompressionResult;
 import com.travel.service.ImageCompressionService;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import net.coobird.thumbnailator.Thumbnails;
 import org.springframework.beans.factory.annotation.Value;
@@ -10,15 +12,23 @@ import org.springframework.web.multipart.MultipartFile;
 
 import javax.imageio.IIOImage;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
 import javax.imageio.ImageWriteParam;
 import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
 import javax.imageio.stream.ImageOutputStream;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 图片压缩服务实现类
@@ -44,8 +54,53 @@ public class ImageCompressionServiceImpl implements ImageCompressionService {
     @Value("${travel.file.webp.min-file-size:51200}")
     private long minFileSize;
     
+    @Value("${travel.file.webp.variant-widths:240,480}")
+    private int[] variantWidths;
+    
+    @Value("${travel.file.webp.decode-pixel-budget:67108864}")
+    private long decodePixelBudget;
+    
+    @Value("${travel.file.webp.decode-timeout-seconds:30}")
+    private long decodeTimeoutSeconds;
+    
+    /**
+     * 每个许可代表的像素数
+     */
+    private static final long PIXELS_PER_PERMIT = 1024L;
+    
+    /**
+     * 全局解码像素预算（许可数 = 像素数 / 1024）
+     */
+    private Semaphore decodeBudget;
+    
+    private int decodeBudgetPermits;
+    
+    @PostConstruct
+    public void initDecodeBudget() {
+        decodeBudgetPermits = (int) Math.max(1, Math.min(Integer.MAX_VALUE, decodePixelBudget / PIXELS_PER_PERMIT));
+        decodeBudget = new Semaphore(decodeBudgetPermits, true);
+        log.info("图片解码像素预算已初始化 - 预算像素数: {}, 许可数: {}", decodePixelBudget, decodeBudgetPermits);
+    }
+    
     @Override
     public MultipartFile compressToWebP(MultipartFile file) throws IOException {
+        return compress(file, false).getFile();
+    }
+    
+    @Override
+    public ImageCompressionResult compressToWebPWithVariants(MultipartFile file) throws IOException {
+        return compress(file, true);
+    }
+    
+    /**
+     * 压缩图片为 WebP 格式
+     * 
+     * @param file 原始图片文件
+     * @param withVariants 是否同时生成多宽度副本（复用同一次解码得到的图片）
+     * @return 压缩结果
+     * @throws IOException 压缩失败时抛出异常
+     */
+    private ImageCompressionResult compress(MultipartFile file, boolean withVariants) throws IOException {
         if (!webpEnabled) {
             log.error("WebP 压缩已禁用，但系统要求必须使用 WebP 压缩，请检查配置");
             throw new IOException("WebP 压缩已禁用，无法上传图片。请启用 WebP 压缩功能（travel.file.webp.enabled=true）");
@@ -57,76 +112,103 @@ public class ImageCompressionServiceImpl implements ImageCompressionService {
         //     return file;
         // }
         
-        try {
-            // 读取原始图片
-            InputStream originalInputStream = file.getInputStream();
-            BufferedImage originalImage = ImageIO.read(originalInputStream);
-            
-            if (originalImage == null) {
-                throw new IOException("无法读取图片文件，可能不是有效的图片格式");
-            }
-            
-            // 判断是否需要压缩
-            boolean needCompress = false;
-            String skipReason = null;
-            
-            if (forceCompress) {
-                // 强制压缩模式：所有图片都压缩
-                needCompress = true;
-                log.debug("强制压缩模式：图片将被压缩");
-            } else {
-                // 阈值模式：根据大小和分辨率判断
-                int imageWidth = originalImage.getWidth();
-                long fileSize = file.getSize();
+        try (InputStream originalInputStream = file.getInputStream();
+             ImageInputStream imageInputStream = ImageIO.createImageInputStream(originalInputStream)) {
+            // 只读取图片头获取尺寸，此时尚未解码像素
+            ImageReader reader = openReader(imageInputStream);
+            try {
+                int sourceWidth = reader.getWidth(0);
+                int sourceHeight = reader.getHeight(0);
                 
-                boolean exceedsWidth = maxWidth > 0 && imageWidth > maxWidth;
-                boolean exceedsSize = minFileSize > 0 && fileSize > minFileSize;
+                // 判断是否需要压缩
+                boolean needCompress = false;
+                String skipReason = null;
                 
-                if (exceedsWidth || exceedsSize) {
+                if (forceCompress) {
+                    // 强制压缩模式：所有图片都压缩
                     needCompress = true;
-                    log.debug("图片超过阈值，需要压缩: 宽度={}px (阈值={}px), 大小={} bytes (阈值={} bytes)", 
-                            imageWidth, maxWidth, fileSize, minFileSize);
+                    log.debug("强制压缩模式：图片将被压缩");
                 } else {
-                    skipReason = String.format("图片未超过阈值: 宽度=%dpx (阈值=%dpx), 大小=%d bytes (阈值=%d bytes)", 
-                            imageWidth, maxWidth, fileSize, minFileSize);
-                    log.debug(skipReason);
+                    // 阈值模式：根据大小和分辨率判断
+                    long fileSize = file.getSize();
+                    
+                    boolean exceedsWidth = maxWidth > 0 && sourceWidth > maxWidth;
+                    boolean exceedsSize = minFileSize > 0 && fileSize > minFileSize;
+                    
+                    if (exceedsWidth || exceedsSize) {
+                        needCompress = true;
+                        log.debug("图片超过阈值，需要压缩: 宽度={}px (阈值={}px), 大小={} bytes (阈值={} bytes)", 
+                                sourceWidth, maxWidth, fileSize, minFileSize);
+                    } else {
+                        skipReason = String.format("图片未超过阈值: 宽度=%dpx (阈值=%dpx), 大小=%d bytes (阈值=%d bytes)", 
+                                sourceWidth, maxWidth, fileSize, minFileSize);
+                        log.debug(skipReason);
+                    }
                 }
-            }
-            
-            // 如果不需要压缩，返回原始文件
-            if (!needCompress) {
-                log.debug("跳过 WebP 压缩，使用原始文件。原因: {}", skipReason != null ? skipReason : "强制压缩已禁用");
-                return file;
-            }
-            
-            // 如果设置了最大宽度且图片宽度大于最大宽度，先进行缩放
-            BufferedImage processedImage = originalImage;
-            int imageWidth = originalImage.getWidth();
-            if (maxWidth > 0 && imageWidth > maxWidth) {
-                int newHeight = (int) ((double) originalImage.getHeight() * maxWidth / originalImage.getWidth());
-                processedImage = Thumbnails.of(originalImage)
-                        .width(maxWidth)
-                        .height(newHeight)
-                        .asBufferedImage();
-                log.debug("图片已缩放: {}x{} -> {}x{}", 
-                        originalImage.getWidth(), originalImage.getHeight(),
-                        processedImage.getWidth(), processedImage.getHeight());
-            }
+                
+                // 如果不需要压缩，返回原始文件（无需解码像素）
+                if (!needCompress) {
+                    log.debug("跳过 WebP 压缩，使用原始文件。原因: {}", skipReason != null ? skipReason : "强制压缩已禁用");
+                    return ImageCompressionResult.builder().file(file).compressed(false).build();
+                }
+                
+                int subsampling = computeSubsampling(sourceWidth, sourceHeight);
+                int permits = acquireDecodeBudget(sourceWidth, sourceHeight, subsampling);
+                try {
+                    BufferedImage originalImage = readImage(reader, subsampling);
+                    
+                    // 如果设置了最大宽度且图片宽度大于最大宽度，先进行缩放
+                    BufferedImage processedImage = originalImage;
+                    int imageWidth = originalImage.getWidth();
+                    if (maxWidth > 0 && imageWidth > maxWidth) {
+                        int newHeight = (int) ((double) originalImage.getHeight() * maxWidth / originalImage.getWidth());
+                        processedImage = Thumbnails.of(originalImage)
+                                .width(maxWidth)
+                                .height(newHeight)
+                                .asBufferedImage();
+                        log.debug("图片已缩放: {}x{} (解码采样率 1/{}) -> {}x{}", 
+                                sourceWidth, sourceHeight, subsampling,
+                                processedImage.getWidth(), processedImage.getHeight());
+                    }
             
-            // 压缩为 WebP 格式
-            byte[] compressedBytes = convertToWebP(processedImage, webpQuality);
+                    // 压缩为 WebP 格式
+                    byte[] compressedBytes = convertToWebP(processedImage, webpQuality);
             
-            log.info("图片压缩成功: 原始大小 {} bytes, 压缩后大小 {} bytes, 压缩率 {:.2f}%",
-                    file.getSize(), compressedBytes.length, 
-                    (1.0 - (double) compressedBytes.length / file.getSize()) * 100);
+                    log.info("图片压缩成功: 原始大小 {} bytes, 压缩后大小 {} bytes, 压缩率 {:.2f}%",
+                            file.getSize(), compressedBytes.length, 
+                            (1.0 - (double) compressedBytes.length / file.getSize()) * 100);
             
-            // 创建压缩后的 MultipartFile
-            return new CompressedMultipartFile(
-                    file,
-                    compressedBytes,
-                    getWebpFilename(file.getOriginalFilename())
-            );
+                    // 在主图基础上生成更小宽度的副本（不再重新解码原图）
+                    Map<Integer, byte[]> variants = new LinkedHashMap<>();
+                    if (withVariants && variantWidths != null) {
+                        int[] widths = Arrays.stream(variantWidths).filter(w -> w > 0).sorted().distinct().toArray();
+                        for (int width : widths) {
+                            if (width >= processedImage.getWidth()) {
+                                break;
+                            }
+                            BufferedImage variantImage = Thumbnails.of(processedImage)
+                                    .width(width)
+                                    .asBufferedImage();
+                            variants.put(width, convertToWebP(variantImage, webpQuality));
+                        }
+                        log.debug("已生成图片副本，宽度: {}", variants.keySet());
+                    }
             
+                    // 创建压缩后的 MultipartFile
+                    return ImageCompressionResult.builder()
+                            .file(new CompressedMultipartFile(
+                                    file,
+                                    compressedBytes,
+                                    getWebpFilename(file.getOriginalFilename())))
+                            .compressed(true)
+                            .variants(variants)
+                            .build();
+                } finally {
+                    decodeBudget.release(permits);
+                }
+            } finally {
+                reader.dispose();
+            }
         } catch (Exception e) {
             log.error("图片压缩失败: {}", e.getMessage(), e);
             throw new IOException("图片压缩失败，无法上传图片: " + e.getMessage(), e);
@@ -140,73 +222,187 @@ public class ImageCompressionServiceImpl implements ImageCompressionService {
             throw new IOException("WebP 压缩已禁用，无法上传图片。请启用 WebP 压缩功能（travel.file.webp.enabled=true）");
         }
         
-        try {
-            // 读取原始图片
-            BufferedImage originalImage = ImageIO.read(inputStream);
-            
-            if (originalImage == null) {
-                throw new IOException("无法读取图片文件，可能不是有效的图片格式");
-            }
-            
-            // 判断是否需要压缩
-            boolean needCompress = false;
-            String skipReason = null;
-            
-            if (forceCompress) {
-                // 强制压缩模式：所有图片都压缩
-                needCompress = true;
-                log.debug("强制压缩模式：图片将被压缩");
-            } else {
-                // 阈值模式：根据分辨率判断（InputStream 方法无法获取文件大小，只根据分辨率）
-                int imageWidth = originalImage.getWidth();
+        try (ImageInputStream imageInputStream = ImageIO.createImageInputStream(inputStream)) {
+            // 只读取图片头获取尺寸，此时尚未解码像素
+            ImageReader reader = openReader(imageInputStream);
+            try {
+                int sourceWidth = reader.getWidth(0);
+                int sourceHeight = reader.getHeight(0);
                 
-                boolean exceedsWidth = maxWidth > 0 && imageWidth > maxWidth;
+                // 判断是否需要压缩
+                boolean needCompress = false;
+                String skipReason = null;
                 
-                if (exceedsWidth) {
+                if (forceCompress) {
+                    // 强制压缩模式：所有图片都压缩
                     needCompress = true;
-                    log.debug("图片宽度超过阈值，需要压缩: 宽度={}px (阈值={}px)", imageWidth, maxWidth);
+                    log.debug("强制压缩模式：图片将被压缩");
                 } else {
-                    skipReason = String.format("图片宽度未超过阈值: 宽度=%dpx (阈值=%dpx)", imageWidth, maxWidth);
-                    log.debug(skipReason);
+                    // 阈值模式：根据分辨率判断（InputStream 方法无法获取文件大小，只根据分辨率）
+                    boolean exceedsWidth = maxWidth > 0 && sourceWidth > maxWidth;
+                    
+                    if (exceedsWidth) {
+                        needCompress = true;
+                        log.debug("图片宽度超过阈值，需要压缩: 宽度={}px (阈值={}px)", sourceWidth, maxWidth);
+                    } else {
+                        skipReason = String.format("图片宽度未超过阈值: 宽度=%dpx (阈值=%dpx)", sourceWidth, maxWidth);
+                        log.debug(skipReason);
+                    }
                 }
+                
+                // 不压缩时需要完整解码后转换回字节流，不做采样
+                int subsampling = needCompress ? computeSubsampling(sourceWidth, sourceHeight) : 1;
+                int permits = acquireDecodeBudget(sourceWidth, sourceHeight, subsampling);
+                try {
+                    BufferedImage originalImage = readImage(reader, subsampling);
+                    
+                    // 如果不需要压缩，由于输入流已读取，需要将图片转换回字节流
+                    if (!needCompress) {
+                        log.debug("跳过 WebP 压缩。原因: {}", skipReason != null ? skipReason : "强制压缩已禁用");
+                        // 将 BufferedImage 转换回字节流（保持原始格式）
+                        // 注意：这里无法确定原始格式，所以使用 PNG 作为默认格式
+                        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+                        ImageIO.write(originalImage, "png", outputStream);
+                        return new ByteArrayInputStream(outputStream.toByteArray());
+                    }
+                    
+                    // 如果设置了最大宽度且图片宽度大于最大宽度，先进行缩放
+                    BufferedImage processedImage = originalImage;
+                    int imageWidth = originalImage.getWidth();
+                    if (maxWidth > 0 && imageWidth > maxWidth) {
+                        int newHeight = (int) ((double) originalImage.getHeight() * maxWidth / originalImage.getWidth());
+                        processedImage = Thumbnails.of(originalImage)
+                                .width(maxWidth)
+                                .height(newHeight)
+                                .asBufferedImage();
+                        log.debug("图片已缩放: {}x{} (解码采样率 1/{}) -> {}x{}", 
+                                sourceWidth, sourceHeight, subsampling,
+                                processedImage.getWidth(), processedImage.getHeight());
+                    }
+                    
+                    // 压缩为 WebP 格式
+                    byte[] compressedBytes = convertToWebP(processedImage, webpQuality);
+                    log.info("图片压缩成功: 压缩后大小 {} bytes", compressedBytes.length);
+                    
+                    return new ByteArrayInputStream(compressedBytes);
+                } finally {
+                    decodeBudget.release(permits);
+                }
+            } finally {
+                reader.dispose();
             }
             
-            // 如果不需要压缩，由于输入流已读取，需要将图片转换回字节流
-            if (!needCompress) {
-                log.debug("跳过 WebP 压缩。原因: {}", skipReason != null ? skipReason : "强制压缩已禁用");
-                // 将 BufferedImage 转换回字节流（保持原始格式）
-                // 注意：这里无法确定原始格式，所以使用 PNG 作为默认格式
-                ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-                ImageIO.write(originalImage, "png", outputStream);
-                return new ByteArrayInputStream(outputStream.toByteArray());
-            }
-            
-            // 如果设置了最大宽度且图片宽度大于最大宽度，先进行缩放
-            BufferedImage processedImage = originalImage;
-            int imageWidth = originalImage.getWidth();
-            if (maxWidth > 0 && imageWidth > maxWidth) {
-                int newHeight = (int) ((double) originalImage.getHeight() * maxWidth / originalImage.getWidth());
-                processedImage = Thumbnails.of(originalImage)
-                        .width(maxWidth)
-                        .height(newHeight)
-                        .asBufferedImage();
-                log.debug("图片已缩放: {}x{} -> {}x{}", 
-                        originalImage.getWidth(), originalImage.getHeight(),
-                        processedImage.getWidth(), processedImage.getHeight());
-            }
-            
-            // 压缩为 WebP 格式
-            byte[] compressedBytes = convertToWebP(processedImage, webpQuality);
-            log.info("图片压缩成功: 压缩后大小 {} bytes", compressedBytes.length);
-            
-            return new ByteArrayInputStream(compressedBytes);
-            
         } catch (Exception e) {
             log.error("图片压缩失败: {}", e.getMessage(), e);
             throw new IOException("图片压缩失败，无法上传图片: " + e.getMessage(), e);
         }
     }
     
+    /**
+     * 根据图片头创建图片读取器
+     * 
+     * @param imageInputStream 图片输入流
+     * @return 已设置输入的图片读取器
+     * @throws IOException 不是有效的图片格式时抛出异常
+     */
+    private ImageReader openReader(ImageInputStream imageInputStream) throws IOException {
+        if (imageInputStream == null) {
+            throw new IOException("无法读取图片文件，可能不是有效的图片格式");
+        }
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInputStream);
+        if (!readers.hasNext()) {
+            throw new IOException("无法读取图片文件，可能不是有效的图片格式");
+        }
+        ImageReader reader = readers.next();
+        reader.setInput(imageInputStream, true, true);
+        return reader;
+    }
+    
+    /**
+     * 计算解码采样率
+     * 按整数倍跳过源像素，使解码后的宽度仍不小于最大宽度的2倍，
+     * 剩余的缩放交给 Thumbnailator 完成，以避免单纯采样带来的锯齿；
+     * 同时按总像素数计算，使解码后的像素数不超过解码像素预算（窄而高的图片也会被采样）
+     * 
+     * @param sourceWidth 原图宽度
+     * @param sourceHeight 原图高度
+     * @return 采样率（1表示不采样）
+     */
+    private int computeSubsampling(int sourceWidth, int sourceHeight) {
+        int subsampling = 1;
+        if (maxWidth > 0 && sourceWidth > maxWidth * 2) {
+            subsampling = Math.max(1, sourceWidth / (maxWidth * 2));
+        }
+        long sourcePixels = (long) sourceWidth * sourceHeight;
+        if (decodePixelBudget > 0 && sourcePixels > decodePixelBudget) {
+            int bySize = (int) Math.ceil(Math.sqrt((double) sourcePixels / decodePixelBudget));
+            while (decodedPixels(sourceWidth, sourceHeight, bySize) > decodePixelBudget) {
+                bySize++;
+            }
+            subsampling = Math.max(subsampling, bySize);
+        }
+        return subsampling;
+    }
+    
+    private static long decodedPixels(int sourceWidth, int sourceHeight, int subsampling) {
+        long decodedWidth = (sourceWidth + subsampling - 1) / subsampling;
+        long decodedHeight = (sourceHeight + subsampling - 1) / subsampling;
+        return decodedWidth * decodedHeight;
+    }
+    
+    /**
+     * 按采样率解码图片
+     * 
+     * @param reader 图片读取器
+     * @param subsampling 采样率
+     * @return 解码后的图片
+     * @throws IOException 解码失败时抛出异常
+     */
+    private BufferedImage readImage(ImageReader reader, int subsampling) throws IOException {
+        ImageReadParam readParam = reader.getDefaultReadParam();
+        if (subsampling > 1) {
+            readParam.setSourceSubsampling(subsampling, subsampling, 0, 0);
+        }
+        BufferedImage image = reader.read(0, readParam);
+        if (image == null) {
+            throw new IOException("无法读取图片文件，可能不是有效的图片格式");
+        }
+        return image;
+    }
+    
+    /**
+     * 申请解码像素预算
+     * 按解码后的像素数占用全局预算，所有并发解码的像素总和不超过预算；
+     * 采样后仍超过整个预算的图片直接拒绝，不解码
+     * 
+     * @param sourceWidth 原图宽度
+     * @param sourceHeight 原图高度
+     * @param subsampling 采样率
+     * @return 占用的许可数（解码完成后需释放）
+     * @throws IOException 图片过大、等待超时或被中断时抛出异常
+     */
+    private int acquireDecodeBudget(int sourceWidth, int sourceHeight, int subsampling) throws IOException {
+        long decodedPixels = decodedPixels(sourceWidth, sourceHeight, subsampling);
+        long permitsNeeded = Math.max(1, (decodedPixels + PIXELS_PER_PERMIT - 1) / PIXELS_PER_PERMIT);
+        if (permitsNeeded > decodeBudgetPermits) {
+            throw new IOException(String.format("图片分辨率过大（%dx%d），超过解码像素上限 %d", 
+                    sourceWidth, sourceHeight, decodePixelBudget));
+        }
+        int permits = (int) permitsNeeded;
+        
+        try {
+            if (!decodeBudget.tryAcquire(permits, decodeTimeoutSeconds, TimeUnit.SECONDS)) {
+                throw new IOException("图片处理繁忙，请稍后重试");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("图片解码被中断", e);
+        }
+        log.debug("申请解码像素预算: {}x{} (采样率 1/{}), 占用 {}/{}", 
+                sourceWidth, sourceHeight, subsampling, permits, decodeBudgetPermits);
+        return permits;
+    }
+    
     @Override
     public boolean shouldSkipCompression(MultipartFile file) {
         if (minFileSize <= 0) {
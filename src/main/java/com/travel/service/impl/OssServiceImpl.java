@@ -2,23 +2,54 @@ package com.travel.service.impl;
 
 import com.aliyun.oss.OSS;
 import com.aliyun.oss.OSSClientBuilder;
+import com.aliyun.oss.model.AbortMultipartUploadRequest;
+import com.aliyun.oss.model.CompleteMultipartUploadRequest;
+import com.aliyun.oss.model.DeleteObjectsRequest;
+import com.aliyun.oss.model.DeleteObjectsResult;
+import com.aliyun.oss.model.InitiateMultipartUploadRequest;
+import com.aliyun.oss.model.PartETag;
 import com.aliyun.oss.model.PutObjectRequest;
+import com.aliyun.oss.model.UploadPartRequest;
 import com.travel.config.OssProperties;
 import com.travel.entity.OssConfig;
 import com.travel.mapper.OssConfigMapper;
 import com.travel.service.OssService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import jakarta.annotation.PreDestroy;
 import javax.crypto.Cipher;
 import javax.crypto.spec.SecretKeySpec;
 import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 
 /**
  * OSS文件服务实现类
@@ -36,9 +67,74 @@ public class OssServiceImpl implements OssService {
     @Autowired
     private OssProperties ossProperties;
     
+    @Autowired
+    @Qualifier("ossUploadExecutor")
+    private ThreadPoolTaskExecutor ossUploadExecutor;
+    
+    /**
+     * OSS允许的最小分片大小（100KB，最后一个分片除外）
+     */
+    private static final long MIN_PART_SIZE = 100 * 1024L;
+    
+    /**
+     * OSS允许的最大分片数量
+     */
+    private static final int MAX_PART_COUNT = 10000;
+    
+    /**
+     * 批量删除单次请求的最大对象数（OSS DeleteObjects 上限）
+     */
+    private static final int DELETE_BATCH_SIZE = 1000;
+    
     // AES加密密钥（16字节），用于解密数据库中的加密密钥（向后兼容）
     private static final String AES_KEY = "TravelPlatform16"; // 16字节密钥
     
+    /**
+     * 共享的OSS客户端（按配置复用）
+     */
+    private volatile SharedClient sharedClient;
+    
+    /**
+     * 共享客户端及其使用计数：配置变化后旧客户端标记为停用，正在进行的调用全部结束后才关闭
+     */
+    private static class SharedClient {
+        final String key;
+        final OSS client;
+        final AtomicInteger inUse = new AtomicInteger();
+        final AtomicBoolean closed = new AtomicBoolean();
+        volatile boolean retired;
+        
+        SharedClient(String key, OSS client) {
+            this.key = key;
+            this.client = client;
+        }
+        
+        /**
+         * 结束一次使用，已停用且没有其他使用时关闭
+         */
+        void release() {
+            if (inUse.decrementAndGet() == 0 && retired) {
+                close();
+            }
+        }
+        
+        /**
+         * 停用（不再分配给新的调用），没有正在进行的使用时立即关闭
+         */
+        void retire() {
+            retired = true;
+            if (inUse.get() == 0) {
+                close();
+            }
+        }
+        
+        void close() {
+            if (closed.compareAndSet(false, true)) {
+                client.shutdown();
+            }
+        }
+    }
+    
     /**
      * OSS配置信息（内部类）
      */
@@ -115,19 +211,63 @@ public class OssServiceImpl implements OssService {
     }
     
     /**
-     * 创建OSS客户端
+     * 获取OSS客户端（使用完后需调用 {@link SharedClient#release()}）
+     * 客户端线程安全，按配置（Endpoint、AccessKey）复用同一个实例及其连接池，不再每次调用都创建和关闭；
+     * 配置变化时创建新客户端，旧客户端在正在进行的调用（如分片上传、批量删除）全部结束后关闭
      */
-    private OSS createOssClient() {
-        OssConfigInfo config = getOssConfigInfo();
+    private SharedClient acquireOssClient(OssConfigInfo config) {
+        while (true) {
+            SharedClient current = getSharedClient(config);
+            current.inUse.incrementAndGet();
+            if (!current.retired) {
+                return current;
+            }
+            // 计数前刚好被停用，换用新客户端
+            current.release();
+        }
+    }
+    
+    private SharedClient getSharedClient(OssConfigInfo config) {
         if (config == null || !config.enabled) {
             throw new RuntimeException("OSS未配置或未启用");
         }
         
-        return new OSSClientBuilder().build(
-            "https://" + config.endpoint,
-            config.accessKeyId,
-            config.accessKeySecret
-        );
+        String clientKey = config.endpoint + "|" + config.accessKeyId + "|" + config.accessKeySecret;
+        SharedClient current = sharedClient;
+        if (current != null && current.key.equals(clientKey)) {
+            return current;
+        }
+        
+        synchronized (this) {
+            current = sharedClient;
+            if (current != null && current.key.equals(clientKey)) {
+                return current;
+            }
+            OSS client = new OSSClientBuilder().build(
+                "https://" + config.endpoint,
+                config.accessKeyId,
+                config.accessKeySecret
+            );
+            SharedClient created = new SharedClient(clientKey, client);
+            sharedClient = created;
+            if (current != null) {
+                log.info("OSS配置已变化，旧的OSS客户端在进行中的调用结束后关闭");
+                current.retire();
+            }
+            return created;
+        }
+    }
+    
+    /**
+     * 应用关闭时释放OSS客户端连接
+     */
+    @PreDestroy
+    public void shutdownOssClient() {
+        SharedClient current = sharedClient;
+        if (current != null) {
+            current.close();
+            sharedClient = null;
+        }
     }
     
     @Override
@@ -147,12 +287,27 @@ public class OssServiceImpl implements OssService {
             throw new IllegalArgumentException("文件名不能为空");
         }
         
+        // 大文件落盘后分片上传，避免整个文件经过堆内存
+        if (file.getSize() > getMultipartThreshold()) {
+            Path tempFile = Files.createTempFile("oss-upload-", ".tmp");
+            try {
+                // 对于已落盘的上传请求，transferTo(File) 通常只是重命名临时文件，不产生额外拷贝
+                file.transferTo(tempFile.toFile());
+                return uploadLargeFile(tempFile, originalFilename, module);
+            } finally {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (Exception e) {
+                    log.warn("删除上传临时文件失败：{}", tempFile, e);
+                }
+            }
+        }
+        
         return uploadFile(file.getInputStream(), originalFilename, module);
     }
     
     @Override
     public String uploadFile(InputStream inputStream, String fileName, String module) throws Exception {
-        OSS ossClient = null;
         int retryCount = 0;
         int maxRetries = 3;
         Exception lastException = null;
@@ -164,14 +319,8 @@ public class OssServiceImpl implements OssService {
                     throw new RuntimeException("OSS未配置或未启用");
                 }
                 
-                ossClient = createOssClient();
-                
                 // 生成文件路径：{module}/{type}/{date}/{uuid}.{extension}
-                String fileExtension = getFileExtension(fileName);
-                String fileType = getFileType(fileExtension);
-                String dateStr = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-                String uuid = UUID.randomUUID().toString().replace("-", "");
-                String filePath = String.format("%s/%s/%s/%s.%s", module, fileType, dateStr, uuid, fileExtension);
+                String filePath = buildObjectKey(fileName, module);
                 
                 // 上传文件到OSS
                 PutObjectRequest putObjectRequest = new PutObjectRequest(
@@ -179,14 +328,15 @@ public class OssServiceImpl implements OssService {
                     filePath,
                     inputStream
                 );
-                ossClient.putObject(putObjectRequest);
+                SharedClient ossClient = acquireOssClient(config);
+                try {
+                    ossClient.client.putObject(putObjectRequest);
+                } finally {
+                    ossClient.release();
+                }
                 
                 // 生成文件访问URL
-                String fileUrl = String.format("https://%s.%s/%s",
-                    config.bucketName,
-                    config.endpoint,
-                    filePath
-                );
+                String fileUrl = buildFileUrl(config, filePath);
                 
                 log.info("文件上传成功：{}", fileUrl);
                 return fileUrl;
@@ -202,20 +352,210 @@ public class OssServiceImpl implements OssService {
                 
                 // 等待一段时间后重试
                 Thread.sleep(1000 * retryCount);
-                
-            } finally {
-                if (ossClient != null) {
-                    ossClient.shutdown();
-                }
             }
         }
         
         throw new RuntimeException("文件上传失败", lastException);
     }
     
+    @Override
+    public String uploadObject(String objectKey, InputStream inputStream) throws Exception {
+        OssConfigInfo config = getOssConfigInfo();
+        if (config == null || !config.enabled) {
+            throw new RuntimeException("OSS未配置或未启用");
+        }
+        
+        SharedClient ossClient = acquireOssClient(config);
+        try {
+            ossClient.client.putObject(new PutObjectRequest(config.bucketName, objectKey, inputStream));
+        } finally {
+            ossClient.release();
+        }
+        String fileUrl = buildFileUrl(config, objectKey);
+        log.info("文件上传成功：{}", fileUrl);
+        return fileUrl;
+    }
+    
+    @Override
+    public String generateObjectKey(String fileName, String module) {
+        return buildObjectKey(fileName, module);
+    }
+    
+    @Override
+    public String uploadLargeFile(Path localFile, String fileName, String module) throws Exception {
+        long fileLength = Files.size(localFile);
+        if (fileLength <= getMultipartThreshold()) {
+            try (InputStream inputStream = Files.newInputStream(localFile)) {
+                return uploadFile(inputStream, fileName, module);
+            }
+        }
+        
+        OssConfigInfo config = getOssConfigInfo();
+        if (config == null || !config.enabled) {
+            throw new RuntimeException("OSS未配置或未启用");
+        }
+        
+        // 计算分片大小：不小于OSS最小分片，且分片数不超过OSS上限
+        long partSize = Math.max(MIN_PART_SIZE, ossProperties.getPartSize() != null ? ossProperties.getPartSize() : MIN_PART_SIZE);
+        if ((fileLength + partSize - 1) / partSize > MAX_PART_COUNT) {
+            partSize = (fileLength + MAX_PART_COUNT - 1) / MAX_PART_COUNT;
+        }
+        int partCount = (int) ((fileLength + partSize - 1) / partSize);
+        
+        String filePath = buildObjectKey(fileName, module);
+        SharedClient lease = acquireOssClient(config);
+        OSS ossClient = lease.client;
+        String uploadId = null;
+        
+        try {
+            uploadId = ossClient.initiateMultipartUpload(
+                new InitiateMultipartUploadRequest(config.bucketName, filePath)).getUploadId();
+            log.info("开始分片上传：{}，大小：{} bytes，分片数：{}，分片大小：{} bytes", 
+                filePath, fileLength, partCount, partSize);
+            
+            // 并行上传各分片（OSS客户端线程安全，所有分片共用一个客户端）
+            AtomicLong uploadedBytes = new AtomicLong();
+            AtomicBoolean cancelled = new AtomicBoolean();
+            AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+            List<CompletableFuture<PartETag>> futures = new ArrayList<>(partCount);
+            for (int i = 0; i < partCount; i++) {
+                final int partNumber = i + 1;
+                final long offset = i * partSize;
+                final long size = Math.min(partSize, fileLength - offset);
+                final OSS client = ossClient;
+                final String currentUploadId = uploadId;
+                CompletableFuture<PartETag> future = CompletableFuture.supplyAsync(() -> uploadPart(client,
+                    config.bucketName, filePath, currentUploadId, localFile, partNumber, offset, size,
+                    uploadedBytes, fileLength, cancelled), ossUploadExecutor);
+                // 任一分片失败时通知其他分片停止：未开始的分片不再上传，正在上传的分片不再重试
+                future.whenComplete((partETag, failure) -> {
+                    if (failure != null && !cancelled.getAndSet(true)) {
+                        firstFailure.set(failure);
+                    }
+                });
+                futures.add(future);
+            }
+            
+            // 等待所有分片结束（包括失败后被取消的分片），之后才能取消上传、删除临时文件
+            try {
+                CompletableFuture.allOf(futures.toArray(CompletableFuture<?>[]::new)).join();
+            } catch (CompletionException e) {
+                Throwable failure = firstFailure.get();
+                throw failure instanceof CompletionException ? (CompletionException) failure
+                    : new CompletionException(failure != null ? failure : e);
+            }
+            
+            List<PartETag> partETags = new ArrayList<>(partCount);
+            for (CompletableFuture<PartETag> future : futures) {
+                partETags.add(future.join());
+            }
+            partETags.sort(Comparator.comparingInt(PartETag::getPartNumber));
+            
+            ossClient.completeMultipartUpload(
+                new CompleteMultipartUploadRequest(config.bucketName, filePath, uploadId, partETags));
+            
+            String fileUrl = buildFileUrl(config, filePath);
+            log.info("分片上传成功：{}", fileUrl);
+            return fileUrl;
+            
+        } catch (Exception e) {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            log.error("分片上传失败：{}", filePath, cause);
+            if (uploadId != null) {
+                try {
+                    ossClient.abortMultipartUpload(
+                        new AbortMultipartUploadRequest(config.bucketName, filePath, uploadId));
+                } catch (Exception abortException) {
+                    log.warn("取消分片上传失败：{}，uploadId：{}", filePath, uploadId, abortException);
+                }
+            }
+            throw new RuntimeException("文件分片上传失败：" + cause.getMessage(), cause);
+        } finally {
+            lease.release();
+        }
+    }
+    
+    /**
+     * 上传单个分片（失败时仅重试当前分片）
+     * 分片内容通过FileChannel从指定偏移量流式读取；其他分片已失败（cancelled）时不再上传或重试
+     */
+    private PartETag uploadPart(OSS ossClient, String bucketName, String filePath, String uploadId,
+                                Path localFile, int partNumber, long offset, long size,
+                                AtomicLong uploadedBytes, long totalBytes, AtomicBoolean cancelled) {
+        int maxRetries = ossProperties.getPartMaxRetries() != null ? ossProperties.getPartMaxRetries() : 3;
+        int retryCount = 0;
+        
+        while (true) {
+            if (cancelled.get()) {
+                throw new CancellationException("分片 " + partNumber + " 已取消");
+            }
+            try (FileChannel channel = FileChannel.open(localFile, StandardOpenOption.READ)) {
+                channel.position(offset);
+                
+                UploadPartRequest uploadPartRequest = new UploadPartRequest();
+                uploadPartRequest.setBucketName(bucketName);
+                uploadPartRequest.setKey(filePath);
+                uploadPartRequest.setUploadId(uploadId);
+                uploadPartRequest.setInputStream(Channels.newInputStream(channel));
+                uploadPartRequest.setPartSize(size);
+                uploadPartRequest.setPartNumber(partNumber);
+                
+                PartETag partETag = ossClient.uploadPart(uploadPartRequest).getPartETag();
+                
+                long uploaded = uploadedBytes.addAndGet(size);
+                log.debug("分片上传完成：{} 分片 {}，进度 {}/{} bytes ({}%)", 
+                    filePath, partNumber, uploaded, totalBytes, uploaded * 100 / totalBytes);
+                return partETag;
+                
+            } catch (Exception e) {
+                retryCount++;
+                log.warn("分片上传失败：{} 分片 {}，重试次数：{}/{}", filePath, partNumber, retryCount, maxRetries, e);
+                if (retryCount >= maxRetries) {
+                    throw new CompletionException(
+                        new RuntimeException("分片 " + partNumber + " 上传失败，已重试" + maxRetries + "次", e));
+                }
+                try {
+                    Thread.sleep(1000L * retryCount);
+                } catch (InterruptedException interruptedException) {
+                    Thread.currentThread().interrupt();
+                    throw new CompletionException(interruptedException);
+                }
+            }
+        }
+    }
+    
+    /**
+     * 获取分片上传阈值
+     */
+    private long getMultipartThreshold() {
+        return ossProperties.getMultipartThreshold() != null 
+            ? ossProperties.getMultipartThreshold() : 10L * 1024 * 1024;
+    }
+    
+    /**
+     * 生成对象存储路径：{module}/{type}/{date}/{uuid}.{extension}
+     */
+    private String buildObjectKey(String fileName, String module) {
+        String fileExtension = getFileExtension(fileName);
+        String fileType = getFileType(fileExtension);
+        String dateStr = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
+        String uuid = UUID.randomUUID().toString().replace("-", "");
+        return String.format("%s/%s/%s/%s.%s", module, fileType, dateStr, uuid, fileExtension);
+    }
+    
+    /**
+     * 生成文件访问URL：https://{bucket}.{endpoint}/{path}
+     */
+    private String buildFileUrl(OssConfigInfo config, String filePath) {
+        return String.format("https://%s.%s/%s",
+            config.bucketName,
+            config.endpoint,
+            filePath
+        );
+    }
+    
     @Override
     public boolean deleteFile(String filePath) throws Exception {
-        OSS ossClient = null;
         int retryCount = 0;
         int maxRetries = 3;
         Exception lastException = null;
@@ -227,10 +567,13 @@ public class OssServiceImpl implements OssService {
                     throw new RuntimeException("OSS未配置或未启用");
                 }
                 
-                ossClient = createOssClient();
-                
                 // 删除文件
-                ossClient.deleteObject(config.bucketName, filePath);
+                SharedClient ossClient = acquireOssClient(config);
+                try {
+                    ossClient.client.deleteObject(config.bucketName, filePath);
+                } finally {
+                    ossClient.release();
+                }
                 
                 log.info("文件删除成功：{}", filePath);
                 return true;
@@ -246,36 +589,110 @@ public class OssServiceImpl implements OssService {
                 
                 // 等待一段时间后重试
                 Thread.sleep(1000 * retryCount);
-                
-            } finally {
-                if (ossClient != null) {
-                    ossClient.shutdown();
-                }
             }
         }
         
         throw new RuntimeException("文件删除失败", lastException);
     }
     
+    @Override
+    public Map<String, String> deleteFiles(Collection<String> filePaths) {
+        Map<String, String> failures = new ConcurrentHashMap<>();
+        if (filePaths == null || filePaths.isEmpty()) {
+            return failures;
+        }
+        List<String> keys = filePaths.stream()
+            .filter(key -> key != null && !key.isEmpty())
+            .distinct()
+            .collect(Collectors.toList());
+        if (keys.isEmpty()) {
+            return failures;
+        }
+        
+        OssConfigInfo config = getOssConfigInfo();
+        SharedClient ossClient = acquireOssClient(config);
+        
+        // 每1000个对象一次 DeleteObjects 请求，多个请求并行执行
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        try {
+            for (int from = 0; from < keys.size(); from += DELETE_BATCH_SIZE) {
+                List<String> chunk = keys.subList(from, Math.min(from + DELETE_BATCH_SIZE, keys.size()));
+                futures.add(CompletableFuture.runAsync(
+                    () -> deleteChunk(ossClient.client, config.bucketName, chunk, failures), ossUploadExecutor));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture<?>[]::new)).join();
+        } finally {
+            ossClient.release();
+        }
+        
+        log.info("批量删除OSS文件完成：共 {} 个，请求 {} 次，失败 {} 个", keys.size(), futures.size(), failures.size());
+        return failures;
+    }
+    
+    /**
+     * 删除一批对象（不超过1000个，请求失败时整批重试）
+     * 返回结果中没有列出的对象视为删除失败；对象不存在时OSS同样返回删除成功
+     */
+    private void deleteChunk(OSS ossClient, String bucketName, List<String> keys, Map<String, String> failures) {
+        int maxRetries = 3;
+        int retryCount = 0;
+        
+        while (true) {
+            try {
+                DeleteObjectsRequest request = new DeleteObjectsRequest(bucketName);
+                request.setKeys(new ArrayList<>(keys));
+                request.setQuiet(false);
+                DeleteObjectsResult result = ossClient.deleteObjects(request);
+                
+                Set<String> deleted = new HashSet<>(result.getDeletedObjects());
+                for (String key : keys) {
+                    if (!deleted.contains(key)) {
+                        failures.put(key, "OSS未返回删除结果");
+                    }
+                }
+                return;
+                
+            } catch (Exception e) {
+                retryCount++;
+                log.warn("批量删除OSS文件失败，数量：{}，重试次数：{}/{}", keys.size(), retryCount, maxRetries, e);
+                if (retryCount >= maxRetries) {
+                    String reason = "删除OSS文件失败：" + e.getMessage();
+                    for (String key : keys) {
+                        failures.put(key, reason);
+                    }
+                    return;
+                }
+                try {
+                    Thread.sleep(1000L * retryCount);
+                } catch (InterruptedException interruptedException) {
+                    Thread.currentThread().interrupt();
+                    for (String key : keys) {
+                        failures.put(key, "删除被中断");
+                    }
+                    return;
+                }
+            }
+        }
+    }
+    
     @Override
     public boolean fileExists(String filePath) {
-        OSS ossClient = null;
         try {
             OssConfigInfo config = getOssConfigInfo();
             if (config == null || !config.enabled) {
                 return false;
             }
             
-            ossClient = createOssClient();
-            return ossClient.doesObjectExist(config.bucketName, filePath);
+            SharedClient ossClient = acquireOssClient(config);
+            try {
+                return ossClient.client.doesObjectExist(config.bucketName, filePath);
+            } finally {
+                ossClient.release();
+            }
             
         } catch (Exception e) {
             log.error("检查文件是否存在失败：{}", filePath, e);
             return false;
-        } finally {
-            if (ossClient != null) {
-                ossClient.shutdown();
-            }
         }
     }
     
@@ -295,20 +712,23 @@ public class OssServiceImpl implements OssService {
     
     @Override
     public String generateSignedUrl(String filePath, int expireSeconds) {
-        OSS ossClient = null;
         try {
             OssConfigInfo config = getOssConfigInfo();
             if (config == null || !config.enabled) {
                 throw new RuntimeException("OSS未配置或未启用");
             }
             
-            ossClient = createOssClient();
-            
             // 设置URL过期时间
             java.util.Date expiration = new java.util.Date(System.currentTimeMillis() + expireSeconds * 1000L);
             
             // 生成签名URL
-            java.net.URL url = ossClient.generatePresignedUrl(config.bucketName, filePath, expiration);
+            java.net.URL url;
+            SharedClient ossClient = acquireOssClient(config);
+            try {
+                url = ossClient.client.generatePresignedUrl(config.bucketName, filePath, expiration);
+            } finally {
+                ossClient.release();
+            }
             
             String signedUrl = url.toString();
             log.debug("生成签名URL成功：{}", signedUrl);
@@ -318,10 +738,6 @@ public class OssServiceImpl implements OssService {
         } catch (Exception e) {
             log.error("生成签名URL失败：{}", filePath, e);
             throw new RuntimeException("生成签名URL失败", e);
-        } finally {
-            if (ossClient != null) {
-                ossClient.shutdown();
-            }
         }
     }
     
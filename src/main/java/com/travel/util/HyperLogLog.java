@@ -0,0 +1,128 @@
+package com.travel.util;
+
+import java.util.Arrays;
+
+/**
+ * HyperLogLog 基数估算（用于UV统计）
+ *
+ * 用固定大小的寄存器数组估算不重复元素个数，精度为 precision 时占用 2^precision 字节，
+ * 标准误差约为 1.04 / sqrt(2^precision)（precision=12 时约 1.6%）。
+ * 多个估算器可以合并（合并结果等同于对所有元素一起估算），因此按天保存的估算器可以合并出任意日期范围的UV。
+ *
+ * 非线程安全，调用方负责同步。
+ *
+ * @author travel-platform
+ */
+public class HyperLogLog {
+
+    private static final int MIN_PRECISION = 4;
+    private static final int MAX_PRECISION = 16;
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("HyperLogLog精度应在" + MIN_PRECISION + "~" + MAX_PRECISION + "之间: " + precision);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    private HyperLogLog(int precision, byte[] registers) {
+        this.precision = precision;
+        this.registers = registers;
+    }
+
+    /**
+     * 从 {@link #toBytes()} 的结果恢复估算器
+     *
+     * @param bytes 寄存器数据（长度必须是2的幂）
+     * @return 估算器，数据无效时返回null
+     */
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length == 0 || Integer.bitCount(bytes.length) != 1) {
+            return null;
+        }
+        int precision = Integer.numberOfTrailingZeros(bytes.length);
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            return null;
+        }
+        return new HyperLogLog(precision, Arrays.copyOf(bytes, bytes.length));
+    }
+
+    /**
+     * 计算字符串的64位哈希（FNV-1a + MurmurHash3 finalizer，保证各比特分布均匀）
+     */
+    public static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * 添加元素
+     *
+     * @param hash 元素的64位哈希（见 {@link #hash(String)}）
+     */
+    public void add(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        // 剩余比特中第一个1的位置，末尾补1避免全0时越界
+        long rest = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(rest) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    /**
+     * 合并另一个估算器（精度不同的估算器无法合并，直接忽略）
+     */
+    public void merge(HyperLogLog other) {
+        if (other == null || other.precision != precision) {
+            return;
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    /**
+     * 估算不重复元素个数
+     */
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double alpha = m >= 128 ? 0.7213 / (1 + 1.079 / m) : (m == 64 ? 0.709 : (m == 32 ? 0.697 : 0.673));
+        double estimate = alpha * m * m / sum;
+        // 小基数时使用线性计数修正
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * 导出寄存器数据（用于持久化）
+     */
+    public byte[] toBytes() {
+        return Arrays.copyOf(registers, registers.length);
+    }
+}
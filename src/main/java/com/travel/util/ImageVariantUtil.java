@@ -0,0 +1,146 @@
+package com.travel.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 图片多宽度副本命名工具类
+ * 
+ * 带副本的主图对象名中记录可用宽度，副本与主图存放在同一目录：
+ * - 主图：{module}/image/{date}/{uuid}_r240-480.webp
+ * - 副本：{module}/image/{date}/{uuid}_r240-480_w240.webp
+ * 
+ * 这样只根据URL即可选出合适的副本，无需查询数据库；没有副本标记的历史图片原样返回。
+ * 
+ * @author travel-platform
+ */
+public class ImageVariantUtil {
+
+    /**
+     * 列表缩略图宽度（图标、小缩略图）
+     */
+    public static final int THUMBNAIL_WIDTH = 240;
+
+    /**
+     * 列表卡片图宽度（首页推荐、分类列表）
+     */
+    public static final int CARD_WIDTH = 480;
+
+    /**
+     * 主图副本标记：_r{宽度-宽度...}.webp（可带查询参数）
+     */
+    private static final Pattern VARIANT_MARKER = Pattern.compile("_r(\\d+(?:-\\d+)*)\\.webp(\\?.*)?$");
+
+    private ImageVariantUtil() {
+    }
+
+    /**
+     * 生成带副本标记的主图对象名
+     * 
+     * @param objectKey 原对象名（如 common/image/20260101/abc.webp）
+     * @param widths 副本宽度（升序）
+     * @return 主图对象名（如 common/image/20260101/abc_r240-480.webp）
+     */
+    public static String buildMainKey(String objectKey, Collection<Integer> widths) {
+        if (widths == null || widths.isEmpty()) {
+            return objectKey;
+        }
+        StringBuilder marker = new StringBuilder("_r");
+        for (Integer width : widths) {
+            if (marker.length() > 2) {
+                marker.append('-');
+            }
+            marker.append(width);
+        }
+        return stripExtension(objectKey) + marker + ".webp";
+    }
+
+    /**
+     * 生成副本对象名（或URL）
+     * 
+     * @param mainKey 主图对象名或URL
+     * @param width 副本宽度
+     * @return 副本对象名（或URL）
+     */
+    public static String buildVariantKey(String mainKey, int width) {
+        return stripExtension(mainKey) + "_w" + width + ".webp";
+    }
+
+    /**
+     * 解析主图URL中记录的副本宽度
+     * 
+     * @param url 主图URL
+     * @return 副本宽度列表（无副本时为空列表）
+     */
+    public static List<Integer> parseWidths(String url) {
+        List<Integer> widths = new ArrayList<>();
+        if (url == null || url.isEmpty()) {
+            return widths;
+        }
+        Matcher matcher = VARIANT_MARKER.matcher(url);
+        if (matcher.find()) {
+            for (String width : matcher.group(1).split("-")) {
+                widths.add(Integer.parseInt(width));
+            }
+        }
+        return widths;
+    }
+
+    /**
+     * 解析文件记录中保存的副本宽度（variant_widths 列，逗号分隔，如 240,480）
+     *
+     * @param widthList 逗号分隔的宽度列表
+     * @return 副本宽度列表（无副本时为空列表）
+     */
+    public static List<Integer> parseWidthList(String widthList) {
+        List<Integer> widths = new ArrayList<>();
+        if (widthList == null || widthList.isBlank()) {
+            return widths;
+        }
+        for (String width : widthList.split(",")) {
+            String trimmed = width.trim();
+            if (!trimmed.isEmpty()) {
+                widths.add(Integer.parseInt(trimmed));
+            }
+        }
+        return widths;
+    }
+
+    /**
+     * 根据目标显示宽度选择副本URL
+     * 选择不小于目标宽度的最小副本；没有足够大的副本或不是带副本的主图时返回原URL
+     * 
+     * @param url 主图URL
+     * @param targetWidth 目标显示宽度（像素）
+     * @return 副本URL或原URL
+     */
+    public static String selectVariant(String url, int targetWidth) {
+        List<Integer> widths = parseWidths(url);
+        if (widths.isEmpty()) {
+            return url;
+        }
+        for (Integer width : widths) {
+            if (width >= targetWidth) {
+                int queryIndex = url.indexOf('?');
+                String base = queryIndex > 0 ? url.substring(0, queryIndex) : url;
+                return buildVariantKey(base, width);
+            }
+        }
+        return url;
+    }
+
+    /**
+     * 去掉文件扩展名
+     */
+    private static String stripExtension(String key) {
+        int lastSlashIndex = key.lastIndexOf('/');
+        int lastDotIndex = key.lastIndexOf('.');
+        if (lastDotIndex > lastSlashIndex) {
+            return key.substring(0, lastDotIndex);
+        }
+        return key;
+    }
+}
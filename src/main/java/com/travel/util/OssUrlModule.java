@@ -0,0 +1,142 @@
+package com.travel.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.travel.annotation.OssUrl;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * OSS URL序列化模块
+ * 
+ * 为标注了 {@link OssUrl} 的 String / List&lt;String&gt; 属性分配序列化器，在写出JSON时改写URL
+ * （签名URL转公开URL，并按 {@link OssUrl#width()} 选择多宽度副本）。
+ * 序列化前不需要遍历和修改对象，缓存中的对象可以直接交给序列化器输出。
+ * 
+ * @author travel-platform
+ */
+public class OssUrlModule extends SimpleModule {
+    
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * 序列化上下文属性：本次序列化中OSS是否启用（每次响应只检查一次）
+     */
+    private static final String OSS_ENABLED_ATTRIBUTE = OssUrlModule.class.getName() + ".ossEnabled";
+    
+    /**
+     * @param ossUrlUtilProvider OssUrlUtil延迟获取（ObjectMapper创建早于OSS相关Bean）
+     */
+    public OssUrlModule(ObjectProvider<OssUrlUtil> ossUrlUtilProvider) {
+        super("OssUrlModule");
+        setSerializerModifier(new BeanSerializerModifier() {
+            @Override
+            public List<BeanPropertyWriter> changeProperties(SerializationConfig config, BeanDescription beanDesc,
+                                                             List<BeanPropertyWriter> beanProperties) {
+                for (BeanPropertyWriter writer : beanProperties) {
+                    OssUrl annotation = writer.getAnnotation(OssUrl.class);
+                    if (annotation == null) {
+                        continue;
+                    }
+                    JavaType type = writer.getType();
+                    if (type.hasRawClass(String.class)) {
+                        writer.assignSerializer(asObjectSerializer(new OssUrlSerializer(ossUrlUtilProvider, annotation.width())));
+                    } else if (type.isCollectionLikeType() && type.getContentType().hasRawClass(String.class)) {
+                        writer.assignSerializer(asObjectSerializer(new OssUrlCollectionSerializer(ossUrlUtilProvider, annotation.width())));
+                    }
+                }
+                return beanProperties;
+            }
+        });
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static JsonSerializer<Object> asObjectSerializer(JsonSerializer<?> serializer) {
+        return (JsonSerializer<Object>) serializer;
+    }
+    
+    /**
+     * 改写单个URL
+     */
+    private static String rewrite(String url, int width, ObjectProvider<OssUrlUtil> ossUrlUtilProvider,
+                                  SerializerProvider provider) {
+        if (url == null || url.isEmpty()) {
+            return url;
+        }
+        OssUrlUtil ossUrlUtil = ossUrlUtilProvider.getIfAvailable();
+        if (ossUrlUtil == null) {
+            return url;
+        }
+        Boolean ossEnabled = (Boolean) provider.getAttribute(OSS_ENABLED_ATTRIBUTE);
+        if (ossEnabled == null) {
+            ossEnabled = ossUrlUtil.isOssEnabled();
+            provider.setAttribute(OSS_ENABLED_ATTRIBUTE, ossEnabled);
+        }
+        String publicUrl = ossEnabled ? ossUrlUtil.toPublicUrl(url) : url;
+        return width > 0 ? ImageVariantUtil.selectVariant(publicUrl, width) : publicUrl;
+    }
+    
+    /**
+     * String 类型URL字段序列化器
+     */
+    private static class OssUrlSerializer extends StdSerializer<String> {
+        
+        private static final long serialVersionUID = 1L;
+        
+        private final transient ObjectProvider<OssUrlUtil> ossUrlUtilProvider;
+        private final int width;
+        
+        OssUrlSerializer(ObjectProvider<OssUrlUtil> ossUrlUtilProvider, int width) {
+            super(String.class);
+            this.ossUrlUtilProvider = ossUrlUtilProvider;
+            this.width = width;
+        }
+        
+        @Override
+        public void serialize(String value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeString(rewrite(value, width, ossUrlUtilProvider, provider));
+        }
+    }
+    
+    /**
+     * List&lt;String&gt; 类型URL字段序列化器
+     */
+    @SuppressWarnings("rawtypes")
+    private static class OssUrlCollectionSerializer extends StdSerializer<Collection> {
+        
+        private static final long serialVersionUID = 1L;
+        
+        private final transient ObjectProvider<OssUrlUtil> ossUrlUtilProvider;
+        private final int width;
+        
+        OssUrlCollectionSerializer(ObjectProvider<OssUrlUtil> ossUrlUtilProvider, int width) {
+            super(Collection.class);
+            this.ossUrlUtilProvider = ossUrlUtilProvider;
+            this.width = width;
+        }
+        
+        @Override
+        public void serialize(Collection value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartArray(value, value.size());
+            for (Object item : value) {
+                if (item == null) {
+                    gen.writeNull();
+                } else {
+                    gen.writeString(rewrite(item.toString(), width, ossUrlUtilProvider, provider));
+                }
+            }
+            gen.writeEndArray();
+        }
+    }
+}
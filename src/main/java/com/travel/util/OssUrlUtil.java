@@ -5,8 +5,13 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 /**
@@ -36,18 +41,35 @@ public class OssUrlUtil {
     private static final int DEFAULT_EXPIRE_SECONDS = 3600;
     
     /**
-     * OSS URL识别正则表达式模式
+     * OSS主机名识别正则表达式（合并为单个模式，只匹配URL中的主机名部分）
+     * - 阿里云OSS：oss-xxx.aliyuncs.com 或 bucket.oss-region.aliyuncs.com
+     * - 腾讯云COS：xxx.qcloud.com、bucket.cos.region.myqcloud.com
+     * - AWS S3：xxx.amazonaws.com
      */
-    private static final Pattern[] OSS_URL_PATTERNS = {
-        // 阿里云OSS：oss-xxx.aliyuncs.com 或 bucket.oss-region.aliyuncs.com
-        Pattern.compile("oss-.*\\.aliyuncs\\.com", Pattern.CASE_INSENSITIVE),
-        Pattern.compile("\\.oss-[^.]+\\.aliyuncs\\.com", Pattern.CASE_INSENSITIVE), // bucket.oss-cn-beijing.aliyuncs.com
-        Pattern.compile("\\.oss\\.", Pattern.CASE_INSENSITIVE),
-        // 腾讯云COS
-        Pattern.compile("\\.qcloud\\.com", Pattern.CASE_INSENSITIVE),
-        Pattern.compile("\\.cos\\.", Pattern.CASE_INSENSITIVE),
-        // AWS S3
-        Pattern.compile("\\.amazonaws\\.com", Pattern.CASE_INSENSITIVE)
+    private static final Pattern OSS_HOST_PATTERN = Pattern.compile(
+        "oss-.*\\.aliyuncs\\.com|\\.oss\\.|\\.qcloud\\.com|\\.cos\\.|\\.amazonaws\\.com",
+        Pattern.CASE_INSENSITIVE);
+    
+    private static final String HTTPS_PREFIX = "https://";
+    
+    /**
+     * 每个类的URL字段访问器缓存（字段名 -> 访问器），首次访问时编译getter/setter方法句柄
+     */
+    private static final ClassValue<Map<String, UrlFieldAccessor>> URL_FIELD_ACCESSORS = new ClassValue<>() {
+        @Override
+        protected Map<String, UrlFieldAccessor> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+    
+    /**
+     * 是否为本项目的类（需要递归处理其URL字段）
+     */
+    private static final ClassValue<Boolean> TRAVEL_TYPES = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return type.getPackage() != null && type.getPackage().getName().startsWith("com.travel");
+        }
     };
     
     /**
@@ -84,6 +106,23 @@ public class OssUrlUtil {
             return url;
         }
         
+        return toPublicUrl(url);
+    }
+    
+    /**
+     * OSS是否启用
+     */
+    public boolean isOssEnabled() {
+        return ossService.isOssEnabled();
+    }
+    
+    /**
+     * 将OSS签名URL转换为公开URL（调用方已确认OSS启用，用于批量处理时只检查一次）
+     * 
+     * @param url 原始URL（非空）
+     * @return 公开URL，如果不是OSS URL则返回原URL
+     */
+    public String toPublicUrl(String url) {
         // 判断是否为OSS URL
         if (!isOssUrl(url)) {
             log.debug("不是OSS URL，返回原URL: {}", url.length() > 50 ? url.substring(0, 50) + "..." : url);
@@ -111,6 +150,22 @@ public class OssUrlUtil {
         return url;
     }
     
+    /**
+     * 处理单个图片URL，并按目标显示宽度选择多宽度副本
+     * 只有上传时生成了副本的图片才会被替换（见 {@link ImageVariantUtil}），其他URL等同于 {@link #processUrl(String)}
+     * 
+     * @param url 原始图片URL
+     * @param targetWidth 目标显示宽度（像素），如 {@link ImageVariantUtil#CARD_WIDTH}
+     * @return 公开URL（可能是副本URL）
+     */
+    public String processImageUrl(String url, int targetWidth) {
+        String publicUrl = processUrl(url);
+        if (publicUrl == null || publicUrl.isEmpty()) {
+            return publicUrl;
+        }
+        return ImageVariantUtil.selectVariant(publicUrl, targetWidth);
+    }
+    
     /**
      * 处理对象中的URL字段（使用默认有效期参数，已废弃但保留用于向后兼容）
      * 
@@ -144,56 +199,55 @@ public class OssUrlUtil {
             return obj;
         }
         
-        try {
-            Class<?> clazz = obj.getClass();
-            
-            // 处理每个URL字段
-            for (String fieldName : urlFields) {
-                try {
-                    // 尝试通过getter方法获取字段值
-                    String getterName = "get" + capitalize(fieldName);
-                    Method getter = clazz.getMethod(getterName);
-                    Object fieldValue = getter.invoke(obj);
-                    
-                    if (fieldValue == null) {
-                        continue;
-                    }
-                    
-                    // 如果是字符串，直接处理
-                    if (fieldValue instanceof String) {
-                        String url = (String) fieldValue;
-                        if (!url.isEmpty()) {
-                            String publicUrl = processUrl(url, expireSeconds);
-                            if (!publicUrl.equals(url)) {
-                                // 通过setter方法设置公开URL（从签名URL转换而来）
-                                String setterName = "set" + capitalize(fieldName);
-                                Method setter = clazz.getMethod(setterName, String.class);
-                                setter.invoke(obj, publicUrl);
-                            }
+        processObjectFields(obj, urlFields);
+        return obj;
+    }
+    
+    /**
+     * 处理对象中的URL字段（调用方已确认OSS启用）
+     * 字段访问器按类缓存，处理过程中不再反射查找getter/setter
+     */
+    private void processObjectFields(Object obj, String[] urlFields) {
+        Map<String, UrlFieldAccessor> accessors = URL_FIELD_ACCESSORS.get(obj.getClass());
+        for (String fieldName : urlFields) {
+            UrlFieldAccessor accessor = accessors.computeIfAbsent(fieldName,
+                name -> UrlFieldAccessor.compile(obj.getClass(), name));
+            if (accessor.getter == null) {
+                continue;
+            }
+            try {
+                Object fieldValue = (Object) accessor.getter.invokeExact(obj);
+                if (fieldValue == null) {
+                    continue;
+                }
+                
+                // 如果是字符串，直接处理
+                if (fieldValue instanceof String) {
+                    String url = (String) fieldValue;
+                    if (!url.isEmpty() && accessor.setter != null) {
+                        String publicUrl = toPublicUrl(url);
+                        if (!publicUrl.equals(url)) {
+                            // 设置公开URL（从签名URL转换而来）
+                            accessor.setter.invokeExact(obj, publicUrl);
                         }
                     }
-                    // 如果是列表，递归处理
-                    else if (fieldValue instanceof List) {
-                        @SuppressWarnings("unchecked")
-                        List<Object> list = (List<Object>) fieldValue;
-                        processList(list, urlFields, expireSeconds);
-                    }
-                    // 如果是对象，递归处理
-                    else if (fieldValue.getClass().getPackage() != null && 
-                             fieldValue.getClass().getPackage().getName().startsWith("com.travel")) {
-                        processObject(fieldValue, urlFields, expireSeconds);
+                }
+                // 如果是列表，递归处理
+                else if (fieldValue instanceof List) {
+                    for (Object item : (List<?>) fieldValue) {
+                        if (item != null) {
+                            processObjectFields(item, urlFields);
+                        }
                     }
-                } catch (NoSuchMethodException e) {
-                    log.debug("字段 {} 没有getter/setter方法，跳过处理", fieldName);
-                } catch (Exception e) {
-                    log.warn("处理字段 {} 失败: {}", fieldName, e.getMessage());
                 }
+                // 如果是对象，递归处理
+                else if (TRAVEL_TYPES.get(fieldValue.getClass())) {
+                    processObjectFields(fieldValue, urlFields);
+                }
+            } catch (Throwable e) {
+                log.warn("处理字段 {} 失败: {}", fieldName, e.getMessage());
             }
-        } catch (Exception e) {
-            log.error("处理对象URL失败", e);
         }
-        
-        return obj;
     }
     
     /**
@@ -231,7 +285,9 @@ public class OssUrlUtil {
         
         // 处理列表中的每个元素
         for (T item : list) {
-            processObject(item, urlFields, expireSeconds);
+            if (item != null) {
+                processObjectFields(item, urlFields);
+            }
         }
         
         return list;
@@ -249,32 +305,75 @@ public class OssUrlUtil {
         }
         
         // 必须是HTTPS URL
-        if (!url.startsWith("https://")) {
+        if (!url.startsWith(HTTPS_PREFIX)) {
             return false;
         }
         
-        // 不包含localhost（开发环境）
-        if (url.contains("localhost")) {
-            return false;
+        // 只匹配主机名部分
+        int hostEnd = url.length();
+        for (int i = HTTPS_PREFIX.length(); i < url.length(); i++) {
+            char c = url.charAt(i);
+            if (c == '/' || c == '?' || c == '#') {
+                hostEnd = i;
+                break;
+            }
         }
+        String host = url.substring(HTTPS_PREFIX.length(), hostEnd);
         
-        // 检查是否匹配OSS URL模式
-        for (Pattern pattern : OSS_URL_PATTERNS) {
-            if (pattern.matcher(url).find()) {
-                return true;
-            }
+        // 不包含localhost（开发环境）
+        if (host.contains("localhost")) {
+            return false;
         }
         
-        return false;
+        return OSS_HOST_PATTERN.matcher(host).find();
     }
     
     /**
      * 首字母大写
      */
-    private String capitalize(String str) {
+    private static String capitalize(String str) {
         if (str == null || str.isEmpty()) {
             return str;
         }
         return str.substring(0, 1).toUpperCase() + str.substring(1);
     }
+    
+    /**
+     * URL字段访问器（getter/setter方法句柄，统一为 Object 签名以便 invokeExact 调用）
+     */
+    private static final class UrlFieldAccessor {
+        private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+        private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, String.class);
+        
+        /** getter，字段不存在时为null */
+        final MethodHandle getter;
+        /** setter(String)，不存在时为null（只读字段或非字符串字段） */
+        final MethodHandle setter;
+        
+        private UrlFieldAccessor(MethodHandle getter, MethodHandle setter) {
+            this.getter = getter;
+            this.setter = setter;
+        }
+        
+        static UrlFieldAccessor compile(Class<?> type, String fieldName) {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            String suffix = capitalize(fieldName);
+            MethodHandle getter = null;
+            MethodHandle setter = null;
+            try {
+                Method getterMethod = type.getMethod("get" + suffix);
+                getter = lookup.unreflect(getterMethod).asType(GETTER_TYPE);
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                log.debug("类 {} 的字段 {} 没有可访问的getter方法，跳过处理", type.getSimpleName(), fieldName);
+                return new UrlFieldAccessor(null, null);
+            }
+            try {
+                Method setterMethod = type.getMethod("set" + suffix, String.class);
+                setter = lookup.unreflect(setterMethod).asType(SETTER_TYPE);
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                log.debug("类 {} 的字段 {} 没有可访问的setter方法", type.getSimpleName(), fieldName);
+            }
+            return new UrlFieldAccessor(getter, setter);
+        }
+    }
 }
@@ -0,0 +1,163 @@
+package com.travel.util;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 请求级SQL语句计数器（N+1查询检测）
+ *
+ * 在请求线程中统计执行的Mapper语句（见 QueryProfilerFilter、QueryProfilerInterceptor）：
+ * - 同一语句以不同参数执行多次，判定为疑似N+1查询（如循环中按ID逐条查询）
+ * - 同一语句以相同参数执行多次，判定为重复查询
+ * - 请求执行的语句总数超过上限
+ *
+ * 严格模式下超过阈值立即抛出 {@link QueryLimitExceededException}，用于测试和压测中发现问题；
+ * 只统计请求线程中执行的语句，线程池中执行的查询不计入。
+ *
+ * @author travel-platform
+ */
+public class QueryProfiler {
+
+    private static final ThreadLocal<Profile> CURRENT = new ThreadLocal<>();
+
+    private QueryProfiler() {
+    }
+
+    /**
+     * 开始统计当前线程
+     *
+     * @param repeatThreshold 同一语句执行次数阈值
+     * @param maxStatements 语句总数上限
+     * @param strict 超过阈值时是否抛出异常
+     */
+    public static void start(int repeatThreshold, int maxStatements, boolean strict) {
+        CURRENT.set(new Profile(repeatThreshold, maxStatements, strict));
+    }
+
+    /**
+     * 结束统计当前线程
+     *
+     * @return 统计结果，未开始统计时返回null
+     */
+    public static Profile stop() {
+        Profile profile = CURRENT.get();
+        CURRENT.remove();
+        return profile;
+    }
+
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * 记录一次语句执行（未开始统计时忽略）
+     *
+     * @param statementId Mapper语句ID
+     * @param parameter 语句参数
+     */
+    public static void record(String statementId, Object parameter) {
+        Profile profile = CURRENT.get();
+        if (profile != null) {
+            profile.record(statementId, parameter);
+        }
+    }
+
+    /**
+     * 单个请求的统计结果
+     */
+    public static class Profile {
+        private final int repeatThreshold;
+        private final int maxStatements;
+        private final boolean strict;
+        private final Map<String, StatementCount> statements = new LinkedHashMap<>();
+        private int total;
+
+        private Profile(int repeatThreshold, int maxStatements, boolean strict) {
+            this.repeatThreshold = repeatThreshold;
+            this.maxStatements = maxStatements;
+            this.strict = strict;
+        }
+
+        private void record(String statementId, Object parameter) {
+            total++;
+            StatementCount count = statements.computeIfAbsent(statementId, key -> new StatementCount());
+            count.count++;
+            count.parameterHashes.add(Objects.hashCode(parameter));
+            if (strict) {
+                if (count.count == repeatThreshold + 1) {
+                    throw new QueryLimitExceededException("同一请求中语句 " + statementId + " 执行超过" + repeatThreshold
+                            + "次（" + (count.isNPlusOne() ? "疑似N+1查询" : "重复查询") + "）");
+                }
+                if (total == maxStatements + 1) {
+                    throw new QueryLimitExceededException("同一请求执行的语句超过" + maxStatements + "条");
+                }
+            }
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        /**
+         * 是否存在需要关注的问题
+         */
+        public boolean hasViolations() {
+            return !getViolations().isEmpty();
+        }
+
+        /**
+         * 问题说明（如 "ArticleTagRelationMapper.selectByArticleId 执行20次，参数20种（疑似N+1查询）"）
+         */
+        public List<String> getViolations() {
+            List<String> violations = new ArrayList<>();
+            if (total > maxStatements) {
+                violations.add("语句总数" + total + "条，超过" + maxStatements + "条");
+            }
+            for (Map.Entry<String, StatementCount> entry : statements.entrySet()) {
+                StatementCount count = entry.getValue();
+                if (count.count > repeatThreshold) {
+                    violations.add(entry.getKey() + " 执行" + count.count + "次，参数" + count.parameterHashes.size() + "种（"
+                            + (count.isNPlusOne() ? "疑似N+1查询" : "重复查询") + "）");
+                }
+            }
+            return violations;
+        }
+
+        /**
+         * 各语句执行次数（按首次执行顺序）
+         */
+        public Map<String, Integer> getStatementCounts() {
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            statements.forEach((statementId, count) -> counts.put(statementId, count.count));
+            return counts;
+        }
+    }
+
+    private static class StatementCount {
+        private int count;
+        private final Set<Integer> parameterHashes = new HashSet<>();
+
+        /**
+         * 参数多数不同时判定为N+1（否则为相同参数的重复查询）
+         */
+        private boolean isNPlusOne() {
+            return parameterHashes.size() * 2 > count;
+        }
+    }
+
+    /**
+     * 请求执行的语句超过阈值（严格模式）
+     */
+    public static class QueryLimitExceededException extends IllegalStateException {
+        private static final long serialVersionUID = 1L;
+
+        public QueryLimitExceededException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.travel.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * 无锁有界环形缓冲区（多生产者、单消费者）
+ *
+ * 生产者通过CAS占用写入位置，缓冲区满时 {@link #offer} 直接返回false（调用方丢弃数据），不会阻塞；
+ * 消费者单线程调用 {@link #drain} 批量取出数据。
+ *
+ * @author travel-platform
+ */
+public class RingBuffer<T> {
+
+    private final AtomicReferenceArray<T> slots;
+    private final int mask;
+
+    /**
+     * 下一个写入位置（生产者CAS递增）
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * 下一个读取位置（只由消费者修改）
+     */
+    private volatile long head;
+
+    /**
+     * @param capacity 容量（向上取整为2的幂）
+     */
+    public RingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * 写入数据（线程安全，不阻塞）
+     *
+     * @return 缓冲区已满时返回false
+     */
+    public boolean offer(T element) {
+        while (true) {
+            long position = tail.get();
+            if (position - head >= slots.length()) {
+                return false;
+            }
+            if (tail.compareAndSet(position, position + 1)) {
+                slots.lazySet((int) (position & mask), element);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 取出当前所有已写入的数据（只能由单个线程调用）
+     *
+     * @param consumer 数据处理
+     * @return 取出的数量
+     */
+    public int drain(Consumer<T> consumer) {
+        long position = head;
+        long end = tail.get();
+        int count = 0;
+        while (position < end) {
+            int index = (int) (position & mask);
+            T element = slots.get(index);
+            if (element == null) {
+                // 生产者已占用位置但尚未写入，下次再取
+                break;
+            }
+            slots.lazySet(index, null);
+            position++;
+            head = position;
+            consumer.accept(element);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * 当前数据量（近似值）
+     */
+    public int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+}
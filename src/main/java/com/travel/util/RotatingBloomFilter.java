@@ -0,0 +1,222 @@
+package com.travel.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按时间窗口轮换的布隆过滤器（用于短时间内的重复访问判断）
+ *
+ * 由多代布隆过滤器组成，新元素写入当前代，任意一代包含即视为重复；
+ * 每隔 window / (generations - 1) 清空最旧的一代并作为新的当前代，因此元素在 window 到 window * generations / (generations - 1) 时间内被记住。
+ *
+ * - 键为 long，不为每次访问分配对象；内存固定为 generations * bitsPerGeneration / 8 字节
+ * - 并发写入无锁（位数组使用CAS），轮换时短暂加锁
+ * - 不会漏判重复（窗口内访问过的一定被判为重复），可能把未访问过的误判为重复，误判率见 {@link #getFalsePositiveProbability()}
+ *
+ * @author travel-platform
+ */
+public class RotatingBloomFilter {
+
+    private final int generations;
+    private final long rotateIntervalMillis;
+    private final int hashCount;
+    private final long bitsPerGeneration;
+    private final AtomicLongArray[] bits;
+
+    /**
+     * 当前代的下标
+     */
+    private volatile int current;
+
+    /**
+     * 下次轮换时间
+     */
+    private volatile long nextRotateTime;
+
+    private final LongAdder checkCount = new LongAdder();
+    private final LongAdder duplicateCount = new LongAdder();
+    private final LongAdder rotateCount = new LongAdder();
+
+    /**
+     * @param expectedInsertions 一个时间窗口内预计写入的元素数
+     * @param falsePositiveProbability 目标误判率（如 0.001）
+     * @param windowMillis 时间窗口（毫秒）
+     * @param generations 代数（至少2，越大过期时间越精确，内存越多）
+     */
+    public RotatingBloomFilter(long expectedInsertions, double falsePositiveProbability, long windowMillis, int generations) {
+        if (expectedInsertions <= 0 || falsePositiveProbability <= 0 || falsePositiveProbability >= 1
+                || windowMillis <= 0 || generations < 2) {
+            throw new IllegalArgumentException("布隆过滤器参数无效");
+        }
+        this.generations = generations;
+        this.rotateIntervalMillis = Math.max(1, windowMillis / (generations - 1));
+        // 每代只承载 1 / (generations - 1) 个窗口的元素
+        long insertionsPerGeneration = Math.max(1, expectedInsertions / (generations - 1));
+        long bitCount = (long) Math.ceil(-insertionsPerGeneration * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (bitCount + 63) >>> 6));
+        this.bitsPerGeneration = (long) words << 6;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitsPerGeneration / insertionsPerGeneration * Math.log(2)));
+        this.bits = new AtomicLongArray[generations];
+        for (int i = 0; i < generations; i++) {
+            bits[i] = new AtomicLongArray(words);
+        }
+        this.nextRotateTime = System.currentTimeMillis() + rotateIntervalMillis;
+    }
+
+    /**
+     * 组合两个ID为一个键（如 用户ID + 文章ID）
+     */
+    public static long key(long first, long second) {
+        return first * 0x9E3779B97F4A7C15L + second;
+    }
+
+    /**
+     * 判断是否在时间窗口内出现过，未出现过则记录
+     *
+     * @return 首次出现返回true，重复（或误判）返回false
+     */
+    public boolean add(long key) {
+        rotateIfNeeded();
+        checkCount.increment();
+        long hash1 = mix(key);
+        long hash2 = mix(hash1) | 1;
+
+        int currentIndex = current;
+        for (int i = 0; i < generations; i++) {
+            if (i != currentIndex && contains(bits[i], hash1, hash2)) {
+                duplicateCount.increment();
+                return false;
+            }
+        }
+        boolean changed = false;
+        AtomicLongArray array = bits[currentIndex];
+        for (int i = 0; i < hashCount; i++) {
+            long bitIndex = Math.floorMod(hash1 + i * hash2, bitsPerGeneration);
+            changed |= setBit(array, bitIndex);
+        }
+        if (!changed) {
+            duplicateCount.increment();
+        }
+        return changed;
+    }
+
+    /**
+     * 清空所有记录
+     */
+    public synchronized void clear() {
+        for (AtomicLongArray array : bits) {
+            clear(array);
+        }
+    }
+
+    /**
+     * 当前误判率：按各代实际置位比例精确计算一个新元素被误判为重复的概率
+     * 单代误判率为 (置位比例)^哈希次数，任意一代误判即误判
+     */
+    public double getFalsePositiveProbability() {
+        double notFalsePositive = 1.0;
+        for (AtomicLongArray array : bits) {
+            notFalsePositive *= 1.0 - Math.pow(fillRatio(array), hashCount);
+        }
+        return 1.0 - notFalsePositive;
+    }
+
+    /**
+     * 占用内存（字节）
+     */
+    public long getMemoryBytes() {
+        return generations * bitsPerGeneration / 8;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    public long getCheckCount() {
+        return checkCount.sum();
+    }
+
+    public long getDuplicateCount() {
+        return duplicateCount.sum();
+    }
+
+    public long getRotateCount() {
+        return rotateCount.sum();
+    }
+
+    private void rotateIfNeeded() {
+        long now = System.currentTimeMillis();
+        if (now < nextRotateTime) {
+            return;
+        }
+        synchronized (this) {
+            if (now < nextRotateTime) {
+                return;
+            }
+            // 长时间没有访问时可能需要轮换多次，最多清空所有代
+            long elapsed = (now - nextRotateTime) / rotateIntervalMillis + 1;
+            int steps = (int) Math.min(elapsed, generations);
+            int index = current;
+            for (int i = 0; i < steps; i++) {
+                index = (index + 1) % generations;
+                clear(bits[index]);
+            }
+            current = index;
+            nextRotateTime += elapsed * rotateIntervalMillis;
+            rotateCount.add(steps);
+        }
+    }
+
+    private boolean contains(AtomicLongArray array, long hash1, long hash2) {
+        for (int i = 0; i < hashCount; i++) {
+            long bitIndex = Math.floorMod(hash1 + i * hash2, bitsPerGeneration);
+            if ((array.get((int) (bitIndex >>> 6)) & (1L << bitIndex)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 置位，原来未置位时返回true
+     */
+    private static boolean setBit(AtomicLongArray array, long bitIndex) {
+        int wordIndex = (int) (bitIndex >>> 6);
+        long mask = 1L << bitIndex;
+        while (true) {
+            long word = array.get(wordIndex);
+            if ((word & mask) != 0) {
+                return false;
+            }
+            if (array.compareAndSet(wordIndex, word, word | mask)) {
+                return true;
+            }
+        }
+    }
+
+    private static void clear(AtomicLongArray array) {
+        for (int i = 0; i < array.length(); i++) {
+            array.set(i, 0L);
+        }
+    }
+
+    private static double fillRatio(AtomicLongArray array) {
+        long setBits = 0;
+        for (int i = 0; i < array.length(); i++) {
+            setBits += Long.bitCount(array.get(i));
+        }
+        return (double) setBits / ((long) array.length() << 6);
+    }
+
+    /**
+     * MurmurHash3 finalizer，把键的各比特均匀分散
+     */
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+}
@@ -0,0 +1,14 @@
+-- 数据库迁移脚本：同步配置租约字段
+-- 说明：同步任务执行前以条件UPDATE获取同步配置的租约，执行期间定时续约，
+--      多个节点同时触发定时同步时同一配置只有一个节点执行（见 SyncJobService）
+
+USE `travel`;
+
+-- 注意：执行前请确认当前数据库中尚未存在以下列
+ALTER TABLE `sync_config`
+ADD COLUMN `lease_owner` VARCHAR(150) COMMENT '同步租约持有者（节点ID/任务ID）' AFTER `last_modified`,
+ADD COLUMN `lease_until` DATETIME COMMENT '同步租约到期时间' AFTER `lease_owner`;
+
+-- 同步日志状态增加 RUNNING（执行中）、CANCELLED（已取消）
+ALTER TABLE `sync_log`
+MODIFY COLUMN `status` VARCHAR(20) NOT NULL COMMENT '状态：RUNNING-执行中，SUCCESS-成功，FAILED-失败，CANCELLED-已取消';
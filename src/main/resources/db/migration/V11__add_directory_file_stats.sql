@@ -0,0 +1,21 @@
+-- 数据库迁移脚本：目录文件统计字段
+-- 说明：每个目录记录直属文件（file_record.module = 目录路径）的数量和总大小，
+--      文件记录新增、删除、压缩后更新大小时在同一事务中维护（见 FileRecordServiceImpl），
+--      目录树（含子目录合计）直接由目录缓存计算，不再扫描文件记录表（见 DirectoryTreeCache）
+
+USE `travel`;
+
+-- 注意：执行前请确认当前数据库中尚未存在以下列
+ALTER TABLE `directory`
+ADD COLUMN `file_count` INT NOT NULL DEFAULT 0 COMMENT '直属文件数量' AFTER `sort`,
+ADD COLUMN `file_size` BIGINT NOT NULL DEFAULT 0 COMMENT '直属文件总大小（字节）' AFTER `file_count`;
+
+-- 按现有文件记录初始化统计
+UPDATE `directory` d
+INNER JOIN (
+    SELECT `module`, COUNT(*) AS `file_count`, COALESCE(SUM(`file_size`), 0) AS `file_size`
+    FROM `file_record`
+    GROUP BY `module`
+) f ON f.`module` = d.`path`
+SET d.`file_count` = f.`file_count`,
+    d.`file_size` = f.`file_size`;
@@ -0,0 +1,24 @@
+-- 数据库迁移脚本：文件统计汇总表
+-- 说明：按存储类型和文件类型汇总文件数量和大小，文件记录新增、删除、更新大小时在同一事务中累加，
+--      定时与文件记录表核对校正（见 FileStatisticsService）；文件管理统计只读取此表，不再扫描文件记录表。
+--      按目录的统计见 directory.file_count / file_size（V11）
+
+USE `travel`;
+
+CREATE TABLE IF NOT EXISTS `file_stats` (
+  `storage_type` VARCHAR(20) NOT NULL COMMENT '存储类型（OSS/LOCAL）',
+  `file_type` VARCHAR(50) NOT NULL COMMENT '文件类型（image/video）',
+  `file_count` BIGINT NOT NULL DEFAULT 0 COMMENT '文件数量',
+  `file_size` BIGINT NOT NULL DEFAULT 0 COMMENT '文件总大小（字节）',
+  `updated_at` DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`storage_type`, `file_type`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='文件统计汇总表';
+
+-- 按现有文件记录初始化汇总
+INSERT INTO `file_stats` (`storage_type`, `file_type`, `file_count`, `file_size`)
+SELECT `storage_type`, `file_type`, COUNT(*), COALESCE(SUM(`file_size`), 0)
+FROM `file_record`
+GROUP BY `storage_type`, `file_type`
+ON DUPLICATE KEY UPDATE
+  `file_count` = VALUES(`file_count`),
+  `file_size` = VALUES(`file_size`);
@@ -0,0 +1,8 @@
+-- 数据库迁移脚本：为file_record表添加多宽度副本字段
+-- 说明：图片上传时按 travel.file.webp.variant-widths 生成多宽度WebP副本，记录已生成的副本宽度
+
+USE `travel`;
+
+-- 注意：执行前请确认当前数据库中尚未存在 variant_widths 列
+ALTER TABLE `file_record`
+ADD COLUMN `variant_widths` VARCHAR(100) COMMENT '多宽度副本宽度列表（逗号分隔，如 240,480）' AFTER `file_extension`;
@@ -0,0 +1,9 @@
+-- 数据库迁移脚本：为file_record表添加内容哈希字段
+-- 说明：上传时计算原始文件的SHA-256，内容相同的文件复用已上传的OSS对象，删除时按引用数量决定是否删除OSS对象
+
+USE `travel`;
+
+-- 注意：执行前请确认当前数据库中尚未存在 content_hash 列
+ALTER TABLE `file_record`
+ADD COLUMN `content_hash` CHAR(64) COMMENT '原始文件内容SHA-256（十六进制）' AFTER `variant_widths`,
+ADD INDEX `idx_content_hash` (`content_hash`);
@@ -0,0 +1,25 @@
+-- 数据库迁移脚本：创建统计汇总表
+-- 说明：仪表盘和小程序统计按天读取汇总数据，当天数据实时查询订单表
+--      汇总数据由订单变更事件、每日定时任务和管理端重建接口维护（见 StatisticsRollupService）
+
+USE `travel`;
+
+-- 每日统计汇总表
+CREATE TABLE IF NOT EXISTS `stats_daily` (
+  `stat_date` DATE PRIMARY KEY COMMENT '统计日期（按订单/用户创建时间）',
+  `order_count` BIGINT NOT NULL DEFAULT 0 COMMENT '订单数',
+  `paid_order_count` BIGINT NOT NULL DEFAULT 0 COMMENT '已支付订单数（PAID/USED/COMPLETED）',
+  `order_amount` DECIMAL(14,2) NOT NULL DEFAULT 0 COMMENT '订单总金额',
+  `paid_amount` DECIMAL(14,2) NOT NULL DEFAULT 0 COMMENT '已支付订单实付金额',
+  `active_users` BIGINT NOT NULL DEFAULT 0 COMMENT '当天下单用户数',
+  `new_users` BIGINT NOT NULL DEFAULT 0 COMMENT '当天新增用户数',
+  `updated_at` DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '汇总时间'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='每日统计汇总表';
+
+-- 每日下单用户表（跨天去重统计活跃用户数）
+CREATE TABLE IF NOT EXISTS `stats_user_activity_daily` (
+  `stat_date` DATE NOT NULL COMMENT '统计日期',
+  `user_id` BIGINT NOT NULL COMMENT '用户ID',
+  `order_count` INT NOT NULL DEFAULT 0 COMMENT '当天订单数',
+  PRIMARY KEY (`stat_date`, `user_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='每日下单用户表';
@@ -0,0 +1,23 @@
+-- 数据库迁移脚本：创建访问统计表
+-- 说明：小程序接口访问事件在内存中按分钟聚合后批量写入（见 AccessLogService），
+--      UV 使用 HyperLogLog 估算，每日估算器数据保存在 stats_access_daily.uv_sketch，用于合并任意日期范围的UV
+
+USE `travel`;
+
+-- 每分钟访问统计表（按页面）
+CREATE TABLE IF NOT EXISTS `stats_access_minute` (
+  `stat_minute` DATETIME NOT NULL COMMENT '统计分钟',
+  `page` VARCHAR(128) NOT NULL COMMENT '页面（接口路径模板）',
+  `pv` BIGINT NOT NULL DEFAULT 0 COMMENT '访问次数',
+  `uv` BIGINT NOT NULL DEFAULT 0 COMMENT '访客数（估算）',
+  PRIMARY KEY (`stat_minute`, `page`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='每分钟访问统计表';
+
+-- 每日访问统计表
+CREATE TABLE IF NOT EXISTS `stats_access_daily` (
+  `stat_date` DATE PRIMARY KEY COMMENT '统计日期',
+  `pv` BIGINT NOT NULL DEFAULT 0 COMMENT '访问次数',
+  `uv` BIGINT NOT NULL DEFAULT 0 COMMENT '访客数（估算）',
+  `uv_sketch` VARBINARY(4096) DEFAULT NULL COMMENT 'UV估算器数据（HyperLogLog寄存器）',
+  `updated_at` DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='每日访问统计表';
@@ -0,0 +1,18 @@
+-- 数据库迁移脚本：增量同步字段
+-- 说明：定时同步使用条件请求（If-None-Match / If-Modified-Since）和“更新时间起点”参数只拉取变化的数据，
+--      景点、酒店保存上次同步的外部记录内容指纹，内容未变化的记录不再比较和写入（见 SyncFeedReader、SyncUpsertEngine）
+
+USE `travel`;
+
+-- 注意：执行前请确认当前数据库中尚未存在以下列
+ALTER TABLE `sync_config`
+ADD COLUMN `delta_param` VARCHAR(50) COMMENT '增量同步参数名（如 updatedSince），为空时不按更新时间拉取' AFTER `last_sync_time`,
+ADD COLUMN `sync_cursor` VARCHAR(50) COMMENT '增量同步起点（上次成功同步的开始时间）' AFTER `delta_param`,
+ADD COLUMN `etag` VARCHAR(200) COMMENT '上次成功同步的响应ETag' AFTER `sync_cursor`,
+ADD COLUMN `last_modified` VARCHAR(100) COMMENT '上次成功同步的响应Last-Modified' AFTER `etag`;
+
+ALTER TABLE `attraction`
+ADD COLUMN `sync_fingerprint` CHAR(32) COMMENT '同步指纹（外部记录内容MD5）' AFTER `sync_time`;
+
+ALTER TABLE `hotel`
+ADD COLUMN `sync_fingerprint` CHAR(32) COMMENT '同步指纹（外部记录内容MD5）' AFTER `sync_time`;